@@ -0,0 +1,168 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.microbenchmark;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.issue.internal.DefaultIssue;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.batch.issue.tracking.IssueTracking;
+import org.sonar.batch.issue.tracking.ServerIssue;
+import org.sonar.batch.issue.tracking.ServerIssueFromDb;
+import org.sonar.batch.issue.tracking.ServerLineHashesLoader;
+import org.sonar.batch.issue.tracking.SourceHashHolder;
+import org.sonar.core.issue.db.IssueDto;
+import org.sonar.core.source.LineHashes;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracking of issues on a file whose code has been shifted since previous analysis.
+ * <ul>
+ *   <li>"shifted": lines are all different, some lines are inserted at the beginning of the file and some lines are modified</li>
+ *   <li>"generated": same as "shifted" but the file repeats the same block of lines, as generated code often does,
+ *   so that issues can't be matched on unique blocks of code</li>
+ * </ul>
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+public class IssueTrackingBenchmark {
+
+  private static final RuleKey RULE_KEY = RuleKey.of("squid", "S00001");
+  private static final int INSERTED_LINES = 20;
+
+  @Param({"1000", "10000", "100000"})
+  public int linesNumber;
+
+  /**
+   * Number of lines between two issues
+   */
+  @Param({"2", "20"})
+  public int issueInterval;
+
+  @Param({"shifted", "generated"})
+  public String scenario;
+
+  File dir;
+  DefaultInputFile inputFile;
+  long[] referenceHashes;
+  List<ServerIssue> referenceIssues;
+
+  @Setup
+  public void setup() throws Exception {
+    dir = Files.createTempDirectory("issue-tracking").toFile();
+    List<String> referenceLines = new ArrayList<>();
+    for (int i = 0; i < linesNumber; i++) {
+      referenceLines.add("generated".equals(scenario) ? ("statement" + (i % 50) + ";") : ("statement" + i + ";"));
+    }
+    List<String> newLines = new ArrayList<>();
+    for (int i = 0; i < INSERTED_LINES; i++) {
+      newLines.add("inserted" + i + ";");
+    }
+    for (int i = 0; i < linesNumber; i++) {
+      newLines.add(i % 100 == 0 ? ("modified" + i + ";") : referenceLines.get(i));
+    }
+
+    File file = new File(dir, "Foo.java");
+    FileUtils.writeLines(file, StandardCharsets.UTF_8.name(), newLines);
+    inputFile = new DefaultInputFile("foo", "Foo.java")
+      .setModuleBaseDir(dir.toPath())
+      .setCharset(StandardCharsets.UTF_8)
+      .setStatus(InputFile.Status.CHANGED)
+      // last line is empty
+      .setLines(newLines.size() + 1);
+
+    referenceHashes = LineHashes.create(linesNumber);
+    referenceIssues = new ArrayList<>();
+    for (int line = 1; line <= linesNumber; line++) {
+      byte[] hash = DigestUtils.md5(referenceLines.get(line - 1));
+      LineHashes.set(referenceHashes, line, hash);
+      if (line % issueInterval == 0) {
+        IssueDto dto = new IssueDto()
+          .setKee("ISSUE" + line)
+          .setRuleKey(RULE_KEY.repository(), RULE_KEY.rule())
+          .setLine(line)
+          .setMessage("message")
+          .setChecksum(DigestUtils.md5Hex(referenceLines.get(line - 1)));
+        referenceIssues.add(new ServerIssueFromDb(dto));
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    FileUtils.deleteQuietly(dir);
+  }
+
+  @Benchmark
+  public Object track() throws Exception {
+    List<DefaultIssue> newIssues = new ArrayList<>();
+    for (int line = INSERTED_LINES + 1; line <= INSERTED_LINES + linesNumber; line++) {
+      if (line % issueInterval == 0) {
+        newIssues.add(new DefaultIssue().setRuleKey(RULE_KEY).setLine(line).setMessage("message"));
+      }
+    }
+    ServerLineHashesLoader loader = new ServerLineHashesLoader() {
+      @Override
+      public long[] getLineHashes(String fileKey) {
+        return referenceHashes;
+      }
+    };
+    return new IssueTracking().track(new SourceHashHolder(inputFile, loader), referenceIssues, newIssues);
+  }
+
+  /**
+   * You can this benchmark with maven command-line (see run.sh) or by executing this method
+   * in IDE
+   */
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+      .include(IssueTrackingBenchmark.class.getSimpleName())
+      .build();
+    new Runner(opt).run();
+  }
+}
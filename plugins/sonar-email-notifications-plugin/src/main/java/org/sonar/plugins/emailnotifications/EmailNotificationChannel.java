@@ -19,6 +19,7 @@
  */
 package org.sonar.plugins.emailnotifications;
 
+import com.google.common.collect.ListMultimap;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.mail.EmailException;
 import org.apache.commons.mail.SimpleEmail;
@@ -33,8 +34,16 @@ import org.sonar.api.utils.log.Loggers;
 import org.sonar.plugins.emailnotifications.api.EmailMessage;
 import org.sonar.plugins.emailnotifications.api.EmailTemplate;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Map;
 
 /**
  * References:
@@ -95,15 +104,105 @@ public class EmailNotificationChannel extends NotificationChannel {
 
   @Override
   public void deliver(Notification notification, String username) {
+    EmailMessage emailMessage = toEmailMessage(notification, username);
+    if (emailMessage != null) {
+      deliver(emailMessage);
+    }
+  }
+
+  /**
+   * Sends all the emails through a single SMTP connection. A failure on an email does not prevent
+   * the next ones from being sent. The connection is opened again if it has been closed by the failure.
+   */
+  @Override
+  public void deliverAll(ListMultimap<String, Notification> notificationsByUserLogin) {
+    if (StringUtils.isBlank(configuration.getSmtpHost())) {
+      LOG.debug("SMTP host was not configured - email will not be sent");
+      return;
+    }
+    ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+    Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+    Transport transport = null;
+    try {
+      Session session = createSession();
+      for (Map.Entry<String, Notification> entry : notificationsByUserLogin.entries()) {
+        EmailMessage emailMessage;
+        try {
+          emailMessage = toEmailMessage(entry.getValue(), entry.getKey());
+        } catch (RuntimeException e) {
+          LOG.error("Unable to format email for user: " + entry.getKey(), e);
+          continue;
+        }
+        if (emailMessage != null) {
+          transport = connectIfNeeded(session, transport);
+          sendThroughTransport(emailMessage, session, transport);
+        }
+      }
+    } catch (EmailException | MessagingException e) {
+      // the SMTP server can not be reached, next emails would fail too
+      LOG.error("Unable to send emails", e);
+    } finally {
+      closeQuietly(transport);
+      Thread.currentThread().setContextClassLoader(classloader);
+    }
+  }
+
+  private static Transport connectIfNeeded(Session session, @Nullable Transport transport) throws MessagingException {
+    if (transport != null && transport.isConnected()) {
+      return transport;
+    }
+    closeQuietly(transport);
+    Transport newTransport = session.getTransport("smtp");
+    newTransport.connect();
+    return newTransport;
+  }
+
+  @CheckForNull
+  private EmailMessage toEmailMessage(Notification notification, String username) {
     User user = userFinder.findByLogin(username);
+    if (user == null) {
+      LOG.debug("User does not exist: " + username);
+      return null;
+    }
     if (StringUtils.isBlank(user.getEmail())) {
       LOG.debug("Email not defined for user: " + username);
-      return;
+      return null;
     }
     EmailMessage emailMessage = format(notification);
     if (emailMessage != null) {
       emailMessage.setTo(user.getEmail());
-      deliver(emailMessage);
+    }
+    return emailMessage;
+  }
+
+  private void sendThroughTransport(EmailMessage emailMessage, Session session, Transport transport) {
+    try {
+      LOG.debug("Sending email: {}", emailMessage);
+      SimpleEmail email = new SimpleEmail();
+      email.setMailSession(session);
+      configureMessage(email, emailMessage);
+      email.buildMimeMessage();
+      Message mimeMessage = email.getMimeMessage();
+      transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+    } catch (EmailException | MessagingException | RuntimeException e) {
+      // the other emails can still be sent, through a new connection if this one has been closed
+      LOG.error("Unable to send email to: " + emailMessage.getTo(), e);
+    }
+  }
+
+  private Session createSession() throws EmailException {
+    SimpleEmail email = new SimpleEmail();
+    configureConnection(email);
+    return email.getMailSession();
+  }
+
+  private static void closeQuietly(@Nullable Transport transport) {
+    if (transport != null) {
+      try {
+        transport.close();
+      } catch (MessagingException e) {
+        LOG.debug("Unable to close SMTP connection", e);
+      }
     }
   }
 
@@ -140,45 +239,9 @@ public class EmailNotificationChannel extends NotificationChannel {
 
     try {
       LOG.debug("Sending email: {}", emailMessage);
-      String host = null;
-      try {
-        host = new URL(configuration.getServerBaseURL()).getHost();
-      } catch (MalformedURLException e) {
-        // ignore
-      }
-
       SimpleEmail email = new SimpleEmail();
-      if (StringUtils.isNotBlank(host)) {
-        /*
-         * Set headers for proper threading: GMail will not group messages, even if they have same subject, but don't have "In-Reply-To" and
-         * "References" headers. TODO investigate threading in other clients like KMail, Thunderbird, Outlook
-         */
-        if (StringUtils.isNotEmpty(emailMessage.getMessageId())) {
-          String messageId = "<" + emailMessage.getMessageId() + "@" + host + ">";
-          email.addHeader(IN_REPLY_TO_HEADER, messageId);
-          email.addHeader(REFERENCES_HEADER, messageId);
-        }
-        // Set headers for proper filtering
-        email.addHeader(LIST_ID_HEADER, "SonarQube <sonar." + host + ">");
-        email.addHeader(LIST_ARCHIVE_HEADER, configuration.getServerBaseURL());
-      }
-      // Set general information
-      email.setCharset("UTF-8");
-      String from = StringUtils.isBlank(emailMessage.getFrom()) ? FROM_NAME_DEFAULT : emailMessage.getFrom() + " (SonarQube)";
-      email.setFrom(configuration.getFrom(), from);
-      email.addTo(emailMessage.getTo(), " ");
-      String subject = StringUtils.defaultIfBlank(StringUtils.trimToEmpty(configuration.getPrefix()) + " ", "")
-        + StringUtils.defaultString(emailMessage.getSubject(), SUBJECT_DEFAULT);
-      email.setSubject(subject);
-      email.setMsg(emailMessage.getMessage());
-      // Send
-      email.setHostName(configuration.getSmtpHost());
-      configureSecureConnection(email);
-      if (StringUtils.isNotBlank(configuration.getSmtpUsername()) || StringUtils.isNotBlank(configuration.getSmtpPassword())) {
-        email.setAuthentication(configuration.getSmtpUsername(), configuration.getSmtpPassword());
-      }
-      email.setSocketConnectionTimeout(SOCKET_TIMEOUT);
-      email.setSocketTimeout(SOCKET_TIMEOUT);
+      configureMessage(email, emailMessage);
+      configureConnection(email);
       email.send();
 
     } finally {
@@ -186,6 +249,49 @@ public class EmailNotificationChannel extends NotificationChannel {
     }
   }
 
+  private void configureMessage(SimpleEmail email, EmailMessage emailMessage) throws EmailException {
+    String host = null;
+    try {
+      host = new URL(configuration.getServerBaseURL()).getHost();
+    } catch (MalformedURLException e) {
+      // ignore
+    }
+
+    if (StringUtils.isNotBlank(host)) {
+      /*
+       * Set headers for proper threading: GMail will not group messages, even if they have same subject, but don't have "In-Reply-To" and
+       * "References" headers. TODO investigate threading in other clients like KMail, Thunderbird, Outlook
+       */
+      if (StringUtils.isNotEmpty(emailMessage.getMessageId())) {
+        String messageId = "<" + emailMessage.getMessageId() + "@" + host + ">";
+        email.addHeader(IN_REPLY_TO_HEADER, messageId);
+        email.addHeader(REFERENCES_HEADER, messageId);
+      }
+      // Set headers for proper filtering
+      email.addHeader(LIST_ID_HEADER, "SonarQube <sonar." + host + ">");
+      email.addHeader(LIST_ARCHIVE_HEADER, configuration.getServerBaseURL());
+    }
+    // Set general information
+    email.setCharset("UTF-8");
+    String from = StringUtils.isBlank(emailMessage.getFrom()) ? FROM_NAME_DEFAULT : emailMessage.getFrom() + " (SonarQube)";
+    email.setFrom(configuration.getFrom(), from);
+    email.addTo(emailMessage.getTo(), " ");
+    String subject = StringUtils.defaultIfBlank(StringUtils.trimToEmpty(configuration.getPrefix()) + " ", "")
+      + StringUtils.defaultString(emailMessage.getSubject(), SUBJECT_DEFAULT);
+    email.setSubject(subject);
+    email.setMsg(emailMessage.getMessage());
+  }
+
+  private void configureConnection(SimpleEmail email) {
+    email.setHostName(configuration.getSmtpHost());
+    configureSecureConnection(email);
+    if (StringUtils.isNotBlank(configuration.getSmtpUsername()) || StringUtils.isNotBlank(configuration.getSmtpPassword())) {
+      email.setAuthentication(configuration.getSmtpUsername(), configuration.getSmtpPassword());
+    }
+    email.setSocketConnectionTimeout(SOCKET_TIMEOUT);
+    email.setSocketTimeout(SOCKET_TIMEOUT);
+  }
+
   private void configureSecureConnection(SimpleEmail email) {
     if (StringUtils.equalsIgnoreCase(configuration.getSecureConnection(), "ssl")) {
       email.setSSLOnConnect(true);
@@ -19,6 +19,8 @@
  */
 package org.sonar.plugins.emailnotifications;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import org.apache.commons.mail.EmailException;
 import org.junit.After;
 import org.junit.Before;
@@ -26,7 +28,11 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.sonar.api.config.EmailSettings;
+import org.sonar.api.database.model.User;
+import org.sonar.api.notifications.Notification;
+import org.sonar.api.security.UserFinder;
 import org.sonar.plugins.emailnotifications.api.EmailMessage;
+import org.sonar.plugins.emailnotifications.api.EmailTemplate;
 import org.subethamail.wiser.Wiser;
 import org.subethamail.wiser.WiserMessage;
 
@@ -34,6 +40,7 @@ import javax.mail.internet.MimeMessage;
 
 import java.io.IOException;
 import java.net.ServerSocket;
+import java.util.ArrayList;
 import java.util.List;
 
 import static junit.framework.Assert.fail;
@@ -187,6 +194,78 @@ public class EmailNotificationChannelTest {
     channel.deliver(emailMessage);
   }
 
+  @Test
+  public void shouldSendAllEmailsThroughSameConnection() throws Exception {
+    configure();
+    EmailTemplate template = mock(EmailTemplate.class);
+    UserFinder userFinder = mock(UserFinder.class);
+    channel = new EmailNotificationChannel(configuration, new EmailTemplate[] {template}, userFinder);
+    Notification first = new Notification("first");
+    Notification second = new Notification("second");
+    when(template.format(first)).thenReturn(new EmailMessage().setSubject("First").setMessage("1"));
+    when(template.format(second)).thenReturn(new EmailMessage().setSubject("Second").setMessage("2"));
+    when(userFinder.findByLogin("simon")).thenReturn(new User().setEmail("simon@nowhere"));
+    when(userFinder.findByLogin("evgeny")).thenReturn(new User().setEmail("evgeny@nowhere"));
+
+    ListMultimap<String, Notification> notifications = ArrayListMultimap.create();
+    notifications.put("simon", first);
+    notifications.put("simon", second);
+    notifications.put("evgeny", second);
+    channel.deliverAll(notifications);
+
+    List<WiserMessage> messages = server.getMessages();
+    assertThat(messages).hasSize(3);
+    List<String> receivedEmails = new ArrayList<>();
+    for (WiserMessage message : messages) {
+      receivedEmails.add(message.getEnvelopeReceiver() + " " + message.getMimeMessage().getHeader("Subject", null));
+    }
+    assertThat(receivedEmails).containsOnly("simon@nowhere [SONARQUBE] First", "simon@nowhere [SONARQUBE] Second", "evgeny@nowhere [SONARQUBE] Second");
+  }
+
+  @Test
+  public void shouldSendNextEmailsWhenOneFails() throws Exception {
+    server.stop();
+    server = new Wiser() {
+      @Override
+      public boolean accept(String from, String recipient) {
+        return !recipient.startsWith("rejected");
+      }
+    };
+    server.setPort(port);
+    server.start();
+    configure();
+    EmailTemplate template = mock(EmailTemplate.class);
+    UserFinder userFinder = mock(UserFinder.class);
+    channel = new EmailNotificationChannel(configuration, new EmailTemplate[] {template}, userFinder);
+    Notification notification = new Notification("first");
+    Notification failing = new Notification("failing");
+    when(template.format(notification)).thenReturn(new EmailMessage().setSubject("First").setMessage("1"));
+    when(template.format(failing)).thenThrow(new IllegalStateException("Fail to format"));
+    when(userFinder.findByLogin("simon")).thenReturn(new User().setEmail("simon@nowhere"));
+    when(userFinder.findByLogin("rejected")).thenReturn(new User().setEmail("rejected@nowhere"));
+    when(userFinder.findByLogin("unknown")).thenReturn(null);
+
+    ListMultimap<String, Notification> notifications = ArrayListMultimap.create();
+    notifications.put("rejected", notification);
+    notifications.put("unknown", notification);
+    notifications.put("simon", failing);
+    notifications.put("simon", notification);
+    channel.deliverAll(notifications);
+
+    List<WiserMessage> messages = server.getMessages();
+    assertThat(messages).hasSize(1);
+    assertThat(messages.get(0).getEnvelopeReceiver()).isEqualTo("simon@nowhere");
+  }
+
+  @Test
+  public void shouldNotSendAllEmailsWhenHostnameNotConfigured() throws Exception {
+    ListMultimap<String, Notification> notifications = ArrayListMultimap.create();
+    notifications.put("simon", new Notification("first"));
+    channel.deliverAll(notifications);
+
+    assertThat(server.getMessages()).isEmpty();
+  }
+
   @Test
   public void shouldSendTestEmailWithSTARTTLS() throws Exception {
     server.getServer().setEnableTLS(true);
@@ -60,6 +60,14 @@ public class ProcessProperties {
   public static final String WEB_JAVA_OPTS = "sonar.web.javaOpts";
   public static final String WEB_JAVA_ADDITIONAL_OPTS = "sonar.web.javaAdditionalOpts";
 
+  /**
+   * When enabled, analysis reports are processed by a dedicated compute engine process
+   * instead of the web server.
+   */
+  public static final String CE_ENABLED = "sonar.ce.enabled";
+  public static final String CE_JAVA_OPTS = "sonar.ce.javaOpts";
+  public static final String CE_JAVA_ADDITIONAL_OPTS = "sonar.ce.javaAdditionalOpts";
+
   /**
    * Used by Orchestrator to ask for shutdown of monitor process
    */
@@ -77,6 +85,8 @@ public class ProcessProperties {
     // jruby is slow with java 8: https://jira.codehaus.org/browse/SONAR-6115
     "-Djruby.compile.invokedynamic=false";
 
+  public static final String CE_ENFORCED_JVM_ARGS = "-Djava.awt.headless=true -Dfile.encoding=UTF-8";
+
   private ProcessProperties() {
     // only static stuff
   }
@@ -114,6 +124,11 @@ public class ProcessProperties {
 
     defaults.put(ProcessProperties.WEB_JAVA_OPTS, "-Xmx768m -XX:MaxPermSize=160m -XX:+HeapDumpOnOutOfMemoryError -Djava.net.preferIPv4Stack=true");
     defaults.put(ProcessProperties.WEB_JAVA_ADDITIONAL_OPTS, "");
+
+    defaults.put(ProcessProperties.CE_ENABLED, "false");
+    defaults.put(ProcessProperties.CE_JAVA_OPTS, "-Xmx512m -XX:MaxPermSize=160m -XX:+HeapDumpOnOutOfMemoryError -Djava.net.preferIPv4Stack=true");
+    defaults.put(ProcessProperties.CE_JAVA_ADDITIONAL_OPTS, "");
+
     defaults.put(ProcessProperties.JDBC_URL, "jdbc:h2:tcp://localhost:9092/sonar");
     defaults.put(ProcessProperties.JDBC_LOGIN, "sonar");
     defaults.put(ProcessProperties.JDBC_PASSWORD, "sonar");
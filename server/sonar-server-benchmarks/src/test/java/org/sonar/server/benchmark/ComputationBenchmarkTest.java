@@ -0,0 +1,266 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.benchmark;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.ArrayUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.issue.Issue;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.platform.ComponentContainer;
+import org.sonar.batch.protocol.Constants;
+import org.sonar.batch.protocol.output.BatchReport;
+import org.sonar.batch.protocol.output.BatchReportReader;
+import org.sonar.batch.protocol.output.BatchReportWriter;
+import org.sonar.core.component.ComponentDto;
+import org.sonar.core.component.SnapshotDto;
+import org.sonar.core.persistence.DbSession;
+import org.sonar.core.rule.RuleDto;
+import org.sonar.server.component.ComponentTesting;
+import org.sonar.server.component.SnapshotTesting;
+import org.sonar.server.computation.ComputationContainer;
+import org.sonar.server.computation.ComputationContext;
+import org.sonar.server.computation.step.ComputationStep;
+import org.sonar.server.computation.step.ComputationSteps;
+import org.sonar.server.db.DbClient;
+import org.sonar.server.properties.ProjectSettingsFactory;
+import org.sonar.server.rule.RuleTesting;
+import org.sonar.server.tester.ServerTester;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Replays a synthetic analysis report against all the steps of the compute engine. Size of report
+ * can be changed with the system properties "benchmark.files", "benchmark.linesPerFile",
+ * "benchmark.issuesPerFile" and "benchmark.measuresPerFile".
+ */
+public class ComputationBenchmarkTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("benchmarkComputation");
+
+  static final int FILES = Integer.getInteger("benchmark.files", 1000);
+  static final int LINES_PER_FILE = Integer.getInteger("benchmark.linesPerFile", 500);
+  static final int ISSUES_PER_FILE = Integer.getInteger("benchmark.issuesPerFile", 20);
+  static final int MEASURES_PER_FILE = Integer.getInteger("benchmark.measuresPerFile", 10);
+
+  private static final String[] METRIC_KEYS = {CoreMetrics.NCLOC_KEY, CoreMetrics.LINES_KEY, CoreMetrics.COMPLEXITY_KEY, CoreMetrics.FUNCTIONS_KEY,
+    CoreMetrics.CLASSES_KEY, CoreMetrics.STATEMENTS_KEY, CoreMetrics.COMMENT_LINES_KEY, CoreMetrics.COVERAGE_KEY, CoreMetrics.LINES_TO_COVER_KEY,
+    CoreMetrics.UNCOVERED_LINES_KEY};
+
+  @Rule
+  public ServerTester tester = new ServerTester();
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Rule
+  public Benchmark benchmark = new Benchmark();
+
+  @Test
+  public void benchmark() throws Exception {
+    DbClient dbClient = tester.get(DbClient.class);
+    RuleDto rule = RuleTesting.newXooX1();
+    ComponentDto project = ComponentTesting.newProjectDto();
+    List<ComponentDto> files = Lists.newArrayList();
+    SnapshotDto projectSnapshot;
+
+    LOGGER.info("Populate db with project and {} files", FILES);
+    DbSession session = dbClient.openSession(false);
+    try {
+      dbClient.ruleDao().insert(session, rule);
+      dbClient.componentDao().insert(session, project);
+      projectSnapshot = SnapshotTesting.createForProject(project).setStatus(SnapshotDto.STATUS_UNPROCESSED).setLast(false);
+      dbClient.snapshotDao().insert(session, projectSnapshot);
+      for (int i = 0; i < FILES; i++) {
+        ComponentDto file = ComponentTesting.newFileDto(project).setPath("src/main/xoo/File" + i + ".xoo");
+        dbClient.componentDao().insert(session, file);
+        files.add(file);
+      }
+      session.commit();
+    } finally {
+      session.close();
+    }
+
+    LOGGER.info("Generate report");
+    File reportDir = temp.newFolder();
+    generateReport(reportDir, project, projectSnapshot, files, rule);
+    LOGGER.info("Report size: {}", FileUtils.byteCountToDisplaySize(FileUtils.sizeOfDirectory(reportDir)));
+
+    ComponentContainer container = tester.get(ComponentContainer.class);
+    ComponentContainer child = container.createChild();
+    child.addSingletons(ComputationContainer.componentClasses());
+    child.addSingletons(ComputationSteps.orderedStepClasses());
+    child.startComponents();
+    try {
+      ComputationContext context = new ComputationContext(new BatchReportReader(reportDir), project);
+      context.setProjectSettings(tester.get(ProjectSettingsFactory.class).newProjectSettings(project.getId()));
+      executeSteps(child.getComponentByType(ComputationSteps.class), context);
+    } finally {
+      child.stopComponents();
+      container.removeChild();
+    }
+  }
+
+  private void executeSteps(ComputationSteps steps, ComputationContext context) {
+    long totalPeriod = 0L;
+    long totalAllocated = 0L;
+    for (ComputationStep step : steps.orderedSteps()) {
+      if (ArrayUtils.contains(step.supportedProjectQualifiers(), context.getProject().qualifier())) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.currentTimeMillis();
+        step.execute(context);
+        long period = System.currentTimeMillis() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        LOGGER.info(String.format("%s: %d ms (%d files/second), %s allocated", step.getDescription(), period, throughput(FILES, period),
+          FileUtils.byteCountToDisplaySize(allocated)));
+        totalPeriod += period;
+        totalAllocated += allocated;
+      }
+    }
+    LOGGER.info(String.format("Report of %d files and %d issues processed in %d ms (%d issues/second), %s allocated", FILES, FILES * ISSUES_PER_FILE,
+      totalPeriod, throughput(FILES * ISSUES_PER_FILE, totalPeriod), FileUtils.byteCountToDisplaySize(totalAllocated)));
+    benchmark.expectBetween("Time to process the report", totalPeriod, 1000L, 120000L);
+  }
+
+  private void generateReport(File dir, ComponentDto project, SnapshotDto projectSnapshot, List<ComponentDto> files, RuleDto rule) {
+    BatchReportWriter writer = new BatchReportWriter(dir);
+    writer.writeMetadata(BatchReport.Metadata.newBuilder()
+      .setRootComponentRef(1)
+      .setProjectKey(project.key())
+      .setAnalysisDate(System.currentTimeMillis())
+      .setSnapshotId(projectSnapshot.getId())
+      .build());
+
+    BatchReport.Component.Builder projectComponent = BatchReport.Component.newBuilder()
+      .setRef(1)
+      .setType(Constants.ComponentType.PROJECT)
+      .setKey(project.key())
+      .setId(project.getId())
+      .setSnapshotId(projectSnapshot.getId())
+      .setUuid(project.uuid());
+    for (int i = 0; i < files.size(); i++) {
+      projectComponent.addChildRef(i + 2);
+    }
+    writer.writeComponent(projectComponent.build());
+    writer.writeComponentMeasures(1, newMeasures());
+
+    for (int i = 0; i < files.size(); i++) {
+      int ref = i + 2;
+      ComponentDto file = files.get(i);
+      writer.writeComponent(BatchReport.Component.newBuilder()
+        .setRef(ref)
+        .setType(Constants.ComponentType.FILE)
+        .setPath(file.path())
+        .setLanguage("xoo")
+        .setLines(LINES_PER_FILE)
+        .setId(file.getId())
+        .setSnapshotId(projectSnapshot.getId())
+        .setUuid(file.uuid())
+        .build());
+      writer.writeComponentMeasures(ref, newMeasures());
+      writer.writeComponentIssues(ref, newIssues(file, rule));
+      writer.writeComponentScm(newScm(ref));
+      writer.writeFileCoverage(ref, newCoverage());
+    }
+  }
+
+  private static List<BatchReport.Measure> newMeasures() {
+    List<BatchReport.Measure> measures = Lists.newArrayList();
+    for (int i = 0; i < MEASURES_PER_FILE; i++) {
+      measures.add(BatchReport.Measure.newBuilder()
+        .setValueType(Constants.MeasureValueType.DOUBLE)
+        .setMetricKey(METRIC_KEYS[i % METRIC_KEYS.length])
+        .setDoubleValue(i)
+        .build());
+    }
+    return measures;
+  }
+
+  private static List<BatchReport.Issue> newIssues(ComponentDto file, RuleDto rule) {
+    List<BatchReport.Issue> issues = Lists.newArrayList();
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < ISSUES_PER_FILE; i++) {
+      issues.add(BatchReport.Issue.newBuilder()
+        .setUuid(file.uuid() + "_" + i)
+        .setRuleRepository(rule.getRepositoryKey())
+        .setRuleKey(rule.getRuleKey())
+        .setLine(1 + (i * LINES_PER_FILE / ISSUES_PER_FILE))
+        .setMsg("Issue " + i)
+        .setSeverity(Constants.Severity.MAJOR)
+        .setStatus(Issue.STATUS_OPEN)
+        .setChecksum("checksum" + i)
+        .setIsNew(true)
+        .setIsChanged(true)
+        .setCreationDate(now)
+        .setUpdateDate(now)
+        .build());
+    }
+    return issues;
+  }
+
+  private static BatchReport.Scm newScm(int ref) {
+    BatchReport.Scm.Builder scm = BatchReport.Scm.newBuilder()
+      .setComponentRef(ref)
+      .addChangeset(BatchReport.Scm.Changeset.newBuilder().setRevision("rev1").setAuthor("a_guy").setDate(1_500_000_000_000L))
+      .addChangeset(BatchReport.Scm.Changeset.newBuilder().setRevision("rev2").setAuthor("another_guy").setDate(1_500_000_100_000L));
+    for (int line = 0; line < LINES_PER_FILE; line++) {
+      scm.addChangesetIndexByLine(line % 2);
+    }
+    return scm.build();
+  }
+
+  private static List<BatchReport.Coverage> newCoverage() {
+    List<BatchReport.Coverage> coverage = Lists.newArrayList();
+    for (int line = 1; line <= LINES_PER_FILE; line += 2) {
+      coverage.add(BatchReport.Coverage.newBuilder()
+        .setLine(line)
+        .setConditions(2)
+        .setUtHits(true)
+        .setItHits(line % 4 == 1)
+        .setUtCoveredConditions(1)
+        .setItCoveredConditions(1)
+        .setOverallCoveredConditions(2)
+        .build());
+    }
+    return coverage;
+  }
+
+  private static long throughput(long count, long periodMs) {
+    return periodMs == 0L ? count * 1000L : 1000L * count / periodMs;
+  }
+
+  /**
+   * Bytes allocated so far by the current thread, or 0 if the JVM does not support it
+   */
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0L;
+  }
+}
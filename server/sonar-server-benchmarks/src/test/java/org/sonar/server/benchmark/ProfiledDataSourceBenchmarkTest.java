@@ -0,0 +1,111 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.benchmark;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.dbutils.DbUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.core.persistence.profiling.ProfiledDataSource;
+import org.sonar.core.persistence.profiling.SqlStatistics;
+
+import javax.sql.DataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Cost per execution of a prepared statement when the SQL requests are profiled by {@link ProfiledDataSource}
+ */
+public class ProfiledDataSourceBenchmarkTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("benchmarkProfiledDataSource");
+  private static final int EXECUTIONS = 500000;
+  private static final String SQL = "SELECT p.id, p.kee, p.name, p.long_name, p.description, p.qualifier, p.scope, p.enabled " +
+    "FROM projects p WHERE p.kee=? AND p.enabled=? AND p.scope IN ('PRJ', 'DIR', 'FIL')";
+
+  @Rule
+  public Benchmark benchmark = new Benchmark();
+
+  BasicDataSource dataSource;
+
+  @Before
+  public void setUp() throws SQLException {
+    dataSource = new BasicDataSource();
+    dataSource.setDriverClassName("org.h2.Driver");
+    dataSource.setUrl("jdbc:h2:mem:profiledDataSourceBenchmark");
+    Connection connection = dataSource.getConnection();
+    Statement statement = connection.createStatement();
+    statement.execute("CREATE TABLE projects (id INTEGER, kee VARCHAR(400), name VARCHAR(256), long_name VARCHAR(256), " +
+      "description VARCHAR(2000), qualifier VARCHAR(10), scope VARCHAR(3), enabled BOOLEAN)");
+    statement.execute("INSERT INTO projects VALUES (1, 'struts', 'Struts', 'Apache Struts', 'The framework', 'TRK', 'PRJ', true)");
+    DbUtils.closeQuietly(statement);
+    DbUtils.closeQuietly(connection);
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    dataSource.close();
+  }
+
+  @Test
+  public void benchmark() throws Exception {
+    // warm-up
+    execute(dataSource, EXECUTIONS);
+    execute(new ProfiledDataSource(dataSource, new SqlStatistics(SqlStatistics.DEFAULT_SLOW_THRESHOLD_MS)), EXECUTIONS);
+
+    long rawNanos = execute(dataSource, EXECUTIONS);
+    long profiledNanos = execute(new ProfiledDataSource(dataSource, new SqlStatistics(SqlStatistics.DEFAULT_SLOW_THRESHOLD_MS)), EXECUTIONS);
+
+    long overheadNanos = (profiledNanos - rawNanos) / EXECUTIONS;
+    LOGGER.info(String.format("%d executions of prepared statement: %d ns/execution without profiling, %d ns/execution with profiling (overhead of %d ns)",
+      EXECUTIONS, rawNanos / EXECUTIONS, profiledNanos / EXECUTIONS, overheadNanos));
+    benchmark.expectBetween("Overhead of profiling per execution of prepared statement (ns)", overheadNanos, 0L, 1500L);
+  }
+
+  /**
+   * @return total duration in nanoseconds
+   */
+  private static long execute(DataSource ds, int executions) throws SQLException {
+    Connection connection = ds.getConnection();
+    PreparedStatement statement = connection.prepareStatement(SQL);
+    try {
+      long start = System.nanoTime();
+      for (int i = 0; i < executions; i++) {
+        statement.setString(1, "struts");
+        statement.setBoolean(2, true);
+        ResultSet rs = statement.executeQuery();
+        rs.next();
+        rs.close();
+      }
+      return System.nanoTime() - start;
+    } finally {
+      DbUtils.closeQuietly(statement);
+      DbUtils.closeQuietly(connection);
+    }
+  }
+}
@@ -23,10 +23,14 @@ import org.sonar.api.ServerComponent;
 import org.sonar.api.utils.KeyValueFormat;
 import org.sonar.api.utils.internal.Uuids;
 import org.sonar.core.activity.db.ActivityDto;
+import org.sonar.core.persistence.DbSession;
+import org.sonar.core.persistence.MyBatis;
 import org.sonar.server.activity.index.ActivityIndexer;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.user.UserSession;
 
+import java.util.Collection;
+
 public class ActivityService implements ServerComponent {
 
   private final DbClient dbClient;
@@ -38,14 +42,36 @@ public class ActivityService implements ServerComponent {
   }
 
   public void save(Activity activity) {
-    ActivityDto dto = new ActivityDto()
+    dbClient.activityDao().insert(toDto(activity));
+    indexer.index();
+  }
+
+  /**
+   * Inserts all the activities in a single batch session, then indexes them at once.
+   */
+  public void save(Collection<Activity> activities) {
+    if (activities.isEmpty()) {
+      return;
+    }
+    DbSession session = dbClient.openSession(true);
+    try {
+      for (Activity activity : activities) {
+        dbClient.activityDao().insert(session, toDto(activity));
+      }
+      session.commit();
+    } finally {
+      MyBatis.closeQuietly(session);
+    }
+    indexer.index();
+  }
+
+  private ActivityDto toDto(Activity activity) {
+    return new ActivityDto()
       .setKey(Uuids.create())
       .setAuthor(UserSession.get().login())
       .setAction(activity.getAction())
       .setMessage(activity.getMessage())
       .setData(KeyValueFormat.format(activity.getData()))
       .setType(activity.getType().name());
-    dbClient.activityDao().insert(dto);
-    indexer.index();
   }
 }
@@ -0,0 +1,139 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.app;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.process.Monitored;
+import org.sonar.process.ProcessEntryPoint;
+import org.sonar.process.ProcessProperties;
+import org.sonar.process.Props;
+import org.sonar.server.computation.ComputationThreadLauncher;
+import org.sonar.server.platform.Platform;
+import org.sonar.server.platform.ServerImpl;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process dedicated to the processing of analysis reports, so that its heap and threads
+ * can be sized independently of the web server. It shares database and Elasticsearch
+ * with the web server, which remains responsible for startup tasks (migrations, registration of
+ * rules, metrics...).
+ * <p/>
+ * Started by sonar-application when property {@link ProcessProperties#CE_ENABLED} is true.
+ */
+public class ComputeEngineServer implements Monitored {
+
+  private static final Logger LOG = Loggers.get(ComputeEngineServer.class);
+
+  private final Platform platform;
+  private final Properties properties;
+  private final long startupRetryDelay;
+  private final TimeUnit startupRetryTimeUnit;
+  private final ScheduledExecutorService startupExecutor = Executors.newSingleThreadScheduledExecutor(
+    new ThreadFactoryBuilder().setNameFormat("ce-startup-%d").build());
+  private final CountDownLatch stopLatch = new CountDownLatch(1);
+  private volatile boolean ready = false;
+
+  ComputeEngineServer(Props props) {
+    this(props, Platform.getInstance(), 10L, TimeUnit.SECONDS);
+  }
+
+  @VisibleForTesting
+  ComputeEngineServer(Props props, Platform platform, long startupRetryDelay, TimeUnit startupRetryTimeUnit) {
+    this.platform = platform;
+    this.startupRetryDelay = startupRetryDelay;
+    this.startupRetryTimeUnit = startupRetryTimeUnit;
+    this.properties = new Properties();
+    this.properties.putAll(props.rawProperties());
+    // files deployed by web server must not be cleaned up
+    File deployDir = new File(props.nonNullValueAsFile(ProcessProperties.PATH_TEMP), "ce/deploy");
+    this.properties.setProperty(ServerImpl.DEPLOY_DIR_PROPERTY, deployDir.getAbsolutePath());
+  }
+
+  @Override
+  public void start() {
+    platform.init(properties);
+    ready = true;
+
+    // database may have to be upgraded through the web server before reports can be processed
+    startupExecutor.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        startPlatform();
+      }
+    }, 0L, startupRetryDelay, startupRetryTimeUnit);
+  }
+
+  private void startPlatform() {
+    try {
+      platform.doStartWithoutStartupTasks();
+      if (platform.isStarted()) {
+        platform.getContainer().getComponentByType(ComputationThreadLauncher.class).scheduleTasks();
+        LOG.info("Compute engine is started");
+        startupExecutor.shutdown();
+      } else {
+        LOG.info("Database is not up-to-date. Compute engine is waiting for upgrade.");
+      }
+    } catch (RuntimeException e) {
+      LOG.error("Fail to start compute engine", e);
+    }
+  }
+
+  @Override
+  public boolean isReady() {
+    return ready;
+  }
+
+  @Override
+  public void stop() {
+    startupExecutor.shutdownNow();
+    platform.doStop();
+    stopLatch.countDown();
+  }
+
+  @Override
+  public void awaitStop() {
+    try {
+      stopLatch.await();
+    } catch (InterruptedException e) {
+      // stop waiting
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Can't be started as is. Needs to be bootstrapped by sonar-application
+   */
+  public static void main(String[] args) throws Exception {
+    ProcessEntryPoint entryPoint = ProcessEntryPoint.createForArguments(args);
+    Props props = entryPoint.getProps();
+    new WebLogging("ce").configure(props);
+    ComputeEngineServer server = new ComputeEngineServer(props);
+    entryPoint.launch(server);
+  }
+}
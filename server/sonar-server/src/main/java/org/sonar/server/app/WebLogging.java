@@ -31,15 +31,26 @@ import org.sonar.process.Props;
 import java.util.logging.LogManager;
 
 /**
- * Configure logback for web server process. Logs must be written to console, which is
+ * Configure logback for web server and compute engine processes. Logs must be written to console, which is
  * forwarded to file logs/sonar.log by the app master process.
  */
 class WebLogging {
 
-  private static final String LOG_FORMAT = "%d{yyyy.MM.dd HH:mm:ss} %-5level web[%logger{20}] %msg%n";
   public static final String LOG_LEVEL_PROPERTY = "sonar.log.level";
 
   private final LogbackHelper helper = new LogbackHelper();
+  private final String logFormat;
+
+  WebLogging() {
+    this("web");
+  }
+
+  /**
+   * @param processKey prefix of log lines, used to distinguish web server and compute engine logs
+   */
+  WebLogging(String processKey) {
+    this.logFormat = "%d{yyyy.MM.dd HH:mm:ss} %-5level " + processKey + "[%logger{20}] %msg%n";
+  }
 
   LoggerContext configure(Props props) {
     LoggerContext ctx = helper.getRootContext();
@@ -56,7 +67,7 @@ class WebLogging {
   }
 
   private void configureAppender(LoggerContext ctx) {
-    ConsoleAppender consoleAppender = helper.newConsoleAppender(ctx, "CONSOLE", LOG_FORMAT);
+    ConsoleAppender consoleAppender = helper.newConsoleAppender(ctx, "CONSOLE", logFormat);
     ctx.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(consoleAppender);
   }
 
@@ -27,6 +27,7 @@ import org.sonar.core.persistence.DbSession;
 import org.sonar.core.persistence.MyBatis;
 import org.sonar.core.purge.IdUuidPair;
 import org.sonar.core.purge.PurgeDao;
+import org.sonar.server.component.index.ComponentIndexer;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.issue.index.IssueAuthorizationIndexer;
 import org.sonar.server.issue.index.IssueIndexer;
@@ -39,14 +40,16 @@ public class ComponentCleanerService implements ServerComponent {
   private final IssueAuthorizationIndexer issueAuthorizationIndexer;
   private final IssueIndexer issueIndexer;
   private final SourceLineIndexer sourceLineIndexer;
+  private final ComponentIndexer componentIndexer;
 
   public ComponentCleanerService(DbClient dbClient, PurgeDao purgeDao, IssueAuthorizationIndexer issueAuthorizationIndexer, IssueIndexer issueIndexer,
-    SourceLineIndexer sourceLineIndexer) {
+    SourceLineIndexer sourceLineIndexer, ComponentIndexer componentIndexer) {
     this.dbClient = dbClient;
     this.purgeDao = purgeDao;
     this.issueAuthorizationIndexer = issueAuthorizationIndexer;
     this.issueIndexer = issueIndexer;
     this.sourceLineIndexer = sourceLineIndexer;
+    this.componentIndexer = componentIndexer;
   }
 
   public void delete(String projectKey) {
@@ -70,6 +73,7 @@ public class ComponentCleanerService implements ServerComponent {
     issueAuthorizationIndexer.deleteProject(projectUuid, false);
     issueIndexer.deleteProject(projectUuid, true);
     sourceLineIndexer.deleteByProject(projectUuid);
+    componentIndexer.deleteByProject(projectUuid);
   }
 
 }
@@ -34,8 +34,8 @@ import org.sonar.core.component.ComponentDto;
 import org.sonar.core.component.ComponentKeys;
 import org.sonar.core.permission.GlobalPermissions;
 import org.sonar.core.persistence.DbSession;
-import org.sonar.core.resource.ResourceIndexerDao;
 import org.sonar.core.resource.ResourceKeyUpdaterDao;
+import org.sonar.server.component.index.ComponentIndexer;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.exceptions.BadRequestException;
 import org.sonar.server.exceptions.NotFoundException;
@@ -55,15 +55,15 @@ public class ComponentService implements ServerComponent {
 
   private final ResourceKeyUpdaterDao resourceKeyUpdaterDao;
   private final I18n i18n;
-  private final ResourceIndexerDao resourceIndexerDao;
+  private final ComponentIndexer componentIndexer;
   private final InternalPermissionService permissionService;
 
-  public ComponentService(DbClient dbClient, ResourceKeyUpdaterDao resourceKeyUpdaterDao, I18n i18n, ResourceIndexerDao resourceIndexerDao,
+  public ComponentService(DbClient dbClient, ResourceKeyUpdaterDao resourceKeyUpdaterDao, I18n i18n, ComponentIndexer componentIndexer,
     InternalPermissionService permissionService) {
     this.dbClient = dbClient;
     this.resourceKeyUpdaterDao = resourceKeyUpdaterDao;
     this.i18n = i18n;
-    this.resourceIndexerDao = resourceIndexerDao;
+    this.componentIndexer = componentIndexer;
     this.permissionService = permissionService;
   }
 
@@ -113,7 +113,7 @@ public class ComponentService implements ServerComponent {
       resourceKeyUpdaterDao.updateKey(projectOrModule.getId(), newKey);
       session.commit();
 
-      session.commit();
+      componentIndexer.index(projectOrModule.projectUuid());
     } finally {
       session.close();
     }
@@ -138,6 +138,8 @@ public class ComponentService implements ServerComponent {
       UserSession.get().checkProjectUuidPermission(UserRole.ADMIN, project.projectUuid());
       resourceKeyUpdaterDao.bulkUpdateKey(session, project.getId(), stringToReplace, replacementString);
       session.commit();
+
+      componentIndexer.index(project.projectUuid());
     } finally {
       session.close();
     }
@@ -171,8 +173,8 @@ public class ComponentService implements ServerComponent {
           .setScope(Scopes.PROJECT)
           .setQualifier(newComponent.qualifier())
           .setCreatedAt(new Date()));
-      resourceIndexerDao.indexResource(session, component.getId());
       session.commit();
+      componentIndexer.index(component.projectUuid());
 
       permissionService.applyDefaultPermissionTemplate(component.key());
       return component.key();
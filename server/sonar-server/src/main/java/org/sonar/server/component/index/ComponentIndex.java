@@ -0,0 +1,109 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.component.index;
+
+import com.google.common.base.Function;
+import org.apache.commons.lang.StringUtils;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.index.query.BoolFilterBuilder;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.FilterBuilders;
+import org.elasticsearch.index.query.MatchQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.sonar.core.util.NonNullInputFunction;
+import org.sonar.server.es.BaseIndex;
+import org.sonar.server.es.EsClient;
+import org.sonar.server.es.SearchOptions;
+import org.sonar.server.es.SearchResult;
+import org.sonar.server.search.IndexField;
+
+import javax.annotation.Nullable;
+
+import java.util.Map;
+
+public class ComponentIndex extends BaseIndex {
+
+  public static final int MINIMUM_SEARCH_CHARACTERS = 2;
+
+  private static final Function<Map<String, Object>, ComponentDoc> DOC_CONVERTER = new NonNullInputFunction<Map<String, Object>, ComponentDoc>() {
+    @Override
+    protected ComponentDoc doApply(Map<String, Object> input) {
+      return new ComponentDoc(input);
+    }
+  };
+
+  public ComponentIndex(EsClient esClient) {
+    super(esClient);
+  }
+
+  /**
+   * Components are sorted by relevance, then by name. Matches on name are more relevant
+   * than matches on key.
+   */
+  public SearchResult<ComponentDoc> search(ComponentIndexQuery query, SearchOptions options) {
+    SearchRequestBuilder requestBuilder = getClient()
+      .prepareSearch(ComponentIndexDefinition.INDEX)
+      .setTypes(ComponentIndexDefinition.TYPE_COMPONENT)
+      .setFrom(options.getOffset())
+      .setSize(options.getLimit())
+      .addSort(SortBuilders.scoreSort())
+      .addSort(ComponentIndexDefinition.FIELD_NAME + "." + IndexField.SORT_SUFFIX, SortOrder.ASC);
+
+    BoolFilterBuilder filter = FilterBuilders.boolFilter();
+    if (!query.getQualifiers().isEmpty()) {
+      filter.must(FilterBuilders.termsFilter(ComponentIndexDefinition.FIELD_QUALIFIER, query.getQualifiers()));
+    }
+    if (!query.getUuids().isEmpty()) {
+      filter.must(FilterBuilders.termsFilter(ComponentIndexDefinition.FIELD_UUID, query.getUuids()));
+    }
+    if (query.getProjectUuids() != null) {
+      filter.must(FilterBuilders.termsFilter(ComponentIndexDefinition.FIELD_PROJECT_UUID, query.getProjectUuids()));
+    }
+    QueryBuilder esQuery = createTextQuery(query.getText());
+    if (filter.hasClauses()) {
+      esQuery = QueryBuilders.filteredQuery(esQuery, filter);
+    }
+    requestBuilder.setQuery(esQuery);
+    return new SearchResult<>(requestBuilder.get(), DOC_CONVERTER);
+  }
+
+  /**
+   * The text is analyzed with the same n-grams than the indexed values. All the n-grams
+   * of the text are required, so that only the values containing the text are returned.
+   */
+  private static QueryBuilder createTextQuery(@Nullable String text) {
+    if (StringUtils.isBlank(text)) {
+      return QueryBuilders.matchAllQuery();
+    }
+    if (text.trim().length() < MINIMUM_SEARCH_CHARACTERS) {
+      throw new IllegalArgumentException(String.format("Minimum search is %s characters", MINIMUM_SEARCH_CHARACTERS));
+    }
+    BoolQueryBuilder query = QueryBuilders.boolQuery().minimumNumberShouldMatch(1);
+    query.should(QueryBuilders.matchQuery(ComponentIndexDefinition.FIELD_NAME + "." + IndexField.SEARCH_SUBSTRING_SUFFIX, text)
+      .operator(MatchQueryBuilder.Operator.AND)
+      .boost(2f));
+    query.should(QueryBuilders.matchQuery(ComponentIndexDefinition.FIELD_KEY + "." + IndexField.SEARCH_SUBSTRING_SUFFIX, text)
+      .operator(MatchQueryBuilder.Operator.AND));
+    return query;
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.component.index;
+
+import com.google.common.collect.ImmutableMap;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.sonar.api.config.Settings;
+import org.sonar.core.persistence.Database;
+import org.sonar.process.ProcessProperties;
+import org.sonar.server.es.DbDocumentCount;
+import org.sonar.server.es.IndexDefinition;
+import org.sonar.server.es.NewIndex;
+
+/**
+ * Definition of ES index "components", including settings and fields. Name and key
+ * of components are indexed with n-grams, so that they can be searched by any part of
+ * their value.
+ */
+public class ComponentIndexDefinition implements IndexDefinition {
+
+  public static final String INDEX = "components";
+
+  public static final String TYPE_COMPONENT = "component";
+
+  public static final String FIELD_UUID = "uuid";
+  public static final String FIELD_PROJECT_UUID = "projectUuid";
+  public static final String FIELD_KEY = "key";
+  public static final String FIELD_NAME = "name";
+  public static final String FIELD_QUALIFIER = "qualifier";
+
+  static final long DOCS_PER_SHARD = 2000000L;
+
+  private final Settings settings;
+  private final Database db;
+
+  public ComponentIndexDefinition(Settings settings, Database db) {
+    this.settings = settings;
+    this.db = db;
+  }
+
+  /**
+   * Used when db is not available, for example in tests. Number of shards is then not
+   * computed from number of components.
+   */
+  public ComponentIndexDefinition(Settings settings) {
+    this.settings = settings;
+    this.db = null;
+  }
+
+  @Override
+  public void define(IndexDefinitionContext context) {
+    NewIndex index = context.create(INDEX);
+
+    // shards
+    boolean clusterMode = settings.getBoolean(ProcessProperties.CLUSTER_ACTIVATE);
+    if (clusterMode) {
+      index.getSettings().put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 1);
+    }
+    index.configureShards(settings, clusterMode ? 4 : 1, DOCS_PER_SHARD,
+      new DbDocumentCount(db, "select count(*) from projects where enabled=? and copy_resource_id is null", true));
+
+    // type "component"
+    NewIndex.NewIndexType mapping = index.createType(TYPE_COMPONENT);
+    mapping.setAttribute("_id", ImmutableMap.of("path", FIELD_UUID));
+    mapping.setAttribute("_routing", ImmutableMap.of("required", true, "path", FIELD_PROJECT_UUID));
+    mapping.stringFieldBuilder(FIELD_UUID).build();
+    mapping.stringFieldBuilder(FIELD_PROJECT_UUID).build();
+    mapping.stringFieldBuilder(FIELD_KEY).enableSubstringSearch().build();
+    mapping.stringFieldBuilder(FIELD_NAME).enableSubstringSearch().enableSorting().build();
+    mapping.stringFieldBuilder(FIELD_QUALIFIER).build();
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.component.index;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+public class ComponentIndexQuery {
+
+  private String text;
+  private final Collection<String> qualifiers = new ArrayList<>();
+  private final Collection<String> uuids = new ArrayList<>();
+  private Collection<String> projectUuids = null;
+
+  /**
+   * Part of the name or of the key of components, case is ignored
+   */
+  @CheckForNull
+  public String getText() {
+    return text;
+  }
+
+  public ComponentIndexQuery setText(@Nullable String text) {
+    this.text = text;
+    return this;
+  }
+
+  public Collection<String> getQualifiers() {
+    return qualifiers;
+  }
+
+  public ComponentIndexQuery setQualifiers(@Nullable Collection<String> qualifiers) {
+    this.qualifiers.clear();
+    if (qualifiers != null) {
+      this.qualifiers.addAll(qualifiers);
+    }
+    return this;
+  }
+
+  /**
+   * Restricts the search to the given components
+   */
+  public Collection<String> getUuids() {
+    return uuids;
+  }
+
+  public ComponentIndexQuery setUuids(@Nullable Collection<String> uuids) {
+    this.uuids.clear();
+    if (uuids != null) {
+      this.uuids.addAll(uuids);
+    }
+    return this;
+  }
+
+  /**
+   * Restricts the search to the components of the given root projects, for example the projects
+   * that the user is allowed to browse. Null means no restriction, whereas an empty collection
+   * matches no components.
+   */
+  @CheckForNull
+  public Collection<String> getProjectUuids() {
+    return projectUuids;
+  }
+
+  public ComponentIndexQuery setProjectUuids(@Nullable Collection<String> projectUuids) {
+    this.projectUuids = projectUuids == null ? null : new ArrayList<>(projectUuids);
+    return this;
+  }
+}
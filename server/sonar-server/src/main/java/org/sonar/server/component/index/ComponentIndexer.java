@@ -0,0 +1,172 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.component.index;
+
+import org.apache.commons.dbutils.DbUtils;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.FilterBuilders;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.sonar.core.persistence.DbSession;
+import org.sonar.server.db.DbClient;
+import org.sonar.server.es.BaseIndexer;
+import org.sonar.server.es.BulkIndexer;
+import org.sonar.server.es.EsClient;
+
+import javax.annotation.Nullable;
+
+import java.sql.Connection;
+import java.util.Iterator;
+import java.util.Set;
+
+import static com.google.common.collect.Sets.newHashSet;
+
+/**
+ * Populates the index {@link ComponentIndexDefinition} from db table PROJECTS.
+ */
+public class ComponentIndexer extends BaseIndexer {
+
+  private static final int SCROLL_TIME_IN_MINUTES = 3;
+
+  private final DbClient dbClient;
+
+  public ComponentIndexer(DbClient dbClient, EsClient esClient) {
+    super(esClient, 300, ComponentIndexDefinition.INDEX, ComponentIndexDefinition.TYPE_COMPONENT, "updatedAt");
+    this.dbClient = dbClient;
+  }
+
+  /**
+   * Index all components if the index is empty (Only used on startup). There's no column
+   * to know when a component has been renamed, so the index is then maintained project per
+   * project by the compute engine, see {@link #index(String)}.
+   */
+  @Override
+  protected long doIndex(long lastUpdatedAt) {
+    long count = esClient.prepareCount(ComponentIndexDefinition.INDEX).setTypes(ComponentIndexDefinition.TYPE_COMPONENT).get().getCount();
+    if (count == 0) {
+      indexAll();
+    }
+    return 0L;
+  }
+
+  /**
+   * Index all the components of db, whatever the documents already indexed.
+   */
+  public void indexAll() {
+    BulkIndexer bulk = new BulkIndexer(esClient, ComponentIndexDefinition.INDEX);
+    bulk.setLarge(true);
+    doIndex(bulk, null, null);
+  }
+
+  /**
+   * Index the components of a project or of a view. Documents are upserted, so only the
+   * components that have been added, renamed or moved are actually written. Documents
+   * of the components that are not enabled anymore are deleted.
+   */
+  public void index(String projectUuid) {
+    Set<String> obsoleteUuids = selectIndexedUuids(projectUuid);
+    doIndex(new BulkIndexer(esClient, ComponentIndexDefinition.INDEX), projectUuid, obsoleteUuids);
+  }
+
+  public void deleteByProject(String projectUuid) {
+    SearchRequestBuilder searchRequest = esClient.prepareSearch(ComponentIndexDefinition.INDEX)
+      .setRouting(projectUuid)
+      .setTypes(ComponentIndexDefinition.TYPE_COMPONENT)
+      .setQuery(QueryBuilders.filteredQuery(
+        QueryBuilders.matchAllQuery(),
+        FilterBuilders.termFilter(ComponentIndexDefinition.FIELD_PROJECT_UUID, projectUuid).cache(false)));
+    BulkIndexer.delete(esClient, ComponentIndexDefinition.INDEX, searchRequest);
+  }
+
+  private void doIndex(BulkIndexer bulk, @Nullable String projectUuid, @Nullable Set<String> obsoleteUuids) {
+    DbSession dbSession = dbClient.openSession(false);
+    Connection dbConnection = dbSession.getConnection();
+    try {
+      ComponentResultSetIterator rowIt = ComponentResultSetIterator.create(dbClient, dbConnection, projectUuid);
+      bulk.start();
+      addComponents(bulk, rowIt, obsoleteUuids);
+      rowIt.close();
+      if (obsoleteUuids != null) {
+        for (String obsoleteUuid : obsoleteUuids) {
+          bulk.add(esClient.prepareDelete(ComponentIndexDefinition.INDEX, ComponentIndexDefinition.TYPE_COMPONENT, obsoleteUuid)
+            .setRouting(projectUuid).request());
+        }
+      }
+      bulk.stop();
+
+    } finally {
+      DbUtils.closeQuietly(dbConnection);
+      dbSession.close();
+    }
+  }
+
+  private void addComponents(BulkIndexer bulk, Iterator<ComponentDoc> components, @Nullable Set<String> obsoleteUuids) {
+    while (components.hasNext()) {
+      ComponentDoc component = components.next();
+      bulk.add(newUpsertRequest(component));
+      if (obsoleteUuids != null) {
+        obsoleteUuids.remove(component.uuid());
+      }
+    }
+  }
+
+  private Set<String> selectIndexedUuids(String projectUuid) {
+    SearchRequestBuilder esSearch = esClient.prepareSearch(ComponentIndexDefinition.INDEX)
+      .setTypes(ComponentIndexDefinition.TYPE_COMPONENT)
+      .setRouting(projectUuid)
+      .setSearchType(SearchType.SCAN)
+      .setScroll(TimeValue.timeValueMinutes(SCROLL_TIME_IN_MINUTES))
+      .setFetchSource(false)
+      .setSize(100)
+      .setQuery(QueryBuilders.filteredQuery(
+        QueryBuilders.matchAllQuery(),
+        FilterBuilders.termFilter(ComponentIndexDefinition.FIELD_PROJECT_UUID, projectUuid).cache(false)));
+
+    SearchResponse response = esSearch.get();
+    Set<String> result = newHashSet();
+    while (true) {
+      response = esClient.prepareSearchScroll(response.getScrollId())
+        .setScroll(TimeValue.timeValueMinutes(SCROLL_TIME_IN_MINUTES))
+        .get();
+      SearchHit[] hits = response.getHits().getHits();
+      for (SearchHit hit : hits) {
+        result.add(hit.getId());
+      }
+      // Break condition: No hits are returned
+      if (hits.length == 0) {
+        break;
+      }
+    }
+    return result;
+  }
+
+  private UpdateRequest newUpsertRequest(ComponentDoc doc) {
+    return new UpdateRequest(ComponentIndexDefinition.INDEX, ComponentIndexDefinition.TYPE_COMPONENT, doc.uuid())
+      .routing(doc.projectUuid())
+      // avoid rewriting the components that have not changed since previous analysis
+      .detectNoop(true)
+      .doc(doc.getFields())
+      .upsert(doc.getFields());
+  }
+}
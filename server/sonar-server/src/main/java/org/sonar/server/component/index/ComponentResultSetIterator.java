@@ -0,0 +1,88 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.component.index;
+
+import org.apache.commons.lang.StringUtils;
+import org.sonar.api.resources.Qualifiers;
+import org.sonar.server.db.DbClient;
+import org.sonar.server.db.ResultSetIterator;
+
+import javax.annotation.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Scrolls over table PROJECTS and reads documents to populate the component index. Copies of
+ * projects in views and directories are not indexed.
+ */
+class ComponentResultSetIterator extends ResultSetIterator<ComponentDoc> {
+
+  static final String[] INDEXED_QUALIFIERS = {
+    Qualifiers.VIEW, Qualifiers.SUBVIEW, Qualifiers.PROJECT, Qualifiers.MODULE,
+    Qualifiers.FILE, Qualifiers.UNIT_TEST_FILE, Qualifiers.CLASS
+  };
+
+  private static final String[] FIELDS = {
+    // column 1
+    "p.uuid",
+    "p.project_uuid",
+    "p.kee",
+    "p.name",
+    "p.qualifier"
+  };
+
+  private static final String SQL_ALL = "select " + StringUtils.join(FIELDS, ",") + " from projects p "
+    + "where p.enabled=? and p.copy_resource_id is null and p.uuid is not null "
+    + "and p.qualifier in ('" + StringUtils.join(INDEXED_QUALIFIERS, "','") + "')";
+
+  private static final String SQL_PROJECT = SQL_ALL + " and p.project_uuid=?";
+
+  static ComponentResultSetIterator create(DbClient dbClient, Connection connection, @Nullable String projectUuid) {
+    try {
+      String sql = projectUuid != null ? SQL_PROJECT : SQL_ALL;
+      PreparedStatement stmt = dbClient.newScrollingSelectStatement(connection, sql);
+      stmt.setBoolean(1, true);
+      if (projectUuid != null) {
+        stmt.setString(2, projectUuid);
+      }
+      return new ComponentResultSetIterator(stmt);
+    } catch (SQLException e) {
+      throw new IllegalStateException("Fail to prepare SQL request to select components", e);
+    }
+  }
+
+  private ComponentResultSetIterator(PreparedStatement stmt) throws SQLException {
+    super(stmt);
+  }
+
+  @Override
+  protected ComponentDoc read(ResultSet rs) throws SQLException {
+    ComponentDoc doc = new ComponentDoc();
+    doc.setUuid(rs.getString(1));
+    doc.setProjectUuid(rs.getString(2));
+    doc.setKey(rs.getString(3));
+    doc.setName(StringUtils.defaultString(rs.getString(4)));
+    doc.setQualifier(rs.getString(5));
+    return doc;
+  }
+}
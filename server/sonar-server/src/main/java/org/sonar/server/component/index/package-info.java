@@ -17,15 +17,8 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
-package org.sonar.core.resource;
 
-public interface ResourceIndexerMapper {
+@ParametersAreNonnullByDefault
+package org.sonar.server.component.index;
 
-  ResourceIndexDto selectMasterIndexByResourceId(long resourceId);
-
-  ResourceDto selectResourceToIndex(long resourceId);
-
-  void deleteByResourceId(long resourceId);
-
-  void insert(ResourceIndexDto dto);
-}
+import javax.annotation.ParametersAreNonnullByDefault;
@@ -20,6 +20,7 @@
 
 package org.sonar.server.component.ws;
 
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.sonar.api.server.ws.Request;
 import org.sonar.api.server.ws.RequestHandler;
@@ -30,15 +31,20 @@ import org.sonar.api.web.UserRole;
 import org.sonar.core.component.ComponentDto;
 import org.sonar.core.persistence.DbSession;
 import org.sonar.core.persistence.MyBatis;
+import org.sonar.server.component.index.ComponentDoc;
+import org.sonar.server.component.index.ComponentIndex;
+import org.sonar.server.component.index.ComponentIndexQuery;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.es.SearchOptions;
+import org.sonar.server.es.SearchResult;
 import org.sonar.server.user.UserSession;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-import static com.google.common.collect.Sets.newLinkedHashSet;
 import static org.sonar.api.server.ws.WebService.Param.PAGE;
 import static org.sonar.api.server.ws.WebService.Param.PAGE_SIZE;
 
@@ -50,9 +56,11 @@ public class SearchAction implements RequestHandler {
   private static final String PARAM_QUERY = "q";
 
   private final DbClient dbClient;
+  private final ComponentIndex componentIndex;
 
-  public SearchAction(DbClient dbClient) {
+  public SearchAction(DbClient dbClient, ComponentIndex componentIndex) {
     this.dbClient = dbClient;
+    this.componentIndex = componentIndex;
   }
 
   void define(WebService.NewController controller) {
@@ -93,18 +101,22 @@ public class SearchAction implements RequestHandler {
       ComponentDto componentDto = dbClient.componentDao().getByUuid(session, viewOrSubUuid);
       UserSession.get().checkProjectUuidPermission(UserRole.USER, componentDto.projectUuid());
 
-      Set<Long> projectIds = newLinkedHashSet(dbClient.componentIndexDao().selectProjectIdsFromQueryAndViewOrSubViewUuid(session, query, componentDto.uuid()));
-      Collection<Long> authorizedProjectIds = dbClient.authorizationDao().keepAuthorizedProjectIds(session, projectIds, UserSession.get().userId(), UserRole.USER);
+      List<String> projectUuids = dbClient.componentDao().selectProjectsFromView(session, componentDto.uuid(), componentDto.projectUuid());
+      Collection<String> authorizedProjectUuids = authorizedProjectUuids(session, projectUuids);
 
       SearchOptions options = new SearchOptions();
       options.setPage(request.mandatoryParamAsInt(PAGE), request.mandatoryParamAsInt(PAGE_SIZE));
-      Set<Long> pagedProjectIds = pagedProjectIds(authorizedProjectIds, options);
-
-      List<ComponentDto> projects = dbClient.componentDao().getByIds(session, pagedProjectIds);
+      long total = 0L;
+      List<ComponentDoc> projects = Collections.emptyList();
+      if (!authorizedProjectUuids.isEmpty()) {
+        SearchResult<ComponentDoc> result = componentIndex.search(new ComponentIndexQuery().setText(query).setUuids(authorizedProjectUuids), options);
+        total = result.getTotal();
+        projects = result.getDocs();
+      }
 
-      options.writeJson(json, authorizedProjectIds.size());
+      options.writeJson(json, total);
       json.name("components").beginArray();
-      for (ComponentDto project : projects) {
+      for (ComponentDoc project : projects) {
         json.beginObject();
         json.prop("uuid", project.uuid());
         json.prop("name", project.name());
@@ -119,17 +131,16 @@ public class SearchAction implements RequestHandler {
     json.close();
   }
 
-  private Set<Long> pagedProjectIds(Collection<Long> projectIds, SearchOptions options) {
-    Set<Long> results = Sets.newLinkedHashSet();
-    int index = 0;
-    for (Long projectId : projectIds) {
-      if (index >= options.getOffset() && results.size() < options.getLimit()) {
-        results.add(projectId);
-      } else if (results.size() >= options.getLimit()) {
-        break;
-      }
-      index++;
+  private Collection<String> authorizedProjectUuids(DbSession session, List<String> projectUuids) {
+    Map<Long, String> uuidsById = Maps.newHashMap();
+    for (ComponentDto project : dbClient.componentDao().getByUuids(session, projectUuids)) {
+      uuidsById.put(project.getId(), project.uuid());
+    }
+    Collection<Long> authorizedProjectIds = dbClient.authorizationDao().keepAuthorizedProjectIds(session, uuidsById.keySet(), UserSession.get().userId(), UserRole.USER);
+    Set<String> result = Sets.newHashSet();
+    for (Long authorizedProjectId : authorizedProjectIds) {
+      result.add(uuidsById.get(authorizedProjectId));
     }
-    return results;
+    return result;
   }
 }
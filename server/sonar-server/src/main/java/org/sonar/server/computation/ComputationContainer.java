@@ -35,8 +35,9 @@ public class ComputationContainer {
   /**
    * List of all objects to be injected in the picocontainer dedicated to computation stack.
    * Does not contain the steps declared in {@link org.sonar.server.computation.step.ComputationSteps#orderedStepClasses()}.
+   * Public only to be reused by benchmarks.
    */
-  static List componentClasses() {
+  public static List componentClasses() {
     return Arrays.asList(
       ComputationService.class,
       ComputationSteps.class,
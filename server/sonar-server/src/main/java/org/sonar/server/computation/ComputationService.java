@@ -36,6 +36,7 @@ import org.sonar.core.component.SnapshotDto;
 import org.sonar.core.computation.db.AnalysisReportDto;
 import org.sonar.core.persistence.DbSession;
 import org.sonar.core.persistence.MyBatis;
+import org.sonar.core.telemetry.Telemetry;
 import org.sonar.server.activity.Activity;
 import org.sonar.server.activity.ActivityService;
 import org.sonar.server.computation.step.ComputationStep;
@@ -55,26 +56,32 @@ public class ComputationService implements ServerComponent {
 
   private static final Logger LOG = Loggers.get(ComputationService.class);
 
+  static final String REPORT_METRIC = "sonar_compute_report_seconds";
+  static final String STEP_METRIC = "sonar_compute_step_seconds";
+
   private final DbClient dbClient;
   private final ComputationSteps steps;
   private final ActivityService activityService;
   private final ProjectSettingsFactory projectSettingsFactory;
   private final TempFolder tempFolder;
   private final System2 system;
+  private final Telemetry telemetry;
 
   public ComputationService(DbClient dbClient, ComputationSteps steps, ActivityService activityService, 
-                            ProjectSettingsFactory projectSettingsFactory, TempFolder tempFolder, System2 system) {
+                            ProjectSettingsFactory projectSettingsFactory, TempFolder tempFolder, System2 system, Telemetry telemetry) {
     this.dbClient = dbClient;
     this.steps = steps;
     this.activityService = activityService;
     this.projectSettingsFactory = projectSettingsFactory;
     this.tempFolder = tempFolder;
     this.system = system;
+    this.telemetry = telemetry;
   }
 
   public void process(ReportQueue.Item item) {
     Profiler profiler = Profiler.create(LOG).startDebug(String.format(
       "Analysis of project %s (report %d)", item.dto.getProjectKey(), item.dto.getId()));
+    long startNanos = System.nanoTime();
 
     ComponentDto project = null;
 
@@ -90,7 +97,10 @@ public class ComputationService implements ServerComponent {
       for (ComputationStep step : steps.orderedSteps()) {
         if (ArrayUtils.contains(step.supportedProjectQualifiers(), context.getProject().qualifier())) {
           Profiler stepProfiler = Profiler.createIfDebug(LOG).startDebug(step.getDescription());
+          long stepStartNanos = System.nanoTime();
           step.execute(context);
+          telemetry.timer(STEP_METRIC, "Execution time of computation steps", "step", step.getClass().getSimpleName())
+            .recordSince(stepStartNanos);
           stepProfiler.stopDebug();
         }
       }
@@ -101,6 +111,8 @@ public class ComputationService implements ServerComponent {
     } finally {
       item.dto.setFinishedAt(system.now());
       saveActivity(item.dto, project);
+      telemetry.timer(REPORT_METRIC, "Processing time of analysis reports", "status", String.valueOf(item.dto.getStatus()))
+        .recordSince(startNanos);
       profiler.stopInfo();
     }
   }
@@ -23,8 +23,10 @@ package org.sonar.server.computation;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.picocontainer.Startable;
+import org.sonar.api.config.Settings;
 import org.sonar.api.platform.Server;
 import org.sonar.api.platform.ServerStartHandler;
+import org.sonar.process.ProcessProperties;
 
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -36,14 +38,16 @@ public class ComputationThreadLauncher implements Startable, ServerStartHandler
   public static final String THREAD_NAME_PREFIX = "computation-";
 
   private final ReportQueue queue;
+  private final Settings settings;
   private final ScheduledExecutorService executorService;
 
   private final long delayBetweenTasks;
   private final long delayForFirstStart;
   private final TimeUnit timeUnit;
 
-  public ComputationThreadLauncher(ReportQueue queue) {
+  public ComputationThreadLauncher(ReportQueue queue, Settings settings) {
     this.queue = queue;
+    this.settings = settings;
     this.executorService = Executors.newSingleThreadScheduledExecutor(newThreadFactory());
 
     this.delayBetweenTasks = 10;
@@ -52,8 +56,9 @@ public class ComputationThreadLauncher implements Startable, ServerStartHandler
   }
 
   @VisibleForTesting
-  ComputationThreadLauncher(ReportQueue queue, long delayForFirstStart, long delayBetweenTasks, TimeUnit timeUnit) {
+  ComputationThreadLauncher(ReportQueue queue, Settings settings, long delayForFirstStart, long delayBetweenTasks, TimeUnit timeUnit) {
     this.queue = queue;
+    this.settings = settings;
     this.executorService = Executors.newSingleThreadScheduledExecutor(newThreadFactory());
 
     this.delayBetweenTasks = delayBetweenTasks;
@@ -72,14 +77,31 @@ public class ComputationThreadLauncher implements Startable, ServerStartHandler
   }
 
   public void startAnalysisTaskNow() {
-    executorService.execute(new ComputationThread(queue));
+    if (!isDedicatedProcessEnabled()) {
+      executorService.execute(new ComputationThread(queue));
+    }
   }
 
   @Override
   public void onServerStart(Server server) {
+    if (!isDedicatedProcessEnabled()) {
+      scheduleTasks();
+    }
+  }
+
+  /**
+   * Periodically processes the pending reports. Called on server startup, or by the compute engine
+   * process when reports are not processed by the web server.
+   * @see ProcessProperties#CE_ENABLED
+   */
+  public void scheduleTasks() {
     executorService.scheduleAtFixedRate(new ComputationThread(queue), delayForFirstStart, delayBetweenTasks, timeUnit);
   }
 
+  private boolean isDedicatedProcessEnabled() {
+    return settings.getBoolean(ProcessProperties.CE_ENABLED);
+  }
+
   private ThreadFactory newThreadFactory() {
     return new ThreadFactoryBuilder()
       .setNameFormat(THREAD_NAME_PREFIX + "%d").setPriority(Thread.MIN_PRIORITY).build();
@@ -20,7 +20,9 @@
 
 package org.sonar.server.computation;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.sonar.api.ServerComponent;
 import org.sonar.api.config.Settings;
 import org.sonar.api.utils.internal.Uuids;
@@ -31,20 +33,48 @@ import org.sonar.core.persistence.MyBatis;
 import org.sonar.process.ProcessProperties;
 import org.sonar.server.computation.db.AnalysisReportDao;
 import org.sonar.server.db.DbClient;
+import org.sonar.server.exceptions.BadRequestException;
 
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import static org.sonar.core.computation.db.AnalysisReportDto.Status.PENDING;
 
 public class ReportQueue implements ServerComponent {
+
+  private static final Pattern UPLOAD_UUID_PATTERN = Pattern.compile("[a-zA-Z0-9_-]+");
+  private static final String PART_FILE_SUFFIX = ".zip.part";
+
+  /**
+   * Uploads that did not receive any chunk for this duration are considered as abandoned
+   */
+  static final long UPLOAD_EXPIRATION_MS = TimeUnit.HOURS.toMillis(24);
+
   private final DbClient dbClient;
   private final Settings settings;
 
+  /**
+   * Chunks of the same upload are written one at a time, for example when a client retries a chunk
+   * while the previous request is still being processed
+   */
+  private final ConcurrentMap<String, Object> uploadLocks = new ConcurrentHashMap<>();
+
   public ReportQueue(DbClient dbClient, Settings settings) {
     this.dbClient = dbClient;
     this.settings = settings;
@@ -70,6 +100,177 @@ public class ReportQueue implements ServerComponent {
     }
   }
 
+  /**
+   * Starts a chunked upload of report. Chunks are appended with {@link #appendChunk(String, long, InputStream, String)}
+   * and the report is queued by {@link #completeUpload(String, String)}. Abandoned uploads are purged.
+   * @return the UUID of upload, which is also the UUID of the future analysis report
+   */
+  public String startUpload(String projectKey) {
+    purgeExpiredUploads();
+    String uuid = Uuids.create();
+    File file = partFileForUuid(uuid);
+    DbSession session = dbClient.openSession(false);
+    try {
+      checkThatProjectExistsInDatabase(projectKey, session);
+      FileUtils.touch(file);
+      return uuid;
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to start upload of analysis report of project " + projectKey, e);
+    } finally {
+      MyBatis.closeQuietly(session);
+    }
+  }
+
+  /**
+   * Number of bytes already received for the given upload. This is the offset to be used to resume
+   * an interrupted upload.
+   */
+  public long uploadedBytes(String uploadUuid) {
+    return existingPartFile(uploadUuid).length();
+  }
+
+  /**
+   * Writes a chunk at the end of the uploaded report. The chunk is streamed directly into the report file while
+   * its MD5 checksum is computed. The chunk is discarded if the checksum does not match, so that the same chunk
+   * can be sent again.
+   * @return the number of bytes received so far
+   */
+  public long appendChunk(String uploadUuid, long offset, InputStream chunk, String md5) {
+    File file = existingPartFile(uploadUuid);
+    synchronized (lockOf(uploadUuid)) {
+      if (!file.isFile()) {
+        // completed or purged in the meantime
+        throw new BadRequestException("Upload not found: " + uploadUuid);
+      }
+      return appendChunk(file, uploadUuid, offset, chunk, md5);
+    }
+  }
+
+  private static long appendChunk(File file, String uploadUuid, long offset, InputStream chunk, String md5) {
+    if (file.length() != offset) {
+      throw new BadRequestException(String.format("Invalid offset %d of upload %s. Expected offset is %d", offset, uploadUuid, file.length()));
+    }
+    boolean accepted = false;
+    RandomAccessFile raf = null;
+    try {
+      raf = new RandomAccessFile(file, "rw");
+      raf.seek(offset);
+      DigestInputStream input = new DigestInputStream(chunk, MessageDigest.getInstance("MD5"));
+      OutputStream output = Channels.newOutputStream(raf.getChannel());
+      IOUtils.copyLarge(input, output);
+      String actualMd5 = Hex.encodeHexString(input.getMessageDigest().digest());
+      if (!actualMd5.equalsIgnoreCase(md5)) {
+        throw new BadRequestException(String.format("Invalid checksum of chunk at offset %d of upload %s", offset, uploadUuid));
+      }
+      accepted = true;
+      return raf.length();
+    } catch (IOException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException(String.format("Fail to write chunk at offset %d of upload %s", offset, uploadUuid), e);
+    } finally {
+      if (!accepted) {
+        truncateQuietly(raf, offset);
+      }
+      IOUtils.closeQuietly(raf);
+    }
+  }
+
+  /**
+   * Adds the fully uploaded report to the queue. The report file is renamed, not copied. Completing
+   * an upload again, for example when client did not receive the response, returns the queued report.
+   */
+  public Item completeUpload(String projectKey, String uploadUuid) {
+    checkUploadUuid(uploadUuid);
+    synchronized (lockOf(uploadUuid)) {
+      File partFile = partFileForUuid(uploadUuid);
+      File file = reportFileForUuid(uploadUuid);
+      DbSession session = dbClient.openSession(false);
+      try {
+        if (!partFile.isFile()) {
+          return queuedReport(session, projectKey, uploadUuid, file);
+        }
+        try {
+          checkThatProjectExistsInDatabase(projectKey, session);
+          if (!partFile.renameTo(file)) {
+            throw new IllegalStateException("Fail to rename " + partFile.getAbsolutePath() + " to " + file.getAbsolutePath());
+          }
+          AnalysisReportDto dto = saveReportMetadataInDatabase(projectKey, uploadUuid, session);
+          return new Item(dto, file);
+        } catch (RuntimeException e) {
+          FileUtils.deleteQuietly(partFile);
+          FileUtils.deleteQuietly(file);
+          throw new IllegalStateException("Fail to store analysis report of project " + projectKey, e);
+        }
+      } finally {
+        MyBatis.closeQuietly(session);
+        uploadLocks.remove(uploadUuid);
+      }
+    }
+  }
+
+  private Item queuedReport(DbSession session, String projectKey, String uploadUuid, File file) {
+    if (file.isFile()) {
+      for (AnalysisReportDto dto : dao().selectByProjectKey(session, projectKey)) {
+        if (uploadUuid.equals(dto.getUuid())) {
+          return new Item(dto, file);
+        }
+      }
+    }
+    throw new BadRequestException("Upload not found: " + uploadUuid);
+  }
+
+  /**
+   * Deletes the uploads that did not receive any chunk for {@link #UPLOAD_EXPIRATION_MS}
+   */
+  void purgeExpiredUploads() {
+    final long expirationDate = System.currentTimeMillis() - UPLOAD_EXPIRATION_MS;
+    File[] expiredFiles = reportsDir().listFiles(new FileFilter() {
+      @Override
+      public boolean accept(File file) {
+        return file.getName().endsWith(PART_FILE_SUFFIX) && file.lastModified() < expirationDate;
+      }
+    });
+    if (expiredFiles != null) {
+      for (File expiredFile : expiredFiles) {
+        String uploadUuid = expiredFile.getName().substring(0, expiredFile.getName().length() - PART_FILE_SUFFIX.length());
+        synchronized (lockOf(uploadUuid)) {
+          FileUtils.deleteQuietly(expiredFile);
+          uploadLocks.remove(uploadUuid);
+        }
+      }
+    }
+  }
+
+  private Object lockOf(String uploadUuid) {
+    Object lock = new Object();
+    Object existingLock = uploadLocks.putIfAbsent(uploadUuid, lock);
+    return existingLock == null ? lock : existingLock;
+  }
+
+  private File existingPartFile(String uploadUuid) {
+    checkUploadUuid(uploadUuid);
+    File file = partFileForUuid(uploadUuid);
+    if (!file.isFile()) {
+      throw new BadRequestException("Upload not found: " + uploadUuid);
+    }
+    return file;
+  }
+
+  private static void checkUploadUuid(String uploadUuid) {
+    if (!UPLOAD_UUID_PATTERN.matcher(uploadUuid).matches()) {
+      throw new BadRequestException("Invalid upload: " + uploadUuid);
+    }
+  }
+
+  private static void truncateQuietly(@Nullable RandomAccessFile raf, long length) {
+    if (raf != null) {
+      try {
+        raf.setLength(length);
+      } catch (IOException e) {
+        Loggers.get(ReportQueue.class).warn("Fail to discard invalid chunk of analysis report", e);
+      }
+    }
+  }
+
   private AnalysisReportDto saveReportMetadataInDatabase(String projectKey, String uuid, DbSession session) {
     AnalysisReportDto dto = new AnalysisReportDto()
       .setProjectKey(projectKey)
@@ -175,7 +376,8 @@ public class ReportQueue implements ServerComponent {
   }
 
   /**
-   * This directory is a flat list of the reports referenced in table ANALYSIS_REPORTS.
+   * This directory is a flat list of the reports referenced in table ANALYSIS_REPORTS and of the reports
+   * being uploaded (extension .zip.part).
    * Never return null but the directory may not exist.
    */
   private File reportsDir() {
@@ -186,6 +388,10 @@ public class ReportQueue implements ServerComponent {
     return new File(reportsDir(), String.format("%s.zip", uuid));
   }
 
+  private File partFileForUuid(String uuid) {
+    return new File(reportsDir(), uuid + PART_FILE_SUFFIX);
+  }
+
   public static class Item {
     public final AnalysisReportDto dto;
     public final File zipFile;
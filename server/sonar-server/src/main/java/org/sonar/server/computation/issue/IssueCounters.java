@@ -0,0 +1,176 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.issue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.sonar.api.issue.internal.DefaultIssue;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.batch.protocol.output.BatchReport;
+import org.sonar.core.issue.db.IssueCounterDto;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the unresolved issues of a project by severity, status, rule and assignee. Issues are
+ * counted on their component and on all its ancestors, so that the counters of a directory or of a
+ * module include the issues of their files. Issues created after the date of a differential period
+ * are counted as new issues of this period.
+ */
+public class IssueCounters {
+
+  public static final int PERIODS = 5;
+
+  private final Map<String, String> parentUuidByUuid;
+  private final Long[] periodDates;
+  private final Map<String, ComponentCounters> countersByComponentUuid = Maps.newTreeMap();
+
+  /**
+   * @param parentUuidByUuid the parent of each component of the project, except the root
+   * @param periodDates the dates of the differential periods 1 to 5, null if a period is not defined
+   */
+  public IssueCounters(Map<String, String> parentUuidByUuid, Long[] periodDates) {
+    if (periodDates.length != PERIODS) {
+      throw new IllegalArgumentException("Dates of the " + PERIODS + " periods must be defined");
+    }
+    this.parentUuidByUuid = parentUuidByUuid;
+    this.periodDates = periodDates;
+  }
+
+  public void add(DefaultIssue issue) {
+    if (issue.resolution() != null) {
+      return;
+    }
+    add(issue.componentUuid(), issue.creationDate(), issue.severity(), issue.status(), issue.ruleKey().toString(), issue.assignee());
+  }
+
+  /**
+   * Counts an issue of a component that did not change since the previous analysis. Such an issue
+   * is read from the report but it is neither converted to {@link DefaultIssue} nor persisted.
+   */
+  public void add(String componentUuid, BatchReport.Issue issue) {
+    if (issue.hasResolution()) {
+      return;
+    }
+    add(componentUuid, issue.hasCreationDate() ? new Date(issue.getCreationDate()) : null, issue.getSeverity().name(), issue.getStatus(),
+      RuleKey.of(issue.getRuleRepository(), issue.getRuleKey()).toString(), issue.hasAssignee() ? issue.getAssignee() : null);
+  }
+
+  private void add(String issueComponentUuid, @Nullable Date creationDate, String severity, String status, String ruleKey, @Nullable String assignee) {
+    boolean[] newOnPeriods = newOnPeriods(creationDate);
+    String componentUuid = issueComponentUuid;
+    while (componentUuid != null) {
+      ComponentCounters counters = countersByComponentUuid.get(componentUuid);
+      if (counters == null) {
+        counters = new ComponentCounters();
+        countersByComponentUuid.put(componentUuid, counters);
+      }
+      counters.add(severity, status, ruleKey, assignee, newOnPeriods);
+      componentUuid = parentUuidByUuid.get(componentUuid);
+    }
+  }
+
+  /**
+   * Counters of all the components having at least one unresolved issue, sorted by component and value
+   */
+  public List<IssueCounterDto> toDtos(String projectUuid) {
+    List<IssueCounterDto> dtos = Lists.newArrayList();
+    for (Map.Entry<String, ComponentCounters> entry : countersByComponentUuid.entrySet()) {
+      entry.getValue().toDtos(projectUuid, entry.getKey(), dtos);
+    }
+    return dtos;
+  }
+
+  private boolean[] newOnPeriods(@Nullable Date creationDate) {
+    boolean[] result = new boolean[PERIODS];
+    if (creationDate != null) {
+      for (int i = 0; i < PERIODS; i++) {
+        result[i] = periodDates[i] != null && creationDate.getTime() > periodDates[i];
+      }
+    }
+    return result;
+  }
+
+  @CheckForNull
+  private Integer newIssuesCount(Counter counter, int periodIndex) {
+    return periodDates[periodIndex] == null ? null : counter.newIssues[periodIndex];
+  }
+
+  private class ComponentCounters {
+    private final Map<String, Counter> bySeverity = Maps.newTreeMap();
+    private final Map<String, Counter> byStatus = Maps.newTreeMap();
+    private final Map<String, Counter> byRule = Maps.newTreeMap();
+    private final Map<String, Counter> byAssignee = Maps.newTreeMap();
+
+    void add(String severity, String status, String ruleKey, @Nullable String assignee, boolean[] newOnPeriods) {
+      increment(bySeverity, severity, newOnPeriods);
+      increment(byStatus, status, newOnPeriods);
+      increment(byRule, ruleKey, newOnPeriods);
+      increment(byAssignee, assignee == null ? IssueCounterDto.UNASSIGNED : assignee, newOnPeriods);
+    }
+
+    void toDtos(String projectUuid, String componentUuid, List<IssueCounterDto> dtos) {
+      toDtos(projectUuid, componentUuid, IssueCounterDto.FACET_SEVERITIES, bySeverity, dtos);
+      toDtos(projectUuid, componentUuid, IssueCounterDto.FACET_STATUSES, byStatus, dtos);
+      toDtos(projectUuid, componentUuid, IssueCounterDto.FACET_RULES, byRule, dtos);
+      toDtos(projectUuid, componentUuid, IssueCounterDto.FACET_ASSIGNEES, byAssignee, dtos);
+    }
+
+    private void toDtos(String projectUuid, String componentUuid, String facet, Map<String, Counter> countersByValue, List<IssueCounterDto> dtos) {
+      for (Map.Entry<String, Counter> entry : countersByValue.entrySet()) {
+        Counter counter = entry.getValue();
+        IssueCounterDto dto = new IssueCounterDto()
+          .setProjectUuid(projectUuid)
+          .setComponentUuid(componentUuid)
+          .setFacet(facet)
+          .setFacetValue(entry.getKey())
+          .setIssuesCount(counter.issues);
+        for (int i = 0; i < PERIODS; i++) {
+          dto.setNewIssuesCount(i + 1, newIssuesCount(counter, i));
+        }
+        dtos.add(dto);
+      }
+    }
+
+    private void increment(Map<String, Counter> countersByValue, String value, boolean[] newOnPeriods) {
+      Counter counter = countersByValue.get(value);
+      if (counter == null) {
+        counter = new Counter();
+        countersByValue.put(value, counter);
+      }
+      counter.issues++;
+      for (int i = 0; i < PERIODS; i++) {
+        if (newOnPeriods[i]) {
+          counter.newIssues[i]++;
+        }
+      }
+    }
+  }
+
+  private static class Counter {
+    private int issues = 0;
+    private final int[] newIssues = new int[PERIODS];
+  }
+}
@@ -49,11 +49,11 @@ public class ComputationSteps {
 
       // Switch snapshot and purge
       SwitchSnapshotStep.class,
-      IndexComponentsStep.class,
       PurgeDatastoresStep.class,
 
       // ES indexing is done after all db changes
       ApplyPermissionsStep.class,
+      IndexComponentsStep.class,
       IndexIssuesStep.class,
       IndexSourceLinesStep.class,
       IndexViewsStep.class,
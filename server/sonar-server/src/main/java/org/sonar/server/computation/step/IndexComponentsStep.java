@@ -21,17 +21,15 @@
 package org.sonar.server.computation.step;
 
 import org.sonar.api.resources.Qualifiers;
-import org.sonar.core.resource.ResourceIndexerDao;
+import org.sonar.server.component.index.ComponentIndexer;
 import org.sonar.server.computation.ComputationContext;
 
-/**
- * Components are currently indexed in db table RESOURCE_INDEX, not in Elasticsearch
- */
 public class IndexComponentsStep implements ComputationStep {
-  private final ResourceIndexerDao resourceIndexerDao;
 
-  public IndexComponentsStep(ResourceIndexerDao resourceIndexerDao) {
-    this.resourceIndexerDao = resourceIndexerDao;
+  private final ComponentIndexer indexer;
+
+  public IndexComponentsStep(ComponentIndexer indexer) {
+    this.indexer = indexer;
   }
 
   @Override
@@ -41,7 +39,7 @@ public class IndexComponentsStep implements ComputationStep {
 
   @Override
   public void execute(ComputationContext context) {
-    resourceIndexerDao.indexProject(context.getProject().getId());
+    indexer.index(context.getProject().uuid());
   }
 
   @Override
@@ -52,8 +52,11 @@ public class ParseReportStep implements ComputationStep {
   private void recursivelyProcessComponent(ComputationContext context, int componentRef) {
     BatchReportReader reportReader = context.getReportReader();
     BatchReport.Component component = reportReader.readComponent(componentRef);
-    List<BatchReport.Issue> issues = reportReader.readComponentIssues(componentRef);
-    issueComputation.processComponentIssues(context, issues, component.getUuid(), componentRef);
+    // issues of unchanged files are already up-to-date in db. They are only counted by PersistIssuesStep.
+    if (!component.getIsUnchanged()) {
+      List<BatchReport.Issue> issues = reportReader.readComponentIssues(componentRef);
+      issueComputation.processComponentIssues(context, issues, component.getUuid(), componentRef);
+    }
     for (Integer childRef : component.getChildRefList()) {
       recursivelyProcessComponent(context, childRef);
     }
@@ -19,6 +19,7 @@
  */
 package org.sonar.server.computation.step;
 
+import com.google.common.collect.Maps;
 import org.sonar.api.issue.Issue;
 import org.sonar.api.issue.IssueComment;
 import org.sonar.api.issue.internal.DefaultIssue;
@@ -26,15 +27,21 @@ import org.sonar.api.issue.internal.DefaultIssueComment;
 import org.sonar.api.issue.internal.FieldDiffs;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.utils.System2;
+import org.sonar.batch.protocol.output.BatchReport;
+import org.sonar.batch.protocol.output.BatchReportReader;
+import org.sonar.core.component.SnapshotDto;
 import org.sonar.core.issue.db.*;
 import org.sonar.core.persistence.DbSession;
 import org.sonar.core.persistence.MyBatis;
 import org.sonar.server.computation.ComputationContext;
 import org.sonar.server.computation.issue.IssueCache;
+import org.sonar.server.computation.issue.IssueCounters;
 import org.sonar.server.computation.issue.RuleCache;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.util.CloseableIterator;
 
+import java.util.Map;
+
 public class PersistIssuesStep implements ComputationStep {
 
   private final DbClient dbClient;
@@ -65,8 +72,14 @@ public class PersistIssuesStep implements ComputationStep {
 
     CloseableIterator<DefaultIssue> issues = issueCache.traverse();
     try {
+      Map<String, String> parentUuidByUuid = Maps.newHashMap();
+      Map<Integer, String> unchangedFileUuidByRef = Maps.newHashMap();
+      addChildren(context.getReportReader(), context.getReportMetadata().getRootComponentRef(), parentUuidByUuid, unchangedFileUuidByRef);
+      IssueCounters counters = new IssueCounters(parentUuidByUuid, periodDates(session, context));
+      countIssuesOfUnchangedFiles(context.getReportReader(), unchangedFileUuidByRef, counters);
       while (issues.hasNext()) {
         DefaultIssue issue = issues.next();
+        counters.add(issue);
         boolean saved = false;
         if (issue.isNew()) {
           Integer ruleId = ruleCache.get(issue.ruleKey()).getId();
@@ -91,6 +104,7 @@ public class PersistIssuesStep implements ComputationStep {
           insertChanges(changeMapper, issue);
         }
       }
+      persistCounters(session, context.getProject().uuid(), counters);
       session.flushStatements();
       session.commit();
     } finally {
@@ -114,6 +128,49 @@ public class PersistIssuesStep implements ComputationStep {
     }
   }
 
+  private void persistCounters(DbSession session, String projectUuid, IssueCounters counters) {
+    dbClient.issueCounterDao().deleteByProjectUuid(session, projectUuid);
+    for (IssueCounterDto dto : counters.toDtos(projectUuid)) {
+      dbClient.issueCounterDao().insert(session, dto);
+    }
+  }
+
+  private static void addChildren(BatchReportReader reportReader, int componentRef, Map<String, String> parentUuidByUuid,
+    Map<Integer, String> unchangedFileUuidByRef) {
+    BatchReport.Component component = reportReader.readComponent(componentRef);
+    for (Integer childRef : component.getChildRefList()) {
+      BatchReport.Component child = reportReader.readComponent(childRef);
+      parentUuidByUuid.put(child.getUuid(), component.getUuid());
+      if (child.getIsUnchanged()) {
+        unchangedFileUuidByRef.put(childRef, child.getUuid());
+      }
+      addChildren(reportReader, childRef, parentUuidByUuid, unchangedFileUuidByRef);
+    }
+  }
+
+  /**
+   * Issues of unchanged files are not processed by {@link ParseReportStep}, they are read from report
+   * only to be counted.
+   */
+  private static void countIssuesOfUnchangedFiles(BatchReportReader reportReader, Map<Integer, String> unchangedFileUuidByRef, IssueCounters counters) {
+    for (Map.Entry<Integer, String> entry : unchangedFileUuidByRef.entrySet()) {
+      for (BatchReport.Issue issue : reportReader.readComponentIssues(entry.getKey())) {
+        counters.add(entry.getValue(), issue);
+      }
+    }
+  }
+
+  private Long[] periodDates(DbSession session, ComputationContext context) {
+    Long[] dates = new Long[IssueCounters.PERIODS];
+    SnapshotDto snapshot = dbClient.snapshotDao().getNullableByKey(session, context.getReportMetadata().getSnapshotId());
+    if (snapshot != null) {
+      for (int i = 0; i < IssueCounters.PERIODS; i++) {
+        dates[i] = snapshot.getPeriodDate(i + 1);
+      }
+    }
+    return dates;
+  }
+
   @Override
   public String getDescription() {
     return "Persist issues";
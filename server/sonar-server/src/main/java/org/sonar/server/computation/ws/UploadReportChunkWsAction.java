@@ -0,0 +1,129 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package org.sonar.server.computation.ws;
+
+import org.apache.commons.io.IOUtils;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.RequestHandler;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.core.permission.GlobalPermissions;
+import org.sonar.server.computation.ComputationThreadLauncher;
+import org.sonar.server.computation.ReportQueue;
+import org.sonar.server.user.UserSession;
+
+import java.io.InputStream;
+
+/**
+ * Chunked alternative to {@link SubmitReportWsAction}. Chunks are written directly into the report file
+ * of the queue, so an interrupted upload can be resumed from the offset returned by {@link UploadReportStatusWsAction}.
+ */
+public class UploadReportChunkWsAction implements ComputationWsAction, RequestHandler {
+
+  public static final String ACTION = "upload_report_chunk";
+  public static final String PARAM_PROJECT_KEY = "projectKey";
+  public static final String PARAM_UPLOAD_ID = "uploadId";
+  public static final String PARAM_OFFSET = "offset";
+  public static final String PARAM_MD5 = "md5";
+  public static final String PARAM_LAST = "last";
+  public static final String PARAM_CHUNK = "chunk";
+
+  private final ReportQueue queue;
+  private final ComputationThreadLauncher workerLauncher;
+
+  public UploadReportChunkWsAction(ReportQueue queue, ComputationThreadLauncher workerLauncher) {
+    this.queue = queue;
+    this.workerLauncher = workerLauncher;
+  }
+
+  @Override
+  public void define(WebService.NewController controller) {
+    WebService.NewAction action = controller.createAction(ACTION)
+      .setDescription("Upload a chunk of analysis report. The report is submitted to the queue when the last chunk is received.")
+      .setPost(true)
+      .setInternal(true)
+      .setSince("5.2")
+      .setHandler(this);
+
+    action
+      .createParam(PARAM_PROJECT_KEY)
+      .setRequired(true)
+      .setDescription("Project key")
+      .setExampleValue("org.codehaus.sonar:sonar");
+
+    action
+      .createParam(PARAM_UPLOAD_ID)
+      .setDescription("Id of upload, as returned by the upload of first chunk. A new upload is started if missing.");
+
+    action
+      .createParam(PARAM_OFFSET)
+      .setDescription("Position of the chunk in the report. It must be equal to the number of bytes already received.")
+      .setDefaultValue("0");
+
+    action
+      .createParam(PARAM_MD5)
+      .setRequired(true)
+      .setDescription("MD5 checksum of the chunk, in hexadecimal");
+
+    action
+      .createParam(PARAM_LAST)
+      .setDescription("Whether this chunk is the last one of the report")
+      .setBooleanPossibleValues()
+      .setDefaultValue("false");
+
+    action
+      .createParam(PARAM_CHUNK)
+      .setRequired(true)
+      .setDescription("Chunk of report file. Format is not an API, it changes among SonarQube versions.");
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws Exception {
+    UserSession.get().checkGlobalPermission(GlobalPermissions.SCAN_EXECUTION);
+    String projectKey = request.mandatoryParam(PARAM_PROJECT_KEY);
+    String uploadId = request.param(PARAM_UPLOAD_ID);
+    if (uploadId == null) {
+      uploadId = queue.startUpload(projectKey);
+    }
+    long offset = request.mandatoryParamAsLong(PARAM_OFFSET);
+    String md5 = request.mandatoryParam(PARAM_MD5);
+    InputStream chunk = request.paramAsInputStream(PARAM_CHUNK);
+    long uploadedBytes;
+    try {
+      uploadedBytes = queue.appendChunk(uploadId, offset, chunk, md5);
+    } finally {
+      IOUtils.closeQuietly(chunk);
+    }
+
+    JsonWriter json = response.newJsonWriter()
+      .beginObject()
+      .prop("uploadId", uploadId)
+      .prop("offset", uploadedBytes);
+    if (request.mandatoryParamAsBoolean(PARAM_LAST)) {
+      ReportQueue.Item item = queue.completeUpload(projectKey, uploadId);
+      workerLauncher.startAnalysisTaskNow();
+      // same format as submit_report
+      json.prop("key", String.valueOf(item.dto.getId()));
+    }
+    json.endObject().close();
+  }
+}
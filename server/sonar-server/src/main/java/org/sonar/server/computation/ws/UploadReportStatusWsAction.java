@@ -0,0 +1,71 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package org.sonar.server.computation.ws;
+
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.RequestHandler;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.core.permission.GlobalPermissions;
+import org.sonar.server.computation.ReportQueue;
+import org.sonar.server.user.UserSession;
+
+/**
+ * Returns the number of bytes already received for a chunked upload of report, which is
+ * the offset to resume the upload from.
+ */
+public class UploadReportStatusWsAction implements ComputationWsAction, RequestHandler {
+
+  public static final String ACTION = "upload_report_status";
+  public static final String PARAM_UPLOAD_ID = "uploadId";
+
+  private final ReportQueue queue;
+
+  public UploadReportStatusWsAction(ReportQueue queue) {
+    this.queue = queue;
+  }
+
+  @Override
+  public void define(WebService.NewController controller) {
+    WebService.NewAction action = controller.createAction(ACTION)
+      .setDescription("Status of a chunked upload of analysis report")
+      .setInternal(true)
+      .setSince("5.2")
+      .setHandler(this);
+
+    action
+      .createParam(PARAM_UPLOAD_ID)
+      .setRequired(true)
+      .setDescription("Id of upload");
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws Exception {
+    UserSession.get().checkGlobalPermission(GlobalPermissions.SCAN_EXECUTION);
+    String uploadId = request.mandatoryParam(PARAM_UPLOAD_ID);
+    response.newJsonWriter()
+      .beginObject()
+      .prop("uploadId", uploadId)
+      .prop("offset", queue.uploadedBytes(uploadId))
+      .endObject()
+      .close();
+  }
+}
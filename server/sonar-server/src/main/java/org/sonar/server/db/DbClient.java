@@ -37,7 +37,6 @@ import org.sonar.core.user.AuthorDao;
 import org.sonar.core.user.AuthorizationDao;
 import org.sonar.server.activity.db.ActivityDao;
 import org.sonar.server.component.db.ComponentDao;
-import org.sonar.server.component.db.ComponentIndexDao;
 import org.sonar.server.component.db.ComponentLinkDao;
 import org.sonar.server.component.db.SnapshotDao;
 import org.sonar.server.computation.db.AnalysisReportDao;
@@ -45,6 +44,7 @@ import org.sonar.server.dashboard.db.DashboardDao;
 import org.sonar.server.dashboard.db.WidgetDao;
 import org.sonar.server.dashboard.db.WidgetPropertyDao;
 import org.sonar.server.event.db.EventDao;
+import org.sonar.server.issue.db.IssueCounterDao;
 import org.sonar.server.issue.db.IssueDao;
 import org.sonar.server.measure.persistence.MeasureDao;
 import org.sonar.server.measure.persistence.MetricDao;
@@ -85,6 +85,7 @@ public class DbClient implements ServerComponent {
   private final IssueDao issueDao;
   private final IssueFilterDao issueFilterDao;
   private final IssueChangeDao issueChangeDao;
+  private final IssueCounterDao issueCounterDao;
   private final ActionPlanDao actionPlanDao;
   private final AnalysisReportDao analysisReportDao;
   private final DashboardDao dashboardDao;
@@ -92,7 +93,6 @@ public class DbClient implements ServerComponent {
   private final WidgetPropertyDao widgetPropertyDao;
   private final FileSourceDao fileSourceDao;
   private final AuthorDao authorDao;
-  private final ComponentIndexDao componentIndexDao;
   private final ComponentLinkDao componentLinkDao;
   private final EventDao eventDao;
 
@@ -122,6 +122,7 @@ public class DbClient implements ServerComponent {
     issueDao = getDao(map, IssueDao.class);
     issueFilterDao = getDao(map, IssueFilterDao.class);
     issueChangeDao = getDao(map, IssueChangeDao.class);
+    issueCounterDao = getDao(map, IssueCounterDao.class);
     actionPlanDao = getDao(map, ActionPlanDao.class);
     analysisReportDao = getDao(map, AnalysisReportDao.class);
     dashboardDao = getDao(map, DashboardDao.class);
@@ -129,7 +130,6 @@ public class DbClient implements ServerComponent {
     widgetPropertyDao = getDao(map, WidgetPropertyDao.class);
     fileSourceDao = getDao(map, FileSourceDao.class);
     authorDao = getDao(map, AuthorDao.class);
-    componentIndexDao = getDao(map, ComponentIndexDao.class);
     componentLinkDao = getDao(map, ComponentLinkDao.class);
     eventDao = getDao(map, EventDao.class);
   }
@@ -162,6 +162,10 @@ public class DbClient implements ServerComponent {
     return issueChangeDao;
   }
 
+  public IssueCounterDao issueCounterDao() {
+    return issueCounterDao;
+  }
+
   public QualityProfileDao qualityProfileDao() {
     return qualityProfileDao;
   }
@@ -242,10 +246,6 @@ public class DbClient implements ServerComponent {
     return authorDao;
   }
 
-  public ComponentIndexDao componentIndexDao() {
-    return componentIndexDao;
-  }
-
   public ComponentLinkDao componentLinkDao() {
     return componentLinkDao;
   }
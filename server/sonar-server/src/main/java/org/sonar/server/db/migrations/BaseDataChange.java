@@ -41,7 +41,7 @@ public abstract class BaseDataChange implements DataChange, DatabaseMigration {
 
       writeConnection = db.getDataSource().getConnection();
       writeConnection.setAutoCommit(false);
-      Context context = new Context(db, readConnection, writeConnection);
+      Context context = new Context(db, readConnection, writeConnection, getClass().getSimpleName());
       execute(context);
 
     } finally {
@@ -54,6 +54,13 @@ public abstract class BaseDataChange implements DataChange, DatabaseMigration {
    * Do not forget to close it !
    */
   protected Connection openConnection() throws SQLException {
+    return openReadConnection(db);
+  }
+
+  /**
+   * Connection without auto-commit, which reads uncommitted data when supported
+   */
+  static Connection openReadConnection(Database db) throws SQLException {
     Connection connection = db.getDataSource().getConnection();
     connection.setAutoCommit(false);
     if (connection.getMetaData().supportsTransactionIsolationLevel(Connection.TRANSACTION_READ_UNCOMMITTED)) {
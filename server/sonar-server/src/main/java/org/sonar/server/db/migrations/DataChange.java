@@ -21,6 +21,8 @@ package org.sonar.server.db.migrations;
 
 import org.sonar.core.persistence.Database;
 
+import javax.annotation.Nullable;
+
 import java.sql.Connection;
 import java.sql.SQLException;
 
@@ -29,11 +31,20 @@ public interface DataChange {
   class Context {
     private final Database db;
     private final Connection readConnection, writeConnection;
+    private final String migrationKey;
 
     public Context(Database db, Connection readConnection, Connection writeConnection) {
+      this(db, readConnection, writeConnection, null);
+    }
+
+    /**
+     * @param migrationKey unique key of the migration, used to persist progress of mass updates
+     */
+    public Context(Database db, Connection readConnection, Connection writeConnection, @Nullable String migrationKey) {
       this.db = db;
       this.readConnection = readConnection;
       this.writeConnection = writeConnection;
+      this.migrationKey = migrationKey;
     }
 
     public Select prepareSelect(String sql) throws SQLException {
@@ -45,7 +56,7 @@ public interface DataChange {
     }
 
     public MassUpdate prepareMassUpdate() throws SQLException {
-      return new MassUpdate(db, readConnection, writeConnection);
+      return new MassUpdate(db, readConnection, writeConnection, migrationKey);
     }
   }
 
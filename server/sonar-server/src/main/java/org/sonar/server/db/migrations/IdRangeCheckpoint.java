@@ -0,0 +1,134 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.db.migrations;
+
+import org.apache.commons.dbutils.DbUtils;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Lowest id that is not processed yet by a {@link MassUpdate} executed by ranges of ids. Ranges can complete
+ * in any order, so the checkpoint moves forward only when all the previous ranges are completed. It is stored
+ * in table PROPERTIES, so that an interrupted migration does not process the completed ranges again.
+ */
+class IdRangeCheckpoint {
+
+  static final String PROPERTY_PREFIX = "sonar.migration.checkpoint.";
+
+  private final Connection connection;
+  private final String propertyKey;
+  private final SortedSet<Long> completedRanges = new TreeSet<>();
+  private long rangeSize;
+  private long value;
+
+  /**
+   * @param propertyKey if null, then checkpoint is not persisted
+   */
+  IdRangeCheckpoint(Connection connection, @Nullable String propertyKey) {
+    this.connection = connection;
+    this.propertyKey = propertyKey == null ? null : (PROPERTY_PREFIX + propertyKey);
+  }
+
+  /**
+   * @return the first id to process, which is the persisted checkpoint if greater than {@code minId}
+   */
+  long start(long minId, long rangeSize) throws SQLException {
+    this.rangeSize = rangeSize;
+    Long persisted = load();
+    this.value = persisted == null ? minId : Math.max(minId, persisted);
+    return value;
+  }
+
+  synchronized void complete(long rangeStart) throws SQLException {
+    completedRanges.add(rangeStart);
+    long previous = value;
+    while (!completedRanges.isEmpty() && completedRanges.first() == value) {
+      completedRanges.remove(value);
+      value += rangeSize;
+    }
+    if (value != previous) {
+      save();
+    }
+  }
+
+  synchronized long value() {
+    return value;
+  }
+
+  /**
+   * Called when all the ranges are completed
+   */
+  synchronized void clear() throws SQLException {
+    if (propertyKey != null) {
+      delete();
+      connection.commit();
+    }
+  }
+
+  @CheckForNull
+  private Long load() throws SQLException {
+    if (propertyKey == null) {
+      return null;
+    }
+    PreparedStatement stmt = connection.prepareStatement("SELECT text_value FROM properties WHERE prop_key=? AND resource_id IS NULL AND user_id IS NULL");
+    ResultSet rs = null;
+    try {
+      stmt.setString(1, propertyKey);
+      rs = stmt.executeQuery();
+      return rs.next() ? Long.valueOf(rs.getString(1)) : null;
+    } finally {
+      DbUtils.closeQuietly(rs);
+      DbUtils.closeQuietly(stmt);
+    }
+  }
+
+  private void save() throws SQLException {
+    if (propertyKey != null) {
+      delete();
+      PreparedStatement stmt = connection.prepareStatement("INSERT INTO properties (prop_key, text_value) VALUES (?, ?)");
+      try {
+        stmt.setString(1, propertyKey);
+        stmt.setString(2, String.valueOf(value));
+        stmt.executeUpdate();
+      } finally {
+        DbUtils.closeQuietly(stmt);
+      }
+      connection.commit();
+    }
+  }
+
+  private void delete() throws SQLException {
+    PreparedStatement stmt = connection.prepareStatement("DELETE FROM properties WHERE prop_key=? AND resource_id IS NULL AND user_id IS NULL");
+    try {
+      stmt.setString(1, propertyKey);
+      stmt.executeUpdate();
+    } finally {
+      DbUtils.closeQuietly(stmt);
+    }
+  }
+}
@@ -19,18 +19,40 @@
  */
 package org.sonar.server.db.migrations;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.dbutils.DbUtils;
 import org.sonar.core.persistence.Database;
+import org.sonar.core.persistence.dialect.H2;
 import org.sonar.server.util.ProgressLogger;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class MassUpdate {
 
+  static final long DEFAULT_RANGE_SIZE = 100000L;
+  static final int DEFAULT_CONCURRENCY = 4;
+
   public static interface Handler {
     /**
-     * Convert some column values of a given row.
+     * Convert some column values of a given row. Must be thread-safe when rows are selected by
+     * ranges of ids, see {@link MassUpdate#selectByIdRanges(String, String)}.
      *
      * @return true if the row must be updated, else false. If false, then the update parameter must not be touched.
      */
@@ -39,16 +61,31 @@ public class MassUpdate {
 
   private final Database db;
   private final Connection readConnection, writeConnection;
+  private final String checkpointKey;
   private final AtomicLong counter = new AtomicLong(0L);
   private final ProgressLogger progress = ProgressLogger.create(getClass(), counter);
 
   private Select select;
-  private Upsert update;
+  private String updateSql;
+  private String rangeTable;
+  private String rangeSql;
+  private long rangeSize = DEFAULT_RANGE_SIZE;
+  private int concurrency = DEFAULT_CONCURRENCY;
+  private boolean concurrentOnH2 = false;
 
   MassUpdate(Database db, Connection readConnection, Connection writeConnection) {
+    this(db, readConnection, writeConnection, null);
+  }
+
+  /**
+   * @param checkpointKey unique key of the mass update, used to persist the progress of executions by ranges of ids.
+   *                      If null, then progress is not persisted.
+   */
+  MassUpdate(Database db, Connection readConnection, Connection writeConnection, @Nullable String checkpointKey) {
     this.db = db;
     this.readConnection = readConnection;
     this.writeConnection = writeConnection;
+    this.checkpointKey = checkpointKey;
   }
 
   public SqlStatement select(String sql) throws SQLException {
@@ -56,8 +93,49 @@ public class MassUpdate {
     return this.select;
   }
 
+  /**
+   * Selects rows by ranges of values of the column "id" of the given table, instead of a single scroll
+   * of {@link #select(String)}. The request must have exactly two parameters: the lower (inclusive) and the
+   * upper (exclusive) bounds of the range, for example "SELECT i.id, i.kee FROM issues i WHERE i.id&gt;=? AND i.id&lt;?".
+   * <p/>
+   * Ranges are processed concurrently, each one on its own connections, and are committed when completed.
+   * If the mass update has a checkpoint key, then the first id that is not processed yet is
+   * persisted, so that an interrupted migration resumes from it.
+   */
+  public MassUpdate selectByIdRanges(String table, String sql) {
+    this.rangeTable = table;
+    this.rangeSql = sql;
+    return this;
+  }
+
+  /**
+   * Number of ids per range. Default is {@link #DEFAULT_RANGE_SIZE}.
+   */
+  public MassUpdate rangeSize(long l) {
+    this.rangeSize = l;
+    return this;
+  }
+
+  /**
+   * Maximum number of ranges processed concurrently. Default is {@link #DEFAULT_CONCURRENCY}. Ranges
+   * are processed sequentially on H2.
+   */
+  public MassUpdate concurrency(int i) {
+    this.concurrency = i;
+    return this;
+  }
+
+  /**
+   * Ranges are processed sequentially on H2 in production, but tests need to verify concurrent executions.
+   */
+  @VisibleForTesting
+  MassUpdate concurrentOnH2() {
+    this.concurrentOnH2 = true;
+    return this;
+  }
+
   public MassUpdate update(String sql) throws SQLException {
-    this.update = UpsertImpl.create(writeConnection, sql);
+    this.updateSql = sql;
     return this;
   }
 
@@ -67,25 +145,17 @@ public class MassUpdate {
   }
 
   public void execute(final Handler handler) throws SQLException {
-    if (select == null || update == null) {
+    if ((select == null && rangeSql == null) || updateSql == null) {
       throw new IllegalStateException("SELECT or UPDATE requests are not defined");
     }
 
     progress.start();
     try {
-      select.scroll(new Select.RowHandler() {
-        @Override
-        public void handle(Select.Row row) throws SQLException {
-          if (handler.handle(row, update)) {
-            update.addBatch();
-          }
-          counter.getAndIncrement();
-        }
-      });
-      if (((UpsertImpl) update).getBatchCount() > 0L) {
-        update.execute().commit();
+      if (rangeSql == null) {
+        executeScroll(select, UpsertImpl.create(writeConnection, updateSql), handler);
+      } else {
+        executeByIdRanges(handler);
       }
-      update.close();
 
       // log the total number of processed rows
       progress.log();
@@ -94,4 +164,128 @@ public class MassUpdate {
     }
   }
 
+  private void executeScroll(Select select, final Upsert update, final Handler handler) throws SQLException {
+    select.scroll(new Select.RowHandler() {
+      @Override
+      public void handle(Select.Row row) throws SQLException {
+        if (handler.handle(row, update)) {
+          update.addBatch();
+        }
+        counter.getAndIncrement();
+      }
+    });
+    if (((UpsertImpl) update).getBatchCount() > 0L) {
+      update.execute().commit();
+    }
+    update.close();
+  }
+
+  private void executeByIdRanges(final Handler handler) throws SQLException {
+    long[] bounds = selectIdBounds();
+    if (bounds == null) {
+      return;
+    }
+    final IdRangeCheckpoint checkpoint = new IdRangeCheckpoint(writeConnection, checkpointKey == null ? null : (checkpointKey + "." + rangeTable));
+    final long maxId = bounds[1];
+    final AtomicLong nextRange = new AtomicLong(checkpoint.start(bounds[0], rangeSize));
+    final AtomicBoolean failed = new AtomicBoolean(false);
+
+    int threads = H2.ID.equals(db.getDialect().getId()) && !concurrentOnH2 ? 1 : concurrency;
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+      .setNameFormat("mass-update-" + (checkpointKey == null ? "" : (checkpointKey + "-")) + "%d")
+      .build());
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws SQLException {
+            try {
+              long rangeStart = nextRange.getAndAdd(rangeSize);
+              while (rangeStart <= maxId && !failed.get()) {
+                executeRange(handler, rangeStart, rangeStart + rangeSize);
+                checkpoint.complete(rangeStart);
+                rangeStart = nextRange.getAndAdd(rangeSize);
+              }
+              return null;
+            } catch (SQLException | RuntimeException e) {
+              // stop the other workers
+              failed.set(true);
+              throw e;
+            }
+          }
+        }));
+      }
+      // wait for all the workers, so that none of them still uses the connections when the first failure is thrown
+      Throwable failure = null;
+      for (Future<Void> future : futures) {
+        Throwable t = waitFor(future);
+        if (failure == null) {
+          failure = t;
+        }
+      }
+      if (failure != null) {
+        Throwables.propagateIfInstanceOf(failure, SQLException.class);
+        throw Throwables.propagate(failure);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    checkpoint.clear();
+  }
+
+  private void executeRange(Handler handler, long fromId, long toId) throws SQLException {
+    Connection rangeReadConnection = null;
+    Connection rangeWriteConnection = null;
+    try {
+      rangeReadConnection = BaseDataChange.openReadConnection(db);
+      rangeWriteConnection = db.getDataSource().getConnection();
+      rangeWriteConnection.setAutoCommit(false);
+      Select rangeSelect = SelectImpl.create(db, rangeReadConnection, rangeSql);
+      rangeSelect.setLong(1, fromId);
+      rangeSelect.setLong(2, toId);
+      executeScroll(rangeSelect, UpsertImpl.create(rangeWriteConnection, updateSql), handler);
+    } finally {
+      DbUtils.closeQuietly(rangeReadConnection);
+      DbUtils.closeQuietly(rangeWriteConnection);
+    }
+  }
+
+  /**
+   * @return min and max ids, or null if table is empty
+   */
+  private long[] selectIdBounds() throws SQLException {
+    PreparedStatement stmt = readConnection.prepareStatement("SELECT MIN(id), MAX(id) FROM " + rangeTable);
+    ResultSet rs = null;
+    try {
+      rs = stmt.executeQuery();
+      if (rs.next()) {
+        long max = rs.getLong(2);
+        if (!rs.wasNull()) {
+          return new long[] {rs.getLong(1), max};
+        }
+      }
+      return null;
+    } finally {
+      DbUtils.closeQuietly(rs);
+      DbUtils.closeQuietly(stmt);
+    }
+  }
+
+  /**
+   * @return the failure of the worker, or null if it succeeded
+   */
+  @CheckForNull
+  private static Throwable waitFor(Future<Void> future) {
+    try {
+      future.get();
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the mass update", e);
+    } catch (ExecutionException e) {
+      return e.getCause();
+    }
+  }
+
 }
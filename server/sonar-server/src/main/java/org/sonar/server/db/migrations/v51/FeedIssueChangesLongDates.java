@@ -44,7 +44,8 @@ public class FeedIssueChangesLongDates extends BaseDataChange {
     final long now = system.now();
 
     MassUpdate massUpdate = context.prepareMassUpdate();
-    massUpdate.select("SELECT i.created_at, i.updated_at, i.issue_change_creation_date, i.id FROM issue_changes i WHERE created_at_ms IS NULL");
+    massUpdate.selectByIdRanges("issue_changes",
+      "SELECT i.created_at, i.updated_at, i.issue_change_creation_date, i.id FROM issue_changes i WHERE created_at_ms IS NULL AND i.id>=? AND i.id<?");
     massUpdate.update("UPDATE issue_changes SET created_at_ms=?, updated_at_ms=?, issue_change_creation_date_ms=? WHERE id=?");
     massUpdate.rowPluralName("issue_changes");
     massUpdate.execute(new MassUpdate.Handler() {
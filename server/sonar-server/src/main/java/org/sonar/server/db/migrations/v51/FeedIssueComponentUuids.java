@@ -38,11 +38,11 @@ public class FeedIssueComponentUuids extends BaseDataChange {
   @Override
   public void execute(Context context) throws SQLException {
     MassUpdate update = context.prepareMassUpdate().rowPluralName("issues");
-    update.select(
+    update.selectByIdRanges("issues",
       "SELECT c.uuid, c.project_uuid, i.id " +
         "FROM issues i " +
         "INNER JOIN projects c ON i.component_id=c.id " +
-        "WHERE i.component_uuid is null");
+        "WHERE i.component_uuid is null AND i.id>=? AND i.id<?");
     update.update("UPDATE issues SET component_uuid=?, project_uuid=? WHERE id=?");
     update.execute(new Handler() {
       @Override
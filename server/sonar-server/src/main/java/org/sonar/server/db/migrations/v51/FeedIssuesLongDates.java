@@ -43,8 +43,9 @@ public class FeedIssuesLongDates extends BaseDataChange {
   public void execute(Context context) throws SQLException {
     final long now = system2.now();
     MassUpdate massUpdate = context.prepareMassUpdate();
-    massUpdate
-      .select("SELECT i.issue_creation_date, i.issue_update_date, i.issue_close_date, i.id FROM issues i WHERE issue_creation_date_ms IS NULL");
+    massUpdate.selectByIdRanges("issues",
+      "SELECT i.issue_creation_date, i.issue_update_date, i.issue_close_date, i.id FROM issues i " +
+        "WHERE issue_creation_date_ms IS NULL AND i.id>=? AND i.id<?");
     massUpdate
       .update("UPDATE issues SET issue_creation_date_ms=?, issue_update_date_ms=?, issue_close_date_ms=? WHERE id=?");
     massUpdate.rowPluralName("issues");
@@ -0,0 +1,76 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import com.google.common.base.Supplier;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.persistence.Database;
+import org.sonar.core.persistence.DatabaseUtils;
+
+import javax.annotation.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Number of documents to be indexed, estimated with a SQL request returning a single number. It is
+ * used to compute the number of shards when creating an index, see {@link NewIndex#configureShards}.
+ * Zero is returned if db is not available or if the request fails.
+ */
+public class DbDocumentCount implements Supplier<Long> {
+
+  private final Database db;
+  private final String sql;
+  private final Object[] params;
+
+  public DbDocumentCount(@Nullable Database db, String sql, Object... params) {
+    this.db = db;
+    this.sql = sql;
+    this.params = params;
+  }
+
+  @Override
+  public Long get() {
+    if (db == null) {
+      return 0L;
+    }
+    Connection connection = null;
+    PreparedStatement stmt = null;
+    ResultSet rs = null;
+    try {
+      connection = db.getDataSource().getConnection();
+      stmt = connection.prepareStatement(sql);
+      for (int i = 0; i < params.length; i++) {
+        stmt.setObject(i + 1, params[i]);
+      }
+      rs = stmt.executeQuery();
+      return rs.next() ? rs.getLong(1) : 0L;
+    } catch (SQLException e) {
+      Loggers.get(DbDocumentCount.class).warn("Fail to count documents to be indexed: " + sql, e);
+      return 0L;
+    } finally {
+      DatabaseUtils.closeQuietly(rs);
+      DatabaseUtils.closeQuietly(stmt);
+      DatabaseUtils.closeQuietly(connection);
+    }
+  }
+}
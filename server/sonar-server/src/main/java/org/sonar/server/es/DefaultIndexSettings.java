@@ -50,6 +50,15 @@ class DefaultIndexSettings {
       .put("index.analysis.analyzer.search_grams.tokenizer", "whitespace")
       .putArray("index.analysis.analyzer.search_grams.filter", "trim", "lowercase")
 
+      // NGram analyzer, used both at index and search time. Spaces are not separators,
+      // so that any substring of the value can be searched.
+      .put("index.analysis.analyzer.substrings.type", "custom")
+      .put("index.analysis.analyzer.substrings.tokenizer", "substring_tokenizer")
+      .putArray("index.analysis.analyzer.substrings.filter", "lowercase")
+      .put("index.analysis.tokenizer.substring_tokenizer.type", "nGram")
+      .put("index.analysis.tokenizer.substring_tokenizer.min_gram", 2)
+      .put("index.analysis.tokenizer.substring_tokenizer.max_gram", 15)
+
       // Word index-analyzer
       .put("index.analysis.analyzer.index_words.type", "custom")
       .put("index.analysis.analyzer.index_words.tokenizer", "standard")
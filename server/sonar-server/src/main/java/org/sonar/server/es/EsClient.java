@@ -39,6 +39,7 @@ import org.elasticsearch.action.deletebyquery.DeleteByQueryRequestBuilder;
 import org.elasticsearch.action.get.GetRequestBuilder;
 import org.elasticsearch.action.get.MultiGetRequestBuilder;
 import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.ClearScrollRequestBuilder;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchScrollRequestBuilder;
 import org.elasticsearch.client.Client;
@@ -49,8 +50,11 @@ import org.elasticsearch.search.aggregations.metrics.max.Max;
 import org.picocontainer.Startable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.core.telemetry.Timer;
 import org.sonar.server.es.request.ProxyBulkRequestBuilder;
 import org.sonar.server.es.request.ProxyClearCacheRequestBuilder;
+import org.sonar.server.es.request.ProxyClearScrollRequestBuilder;
 import org.sonar.server.es.request.ProxyClusterHealthRequestBuilder;
 import org.sonar.server.es.request.ProxyClusterStateRequestBuilder;
 import org.sonar.server.es.request.ProxyClusterStatsRequestBuilder;
@@ -78,18 +82,22 @@ import org.sonar.server.search.SearchClient;
 public class EsClient implements Startable {
 
   public static final Logger LOGGER = Loggers.get("es");
+  static final String REQUEST_METRIC = "sonar_es_request_seconds";
   private final Client client;
+  private final Telemetry telemetry;
 
-  public EsClient(SearchClient deprecatedClient) {
+  public EsClient(SearchClient deprecatedClient, Telemetry telemetry) {
     this.client = deprecatedClient;
+    this.telemetry = telemetry;
   }
 
-  EsClient(Client client) {
+  EsClient(Client client, Telemetry telemetry) {
     this.client = client;
+    this.telemetry = telemetry;
   }
 
   public RefreshRequestBuilder prepareRefresh(String... indices) {
-    return new ProxyRefreshRequestBuilder(client).setIndices(indices);
+    return new ProxyRefreshRequestBuilder(client, telemetry).setIndices(indices);
   }
 
   public FlushRequestBuilder prepareFlush(String... indices) {
@@ -133,43 +141,47 @@ public class EsClient implements Startable {
   }
 
   public SearchRequestBuilder prepareSearch(String... indices) {
-    return new ProxySearchRequestBuilder(client).setIndices(indices);
+    return new ProxySearchRequestBuilder(client, telemetry).setIndices(indices);
   }
 
   public SearchScrollRequestBuilder prepareSearchScroll(String scrollId) {
-    return new ProxySearchScrollRequestBuilder(scrollId, client);
+    return new ProxySearchScrollRequestBuilder(scrollId, client, telemetry);
+  }
+
+  public ClearScrollRequestBuilder prepareClearScroll(String scrollId) {
+    return new ProxyClearScrollRequestBuilder(scrollId, client, telemetry);
   }
 
   public GetRequestBuilder prepareGet() {
-    return new ProxyGetRequestBuilder(client);
+    return new ProxyGetRequestBuilder(client, telemetry);
   }
 
   public GetRequestBuilder prepareGet(String index, String type, String id) {
-    return new ProxyGetRequestBuilder(client).setIndex(index).setType(type).setId(id);
+    return new ProxyGetRequestBuilder(client, telemetry).setIndex(index).setType(type).setId(id);
   }
 
   public MultiGetRequestBuilder prepareMultiGet() {
-    return new ProxyMultiGetRequestBuilder(client);
+    return new ProxyMultiGetRequestBuilder(client, telemetry);
   }
 
   public CountRequestBuilder prepareCount(String... indices) {
-    return new ProxyCountRequestBuilder(client).setIndices(indices);
+    return new ProxyCountRequestBuilder(client, telemetry).setIndices(indices);
   }
 
   public BulkRequestBuilder prepareBulk() {
-    return new ProxyBulkRequestBuilder(client);
+    return new ProxyBulkRequestBuilder(client, telemetry);
   }
 
   public DeleteRequestBuilder prepareDelete(String index, String type, String id) {
-    return new ProxyDeleteRequestBuilder(client, index).setType(type).setId(id);
+    return new ProxyDeleteRequestBuilder(client, index, telemetry).setType(type).setId(id);
   }
 
   public DeleteByQueryRequestBuilder prepareDeleteByQuery(String... indices) {
-    return new ProxyDeleteByQueryRequestBuilder(client).setIndices(indices);
+    return new ProxyDeleteByQueryRequestBuilder(client, telemetry).setIndices(indices);
   }
 
   public IndexRequestBuilder prepareIndex(String index, String type) {
-    return new ProxyIndexRequestBuilder(client).setIndex(index).setType(type);
+    return new ProxyIndexRequestBuilder(client, telemetry).setIndex(index).setType(type);
   }
 
   public OptimizeRequestBuilder prepareOptimize(String indexName) {
@@ -208,4 +220,11 @@ public class EsClient implements Startable {
   protected Client nativeClient() {
     return client;
   }
+
+  /**
+   * Timer of the requests of the given type, for example "search"
+   */
+  public static Timer requestTimer(Telemetry telemetry, String requestType) {
+    return telemetry.timer(REQUEST_METRIC, "Execution time of Elasticsearch requests", "type", requestType);
+  }
 }
@@ -23,6 +23,7 @@ import org.apache.commons.lang.StringUtils;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthStatus;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingResponse;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.picocontainer.Startable;
 import org.sonar.api.ServerComponent;
@@ -74,9 +75,16 @@ public class IndexCreator implements ServerComponent, Startable {
   }
 
   private void createIndex(IndexDefinitions.Index index) {
-    LOGGER.info(String.format("Create index %s", index.getName()));
     ImmutableSettings.Builder settings = ImmutableSettings.builder();
     settings.put(index.getSettings());
+    NewIndex.ShardsSizing shardsSizing = index.getShardsSizing();
+    if (shardsSizing != null) {
+      int shards = shardsSizing.compute();
+      LOGGER.info(String.format("Create index %s with %d shards", index.getName(), shards));
+      settings.put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, shards);
+    } else {
+      LOGGER.info(String.format("Create index %s", index.getName()));
+    }
     settings.put(SETTING_HASH, new IndexDefinitionHash().of(index));
     CreateIndexResponse indexResponse = client
       .prepareCreate(index.getName())
@@ -25,6 +25,8 @@ import org.elasticsearch.common.settings.Settings;
 import org.picocontainer.Startable;
 import org.sonar.api.ServerComponent;
 
+import javax.annotation.CheckForNull;
+
 import java.util.Map;
 
 /**
@@ -39,10 +41,12 @@ public class IndexDefinitions implements ServerComponent, Startable {
     private final String name;
     private final Settings settings;
     private final Map<String, IndexType> types;
+    private final NewIndex.ShardsSizing shardsSizing;
 
     Index(NewIndex newIndex) {
       this.name = newIndex.getName();
       this.settings = newIndex.getSettings().build();
+      this.shardsSizing = newIndex.getShardsSizing();
       ImmutableMap.Builder<String, IndexType> builder = ImmutableMap.builder();
       for (NewIndex.NewIndexType newIndexType : newIndex.getTypes().values()) {
         IndexType type = new IndexType(newIndexType);
@@ -62,6 +66,14 @@ public class IndexDefinitions implements ServerComponent, Startable {
     public Map<String, IndexType> getTypes() {
       return types;
     }
+
+    /**
+     * Not null if the number of shards must be computed when creating the index
+     */
+    @CheckForNull
+    public NewIndex.ShardsSizing getShardsSizing() {
+      return shardsSizing;
+    }
   }
 
   /**
@@ -20,10 +20,13 @@
 package org.sonar.server.es;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import org.apache.commons.lang.StringUtils;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.settings.ImmutableSettings;
+import org.sonar.api.config.Settings;
 import org.sonar.server.search.IndexField;
 
 import javax.annotation.CheckForNull;
@@ -127,7 +130,7 @@ public class NewIndex {
   public static class StringFieldBuilder {
     private final NewIndexType indexType;
     private final String fieldName;
-    private boolean sortable = false, wordSearch = false, gramSearch = false, docValues = false, disableSearch = false;
+    private boolean sortable = false, wordSearch = false, gramSearch = false, substringSearch = false, docValues = false, disableSearch = false;
 
     private StringFieldBuilder(NewIndexType indexType, String fieldName) {
       this.indexType = indexType;
@@ -163,6 +166,15 @@ public class NewIndex {
       return this;
     }
 
+    /**
+     * Create a inner-field named "substrings" with analyzer "substrings". Contrary to "grams",
+     * the n-grams are computed on the whole value, so any part of the value can be searched.
+     */
+    public StringFieldBuilder enableSubstringSearch() {
+      this.substringSearch = true;
+      return this;
+    }
+
     /**
      * "index: no" -> Don’t index this field at all. This field will not be searchable.
      * By default field is "not_analyzed": it is searchable, but index the value exactly
@@ -176,7 +188,7 @@ public class NewIndex {
     public void build() {
       validate();
       Map<String, Object> hash = new TreeMap<>();
-      if (wordSearch || sortable || gramSearch) {
+      if (wordSearch || sortable || gramSearch || substringSearch) {
         hash.put("type", "multi_field");
         Map<String, Object> multiFields = new TreeMap<>();
 
@@ -200,6 +212,12 @@ public class NewIndex {
             "index_analyzer", "index_grams",
             "search_analyzer", "search_grams"));
         }
+        if (substringSearch) {
+          multiFields.put(IndexField.SEARCH_SUBSTRING_SUFFIX, ImmutableSortedMap.of(
+            "type", "string",
+            "index", "analyzed",
+            "analyzer", "substrings"));
+        }
         multiFields.put(fieldName, ImmutableMap.of(
           "type", "string",
           "index", "not_analyzed",
@@ -218,18 +236,48 @@ public class NewIndex {
     }
 
     private void validate() {
-      if (docValues && (gramSearch || wordSearch || sortable)) {
+      boolean analyzed = gramSearch || substringSearch || wordSearch || sortable;
+      if (docValues && analyzed) {
         throw new IllegalStateException("Doc values are not supported on analyzed strings of field: " + fieldName);
       }
-      if (disableSearch && (gramSearch || wordSearch || sortable)) {
+      if (disableSearch && analyzed) {
         throw new IllegalStateException("Can't mix searchable and non-searchable arguments on field: " + fieldName);
       }
     }
   }
 
+  /**
+   * Number of shards computed when the index is created, from the number of documents to be indexed
+   */
+  public static class ShardsSizing {
+    private final int minShards;
+    private final long docsPerShard;
+    private final Supplier<Long> expectedDocs;
+
+    private ShardsSizing(int minShards, long docsPerShard, Supplier<Long> expectedDocs) {
+      this.minShards = minShards;
+      this.docsPerShard = docsPerShard;
+      this.expectedDocs = expectedDocs;
+    }
+
+    public int compute() {
+      long shards = (expectedDocs.get() + docsPerShard - 1) / docsPerShard;
+      return (int) Math.min(MAX_SHARDS, Math.max(minShards, shards));
+    }
+  }
+
+  public static final String SHARDS_PROPERTY = "sonar.search.%s.shards";
+  public static final int MAX_SHARDS = 16;
+
+  /**
+   * Stored with index instead of the number of shards when it is computed from data volume
+   */
+  static final String SETTING_SHARDS_SIZING = "index.sonar_shards_sizing";
+
   private final String indexName;
   private final ImmutableSettings.Builder settings = DefaultIndexSettings.defaults();
   private final SortedMap<String, NewIndexType> types = new TreeMap<String, NewIndexType>();
+  private ShardsSizing shardsSizing;
 
   NewIndex(String indexName) {
     Preconditions.checkArgument(StringUtils.isAllLowerCase(indexName), "Index name must be lower-case: " + indexName);
@@ -244,6 +292,33 @@ public class NewIndex {
     return settings;
   }
 
+  /**
+   * The number of shards is the value of the property "sonar.search.{index}.shards" when it is defined. Otherwise it
+   * is computed when the index is created, with one shard per {@code docsPerShard} expected documents, between
+   * {@code minShards} and {@link #MAX_SHARDS}.
+   * <p/>
+   * Only the configured value is part of the index definition, so changing the property re-creates and re-populates
+   * the index, but growth of data does not.
+   */
+  public NewIndex configureShards(Settings config, int minShards, long docsPerShard, Supplier<Long> expectedDocs) {
+    int configuredShards = config.getInt(String.format(SHARDS_PROPERTY, indexName));
+    if (configuredShards > 0) {
+      settings.put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, configuredShards);
+      settings.remove(SETTING_SHARDS_SIZING);
+      shardsSizing = null;
+    } else {
+      settings.remove(IndexMetaData.SETTING_NUMBER_OF_SHARDS);
+      settings.put(SETTING_SHARDS_SIZING, minShards + "/" + docsPerShard);
+      shardsSizing = new ShardsSizing(minShards, docsPerShard, expectedDocs);
+    }
+    return this;
+  }
+
+  @CheckForNull
+  public ShardsSizing getShardsSizing() {
+    return shardsSizing;
+  }
+
   public NewIndexType createType(String typeName) {
     NewIndexType type = new NewIndexType(typeName);
     types.put(typeName, type);
@@ -32,24 +32,31 @@ import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.unit.TimeValue;
 import org.sonar.api.utils.log.Profiler;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.core.telemetry.Timer;
 import org.sonar.server.es.EsClient;
 
 import java.util.Set;
 
 public class ProxyBulkRequestBuilder extends BulkRequestBuilder {
 
-  public ProxyBulkRequestBuilder(Client client) {
+  private final Timer timer;
+
+  public ProxyBulkRequestBuilder(Client client, Telemetry telemetry) {
     super(client);
+    this.timer = EsClient.requestTimer(telemetry, "bulk");
   }
 
   @Override
   public BulkResponse get() {
     Profiler profiler = Profiler.createIfTrace(EsClient.LOGGER).start();
+    long startNanos = System.nanoTime();
     try {
       return super.execute().actionGet();
     } catch (Exception e) {
       throw new IllegalStateException(String.format("Fail to execute %s", toString()), e);
     } finally {
+      timer.recordSince(startNanos);
       if (profiler.isTraceEnabled()) {
         profiler.stopTrace(toString());
       }
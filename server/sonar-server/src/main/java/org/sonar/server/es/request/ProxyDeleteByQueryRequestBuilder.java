@@ -31,26 +31,33 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.sonar.api.utils.log.Profiler;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.core.telemetry.Timer;
 import org.sonar.server.es.EsClient;
 
 import java.io.IOException;
 
 public class ProxyDeleteByQueryRequestBuilder extends DeleteByQueryRequestBuilder {
 
+  private final Timer timer;
+
   private QueryBuilder internalBuilder;
 
-  public ProxyDeleteByQueryRequestBuilder(Client client) {
+  public ProxyDeleteByQueryRequestBuilder(Client client, Telemetry telemetry) {
     super(client);
+    this.timer = EsClient.requestTimer(telemetry, "delete_by_query");
   }
 
   @Override
   public DeleteByQueryResponse get() {
     Profiler profiler = Profiler.createIfTrace(EsClient.LOGGER).start();
+    long startNanos = System.nanoTime();
     try {
       return super.execute().actionGet();
     } catch (Exception e) {
       throw new IllegalStateException(String.format("Fail to execute %s", toString()), e);
     } finally {
+      timer.recordSince(startNanos);
       if (profiler.isTraceEnabled()) {
         profiler.stopTrace(toString());
       }
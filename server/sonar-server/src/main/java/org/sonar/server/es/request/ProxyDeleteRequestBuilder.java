@@ -25,22 +25,29 @@ import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.unit.TimeValue;
 import org.sonar.api.utils.log.Profiler;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.core.telemetry.Timer;
 import org.sonar.server.es.EsClient;
 
 public class ProxyDeleteRequestBuilder extends DeleteRequestBuilder {
 
-  public ProxyDeleteRequestBuilder(Client client, String index) {
+  private final Timer timer;
+
+  public ProxyDeleteRequestBuilder(Client client, String index, Telemetry telemetry) {
     super(client, index);
+    this.timer = EsClient.requestTimer(telemetry, "delete");
   }
 
   @Override
   public DeleteResponse get() {
     Profiler profiler = Profiler.createIfTrace(EsClient.LOGGER).start();
+    long startNanos = System.nanoTime();
     try {
       return super.execute().actionGet();
     } catch (Exception e) {
       throw new IllegalStateException(String.format("Fail to execute %s", toString()), e);
     } finally {
+      timer.recordSince(startNanos);
       if (profiler.isTraceEnabled()) {
         profiler.stopTrace(toString());
       }
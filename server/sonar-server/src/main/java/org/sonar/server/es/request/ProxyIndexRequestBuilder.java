@@ -25,22 +25,29 @@ import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.unit.TimeValue;
 import org.sonar.api.utils.log.Profiler;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.core.telemetry.Timer;
 import org.sonar.server.es.EsClient;
 
 public class ProxyIndexRequestBuilder extends IndexRequestBuilder {
 
-  public ProxyIndexRequestBuilder(Client client) {
+  private final Timer timer;
+
+  public ProxyIndexRequestBuilder(Client client, Telemetry telemetry) {
     super(client);
+    this.timer = EsClient.requestTimer(telemetry, "index");
   }
 
   @Override
   public IndexResponse get() {
     Profiler profiler = Profiler.createIfTrace(EsClient.LOGGER).start();
+    long startNanos = System.nanoTime();
     try {
       return super.execute().actionGet();
     } catch (Exception e) {
       throw new IllegalStateException(String.format("Fail to execute %s", toString()), e);
     } finally {
+      timer.recordSince(startNanos);
       if (profiler.isTraceEnabled()) {
         profiler.stopTrace(toString());
       }
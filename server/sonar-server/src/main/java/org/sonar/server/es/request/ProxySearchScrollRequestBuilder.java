@@ -26,22 +26,29 @@ import org.elasticsearch.action.search.SearchScrollRequestBuilder;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.unit.TimeValue;
 import org.sonar.api.utils.log.Profiler;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.core.telemetry.Timer;
 import org.sonar.server.es.EsClient;
 
 public class ProxySearchScrollRequestBuilder extends SearchScrollRequestBuilder {
 
-  public ProxySearchScrollRequestBuilder(String scrollId, Client client) {
+  private final Timer timer;
+
+  public ProxySearchScrollRequestBuilder(String scrollId, Client client, Telemetry telemetry) {
     super(client, scrollId);
+    this.timer = EsClient.requestTimer(telemetry, "search_scroll");
   }
 
   @Override
   public SearchResponse get() {
     Profiler profiler = Profiler.createIfTrace(EsClient.LOGGER).start();
+    long startNanos = System.nanoTime();
     try {
       return super.execute().actionGet();
     } catch (Exception e) {
       throw new IllegalStateException(String.format("Fail to execute %s", toString()), e);
     } finally {
+      timer.recordSince(startNanos);
       if (profiler.isTraceEnabled()) {
         profiler.stopTrace(toString());
       }
@@ -17,20 +17,27 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
-
-package org.sonar.server.component.db;
+package org.sonar.server.issue.db;
 
 import org.sonar.api.ServerComponent;
-import org.sonar.core.component.db.ComponentIndexMapper;
+import org.sonar.core.issue.db.IssueCounterDto;
+import org.sonar.core.issue.db.IssueCounterMapper;
 import org.sonar.core.persistence.DaoComponent;
 import org.sonar.core.persistence.DbSession;
 
 import java.util.List;
 
-public class ComponentIndexDao implements ServerComponent, DaoComponent {
+public class IssueCounterDao implements ServerComponent, DaoComponent {
+
+  public List<IssueCounterDto> selectByComponentUuid(DbSession session, String componentUuid) {
+    return session.getMapper(IssueCounterMapper.class).selectByComponentUuid(componentUuid);
+  }
 
-  public List<Long> selectProjectIdsFromQueryAndViewOrSubViewUuid(DbSession session, String query, String viewOrSubViewUuid) {
-    return session.getMapper(ComponentIndexMapper.class).selectProjectIdsFromQueryAndViewOrSubViewUuid(query + "%", "%." + viewOrSubViewUuid + ".%");
+  public void insert(DbSession session, IssueCounterDto dto) {
+    session.getMapper(IssueCounterMapper.class).insert(dto);
   }
 
+  public void deleteByProjectUuid(DbSession session, String projectUuid) {
+    session.getMapper(IssueCounterMapper.class).deleteByProjectUuid(projectUuid);
+  }
 }
@@ -29,6 +29,7 @@ import org.sonar.server.db.DbClient;
 import org.sonar.server.es.BaseIndexer;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.EsClient;
+import org.sonar.server.user.UserPermissionCache;
 
 import java.sql.Connection;
 import java.util.Collection;
@@ -45,10 +46,12 @@ import java.util.Map;
 public class IssueAuthorizationIndexer extends BaseIndexer {
 
   private final DbClient dbClient;
+  private final UserPermissionCache permissionCache;
 
-  public IssueAuthorizationIndexer(DbClient dbClient, EsClient esClient) {
+  public IssueAuthorizationIndexer(DbClient dbClient, EsClient esClient, UserPermissionCache permissionCache) {
     super(esClient, 0L, IssueIndexDefinition.INDEX, IssueIndexDefinition.TYPE_AUTHORIZATION, IssueIndexDefinition.FIELD_ISSUE_TECHNICAL_UPDATED_AT);
     this.dbClient = dbClient;
+    this.permissionCache = permissionCache;
   }
 
   @Override
@@ -84,6 +87,9 @@ public class IssueAuthorizationIndexer extends BaseIndexer {
       maxDate = Math.max(maxDate, authorization.getUpdatedAt());
     }
     bulk.stop();
+    if (!authorizations.isEmpty()) {
+      permissionCache.clear();
+    }
     return maxDate;
   }
 
@@ -92,6 +98,7 @@ public class IssueAuthorizationIndexer extends BaseIndexer {
       .prepareDelete(IssueIndexDefinition.INDEX, IssueIndexDefinition.TYPE_AUTHORIZATION, uuid)
       .setRefresh(refresh)
       .get();
+    permissionCache.clear();
   }
 
   private ActionRequest newUpdateRequest(IssueAuthorizationDao.Dto dto) {
@@ -55,6 +55,7 @@ import org.sonar.server.issue.filter.IssueFilterParameters;
 import org.sonar.server.rule.index.RuleNormalizer;
 import org.sonar.server.search.IndexDefinition;
 import org.sonar.server.search.StickyFacetBuilder;
+import org.sonar.server.user.UserPermissionCache;
 import org.sonar.server.user.UserSession;
 import org.sonar.server.view.index.ViewIndexDefinition;
 
@@ -119,11 +120,13 @@ public class IssueIndex extends BaseIndex {
 
   private final Sorting sorting;
   private final System2 system;
+  private final UserPermissionCache permissionCache;
 
-  public IssueIndex(EsClient client, System2 system) {
+  public IssueIndex(EsClient client, System2 system, UserPermissionCache permissionCache) {
     super(client);
 
     this.system = system;
+    this.permissionCache = permissionCache;
     this.sorting = new Sorting();
     this.sorting.add(IssueQuery.SORT_BY_ASSIGNEE, IssueIndexDefinition.FIELD_ISSUE_ASSIGNEE);
     this.sorting.add(IssueQuery.SORT_BY_STATUS, IssueIndexDefinition.FIELD_ISSUE_STATUS);
@@ -304,20 +307,10 @@ public class IssueIndex extends BaseIndex {
 
   private FilterBuilder createAuthorizationFilter(boolean checkAuthorization, @Nullable String userLogin, Set<String> userGroups) {
     if (checkAuthorization) {
-      OrFilterBuilder groupsAndUser = FilterBuilders.orFilter();
-      if (userLogin != null) {
-        groupsAndUser.add(FilterBuilders.termFilter(IssueIndexDefinition.FIELD_AUTHORIZATION_USERS, userLogin));
-      }
-      for (String group : userGroups) {
-        groupsAndUser.add(FilterBuilders.termFilter(IssueIndexDefinition.FIELD_AUTHORIZATION_GROUPS, group));
-      }
-      return FilterBuilders.hasParentFilter(IssueIndexDefinition.TYPE_AUTHORIZATION,
-        QueryBuilders.filteredQuery(
-          QueryBuilders.matchAllQuery(),
-          FilterBuilders.boolFilter()
-            .must(groupsAndUser)
-            .cache(true))
-        );
+      UserPermissionCache.IndexedProjects authorizedProjects = permissionCache.indexedProjects(userLogin, userGroups);
+      return FilterBuilders.termsFilter(IssueIndexDefinition.FIELD_ISSUE_PROJECT_UUID, authorizedProjects.uuids())
+        .cache(true)
+        .cacheKey(authorizedProjects.filterCacheKey());
     } else {
       return FilterBuilders.matchAllFilter();
     }
@@ -713,6 +706,8 @@ public class IssueIndex extends BaseIndex {
     SearchRequestBuilder requestBuilder = getClient()
       .prepareSearch(IssueIndexDefinition.INDEX)
       .setTypes(IssueIndexDefinition.TYPE_ISSUE)
+      // all the issues of the project are on the same shard
+      .setRouting(component.projectUuid())
       .setSearchType(SearchType.SCAN)
       .setScroll(TimeValue.timeValueMinutes(SCROLL_TIME_IN_MINUTES))
       .setSize(10000)
@@ -22,7 +22,9 @@ package org.sonar.server.issue.index;
 import com.google.common.collect.ImmutableMap;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.sonar.api.config.Settings;
+import org.sonar.core.persistence.Database;
 import org.sonar.process.ProcessProperties;
+import org.sonar.server.es.DbDocumentCount;
 import org.sonar.server.es.IndexDefinition;
 import org.sonar.server.es.NewIndex;
 
@@ -83,10 +85,23 @@ public class IssueIndexDefinition implements IndexDefinition {
    */
   public static final String FIELD_ISSUE_TECHNICAL_UPDATED_AT = "updatedAt";
 
+  static final long DOCS_PER_SHARD = 5000000L;
+
   private final Settings settings;
+  private final Database db;
+
+  public IssueIndexDefinition(Settings settings, Database db) {
+    this.settings = settings;
+    this.db = db;
+  }
 
+  /**
+   * Used when db is not available, for example in tests. Number of shards is then not
+   * computed from number of issues.
+   */
   public IssueIndexDefinition(Settings settings) {
     this.settings = settings;
+    this.db = null;
   }
 
   @Override
@@ -99,10 +114,9 @@ public class IssueIndexDefinition implements IndexDefinition {
     // shards
     boolean clusterMode = settings.getBoolean(ProcessProperties.CLUSTER_ACTIVATE);
     if (clusterMode) {
-      index.getSettings().put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 4);
       index.getSettings().put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 1);
-      // else keep defaults (one shard)
     }
+    index.configureShards(settings, clusterMode ? 4 : 1, DOCS_PER_SHARD, new DbDocumentCount(db, "select count(*) from issues"));
 
     // type "authorization"
     NewIndex.NewIndexType authorizationMapping = index.createType(TYPE_AUTHORIZATION);
@@ -0,0 +1,118 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.io.Resources;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.api.web.UserRole;
+import org.sonar.core.component.ComponentDto;
+import org.sonar.core.issue.db.IssueCounterDto;
+import org.sonar.core.persistence.DbSession;
+import org.sonar.server.computation.issue.IssueCounters;
+import org.sonar.server.db.DbClient;
+import org.sonar.server.user.UserSession;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Number of unresolved issues of a component by severity, status, rule and assignee, as computed during
+ * the last analysis. Much cheaper than the facets of api/issues/search, but not updated on changes done by users.
+ * @since 5.2
+ */
+public class CountersAction implements BaseIssuesWsAction {
+
+  private static final String PARAM_COMPONENT_KEY = "componentKey";
+  private static final List<String> FACETS = Arrays.asList(IssueCounterDto.FACET_SEVERITIES, IssueCounterDto.FACET_STATUSES,
+    IssueCounterDto.FACET_RULES, IssueCounterDto.FACET_ASSIGNEES);
+
+  private final DbClient dbClient;
+
+  public CountersAction(DbClient dbClient) {
+    this.dbClient = dbClient;
+  }
+
+  @Override
+  public void define(WebService.NewController controller) {
+    WebService.NewAction action = controller.createAction("counters")
+      .setHandler(this)
+      .setSince("5.2")
+      .setInternal(true)
+      .setDescription("Number of unresolved issues of a component (including issues on the descendants of the component) by severity, " +
+        "status, rule and assignee, as computed by the last analysis. Number of new issues is given for each differential period defined " +
+        "on the project. Requires Browse permission on the component's project.")
+      .setResponseExample(Resources.getResource(getClass(), "example-counters.json"));
+    action.createParam(PARAM_COMPONENT_KEY)
+      .setDescription("A component key")
+      .setRequired(true)
+      .setExampleValue("org.codehaus.sonar:sonar");
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws Exception {
+    ListMultimap<String, IssueCounterDto> countersByFacet = ArrayListMultimap.create();
+    try (DbSession session = dbClient.openSession(false)) {
+      ComponentDto component = dbClient.componentDao().getByKey(session, request.mandatoryParam(PARAM_COMPONENT_KEY));
+      UserSession.get().checkProjectUuidPermission(UserRole.USER, component.projectUuid());
+      for (IssueCounterDto counter : dbClient.issueCounterDao().selectByComponentUuid(session, component.uuid())) {
+        countersByFacet.put(counter.getFacet(), counter);
+      }
+    }
+
+    JsonWriter json = response.newJsonWriter().beginObject();
+    for (String facet : FACETS) {
+      List<IssueCounterDto> counters = countersByFacet.get(facet);
+      Collections.sort(counters, CountComparator.INSTANCE);
+      json.name(facet).beginArray();
+      for (IssueCounterDto counter : counters) {
+        writeCounter(json, counter);
+      }
+      json.endArray();
+    }
+    json.endObject().close();
+  }
+
+  private static void writeCounter(JsonWriter json, IssueCounterDto counter) {
+    json.beginObject()
+      .prop("val", counter.getFacetValue())
+      .prop("count", counter.getIssuesCount());
+    for (int period = 1; period <= IssueCounters.PERIODS; period++) {
+      json.prop("newCount" + period, counter.getNewIssuesCount(period));
+    }
+    json.endObject();
+  }
+
+  private enum CountComparator implements Comparator<IssueCounterDto> {
+    INSTANCE;
+
+    @Override
+    public int compare(IssueCounterDto c1, IssueCounterDto c2) {
+      int result = Integer.compare(c2.getIssuesCount(), c1.getIssuesCount());
+      return result != 0 ? result : c1.getFacetValue().compareTo(c2.getFacetValue());
+    }
+  }
+}
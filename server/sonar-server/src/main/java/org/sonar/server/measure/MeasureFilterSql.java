@@ -220,15 +220,10 @@ class MeasureFilterSql {
 
   private void appendResourceNameCondition(StringBuilder sb) {
     if (StringUtils.isNotBlank(filter.getResourceName())) {
-      sb.append(" AND s.project_id IN (SELECT rindex.resource_id FROM resource_index rindex WHERE rindex.kee LIKE '");
-      sb.append(escapePercentAndUnderscrore(StringEscapeUtils.escapeSql(StringUtils.lowerCase(filter.getResourceName()))));
+      sb.append(" AND UPPER(p.name) LIKE '%");
+      sb.append(escapePercentAndUnderscrore(StringEscapeUtils.escapeSql(StringUtils.upperCase(filter.getResourceName()))));
       sb.append("%'");
       appendEscapeForSomeDb(sb);
-      if (!filter.getResourceQualifiers().isEmpty()) {
-        sb.append(" AND rindex.qualifier IN ");
-        appendInStatement(filter.getResourceQualifiers(), sb);
-      }
-      sb.append(") ");
     }
   }
 
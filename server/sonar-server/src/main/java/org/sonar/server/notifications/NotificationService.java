@@ -20,8 +20,11 @@
 package org.sonar.server.notifications;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.SetMultimap;
 import org.picocontainer.Startable;
 import org.sonar.api.Properties;
@@ -38,11 +41,20 @@ import org.sonar.server.db.DbClient;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -60,6 +72,18 @@ import java.util.concurrent.TimeUnit;
     defaultValue = "600",
     name = "Delay before reporting notification status, in seconds",
     project = false,
+    global = false),
+  @Property(
+    key = NotificationService.PROPERTY_BATCH_SIZE,
+    defaultValue = "100",
+    name = "Maximum number of notifications read from the queue at once",
+    project = false,
+    global = false),
+  @Property(
+    key = NotificationService.PROPERTY_DELIVERY_THREADS,
+    defaultValue = "4",
+    name = "Number of threads used to deliver notifications",
+    project = false,
     global = false)
 })
 public class NotificationService implements ServerComponent, Startable {
@@ -68,14 +92,24 @@ public class NotificationService implements ServerComponent, Startable {
 
   public static final String PROPERTY_DELAY = "sonar.notifications.delay";
   public static final String PROPERTY_DELAY_BEFORE_REPORTING_STATUS = "sonar.notifications.runningDelayBeforeReportingStatus";
+  public static final String PROPERTY_BATCH_SIZE = "sonar.notifications.batchSize";
+  public static final String PROPERTY_DELIVERY_THREADS = "sonar.notifications.deliveryThreads";
 
   private final long delayInSeconds;
   private final long delayBeforeReportingStatusInSeconds;
+  private final int batchSize;
+  private final int deliveryThreads;
   private final DefaultNotificationManager manager;
   private final List<NotificationDispatcher> dispatchers;
   private final DbClient dbClient;
 
+  /**
+   * Limits the number of concurrent deliveries of each channel, whatever the thread requesting the delivery
+   */
+  private final ConcurrentMap<NotificationChannel, Semaphore> deliveryPermits = new ConcurrentHashMap<>();
+
   private ScheduledExecutorService executorService;
+  private ExecutorService deliveryExecutorService;
   private boolean stopping = false;
 
   /**
@@ -84,6 +118,8 @@ public class NotificationService implements ServerComponent, Startable {
   public NotificationService(Settings settings, DefaultNotificationManager manager, DbClient dbClient, NotificationDispatcher[] dispatchers) {
     this.delayInSeconds = settings.getLong(PROPERTY_DELAY);
     this.delayBeforeReportingStatusInSeconds = settings.getLong(PROPERTY_DELAY_BEFORE_REPORTING_STATUS);
+    this.batchSize = Math.max(1, settings.getInt(PROPERTY_BATCH_SIZE));
+    this.deliveryThreads = Math.max(1, settings.getInt(PROPERTY_DELIVERY_THREADS));
     this.manager = manager;
     this.dbClient = dbClient;
     this.dispatchers = ImmutableList.copyOf(dispatchers);
@@ -98,6 +134,7 @@ public class NotificationService implements ServerComponent, Startable {
 
   @Override
   public void start() {
+    deliveryExecutorService = Executors.newFixedThreadPool(deliveryThreads);
     executorService = Executors.newSingleThreadScheduledExecutor();
     executorService.scheduleWithFixedDelay(new Runnable() {
       @Override
@@ -118,6 +155,8 @@ public class NotificationService implements ServerComponent, Startable {
       stopping = true;
       executorService.shutdown();
       executorService.awaitTermination(5, TimeUnit.SECONDS);
+      deliveryExecutorService.shutdown();
+      deliveryExecutorService.awaitTermination(5, TimeUnit.SECONDS);
     } catch (InterruptedException e) {
       LOG.error("Error during stop of notification service", e);
     }
@@ -130,10 +169,10 @@ public class NotificationService implements ServerComponent, Startable {
     long lastLog = start;
     long notifSentCount = 0;
 
-    Notification notifToSend = manager.getFromQueue();
-    while (notifToSend != null) {
-      deliver(notifToSend);
-      notifSentCount++;
+    List<Notification> notifsToSend = manager.getFromQueue(batchSize);
+    while (!notifsToSend.isEmpty()) {
+      deliver(notifsToSend);
+      notifSentCount += notifsToSend.size();
       if (stopping) {
         break;
       }
@@ -144,7 +183,7 @@ public class NotificationService implements ServerComponent, Startable {
         long spentTimeInMinutes = (now - start) / (60 * 1000);
         log(notifSentCount, remainingNotifCount, spentTimeInMinutes);
       }
-      notifToSend = manager.getFromQueue();
+      notifsToSend = manager.getFromQueue(batchSize);
     }
   }
 
@@ -159,6 +198,36 @@ public class NotificationService implements ServerComponent, Startable {
   }
 
   public void deliver(Notification notification) {
+    deliver(Collections.singletonList(notification));
+  }
+
+  /**
+   * Resolves the recipients of all the given notifications, then delivers them grouped by channel. Subscribers
+   * are loaded only once per dispatcher and project for the whole collection.
+   *
+   * @since 5.2
+   */
+  public void deliver(Collection<Notification> notifications) {
+    Map<NotificationChannel, ListMultimap<String, Notification>> deliveriesByChannel = new LinkedHashMap<>();
+    manager.startRecipientsCache();
+    try {
+      for (Notification notification : notifications) {
+        for (Map.Entry<String, NotificationChannel> recipient : findRecipients(notification).entries()) {
+          ListMultimap<String, Notification> deliveries = deliveriesByChannel.get(recipient.getValue());
+          if (deliveries == null) {
+            deliveries = ArrayListMultimap.create();
+            deliveriesByChannel.put(recipient.getValue(), deliveries);
+          }
+          deliveries.put(recipient.getKey(), notification);
+        }
+      }
+    } finally {
+      manager.stopRecipientsCache();
+    }
+    dispatch(deliveriesByChannel);
+  }
+
+  private SetMultimap<String, NotificationChannel> findRecipients(Notification notification) {
     final SetMultimap<String, NotificationChannel> recipients = HashMultimap.create();
     for (NotificationDispatcher dispatcher : dispatchers) {
       NotificationDispatcher.Context context = new NotificationDispatcher.Context() {
@@ -181,21 +250,97 @@ public class NotificationService implements ServerComponent, Startable {
         LOG.warn("Unable to dispatch notification " + notification + " using " + dispatcher, e);
       }
     }
-    dispatch(notification, recipients);
+    return recipients;
   }
 
-  private void dispatch(Notification notification, SetMultimap<String, NotificationChannel> recipients) {
-    for (Map.Entry<String, Collection<NotificationChannel>> entry : recipients.asMap().entrySet()) {
-      String username = entry.getKey();
-      Collection<NotificationChannel> userChannels = entry.getValue();
-      LOG.debug("For user {} via {}", username, userChannels);
-      for (NotificationChannel channel : userChannels) {
-        try {
-          channel.deliver(notification, username);
-        } catch (Exception e) {
-          // catch all exceptions in order to deliver via other channels
-          LOG.warn("Unable to deliver notification " + notification + " for user " + username + " via " + channel, e);
-        }
+  private void dispatch(Map<NotificationChannel, ListMultimap<String, Notification>> deliveriesByChannel) {
+    List<Future<?>> deliveries = new ArrayList<>();
+    for (Map.Entry<NotificationChannel, ListMultimap<String, Notification>> entry : deliveriesByChannel.entrySet()) {
+      NotificationChannel channel = entry.getKey();
+      for (ListMultimap<String, Notification> partition : partition(entry.getValue(), channel.getMaxConcurrentDeliveries())) {
+        deliveries.add(submit(new Delivery(channel, partition, permitsOf(channel))));
+      }
+    }
+    for (Future<?> delivery : deliveries) {
+      try {
+        delivery.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        LOG.error("Unable to deliver notifications", e.getCause());
+      }
+    }
+  }
+
+  private Future<?> submit(Delivery delivery) {
+    ExecutorService executor = deliveryExecutorService;
+    if (executor == null || executor.isShutdown()) {
+      // service is not started or is stopping, deliver in the current thread
+      FutureTask<Void> task = new FutureTask<>(delivery, null);
+      task.run();
+      return task;
+    }
+    return executor.submit(delivery);
+  }
+
+  private Semaphore permitsOf(NotificationChannel channel) {
+    Semaphore permits = deliveryPermits.get(channel);
+    if (permits == null) {
+      deliveryPermits.putIfAbsent(channel, new Semaphore(Math.max(1, channel.getMaxConcurrentDeliveries())));
+      permits = deliveryPermits.get(channel);
+    }
+    return permits;
+  }
+
+  /**
+   * Splits the deliveries of a channel by user, so that the notifications of a given user are
+   * delivered in order by the same thread.
+   */
+  private static List<ListMultimap<String, Notification>> partition(ListMultimap<String, Notification> deliveries, int maxPartitions) {
+    List<String> userLogins = Lists.newArrayList(deliveries.keySet());
+    int partitionCount = Math.max(1, Math.min(maxPartitions, userLogins.size()));
+    if (partitionCount == 1) {
+      return Collections.singletonList(deliveries);
+    }
+    List<ListMultimap<String, Notification>> partitions = new ArrayList<>(partitionCount);
+    for (int i = 0; i < partitionCount; i++) {
+      partitions.add(ArrayListMultimap.<String, Notification>create());
+    }
+    for (int i = 0; i < userLogins.size(); i++) {
+      String userLogin = userLogins.get(i);
+      partitions.get(i % partitionCount).putAll(userLogin, deliveries.get(userLogin));
+    }
+    return partitions;
+  }
+
+  private static class Delivery implements Runnable {
+    private final NotificationChannel channel;
+    private final ListMultimap<String, Notification> notificationsByUserLogin;
+    private final Semaphore permits;
+
+    private Delivery(NotificationChannel channel, ListMultimap<String, Notification> notificationsByUserLogin, Semaphore permits) {
+      this.channel = channel;
+      this.notificationsByUserLogin = notificationsByUserLogin;
+      this.permits = permits;
+    }
+
+    @Override
+    public void run() {
+      try {
+        permits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      try {
+        LOG.debug("For users {} via {}", notificationsByUserLogin.keySet(), channel);
+        channel.deliverAll(notificationsByUserLogin);
+      } catch (Exception e) {
+        // catch all exceptions in order to deliver via other channels
+        LOG.warn("Unable to deliver notifications for users " + notificationsByUserLogin.keySet() + " via " + channel, e);
+      } finally {
+        permits.release();
       }
     }
   }
@@ -34,6 +34,7 @@ import org.sonar.server.db.DbClient;
 import org.sonar.server.issue.index.IssueAuthorizationIndexer;
 import org.sonar.server.exceptions.BadRequestException;
 import org.sonar.server.exceptions.ForbiddenException;
+import org.sonar.server.user.UserPermissionCache;
 import org.sonar.server.user.UserSession;
 
 import javax.annotation.CheckForNull;
@@ -59,13 +60,15 @@ public class InternalPermissionService implements ServerComponent {
   private final PermissionFacade permissionFacade;
   private final PermissionFinder finder;
   private final IssueAuthorizationIndexer issueAuthorizationIndexer;
+  private final UserPermissionCache permissionCache;
 
   public InternalPermissionService(DbClient dbClient, PermissionFacade permissionFacade, PermissionFinder finder,
-    IssueAuthorizationIndexer issueAuthorizationIndexer) {
+    IssueAuthorizationIndexer issueAuthorizationIndexer, UserPermissionCache permissionCache) {
     this.dbClient = dbClient;
     this.permissionFacade = permissionFacade;
     this.finder = finder;
     this.issueAuthorizationIndexer = issueAuthorizationIndexer;
+    this.permissionCache = permissionCache;
   }
 
   public List<String> globalPermissions() {
@@ -133,6 +136,7 @@ public class InternalPermissionService implements ServerComponent {
     } finally {
       session.close();
     }
+    permissionCache.clear();
     indexProjectPermissions();
   }
 
@@ -168,6 +172,7 @@ public class InternalPermissionService implements ServerComponent {
       session.close();
     }
     if (projectsChanged) {
+      permissionCache.clear();
       indexProjectPermissions();
     }
   }
@@ -183,6 +188,7 @@ public class InternalPermissionService implements ServerComponent {
     }
     if (changed) {
       session.commit();
+      permissionCache.clear();
       if (change.component() != null) {
         indexProjectPermissions();
       }
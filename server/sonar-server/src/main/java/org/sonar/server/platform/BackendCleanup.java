@@ -30,6 +30,7 @@ import org.sonar.server.es.EsClient;
 import org.sonar.server.issue.index.IssueIndexDefinition;
 import org.sonar.server.search.IndexDefinition;
 import org.sonar.server.source.index.SourceLineIndexDefinition;
+import org.sonar.server.user.UserPermissionCache;
 import org.sonar.server.view.index.ViewIndexDefinition;
 
 import java.sql.Connection;
@@ -39,18 +40,20 @@ public class BackendCleanup implements ServerComponent {
 
   private static final String[] INSPECTION_TABLES = {
     "action_plans", "authors", "dependencies", "duplications_index", "events", "graphs", "issues", "issue_changes", "manual_measures",
-    "notifications", "project_links", "project_measures", "projects", "resource_index",
-    "semaphores", "snapshots", "file_sources"
+    "notifications", "project_links", "project_measures", "projects",
+    "semaphores", "snapshots", "file_sources", "issue_counters"
   };
   private static final String[] RESOURCE_RELATED_TABLES = {
     "group_roles", "user_roles", "properties"
   };
   private final EsClient esClient;
   private final MyBatis myBatis;
+  private final UserPermissionCache permissionCache;
 
-  public BackendCleanup(EsClient esClient, MyBatis myBatis) {
+  public BackendCleanup(EsClient esClient, MyBatis myBatis, UserPermissionCache permissionCache) {
     this.esClient = esClient;
     this.myBatis = myBatis;
+    this.permissionCache = permissionCache;
   }
 
   public void clearAll() {
@@ -76,6 +79,7 @@ public class BackendCleanup implements ServerComponent {
       DbUtils.closeQuietly(connection);
       MyBatis.closeQuietly(dbSession);
     }
+    permissionCache.clear();
   }
 
   public void clearIndexes() {
@@ -97,6 +101,7 @@ public class BackendCleanup implements ServerComponent {
     } catch (Exception e) {
       throw new IllegalStateException("Unable to clear indexes", e);
     }
+    permissionCache.clear();
   }
 
   /**
@@ -130,6 +135,7 @@ public class BackendCleanup implements ServerComponent {
       clearIndex(IssueIndexDefinition.INDEX);
       clearIndex(SourceLineIndexDefinition.INDEX);
       clearIndex(ViewIndexDefinition.INDEX);
+      permissionCache.clear();
 
     } finally {
       dbSession.close();
@@ -78,7 +78,18 @@ public class Platform {
   // Platform is injected in Pico, so do not rename this method "start"
   public void doStart() {
     if (!started && getDatabaseStatus() == DatabaseVersion.Status.UP_TO_DATE) {
-      startLevel34Containers();
+      startLevel34Containers(true);
+      started = true;
+    }
+  }
+
+  /**
+   * Same as {@link #doStart()} but startup tasks are not executed. They are the responsibility
+   * of the web server when the compute engine is executed in a dedicated process.
+   */
+  public void doStartWithoutStartupTasks() {
+    if (!started && getDatabaseStatus() == DatabaseVersion.Status.UP_TO_DATE) {
+      startLevel34Containers(false);
       started = true;
     }
   }
@@ -110,7 +121,7 @@ public class Platform {
   /**
    * Start level 3 and greater
    */
-  private void startLevel34Containers() {
+  private void startLevel34Containers(boolean executeStartupTasks) {
     level3Container = level2Container.createChild();
     level3Container.addSingletons(serverComponents.level3Components());
     level3Container.startComponents();
@@ -119,7 +130,9 @@ public class Platform {
     level4Container = level3Container.createChild();
     serverComponents.startLevel4Components(level4Container);
     currentContainer = level4Container;
-    executeStartupTasks();
+    if (executeStartupTasks) {
+      executeStartupTasks();
+    }
   }
 
   public void executeStartupTasks() {
@@ -133,7 +146,7 @@ public class Platform {
       currentContainer = level1Container;
     }
     startLevel2Container();
-    startLevel34Containers();
+    startLevel34Containers(true);
   }
 
   private DatabaseVersion.Status getDatabaseStatus() {
@@ -59,6 +59,7 @@ import org.sonar.core.qualitygate.db.ProjectQgateAssociationDao;
 import org.sonar.core.qualitygate.db.QualityGateConditionDao;
 import org.sonar.core.qualitygate.db.QualityGateDao;
 import org.sonar.core.resource.DefaultResourcePermissions;
+import org.sonar.core.telemetry.Telemetry;
 import org.sonar.core.test.TestPlanPerspectiveLoader;
 import org.sonar.core.test.TestablePerspectiveLoader;
 import org.sonar.core.timemachine.Periods;
@@ -85,9 +86,11 @@ import org.sonar.server.component.ComponentService;
 import org.sonar.server.component.DefaultComponentFinder;
 import org.sonar.server.component.DefaultRubyComponentService;
 import org.sonar.server.component.db.ComponentDao;
-import org.sonar.server.component.db.ComponentIndexDao;
 import org.sonar.server.component.db.ComponentLinkDao;
 import org.sonar.server.component.db.SnapshotDao;
+import org.sonar.server.component.index.ComponentIndex;
+import org.sonar.server.component.index.ComponentIndexDefinition;
+import org.sonar.server.component.index.ComponentIndexer;
 import org.sonar.server.component.ws.*;
 import org.sonar.server.computation.ComputationThreadLauncher;
 import org.sonar.server.computation.ReportQueue;
@@ -117,6 +120,7 @@ import org.sonar.server.event.db.EventDao;
 import org.sonar.server.issue.*;
 import org.sonar.server.issue.actionplan.ActionPlanService;
 import org.sonar.server.issue.actionplan.ActionPlanWs;
+import org.sonar.server.issue.db.IssueCounterDao;
 import org.sonar.server.issue.db.IssueDao;
 import org.sonar.server.issue.filter.IssueFilterService;
 import org.sonar.server.issue.filter.IssueFilterWriter;
@@ -239,6 +243,7 @@ class ServerComponents {
       TempFolderCleaner.class,
       new TempFolderProvider(),
       System2.INSTANCE,
+      Telemetry.class,
 
       // DB
       DbClient.class,
@@ -252,6 +257,7 @@ class ServerComponents {
       GroupDao.class,
       UserDao.class,
       UserGroupDao.class,
+      UserPermissionCache.class,
 
       // dashboards
       DashboardDao.class,
@@ -271,6 +277,7 @@ class ServerComponents {
       // issues
       IssueIndex.class,
       IssueDao.class,
+      IssueCounterDao.class,
 
       // measures
       MeasureDao.class,
@@ -279,7 +286,6 @@ class ServerComponents {
 
       // components
       ComponentDao.class,
-      ComponentIndexDao.class,
       ComponentLinkDao.class,
       SnapshotDao.class,
 
@@ -361,6 +367,8 @@ class ServerComponents {
     pico.addSingleton(ProjectRepositoryAction.class);
     pico.addSingleton(ProjectRepositoryLoader.class);
     pico.addSingleton(SubmitReportWsAction.class);
+    pico.addSingleton(UploadReportChunkWsAction.class);
+    pico.addSingleton(UploadReportStatusWsAction.class);
     pico.addSingleton(IssuesAction.class);
     pico.addSingleton(BatchWs.class);
 
@@ -522,6 +530,9 @@ class ServerComponents {
     pico.addSingleton(org.sonar.server.component.ws.SearchAction.class);
     pico.addSingleton(EventsWs.class);
     pico.addSingleton(ComponentCleanerService.class);
+    pico.addSingleton(ComponentIndexDefinition.class);
+    pico.addSingleton(ComponentIndexer.class);
+    pico.addSingleton(ComponentIndex.class);
 
     // views
     pico.addSingleton(ViewIndexDefinition.class);
@@ -549,6 +560,7 @@ class ServerComponents {
     pico.addSingleton(org.sonar.server.issue.ws.TagsAction.class);
     pico.addSingleton(SetTagsAction.class);
     pico.addSingleton(ComponentTagsAction.class);
+    pico.addSingleton(CountersAction.class);
     pico.addSingleton(IssueService.class);
     pico.addSingleton(IssueActionsWriter.class);
     pico.addSingleton(IssueQueryService.class);
@@ -660,6 +672,8 @@ class ServerComponents {
     pico.addSingletons(Arrays.asList(
       SystemRestartWsAction.class,
       SystemInfoWsAction.class,
+      SystemMetricsWsAction.class,
+      SystemSqlStatisticsWsAction.class,
       SystemWs.class,
       SystemMonitor.class,
       SonarQubeMonitor.class,
@@ -699,6 +713,7 @@ class ServerComponents {
   public void executeStartupTasks(ComponentContainer pico) {
     final ComponentContainer startupContainer = pico.createChild();
     startupContainer.addSingleton(IndexSynchronizer.class);
+    startupContainer.addSingleton(StartupFingerprints.class);
     startupContainer.addSingleton(RegisterMetrics.class);
     startupContainer.addSingleton(RegisterQualityGates.class);
     startupContainer.addSingleton(RegisterRules.class);
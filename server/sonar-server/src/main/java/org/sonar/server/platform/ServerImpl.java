@@ -44,6 +44,12 @@ import java.util.Properties;
 public final class ServerImpl extends Server implements Startable {
   private static final Logger LOG = Loggers.get(ServerImpl.class);
 
+  /**
+   * Overrides the directory of deployed files. Used by the compute engine process so that
+   * it does not clean up the files served by the web server.
+   */
+  public static final String DEPLOY_DIR_PROPERTY = "sonar.path.deploy";
+
   private final Settings settings;
   private final Date startedAt;
   private final String buildProperties;
@@ -83,7 +89,8 @@ public final class ServerImpl extends Server implements Startable {
         throw new IllegalStateException("SonarQube home directory is not valid");
       }
 
-      deployDir = new File(sonarHome, "/web/deploy/");
+      String deployPath = settings.getString(DEPLOY_DIR_PROPERTY);
+      deployDir = deployPath == null ? new File(sonarHome, "/web/deploy/") : new File(deployPath);
 
       LOG.info("SonarQube {}", Joiner.on(" / ").skipNulls().join("Server", version, implementationBuild));
 
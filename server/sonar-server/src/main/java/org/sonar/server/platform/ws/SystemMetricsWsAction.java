@@ -0,0 +1,184 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.ws;
+
+import com.google.common.base.Charsets;
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.io.IOUtils;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.core.permission.GlobalPermissions;
+import org.sonar.core.telemetry.Counter;
+import org.sonar.core.telemetry.Series;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.core.telemetry.Timer;
+import org.sonar.server.db.DbClient;
+import org.sonar.server.plugins.MimeTypes;
+import org.sonar.server.user.UserSession;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports {@link Telemetry} and JVM statistics in the Prometheus text exposition format.
+ * Values are computed only when this web service is requested.
+ */
+public class SystemMetricsWsAction implements SystemWsAction {
+
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final Telemetry telemetry;
+  private final DbClient dbClient;
+
+  public SystemMetricsWsAction(Telemetry telemetry, DbClient dbClient) {
+    this.telemetry = telemetry;
+    this.dbClient = dbClient;
+  }
+
+  @Override
+  public void define(WebService.NewController controller) {
+    controller.createAction("metrics")
+      .setDescription("Performance metrics of web services, computation steps, Elasticsearch requests, SQL statements, " +
+        "JVM and database connection pool. Format is the Prometheus text exposition format. Requires Administer System permission.")
+      .setSince("5.2")
+      .setResponseExample(getClass().getResource("/org/sonar/server/platform/ws/example-system-metrics.txt"))
+      .setHandler(this);
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws IOException {
+    UserSession.get().checkGlobalPermission(GlobalPermissions.SYSTEM_ADMIN);
+    StringBuilder sb = new StringBuilder();
+    writeTimers(sb, telemetry.timers());
+    writeCounters(sb, telemetry.counters());
+    writeJvm(sb);
+    writeDbPool(sb);
+    response.stream().setMediaType(MimeTypes.TXT);
+    IOUtils.write(sb.toString(), response.stream().output(), Charsets.UTF_8);
+  }
+
+  private static void writeTimers(StringBuilder sb, List<Timer> timers) {
+    String family = null;
+    for (Timer timer : timers) {
+      if (!timer.name().equals(family)) {
+        family = timer.name();
+        header(sb, family, timer.help(), "histogram");
+      }
+      long[] buckets = timer.cumulativeBuckets();
+      for (int i = 0; i < buckets.length; i++) {
+        String bound = i < Timer.BUCKETS.length ? String.valueOf(Timer.BUCKETS[i]) : "+Inf";
+        String labels = Series.formatLabel("le", bound);
+        if (!timer.labels().isEmpty()) {
+          labels = timer.labels() + "," + labels;
+        }
+        sample(sb, family + "_bucket", labels, buckets[i]);
+      }
+      sample(sb, family + "_sum", timer.labels(), timer.totalNanos() / NANOS_PER_SECOND);
+      sample(sb, family + "_count", timer.labels(), timer.count());
+    }
+
+    family = null;
+    for (Timer timer : timers) {
+      if (!timer.name().equals(family)) {
+        family = timer.name();
+        header(sb, family + "_max", "Maximum value of " + family, "gauge");
+      }
+      sample(sb, family + "_max", timer.labels(), timer.maxNanos() / NANOS_PER_SECOND);
+    }
+  }
+
+  private static void writeCounters(StringBuilder sb, List<Counter> counters) {
+    String family = null;
+    for (Counter counter : counters) {
+      if (!counter.name().equals(family)) {
+        family = counter.name();
+        header(sb, family, counter.help(), "counter");
+      }
+      sample(sb, family, counter.labels(), counter.value());
+    }
+  }
+
+  private static void writeJvm(StringBuilder sb) {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    header(sb, "sonar_jvm_memory_used_bytes", "Used memory", "gauge");
+    sample(sb, "sonar_jvm_memory_used_bytes", Series.formatLabel("area", "heap"), memory.getHeapMemoryUsage().getUsed());
+    sample(sb, "sonar_jvm_memory_used_bytes", Series.formatLabel("area", "nonheap"), memory.getNonHeapMemoryUsage().getUsed());
+    header(sb, "sonar_jvm_memory_max_bytes", "Max memory", "gauge");
+    sample(sb, "sonar_jvm_memory_max_bytes", Series.formatLabel("area", "heap"), memory.getHeapMemoryUsage().getMax());
+    sample(sb, "sonar_jvm_memory_max_bytes", Series.formatLabel("area", "nonheap"), memory.getNonHeapMemoryUsage().getMax());
+
+    header(sb, "sonar_jvm_memory_pool_used_bytes", "Used memory of pools", "gauge");
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      MemoryUsage usage = pool.getUsage();
+      if (usage != null) {
+        sample(sb, "sonar_jvm_memory_pool_used_bytes", Series.formatLabel("pool", pool.getName()), usage.getUsed());
+      }
+    }
+
+    List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    header(sb, "sonar_jvm_gc_collections_total", "Number of garbage collections", "counter");
+    for (GarbageCollectorMXBean gc : collectors) {
+      sample(sb, "sonar_jvm_gc_collections_total", Series.formatLabel("gc", gc.getName()), gc.getCollectionCount());
+    }
+    header(sb, "sonar_jvm_gc_collection_seconds_total", "Time spent in garbage collections", "counter");
+    for (GarbageCollectorMXBean gc : collectors) {
+      sample(sb, "sonar_jvm_gc_collection_seconds_total", Series.formatLabel("gc", gc.getName()), gc.getCollectionTime() / 1000.0);
+    }
+
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    header(sb, "sonar_jvm_threads", "Number of live threads", "gauge");
+    sample(sb, "sonar_jvm_threads", null, threads.getThreadCount());
+    header(sb, "sonar_jvm_daemon_threads", "Number of live daemon threads", "gauge");
+    sample(sb, "sonar_jvm_daemon_threads", null, threads.getDaemonThreadCount());
+  }
+
+  private void writeDbPool(StringBuilder sb) {
+    BasicDataSource dataSource = (BasicDataSource) dbClient.database().getDataSource();
+    header(sb, "sonar_db_pool_active_connections", "Active connections of the database connection pool", "gauge");
+    sample(sb, "sonar_db_pool_active_connections", null, dataSource.getNumActive());
+    header(sb, "sonar_db_pool_idle_connections", "Idle connections of the database connection pool", "gauge");
+    sample(sb, "sonar_db_pool_idle_connections", null, dataSource.getNumIdle());
+    header(sb, "sonar_db_pool_max_connections", "Max connections of the database connection pool", "gauge");
+    sample(sb, "sonar_db_pool_max_connections", null, dataSource.getMaxActive());
+  }
+
+  private static void header(StringBuilder sb, String name, String help, String type) {
+    sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(StringBuilder sb, String name, @Nullable String labels, Object value) {
+    sb.append(name);
+    if (labels != null && !labels.isEmpty()) {
+      sb.append('{').append(labels).append('}');
+    }
+    sb.append(' ').append(value).append('\n');
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.ws;
+
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.core.permission.GlobalPermissions;
+import org.sonar.core.persistence.profiling.ProfiledDataSource;
+import org.sonar.core.persistence.profiling.StatementStatistics;
+import org.sonar.core.telemetry.Timer;
+import org.sonar.server.db.DbClient;
+import org.sonar.server.user.UserSession;
+
+import javax.sql.DataSource;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL statements aggregated by {@link ProfiledDataSource}, sorted by decreasing total execution time
+ */
+public class SystemSqlStatisticsWsAction implements SystemWsAction {
+
+  private static final int DEFAULT_PAGE_SIZE = 50;
+
+  private final DbClient dbClient;
+
+  public SystemSqlStatisticsWsAction(DbClient dbClient) {
+    this.dbClient = dbClient;
+  }
+
+  @Override
+  public void define(WebService.NewController controller) {
+    WebService.NewAction action = controller.createAction("sql_statistics")
+      .setDescription("Execution statistics of SQL statements since server startup, aggregated by SQL without literals " +
+        "and sorted by decreasing total time. Percentiles are approximated. The slowest execution above " +
+        "the threshold defined by the property sonar.jdbc.slowStatementThresholdMs (1000 by default) is returned with its " +
+        "bind parameters. Rows are counted only when the logger \"sql\" is in TRACE level. Requires Administer System permission.")
+      .setSince("5.2")
+      .setInternal(true)
+      .setResponseExample(getClass().getResource("/org/sonar/server/platform/ws/example-system-sql-statistics.json"))
+      .setHandler(this);
+
+    action.createParam(WebService.Param.PAGE_SIZE)
+      .setDescription("Max number of returned statements")
+      .setExampleValue("20")
+      .setDefaultValue(String.valueOf(DEFAULT_PAGE_SIZE));
+  }
+
+  @Override
+  public void handle(Request request, Response response) {
+    UserSession.get().checkGlobalPermission(GlobalPermissions.SYSTEM_ADMIN);
+    int pageSize = request.mandatoryParamAsInt(WebService.Param.PAGE_SIZE);
+
+    List<StatementStatistics> statements = statements();
+    JsonWriter json = response.newJsonWriter();
+    json.beginObject();
+    json.prop("total", statements.size());
+    json.name("statements").beginArray();
+    for (StatementStatistics statement : statements.subList(0, Math.min(pageSize, statements.size()))) {
+      writeStatement(json, statement);
+    }
+    json.endArray();
+    json.endObject();
+    json.close();
+  }
+
+  private List<StatementStatistics> statements() {
+    DataSource dataSource = dbClient.database().getDataSource();
+    if (dataSource instanceof ProfiledDataSource) {
+      return ((ProfiledDataSource) dataSource).getStatistics().statements();
+    }
+    return Collections.emptyList();
+  }
+
+  private static void writeStatement(JsonWriter json, StatementStatistics statement) {
+    Timer timer = statement.timer();
+    json.beginObject()
+      .prop("sql", statement.sql())
+      .prop("count", timer.count())
+      .prop("rows", statement.rows())
+      .prop("totalMs", toMillis(timer.totalNanos()))
+      .prop("maxMs", toMillis(timer.maxNanos()))
+      .prop("p50Ms", toMillis(timer.percentileNanos(50.0)))
+      .prop("p95Ms", toMillis(timer.percentileNanos(95.0)))
+      .prop("p99Ms", toMillis(timer.percentileNanos(99.0)));
+    StatementStatistics.SlowExecution slowest = statement.slowest();
+    if (slowest != null) {
+      json.name("slowest").beginObject()
+        .prop("durationMs", toMillis(slowest.durationNanos()))
+        .propDateTime("date", new Date(slowest.date()))
+        .prop("sql", slowest.sql())
+        .prop("parameters", slowest.parameters())
+        .prop("caller", slowest.caller())
+        .endObject();
+    }
+    json.endObject();
+  }
+
+  private static long toMillis(long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+}
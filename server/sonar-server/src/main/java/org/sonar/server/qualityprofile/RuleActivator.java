@@ -22,6 +22,7 @@ package org.sonar.server.qualityprofile;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
 import org.sonar.api.ServerComponent;
+import org.sonar.api.rule.RuleKey;
 import org.sonar.api.server.rule.RuleParamType;
 import org.sonar.core.persistence.DbSession;
 import org.sonar.core.qualityprofile.db.ActiveRuleDto;
@@ -47,6 +48,7 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
 import java.util.Arrays;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -89,7 +91,20 @@ public class RuleActivator implements ServerComponent {
     return doActivate(dbSession, activation, context);
   }
 
+  /**
+   * Same as {@link #activate(DbSession, RuleActivation, String)} but reads and updates the state of the profile tree in
+   * the given cache. Activities and profile dates are not saved, see {@link #flush(DbSession, RuleActivatorCache)}.
+   */
+  List<ActiveRuleChange> activate(DbSession dbSession, RuleActivation activation, String profileKey, RuleActivatorCache cache) {
+    RuleActivatorContext context = contextFactory.create(profileKey, activation.getRuleKey(), cache);
+    return doActivate(dbSession, activation, context, cache);
+  }
+
   private List<ActiveRuleChange> doActivate(DbSession dbSession, RuleActivation activation, RuleActivatorContext context) {
+    return doActivate(dbSession, activation, context, null);
+  }
+
+  private List<ActiveRuleChange> doActivate(DbSession dbSession, RuleActivation activation, RuleActivatorContext context, @Nullable RuleActivatorCache cache) {
     context.verifyForActivation();
     List<ActiveRuleChange> changes = Lists.newArrayList();
     ActiveRuleChange change;
@@ -134,22 +149,36 @@ public class RuleActivator implements ServerComponent {
 
     if (change != null) {
       changes.add(change);
-      persist(change, context, dbSession);
+      persist(change, context, dbSession, cache);
     }
 
     if (!stopPropagation) {
-      changes.addAll(cascadeActivation(dbSession, activation, context.profile().getKey()));
+      changes.addAll(cascadeActivation(dbSession, activation, context.profile().getKey(), cache));
     }
 
     if (!changes.isEmpty()) {
-      updateProfileDate(dbSession, context);
+      if (cache == null) {
+        updateProfileDate(dbSession, context.profile(), context.getInitDate());
+      } else {
+        cache.markUpdated(context.profile());
+      }
     }
     return changes;
   }
 
-  private void updateProfileDate(DbSession dbSession, RuleActivatorContext context) {
-    context.profile().setRulesUpdatedAtAsDate(context.getInitDate());
-    db.qualityProfileDao().update(dbSession, context.profile());
+  private void updateProfileDate(DbSession dbSession, QualityProfileDto profile, Date date) {
+    profile.setRulesUpdatedAtAsDate(date);
+    db.qualityProfileDao().update(dbSession, profile);
+  }
+
+  /**
+   * Saves the activities and the profile dates collected by cache, as a single batch.
+   */
+  private void flush(DbSession dbSession, RuleActivatorCache cache) {
+    for (QualityProfileDto profile : cache.updatedProfiles()) {
+      updateProfileDate(dbSession, profile, cache.getInitDate());
+    }
+    activityService.save(cache.activities());
   }
 
   /**
@@ -215,19 +244,30 @@ public class RuleActivator implements ServerComponent {
     return null;
   }
 
-  private List<ActiveRuleChange> cascadeActivation(DbSession session, RuleActivation activation, String profileKey) {
+  private List<ActiveRuleChange> cascadeActivation(DbSession session, RuleActivation activation, String profileKey, @Nullable RuleActivatorCache cache) {
     List<ActiveRuleChange> changes = Lists.newArrayList();
 
     // get all inherited profiles
-    List<QualityProfileDto> children = db.qualityProfileDao().findChildren(session, profileKey);
-    for (QualityProfileDto child : children) {
-      RuleActivation childActivation = new RuleActivation(activation).setCascade(true);
-      changes.addAll(activate(session, childActivation, child.getKey()));
+    if (cache == null) {
+      List<QualityProfileDto> children = db.qualityProfileDao().findChildren(session, profileKey);
+      for (QualityProfileDto child : children) {
+        RuleActivation childActivation = new RuleActivation(activation).setCascade(true);
+        changes.addAll(activate(session, childActivation, child.getKey()));
+      }
+    } else {
+      for (QualityProfileDto child : cache.children(profileKey)) {
+        RuleActivation childActivation = new RuleActivation(activation).setCascade(true);
+        changes.addAll(activate(session, childActivation, child.getKey(), cache));
+      }
     }
     return changes;
   }
 
   private ActiveRuleDto persist(ActiveRuleChange change, RuleActivatorContext context, DbSession dbSession) {
+    return persist(change, context, dbSession, null);
+  }
+
+  private ActiveRuleDto persist(ActiveRuleChange change, RuleActivatorContext context, DbSession dbSession, @Nullable RuleActivatorCache cache) {
     ActiveRuleDto activeRule = null;
     if (change.getType() == ActiveRuleChange.Type.ACTIVATED) {
       activeRule = doInsert(change, context, dbSession);
@@ -235,11 +275,18 @@ public class RuleActivator implements ServerComponent {
     } else if (change.getType() == ActiveRuleChange.Type.DEACTIVATED) {
       ActiveRuleDao dao = db.activeRuleDao();
       dao.deleteByKey(dbSession, change.getKey());
+      context.setActiveRule(null);
+      context.setActiveRuleParams(null);
 
     } else if (change.getType() == ActiveRuleChange.Type.UPDATED) {
       activeRule = doUpdate(change, context, dbSession);
     }
-    activityService.save(change.toActivity());
+    if (cache == null) {
+      activityService.save(change.toActivity());
+    } else {
+      cache.refresh(context);
+      cache.addActivity(change.toActivity());
+    }
     return activeRule;
   }
 
@@ -256,13 +303,16 @@ public class RuleActivator implements ServerComponent {
       activeRule.setInheritance(inheritance.name());
     }
     dao.insert(dbSession, activeRule);
+    List<ActiveRuleParamDto> params = Lists.newArrayList();
     for (Map.Entry<String, String> param : change.getParameters().entrySet()) {
       if (param.getValue() != null) {
         ActiveRuleParamDto paramDto = ActiveRuleParamDto.createFor(context.ruleParamsByKeys().get(param.getKey()));
         paramDto.setValue(param.getValue());
-        dao.addParam(dbSession, activeRule, paramDto);
+        params.add(dao.addParam(dbSession, activeRule, paramDto));
       }
     }
+    context.setActiveRule(activeRule);
+    context.setActiveRuleParams(params);
     return activeRule;
   }
 
@@ -288,6 +338,7 @@ public class RuleActivator implements ServerComponent {
             activeRuleParamDto = ActiveRuleParamDto.createFor(context.ruleParamsByKeys().get(param.getKey()));
             activeRuleParamDto.setValue(param.getValue());
             dao.addParam(dbSession, activeRule, activeRuleParamDto);
+            context.activeRuleParamsAsMap().put(param.getKey(), activeRuleParamDto);
           }
         } else {
           if (param.getValue() != null) {
@@ -295,6 +346,7 @@ public class RuleActivator implements ServerComponent {
             dao.updateParam(dbSession, activeRule, activeRuleParamDto);
           } else {
             dao.deleteParam(dbSession, activeRule, activeRuleParamDto);
+            context.activeRuleParamsAsMap().remove(param.getKey());
           }
         }
       }
@@ -367,7 +419,7 @@ public class RuleActivator implements ServerComponent {
     }
 
     if (!changes.isEmpty()) {
-      updateProfileDate(dbSession, context);
+      updateProfileDate(dbSession, context.profile(), context.getInitDate());
     }
 
     return changes;
@@ -394,13 +446,17 @@ public class RuleActivator implements ServerComponent {
     try {
       Result<Rule> ruleSearchResult = ruleIndex.search(ruleQuery, new QueryContext().setScroll(true)
         .setFieldsToReturn(Arrays.asList(RuleNormalizer.RuleField.KEY.field())));
+      List<RuleKey> ruleKeys = newArrayList();
       Iterator<Rule> rules = ruleSearchResult.scroll();
       while (rules.hasNext()) {
-        Rule rule = rules.next();
+        ruleKeys.add(rules.next().key());
+      }
+      RuleActivatorCache cache = contextFactory.createCache(profileKey, ruleKeys, dbSession);
+      for (RuleKey ruleKey : ruleKeys) {
         try {
-          RuleActivation activation = new RuleActivation(rule.key());
+          RuleActivation activation = new RuleActivation(ruleKey);
           activation.setSeverity(severity);
-          List<ActiveRuleChange> changes = activate(dbSession, activation, profileKey);
+          List<ActiveRuleChange> changes = activate(dbSession, activation, profileKey, cache);
           result.addChanges(changes);
           if (!changes.isEmpty()) {
             result.incrementSucceeded();
@@ -412,6 +468,7 @@ public class RuleActivator implements ServerComponent {
           result.getErrors().add(e.errors());
         }
       }
+      flush(dbSession, cache);
       dbSession.commit();
     } finally {
       dbSession.close();
@@ -0,0 +1,163 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.qualityprofile;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.core.qualityprofile.db.ActiveRuleDto;
+import org.sonar.core.qualityprofile.db.ActiveRuleKey;
+import org.sonar.core.qualityprofile.db.ActiveRuleParamDto;
+import org.sonar.core.qualityprofile.db.QualityProfileDto;
+import org.sonar.core.rule.RuleDto;
+import org.sonar.core.rule.RuleParamDto;
+import org.sonar.server.activity.Activity;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory state of a quality profile tree (the profile, its parent and all its descendants) used
+ * by bulk activation. Rules, active rules and their parameters are loaded once instead of being
+ * read again for each rule and each profile, and activities and profile dates are written at the end.
+ */
+class RuleActivatorCache {
+
+  private final Date initDate = new Date();
+  private final Map<String, QualityProfileDto> profilesByKey = Maps.newHashMap();
+  private final ListMultimap<String, QualityProfileDto> childrenByKey = ArrayListMultimap.create();
+  private final Map<ActiveRuleKey, ActiveRuleDto> activeRules = Maps.newHashMap();
+  private final ListMultimap<ActiveRuleKey, ActiveRuleParamDto> activeRuleParams = ArrayListMultimap.create();
+  private final Map<RuleKey, RuleDto> rules = Maps.newHashMap();
+  private final ListMultimap<RuleKey, RuleParamDto> ruleParams = ArrayListMultimap.create();
+  private final List<Activity> activities = Lists.newArrayList();
+  private final Set<String> updatedProfileKeys = Sets.newLinkedHashSet();
+
+  Date getInitDate() {
+    return initDate;
+  }
+
+  void addProfile(QualityProfileDto profile, @Nullable String parentKey) {
+    profilesByKey.put(profile.getKey(), profile);
+    if (parentKey != null) {
+      childrenByKey.put(parentKey, profile);
+    }
+  }
+
+  @CheckForNull
+  QualityProfileDto profile(String profileKey) {
+    return profilesByKey.get(profileKey);
+  }
+
+  List<QualityProfileDto> children(String profileKey) {
+    return childrenByKey.get(profileKey);
+  }
+
+  void addActiveRules(Collection<ActiveRuleDto> dtos, Collection<ActiveRuleParamDto> params) {
+    Map<Integer, ActiveRuleKey> keysById = Maps.newHashMap();
+    for (ActiveRuleDto dto : dtos) {
+      activeRules.put(dto.getKey(), dto);
+      keysById.put(dto.getId(), dto.getKey());
+    }
+    for (ActiveRuleParamDto param : params) {
+      ActiveRuleKey key = keysById.get(param.getActiveRuleId());
+      if (key != null) {
+        activeRuleParams.put(key, param);
+      }
+    }
+  }
+
+  @CheckForNull
+  ActiveRuleDto activeRule(ActiveRuleKey key) {
+    return activeRules.get(key);
+  }
+
+  List<ActiveRuleParamDto> activeRuleParams(ActiveRuleKey key) {
+    return activeRuleParams.get(key);
+  }
+
+  /**
+   * Keeps the cache in sync with the active rule persisted from the given context
+   */
+  void refresh(RuleActivatorContext context) {
+    ActiveRuleKey key = context.activeRuleKey();
+    activeRuleParams.removeAll(key);
+    ActiveRuleDto activeRule = context.activeRule();
+    if (activeRule == null) {
+      activeRules.remove(key);
+    } else {
+      activeRules.put(key, activeRule);
+      activeRuleParams.putAll(key, context.activeRuleParamsAsMap().values());
+    }
+  }
+
+  void addRules(Collection<RuleDto> dtos, Collection<RuleParamDto> params) {
+    Map<Integer, RuleKey> keysById = Maps.newHashMap();
+    for (RuleDto dto : dtos) {
+      rules.put(dto.getKey(), dto);
+      keysById.put(dto.getId(), dto.getKey());
+    }
+    for (RuleParamDto param : params) {
+      RuleKey key = keysById.get(param.getRuleId());
+      if (key != null) {
+        ruleParams.put(key, param);
+      }
+    }
+  }
+
+  @CheckForNull
+  RuleDto rule(RuleKey key) {
+    return rules.get(key);
+  }
+
+  List<RuleParamDto> ruleParams(RuleKey key) {
+    return ruleParams.get(key);
+  }
+
+  void addActivity(Activity activity) {
+    activities.add(activity);
+  }
+
+  List<Activity> activities() {
+    return Collections.unmodifiableList(activities);
+  }
+
+  void markUpdated(QualityProfileDto profile) {
+    updatedProfileKeys.add(profile.getKey());
+  }
+
+  List<QualityProfileDto> updatedProfiles() {
+    List<QualityProfileDto> profiles = Lists.newArrayList();
+    for (String key : updatedProfileKeys) {
+      profiles.add(profilesByKey.get(key));
+    }
+    return profiles;
+  }
+}
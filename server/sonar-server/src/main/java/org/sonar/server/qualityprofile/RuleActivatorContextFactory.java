@@ -19,6 +19,7 @@
  */
 package org.sonar.server.qualityprofile;
 
+import com.google.common.collect.Lists;
 import org.sonar.api.ServerComponent;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.core.persistence.DbSession;
@@ -30,7 +31,10 @@ import org.sonar.core.rule.RuleDto;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.exceptions.BadRequestException;
 
+import javax.annotation.Nullable;
+
 import java.util.Collection;
+import java.util.List;
 
 public class RuleActivatorContextFactory implements ServerComponent {
 
@@ -64,6 +68,71 @@ public class RuleActivatorContextFactory implements ServerComponent {
     return create(ruleKey, session, new RuleActivatorContext().setProfile(profile));
   }
 
+  /**
+   * Loads the profile, its parent and all its descendants with their active rules, and the given rules with their
+   * parameters. Rules are loaded by batches instead of one by one.
+   */
+  RuleActivatorCache createCache(String profileKey, Collection<RuleKey> ruleKeys, DbSession session) {
+    QualityProfileDto profile = db.qualityProfileDao().getByKey(session, profileKey);
+    if (profile == null) {
+      throw new BadRequestException("Quality profile not found: " + profileKey);
+    }
+    RuleActivatorCache cache = new RuleActivatorCache();
+    String parentKee = profile.getParentKee();
+    if (parentKee != null) {
+      initActiveRules(parentKee, cache, session);
+    }
+    initProfileTree(profile, null, cache, session);
+    initRules(ruleKeys, cache, session);
+    return cache;
+  }
+
+  /**
+   * Same as {@link #create(String, RuleKey, DbSession)} but reads profiles, rules and active rules from cache
+   */
+  RuleActivatorContext create(String profileKey, RuleKey ruleKey, RuleActivatorCache cache) {
+    QualityProfileDto profile = cache.profile(profileKey);
+    if (profile == null) {
+      throw new BadRequestException("Quality profile not found: " + profileKey);
+    }
+    RuleDto rule = cache.rule(ruleKey);
+    if (rule == null) {
+      throw new BadRequestException("Rule not found: " + ruleKey);
+    }
+    RuleActivatorContext context = new RuleActivatorContext().setProfile(profile).setRule(rule).setRuleParams(cache.ruleParams(ruleKey));
+    ActiveRuleKey key = ActiveRuleKey.of(profileKey, ruleKey);
+    context.setActiveRule(cache.activeRule(key));
+    context.setActiveRuleParams(cache.activeRuleParams(key));
+    String parentKee = profile.getParentKee();
+    if (parentKee != null) {
+      ActiveRuleKey parentKey = ActiveRuleKey.of(parentKee, ruleKey);
+      context.setParentActiveRule(cache.activeRule(parentKey));
+      context.setParentActiveRuleParams(cache.activeRuleParams(parentKey));
+    }
+    return context;
+  }
+
+  private void initRules(Collection<RuleKey> ruleKeys, RuleActivatorCache cache, DbSession session) {
+    List<RuleDto> rules = db.ruleDao().getByKeys(session, ruleKeys);
+    List<Integer> ruleIds = Lists.newArrayList();
+    for (RuleDto rule : rules) {
+      ruleIds.add(rule.getId());
+    }
+    cache.addRules(rules, db.ruleDao().findRuleParamsByRuleIds(session, ruleIds));
+  }
+
+  private void initProfileTree(QualityProfileDto profile, @Nullable String parentKey, RuleActivatorCache cache, DbSession session) {
+    cache.addProfile(profile, parentKey);
+    initActiveRules(profile.getKey(), cache, session);
+    for (QualityProfileDto child : db.qualityProfileDao().findChildren(session, profile.getKey())) {
+      initProfileTree(child, profile.getKey(), cache, session);
+    }
+  }
+
+  private void initActiveRules(String profileKey, RuleActivatorCache cache, DbSession session) {
+    cache.addActiveRules(db.activeRuleDao().findByProfileKey(session, profileKey), db.activeRuleDao().findParamsByProfileKey(session, profileKey));
+  }
+
   private RuleActivatorContext create(RuleKey ruleKey, DbSession session, RuleActivatorContext context) {
     initRule(ruleKey, context, session);
     initActiveRules(context.profile().getKey(), ruleKey, context, session, false);
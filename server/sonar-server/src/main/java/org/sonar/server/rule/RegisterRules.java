@@ -48,6 +48,7 @@ import org.sonar.core.technicaldebt.db.CharacteristicDto;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.qualityprofile.RuleActivator;
 import org.sonar.server.startup.RegisterDebtModel;
+import org.sonar.server.startup.StartupFingerprints;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -62,40 +63,52 @@ import static com.google.common.collect.Lists.newArrayList;
 public class RegisterRules implements Startable {
 
   private static final Logger LOG = Loggers.get(RegisterRules.class);
+  static final String FINGERPRINT_KEY = "rules";
 
   private final RuleDefinitionsLoader defLoader;
   private final RuleActivator ruleActivator;
   private final DbClient dbClient;
   private final Languages languages;
   private final CharacteristicDao characteristicDao;
+  private final StartupFingerprints fingerprints;
 
   /**
    * @param registerDebtModel used only to be started after init of the technical debt model
    */
-  public RegisterRules(RuleDefinitionsLoader defLoader, RuleActivator ruleActivator, DbClient dbClient, Languages languages, RegisterDebtModel registerDebtModel) {
-    this(defLoader, ruleActivator, dbClient, languages);
+  public RegisterRules(RuleDefinitionsLoader defLoader, RuleActivator ruleActivator, DbClient dbClient, Languages languages,
+    StartupFingerprints fingerprints, RegisterDebtModel registerDebtModel) {
+    this(defLoader, ruleActivator, dbClient, languages, fingerprints);
   }
 
   @VisibleForTesting
   RegisterRules(RuleDefinitionsLoader defLoader, RuleActivator ruleActivator,
-    DbClient dbClient, Languages languages) {
+    DbClient dbClient, Languages languages, StartupFingerprints fingerprints) {
     this.defLoader = defLoader;
     this.ruleActivator = ruleActivator;
     this.dbClient = dbClient;
     this.languages = languages;
     this.characteristicDao = dbClient.debtCharacteristicDao();
+    this.fingerprints = fingerprints;
   }
 
   @Override
   public void start() {
     Profiler profiler = Profiler.create(LOG).startInfo("Register rules");
+    // definitions are always loaded as they initialize RuleRepositories
+    RulesDefinition.Context context = defLoader.load();
+    List<RulesDefinition.ExtendedRepository> repositories = getRepositories(context);
+    String fingerprint = fingerprint(repositories);
+    if (fingerprints.isUpToDate(FINGERPRINT_KEY, fingerprint)) {
+      LOG.info("Rule definitions did not change since last startup");
+      profiler.stopDebug();
+      return;
+    }
     DbSession session = dbClient.openSession(false);
     try {
       Map<RuleKey, RuleDto> allRules = loadRules(session);
       Map<String, CharacteristicDto> allCharacteristics = loadCharacteristics(session);
 
-      RulesDefinition.Context context = defLoader.load();
-      for (RulesDefinition.ExtendedRepository repoDef : getRepositories(context)) {
+      for (RulesDefinition.ExtendedRepository repoDef : repositories) {
         if (languages.get(repoDef.language()) != null) {
           for (RulesDefinition.Rule ruleDef : repoDef.rules()) {
             registerRule(ruleDef, allRules, allCharacteristics, session);
@@ -106,6 +119,7 @@ public class RegisterRules implements Startable {
       List<RuleDto> activeRules = processRemainingDbRules(allRules.values(), session);
       removeActiveRulesOnStillExistingRepositories(session, activeRules, context);
       session.commit();
+      fingerprints.store(FINGERPRINT_KEY, fingerprint);
       profiler.stopDebug();
     } finally {
       session.close();
@@ -181,6 +195,22 @@ public class RegisterRules implements Startable {
     return characteristicDto;
   }
 
+  private String fingerprint(List<RulesDefinition.ExtendedRepository> repositories) {
+    StartupFingerprints.Fingerprint fingerprint = StartupFingerprints.newFingerprint();
+    for (RulesDefinition.ExtendedRepository repoDef : repositories) {
+      fingerprint.add(repoDef.key()).add(repoDef.language()).add(languages.get(repoDef.language()) != null);
+      for (RulesDefinition.Rule ruleDef : repoDef.rules()) {
+        fingerprint.add(ruleDef.key()).add(ruleDef.name()).add(ruleDef.severity()).add(ruleDef.status())
+          .add(ruleDef.template()).add(ruleDef.internalKey()).add(ruleDef.htmlDescription()).add(ruleDef.markdownDescription())
+          .add(ruleDef.tags()).add(ruleDef.debtSubCharacteristic()).add(ruleDef.debtRemediationFunction()).add(ruleDef.effortToFixDescription());
+        for (RulesDefinition.Param paramDef : ruleDef.params()) {
+          fingerprint.add(paramDef.key()).add(paramDef.description()).add(paramDef.defaultValue()).add(paramDef.type());
+        }
+      }
+    }
+    return fingerprint.build();
+  }
+
   private List<RulesDefinition.ExtendedRepository> getRepositories(RulesDefinition.Context context) {
     List<RulesDefinition.ExtendedRepository> repositories = new ArrayList<RulesDefinition.ExtendedRepository>();
     for (RulesDefinition.Repository repoDef : context.repositories()) {
@@ -20,9 +20,11 @@
 package org.sonar.server.rule.db;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.System2;
+import org.sonar.core.persistence.DaoUtils;
 import org.sonar.core.persistence.DbSession;
 import org.sonar.core.rule.RuleDto;
 import org.sonar.core.rule.RuleMapper;
@@ -31,8 +33,12 @@ import org.sonar.server.db.BaseDao;
 import org.sonar.server.search.IndexDefinition;
 
 import javax.annotation.CheckForNull;
+
+import java.util.Collection;
 import java.util.List;
 
+import static com.google.common.collect.Lists.newArrayList;
+
 public class RuleDao extends BaseDao<RuleMapper, RuleDto, RuleKey> {
 
   public RuleDao() {
@@ -49,6 +55,11 @@ public class RuleDao extends BaseDao<RuleMapper, RuleDto, RuleKey> {
     return mapper(session).selectByKey(key);
   }
 
+  @Override
+  protected List<RuleDto> doGetByKeys(DbSession session, Collection<RuleKey> keys) {
+    return mapper(session).selectByKeys(newArrayList(keys));
+  }
+
   public RuleDto getByName(String name, DbSession session) {
     return mapper(session).selectByName(name);
   }
@@ -139,6 +150,15 @@ public class RuleDao extends BaseDao<RuleMapper, RuleDto, RuleKey> {
     return mapper(session).selectParamsByRuleKey(key);
   }
 
+  public List<RuleParamDto> findRuleParamsByRuleIds(final DbSession session, Collection<Integer> ruleIds) {
+    return DaoUtils.executeLargeInputs(ruleIds, new Function<List<Integer>, List<RuleParamDto>>() {
+      @Override
+      public List<RuleParamDto> apply(List<Integer> partition) {
+        return mapper(session).selectParamsByRuleIds(partition);
+      }
+    });
+  }
+
   public List<RuleDto> findRulesByDebtSubCharacteristicId(DbSession session, int id) {
     return mapper(session).selectBySubCharacteristicId(id);
   }
@@ -34,6 +34,7 @@ public class IndexField {
   public static final String SORT_SUFFIX = "sort";
   public static final String SEARCH_WORDS_SUFFIX = "words";
   public static final String SEARCH_PARTIAL_SUFFIX = "grams";
+  public static final String SEARCH_SUBSTRING_SUFFIX = "substrings";
 
   private final Type type;
   private final String field;
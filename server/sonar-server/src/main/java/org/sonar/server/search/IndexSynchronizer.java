@@ -24,6 +24,7 @@ import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.persistence.DbSession;
 import org.sonar.server.activity.index.ActivityIndexer;
+import org.sonar.server.component.index.ComponentIndexer;
 import org.sonar.server.db.Dao;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.issue.index.IssueAuthorizationIndexer;
@@ -48,6 +49,7 @@ public class IndexSynchronizer {
   private final UserIndexer userIndexer;
   private final ViewIndexer viewIndexer;
   private final ActivityIndexer activityIndexer;
+  private final ComponentIndexer componentIndexer;
 
   /**
    * Limitation - {@link org.sonar.server.es.BaseIndexer} are not injected through an array or a collection
@@ -56,7 +58,7 @@ public class IndexSynchronizer {
    */
   public IndexSynchronizer(DbClient db, IndexClient index, SourceLineIndexer sourceLineIndexer,
                            IssueAuthorizationIndexer issueAuthorizationIndexer, IssueIndexer issueIndexer,
-                           UserIndexer userIndexer, ViewIndexer viewIndexer, ActivityIndexer activityIndexer) {
+                           UserIndexer userIndexer, ViewIndexer viewIndexer, ActivityIndexer activityIndexer, ComponentIndexer componentIndexer) {
     this.db = db;
     this.index = index;
     this.sourceLineIndexer = sourceLineIndexer;
@@ -65,6 +67,7 @@ public class IndexSynchronizer {
     this.userIndexer = userIndexer;
     this.viewIndexer = viewIndexer;
     this.activityIndexer = activityIndexer;
+    this.componentIndexer = componentIndexer;
   }
 
   public void executeDeprecated() {
@@ -94,6 +97,9 @@ public class IndexSynchronizer {
 
     LOG.info("Index views");
     viewIndexer.setEnabled(true).index();
+
+    LOG.info("Index components");
+    componentIndexer.setEnabled(true).index();
   }
 
   void synchronize(DbSession session, Dao dao, Index index) {
@@ -52,6 +52,7 @@ import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.transport.InetSocketTransportAddress;
 import org.picocontainer.Startable;
 import org.sonar.api.config.Settings;
+import org.sonar.core.telemetry.Telemetry;
 import org.sonar.process.LoopbackAddress;
 import org.sonar.process.ProcessProperties;
 import org.sonar.server.es.request.*;
@@ -61,7 +62,9 @@ import org.sonar.server.es.request.*;
  */
 public class SearchClient extends TransportClient implements Startable {
 
-  public SearchClient(Settings settings) {
+  private final Telemetry telemetry;
+
+  public SearchClient(Settings settings, Telemetry telemetry) {
     super(ImmutableSettings.settingsBuilder()
       .put("node.name", StringUtils.defaultIfEmpty(settings.getString(ProcessProperties.CLUSTER_NODE_NAME), "sq_local_client"))
       .put("network.bind_host", StringUtils.defaultIfEmpty(settings.getString(ProcessProperties.SEARCH_HOST), "localhost"))
@@ -71,6 +74,7 @@ public class SearchClient extends TransportClient implements Startable {
     initLogging();
     this.addTransportAddress(new InetSocketTransportAddress(StringUtils.defaultIfEmpty(settings.getString(ProcessProperties.SEARCH_HOST), LoopbackAddress.get().getHostAddress()),
       settings.getInt(ProcessProperties.SEARCH_PORT)));
+    this.telemetry = telemetry;
   }
 
   private void initLogging() {
@@ -78,7 +82,7 @@ public class SearchClient extends TransportClient implements Startable {
   }
 
   public RefreshRequestBuilder prepareRefresh(String... indices) {
-    return new ProxyRefreshRequestBuilder(this).setIndices(indices);
+    return new ProxyRefreshRequestBuilder(this, telemetry).setIndices(indices);
   }
 
   public IndicesExistsRequestBuilder prepareIndicesExist(String... indices) {
@@ -95,32 +99,32 @@ public class SearchClient extends TransportClient implements Startable {
 
   @Override
   public SearchRequestBuilder prepareSearch(String... indices) {
-    return new ProxySearchRequestBuilder(this).setIndices(indices);
+    return new ProxySearchRequestBuilder(this, telemetry).setIndices(indices);
   }
 
   @Override
   public SearchScrollRequestBuilder prepareSearchScroll(String scrollId) {
-    return new ProxySearchScrollRequestBuilder(scrollId, this);
+    return new ProxySearchScrollRequestBuilder(scrollId, this, telemetry);
   }
 
   @Override
   public GetRequestBuilder prepareGet() {
-    return new ProxyGetRequestBuilder(this);
+    return new ProxyGetRequestBuilder(this, telemetry);
   }
 
   @Override
   public MultiGetRequestBuilder prepareMultiGet() {
-    return new ProxyMultiGetRequestBuilder(this);
+    return new ProxyMultiGetRequestBuilder(this, telemetry);
   }
 
   @Override
   public CountRequestBuilder prepareCount(String... indices) {
-    return new ProxyCountRequestBuilder(this).setIndices(indices);
+    return new ProxyCountRequestBuilder(this, telemetry).setIndices(indices);
   }
 
   @Override
   public BulkRequestBuilder prepareBulk() {
-    return new ProxyBulkRequestBuilder(this);
+    return new ProxyBulkRequestBuilder(this, telemetry);
   }
 
   @Override
@@ -174,7 +178,7 @@ public class SearchClient extends TransportClient implements Startable {
 
   @Override
   public DeleteRequestBuilder prepareDelete(String index, String type, String id) {
-    return new ProxyDeleteRequestBuilder(this, index).setType(type).setId(id);
+    return new ProxyDeleteRequestBuilder(this, index, telemetry).setType(type).setId(id);
   }
 
   @Override
@@ -28,6 +28,8 @@ import org.sonar.server.es.BaseIndex;
 import org.sonar.server.es.EsClient;
 import org.sonar.server.exceptions.NotFoundException;
 
+import javax.annotation.Nullable;
+
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -51,6 +53,14 @@ public class SourceLineIndex extends BaseIndex {
    * @param to ending line; must be greater than or equal to <code>to</code>
    */
   public List<SourceLineDoc> getLines(String fileUuid, int from, int to) {
+    return getLines(null, fileUuid, from, to);
+  }
+
+  /**
+   * Same as {@link #getLines(String, int, int)} but the request is routed to the shard
+   * of the project <code>projectUuid</code>.
+   */
+  public List<SourceLineDoc> getLines(@Nullable String projectUuid, String fileUuid, int from, int to) {
     checkArgument(from > 0, "Minimum value for 'from' is 1");
     checkArgument(to >= from, "'to' must be larger than or equal to 'from'");
     List<SourceLineDoc> lines = Lists.newArrayList();
@@ -60,7 +70,7 @@ public class SourceLineIndex extends BaseIndex {
     }
     int toLimited = size + from - 1;
 
-    for (SearchHit hit : getClient().prepareSearch(SourceLineIndexDefinition.INDEX)
+    SearchRequestBuilder request = getClient().prepareSearch(SourceLineIndexDefinition.INDEX)
       .setTypes(SourceLineIndexDefinition.TYPE)
       .setSize(size)
       .setQuery(QueryBuilders.boolQuery()
@@ -68,8 +78,11 @@ public class SourceLineIndex extends BaseIndex {
         .must(QueryBuilders.rangeQuery(SourceLineIndexDefinition.FIELD_LINE)
           .gte(from)
           .lte(toLimited)))
-      .addSort(SourceLineIndexDefinition.FIELD_LINE, SortOrder.ASC)
-      .get().getHits().getHits()) {
+      .addSort(SourceLineIndexDefinition.FIELD_LINE, SortOrder.ASC);
+    if (projectUuid != null) {
+      request.setRouting(projectUuid);
+    }
+    for (SearchHit hit : request.get().getHits().getHits()) {
       lines.add(new SourceLineDoc(hit.sourceAsMap()));
     }
 
@@ -22,7 +22,9 @@ package org.sonar.server.source.index;
 import com.google.common.collect.ImmutableMap;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.sonar.api.config.Settings;
+import org.sonar.core.persistence.Database;
 import org.sonar.process.ProcessProperties;
+import org.sonar.server.es.DbDocumentCount;
 import org.sonar.server.es.IndexDefinition;
 import org.sonar.server.es.NewIndex;
 
@@ -51,10 +53,32 @@ public class SourceLineIndexDefinition implements IndexDefinition {
   public static final String FIELD_DUPLICATIONS = "duplications";
   public static final String FIELD_UPDATED_AT = "updatedAt";
 
+  static final long DOCS_PER_SHARD = 20000000L;
+
+  /**
+   * Number of lines of the last analysis of root projects
+   */
+  private static final String COUNT_LINES_SQL = "select sum(pm.value) from project_measures pm "
+    + "inner join snapshots s on s.id=pm.snapshot_id "
+    + "inner join metrics m on m.id=pm.metric_id "
+    + "where s.islast=? and s.scope='PRJ' and s.qualifier='TRK' and m.name='lines' "
+    + "and pm.person_id is null and pm.rule_id is null and pm.characteristic_id is null";
+
   private final Settings settings;
+  private final Database db;
+
+  public SourceLineIndexDefinition(Settings settings, Database db) {
+    this.settings = settings;
+    this.db = db;
+  }
 
+  /**
+   * Used when db is not available, for example in tests. Number of shards is then not
+   * computed from number of lines.
+   */
   public SourceLineIndexDefinition(Settings settings) {
     this.settings = settings;
+    this.db = null;
   }
 
   @Override
@@ -67,10 +91,9 @@ public class SourceLineIndexDefinition implements IndexDefinition {
     // shards
     boolean clusterMode = settings.getBoolean(ProcessProperties.CLUSTER_ACTIVATE);
     if (clusterMode) {
-      index.getSettings().put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 4);
       index.getSettings().put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 1);
-      // else keep defaults (one shard)
     }
+    index.configureShards(settings, clusterMode ? 4 : 1, DOCS_PER_SHARD, new DbDocumentCount(db, COUNT_LINES_SQL, true));
 
     // type "sourceline"
     NewIndex.NewIndexType mapping = index.createType(TYPE);
@@ -19,8 +19,6 @@
  */
 package org.sonar.server.source.ws;
 
-import com.google.common.base.Function;
-import com.google.common.io.CharStreams;
 import com.google.common.io.Resources;
 import org.apache.commons.io.Charsets;
 import org.sonar.api.server.ws.Request;
@@ -29,15 +27,21 @@ import org.sonar.api.server.ws.WebService;
 import org.sonar.api.web.UserRole;
 import org.sonar.core.component.ComponentDto;
 import org.sonar.core.persistence.DbSession;
+import org.sonar.core.source.LineHashes;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.user.UserSession;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.Reader;
+import java.io.Writer;
 
 public class HashAction implements SourcesAction {
 
+  static final String PARAM_FORMAT = "format";
+  static final String FORMAT_TEXT = "text";
+  static final String FORMAT_BINARY = "binary";
+
   private final DbClient dbClient;
 
   public HashAction(DbClient dbClient) {
@@ -58,6 +62,13 @@ public class HashAction implements SourcesAction {
       .setRequired(true)
       .setDescription("File key")
       .setExampleValue("org.codehaus.sonar:sonar-server:src/main/java/org/sonar/server/source/SourceService.java");
+
+    action
+      .createParam(PARAM_FORMAT)
+      .setDescription("Format of response. Text format is one hexadecimal hash per line. Binary format is a compact " +
+        "representation of the hashes, compressed with LZ4, that is used by batch. See org.sonar.core.source.LineHashes")
+      .setPossibleValues(FORMAT_TEXT, FORMAT_BINARY)
+      .setDefaultValue(FORMAT_TEXT);
   }
 
   @Override
@@ -67,44 +78,40 @@ public class HashAction implements SourcesAction {
       final ComponentDto component = dbClient.componentDao().getByKey(session, componentKey);
       UserSession.get().checkProjectUuidPermission(UserRole.USER, component.projectUuid());
 
-      response.stream().setMediaType("text/plain");
-      OutputStreamWriter writer = new OutputStreamWriter(response.stream().output(), Charsets.UTF_8);
-      try {
-        HashFunction hashFunction = new HashFunction(writer, componentKey);
-        dbClient.fileSourceDao().readLineHashesStream(session, component.uuid(), hashFunction);
-        if (!hashFunction.hasData()) {
-          response.noContent();
-        }
-      } finally {
-        writer.close();
+      long[] hashes = dbClient.fileSourceDao().selectLineHashes(session, component.uuid());
+      if (hashes == null) {
+        response.noContent();
+      } else if (FORMAT_BINARY.equals(request.mandatoryParam(PARAM_FORMAT))) {
+        writeBinary(hashes, response);
+      } else {
+        writeText(hashes, response);
       }
     }
   }
 
-  private static class HashFunction implements Function<Reader, Void> {
-
-    private final OutputStreamWriter writer;
-    private final String componentKey;
-    private boolean hasData = false;
-
-    public HashFunction(OutputStreamWriter writer, String componentKey) {
-      this.writer = writer;
-      this.componentKey = componentKey;
+  private static void writeBinary(long[] hashes, Response response) throws IOException {
+    response.stream().setMediaType("application/octet-stream");
+    OutputStream output = response.stream().output();
+    try {
+      LineHashes.write(hashes, true, output);
+    } finally {
+      output.close();
     }
+  }
 
-    @Override
-    public Void apply(Reader input) {
-      try {
-        hasData = true;
-        CharStreams.copy(input, writer);
-      } catch (IOException e) {
-        throw new IllegalStateException(String.format("Can't read line hashes of file '%s'", componentKey), e);
+  private static void writeText(long[] hashes, Response response) throws IOException {
+    response.stream().setMediaType("text/plain");
+    Writer writer = new OutputStreamWriter(response.stream().output(), Charsets.UTF_8);
+    try {
+      int lines = LineHashes.lineCount(hashes);
+      for (int line = 1; line <= lines; line++) {
+        if (line > 1) {
+          writer.write('\n');
+        }
+        writer.write(LineHashes.toHex(hashes, line));
       }
-      return null;
-    }
-
-    public boolean hasData() {
-      return hasData;
+    } finally {
+      writer.close();
     }
   }
 
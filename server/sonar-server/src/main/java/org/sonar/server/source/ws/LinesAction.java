@@ -100,7 +100,7 @@ public class LinesAction implements SourcesAction {
     int from = Math.max(request.mandatoryParamAsInt("from"), 1);
     int to = (Integer) ObjectUtils.defaultIfNull(request.paramAsInt("to"), Integer.MAX_VALUE);
 
-    List<SourceLineDoc> sourceLines = sourceLineIndex.getLines(fileUuid, from, to);
+    List<SourceLineDoc> sourceLines = sourceLineIndex.getLines(component.projectUuid(), fileUuid, from, to);
     if (sourceLines.isEmpty()) {
       throw new NotFoundException("File '" + fileUuid + "' has no sources");
     }
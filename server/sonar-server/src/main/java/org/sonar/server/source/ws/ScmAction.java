@@ -102,7 +102,7 @@ public class ScmAction implements SourcesAction {
     try {
       ComponentDto fileDto = dbClient.componentDao().getByKey(session, fileKey);
       UserSession.get().checkProjectUuidPermission(UserRole.CODEVIEWER, fileDto.projectUuid());
-      List<SourceLineDoc> sourceLines = sourceLineIndex.getLines(fileDto.uuid(), from, to);
+      List<SourceLineDoc> sourceLines = sourceLineIndex.getLines(fileDto.projectUuid(), fileDto.uuid(), from, to);
       if (sourceLines.isEmpty()) {
         throw new NotFoundException("File '" + fileKey + "' has no sources");
       }
@@ -40,36 +40,55 @@ import static com.google.common.collect.Lists.newArrayList;
 public class RegisterMetrics {
 
   private static final Logger LOG = Loggers.get(RegisterMetrics.class);
+  static final String FINGERPRINT_KEY = "metrics";
 
   private final MeasuresDao measuresDao;
   private final Metrics[] metricsRepositories;
   private final QualityGateConditionDao conditionDao;
+  private final StartupFingerprints fingerprints;
 
-  public RegisterMetrics(MeasuresDao measuresDao, QualityGateConditionDao conditionDao, Metrics[] metricsRepositories) {
+  public RegisterMetrics(MeasuresDao measuresDao, QualityGateConditionDao conditionDao, StartupFingerprints fingerprints, Metrics[] metricsRepositories) {
     this.measuresDao = measuresDao;
     this.metricsRepositories = metricsRepositories;
     this.conditionDao = conditionDao;
+    this.fingerprints = fingerprints;
   }
 
   /**
    * Used when no plugin is defining Metrics
    */
-  public RegisterMetrics(MeasuresDao measuresDao, QualityGateConditionDao conditionDao) {
-    this(measuresDao, conditionDao, new Metrics[]{});
+  public RegisterMetrics(MeasuresDao measuresDao, QualityGateConditionDao conditionDao, StartupFingerprints fingerprints) {
+    this(measuresDao, conditionDao, fingerprints, new Metrics[]{});
   }
 
   public void start() {
     Profiler profiler = Profiler.create(LOG).startInfo("Register metrics");
-    measuresDao.disableAutomaticMetrics();
-
     List<Metric> metricsToRegister = newArrayList();
     metricsToRegister.addAll(CoreMetrics.getMetrics());
     metricsToRegister.addAll(getMetricsRepositories());
-    register(metricsToRegister);
-    cleanAlerts();
+    String fingerprint = fingerprint(metricsToRegister);
+    if (fingerprints.isUpToDate(FINGERPRINT_KEY, fingerprint)) {
+      LOG.info("Metrics did not change since last startup");
+    } else {
+      measuresDao.disableAutomaticMetrics();
+      register(metricsToRegister);
+      cleanAlerts();
+      fingerprints.store(FINGERPRINT_KEY, fingerprint);
+    }
     profiler.stopDebug();
   }
 
+  private static String fingerprint(List<Metric> metrics) {
+    StartupFingerprints.Fingerprint fingerprint = StartupFingerprints.newFingerprint();
+    for (Metric metric : metrics) {
+      fingerprint.add(metric.getKey()).add(metric.getName()).add(metric.getType()).add(metric.getDescription())
+        .add(metric.getDirection()).add(metric.getDomain()).add(metric.getQualitative()).add(metric.getUserManaged())
+        .add(metric.getWorstValue()).add(metric.getBestValue()).add(metric.isOptimizedBestValue()).add(metric.isHidden())
+        .add(metric.getDeleteHistoricalData());
+    }
+    return fingerprint.build();
+  }
+
   @VisibleForTesting
   List<Metric> getMetricsRepositories() {
     List<Metric> metricsToRegister = newArrayList();
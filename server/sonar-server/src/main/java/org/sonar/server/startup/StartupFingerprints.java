@@ -0,0 +1,104 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.startup;
+
+import com.google.common.base.Charsets;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.sonar.api.ServerComponent;
+import org.sonar.api.platform.Server;
+import org.sonar.core.properties.PropertiesDao;
+import org.sonar.core.properties.PropertyDto;
+
+import javax.annotation.Nullable;
+
+import java.security.MessageDigest;
+
+/**
+ * Fingerprints of the inputs of the registration tasks executed at startup, for example the rule
+ * or metric definitions provided by plugins. A task can skip its merge with db when the fingerprint
+ * of its inputs did not change since the previous startup. The server version is part of
+ * each fingerprint, so that all tasks are executed again after an upgrade.
+ *
+ * @since 5.2
+ */
+public class StartupFingerprints implements ServerComponent {
+
+  static final String PROPERTY_PREFIX = "sonar.core.startupFingerprint.";
+
+  private final PropertiesDao propertiesDao;
+  private final Server server;
+
+  public StartupFingerprints(PropertiesDao propertiesDao, Server server) {
+    this.propertiesDao = propertiesDao;
+    this.server = server;
+  }
+
+  public boolean isUpToDate(String taskKey, String fingerprint) {
+    PropertyDto property = propertiesDao.selectGlobalProperty(PROPERTY_PREFIX + taskKey);
+    return property != null && versioned(fingerprint).equals(property.getValue());
+  }
+
+  public void store(String taskKey, String fingerprint) {
+    propertiesDao.setProperty(new PropertyDto().setKey(PROPERTY_PREFIX + taskKey).setValue(versioned(fingerprint)));
+  }
+
+  private String versioned(String fingerprint) {
+    return server.getVersion() + ":" + fingerprint;
+  }
+
+  public static Fingerprint newFingerprint() {
+    return new Fingerprint();
+  }
+
+  /**
+   * SHA-1 of a sequence of values
+   */
+  public static class Fingerprint {
+    private static final byte SEPARATOR = 0;
+    private static final byte NULL = 1;
+
+    private final MessageDigest digest = DigestUtils.getSha1Digest();
+
+    private Fingerprint() {
+    }
+
+    public Fingerprint add(@Nullable Object value) {
+      if (value == null) {
+        digest.update(NULL);
+      } else {
+        digest.update(value.toString().getBytes(Charsets.UTF_8));
+      }
+      digest.update(SEPARATOR);
+      return this;
+    }
+
+    public Fingerprint add(Iterable<?> values) {
+      for (Object value : values) {
+        add(value);
+      }
+      return add((Object) null);
+    }
+
+    public String build() {
+      return Hex.encodeHexString(digest.digest());
+    }
+  }
+}
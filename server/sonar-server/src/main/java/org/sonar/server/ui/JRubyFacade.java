@@ -35,10 +35,10 @@ import org.sonar.api.web.Page;
 import org.sonar.api.web.RubyRailsWebservice;
 import org.sonar.api.web.Widget;
 import org.sonar.core.persistence.Database;
-import org.sonar.core.resource.ResourceIndexerDao;
 import org.sonar.core.timemachine.Periods;
 import org.sonar.process.ProcessProperties;
 import org.sonar.server.component.ComponentCleanerService;
+import org.sonar.server.component.index.ComponentIndexer;
 import org.sonar.server.db.migrations.DatabaseMigrator;
 import org.sonar.server.measure.MeasureFilterEngine;
 import org.sonar.server.measure.MeasureFilterResult;
@@ -298,11 +298,7 @@ public final class JRubyFacade {
   }
 
   public void indexProjects() {
-    get(ResourceIndexerDao.class).indexProjects();
-  }
-
-  public void indexResource(long resourceId) {
-    get(ResourceIndexerDao.class).indexResource(resourceId);
+    get(ComponentIndexer.class).indexAll();
   }
 
   /*
@@ -0,0 +1,63 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keys and uuids of the root projects on which a user has a given permission. They are stored
+ * as sorted arrays, which are much more compact than hash sets when users can browse thousands
+ * of projects.
+ */
+class AuthorizedProjects {
+
+  private final String[] keys;
+  private final String[] uuids;
+
+  AuthorizedProjects(Collection<String> keys, Collection<String> uuids) {
+    this.keys = sort(keys);
+    this.uuids = sort(uuids);
+  }
+
+  boolean containsKey(String projectKey) {
+    return Arrays.binarySearch(keys, projectKey) >= 0;
+  }
+
+  boolean containsUuid(String projectUuid) {
+    return Arrays.binarySearch(uuids, projectUuid) >= 0;
+  }
+
+  int size() {
+    return uuids.length;
+  }
+
+  List<String> uuids() {
+    return Collections.unmodifiableList(Arrays.asList(uuids));
+  }
+
+  private static String[] sort(Collection<String> values) {
+    String[] array = values.toArray(new String[values.size()]);
+    Arrays.sort(array);
+    return array;
+  }
+}
@@ -41,11 +41,13 @@ public class DefaultUserService implements RubyUserService {
   private final UserService userService;
   private final UserFinder finder;
   private final UserDao dao;
+  private final UserPermissionCache permissionCache;
 
-  public DefaultUserService(UserService userService, UserFinder finder, UserDao dao) {
+  public DefaultUserService(UserService userService, UserFinder finder, UserDao dao, UserPermissionCache permissionCache) {
     this.userService = userService;
     this.finder = finder;
     this.dao = dao;
+    this.permissionCache = permissionCache;
   }
 
   @Override
@@ -114,6 +116,8 @@ public class DefaultUserService implements RubyUserService {
       throw new BadRequestException("Self-deactivation is not possible");
     }
     dao.deactivateUserByLogin(login);
+    // memberships and permissions of user are removed
+    permissionCache.clear();
     userService.index();
   }
 
@@ -0,0 +1,402 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang.StringUtils;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.BoolFilterBuilder;
+import org.elasticsearch.index.query.FilterBuilders;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.sonar.api.ServerComponent;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.internal.Uuids;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.component.ComponentDto;
+import org.sonar.core.permission.GlobalPermissions;
+import org.sonar.core.user.AuthorizationDao;
+import org.sonar.server.es.EsClient;
+import org.sonar.server.issue.index.IssueIndexDefinition;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Permissions of users, shared by the HTTP requests during a few seconds so that pages
+ * sending many requests to web services do not load the same permissions again and again. It also
+ * caches the projects that users can browse according to the index of issue authorizations.
+ * <p/>
+ * Entries are invalidated by {@link #clear()} as soon as permissions, group memberships or the index of
+ * issue authorizations are changed, including from the Rails webapp. Changes that are done
+ * outside of this server process are visible at the latest when entries expire.
+ * <p/>
+ * The memory is bounded by the total number of cached projects, whatever the number of users.
+ */
+public class UserPermissionCache implements ServerComponent {
+
+  static final long EXPIRATION_IN_SECONDS = 30L;
+
+  /**
+   * Max number of cached global permissions, one per user
+   */
+  static final int MAX_GLOBAL_PERMISSIONS = 1000;
+
+  /**
+   * Max number of cached lists of projects
+   */
+  static final int MAX_PROJECT_LISTS = 1000;
+
+  /**
+   * Max number of projects cached for all the users and permissions. Each
+   * project takes about 200 bytes (key and uuid).
+   */
+  static final int MAX_PROJECTS = 100000;
+
+  private static final Logger LOG = Loggers.get(UserPermissionCache.class);
+  private static final int SCROLL_SIZE = 1000;
+  private static final int SCROLL_TIME_IN_MINUTES = 1;
+
+  private final AuthorizationDao authorizationDao;
+  private final EsClient esClient;
+  private final ExpiringCache<String, List<String>> globalPermissionsByLogin;
+  private final ExpiringCache<ProjectsKey, AuthorizedProjects> projectsByUserAndPermission;
+  private final ExpiringCache<IndexedProjectsKey, IndexedProjects> indexedProjectsByUserAndGroups;
+
+  public UserPermissionCache(AuthorizationDao authorizationDao, EsClient esClient) {
+    this(authorizationDao, esClient, System2.INSTANCE);
+  }
+
+  @VisibleForTesting
+  UserPermissionCache(AuthorizationDao authorizationDao, EsClient esClient, final System2 system) {
+    this.authorizationDao = authorizationDao;
+    this.esClient = esClient;
+    Ticker ticker = new Ticker() {
+      @Override
+      public long read() {
+        return TimeUnit.MILLISECONDS.toNanos(system.now());
+      }
+    };
+    this.globalPermissionsByLogin = new ExpiringCache<String, List<String>>(MAX_GLOBAL_PERMISSIONS, MAX_GLOBAL_PERMISSIONS, ticker) {
+      @Override
+      List<String> load(String login) {
+        return loadGlobalPermissions(StringUtils.defaultIfEmpty(login, null));
+      }
+
+      @Override
+      int weigh(List<String> value) {
+        return 1;
+      }
+    };
+    this.projectsByUserAndPermission = new ExpiringCache<ProjectsKey, AuthorizedProjects>(MAX_PROJECT_LISTS, MAX_PROJECTS, ticker) {
+      @Override
+      AuthorizedProjects load(ProjectsKey key) {
+        return loadAuthorizedProjects(key.userId, key.permission);
+      }
+
+      @Override
+      int weigh(AuthorizedProjects value) {
+        return Math.max(1, value.size());
+      }
+    };
+    this.indexedProjectsByUserAndGroups = new ExpiringCache<IndexedProjectsKey, IndexedProjects>(MAX_PROJECT_LISTS, MAX_PROJECTS, ticker) {
+      @Override
+      IndexedProjects load(IndexedProjectsKey key) {
+        return loadIndexedProjects(key.login, key.groups);
+      }
+
+      @Override
+      int weigh(IndexedProjects value) {
+        return Math.max(1, value.uuids().size());
+      }
+    };
+  }
+
+  /**
+   * @param login login of user, null if anonymous
+   */
+  List<String> globalPermissions(@Nullable String login) {
+    // logins can't be empty
+    return globalPermissionsByLogin.get(StringUtils.defaultString(login));
+  }
+
+  /**
+   * @param userId id of user, null if anonymous
+   */
+  AuthorizedProjects authorizedProjects(@Nullable Integer userId, String permission) {
+    return projectsByUserAndPermission.get(new ProjectsKey(userId, permission));
+  }
+
+  /**
+   * Projects that a user, given its login and groups, is allowed to browse according to the type
+   * {@link IssueIndexDefinition#TYPE_AUTHORIZATION}, for example to replace the parent/child join of issue requests
+   * by a terms filter.
+   * @param login login of user, null if anonymous
+   */
+  public IndexedProjects indexedProjects(@Nullable String login, Set<String> groups) {
+    return indexedProjectsByUserAndGroups.get(new IndexedProjectsKey(login, groups));
+  }
+
+  /**
+   * Must be called when permissions, group memberships or the index of issue authorizations are changed.
+   * Permissions that are being loaded concurrently are not cached.
+   */
+  public void clear() {
+    globalPermissionsByLogin.clear();
+    projectsByUserAndPermission.clear();
+    indexedProjectsByUserAndGroups.clear();
+  }
+
+  private List<String> loadGlobalPermissions(@Nullable String login) {
+    List<String> permissions = new ArrayList<String>();
+    for (String permissionKey : authorizationDao.selectGlobalPermissions(login)) {
+      if (!GlobalPermissions.ALL.contains(permissionKey)) {
+        LOG.warn("Ignoring unknown permission {} for user {}", permissionKey, login);
+      } else {
+        permissions.add(permissionKey);
+      }
+    }
+    return ImmutableList.copyOf(permissions);
+  }
+
+  private AuthorizedProjects loadAuthorizedProjects(@Nullable Integer userId, String permission) {
+    List<ComponentDto> projects = authorizationDao.selectAuthorizedRootProjects(userId, permission);
+    List<String> keys = new ArrayList<String>(projects.size());
+    List<String> uuids = new ArrayList<String>(projects.size());
+    for (ComponentDto project : projects) {
+      keys.add(project.key());
+      if (project.uuid() != null) {
+        uuids.add(project.uuid());
+      }
+    }
+    return new AuthorizedProjects(keys, uuids);
+  }
+
+  private IndexedProjects loadIndexedProjects(@Nullable String login, Set<String> groups) {
+    BoolFilterBuilder groupsAndUser = FilterBuilders.boolFilter();
+    if (login != null) {
+      groupsAndUser.should(FilterBuilders.termFilter(IssueIndexDefinition.FIELD_AUTHORIZATION_USERS, login));
+    }
+    if (!groups.isEmpty()) {
+      groupsAndUser.should(FilterBuilders.termsFilter(IssueIndexDefinition.FIELD_AUTHORIZATION_GROUPS, groups));
+    }
+    if (!groupsAndUser.hasClauses()) {
+      return new IndexedProjects(Collections.<String>emptySet());
+    }
+
+    SearchResponse response = esClient.prepareSearch(IssueIndexDefinition.INDEX)
+      .setTypes(IssueIndexDefinition.TYPE_AUTHORIZATION)
+      .setSearchType(SearchType.SCAN)
+      .setScroll(TimeValue.timeValueMinutes(SCROLL_TIME_IN_MINUTES))
+      .setSize(SCROLL_SIZE)
+      .setNoFields()
+      .setQuery(QueryBuilders.filteredQuery(QueryBuilders.matchAllQuery(), groupsAndUser))
+      .get();
+
+    Set<String> uuids = new TreeSet<String>();
+    String scrollId = response.getScrollId();
+    try {
+      while (true) {
+        response = esClient.prepareSearchScroll(scrollId)
+          .setScroll(TimeValue.timeValueMinutes(SCROLL_TIME_IN_MINUTES))
+          .get();
+        scrollId = response.getScrollId();
+        SearchHit[] hits = response.getHits().getHits();
+        if (hits.length == 0) {
+          break;
+        }
+        for (SearchHit hit : hits) {
+          // id of authorization document is the project uuid
+          uuids.add(hit.getId());
+        }
+      }
+    } finally {
+      esClient.prepareClearScroll(scrollId).get();
+    }
+    return new IndexedProjects(uuids);
+  }
+
+  /**
+   * Uuids of projects, with the key of the Elasticsearch filter cache that is used when filtering
+   * requests on them. The key is unique to each load.
+   */
+  public static class IndexedProjects {
+    private final Set<String> uuids;
+    private final String filterCacheKey;
+
+    IndexedProjects(Set<String> uuids) {
+      this.uuids = ImmutableSet.copyOf(uuids);
+      this.filterCacheKey = "authorizedProjects:" + Uuids.create();
+    }
+
+    public Set<String> uuids() {
+      return uuids;
+    }
+
+    public String filterCacheKey() {
+      return filterCacheKey;
+    }
+  }
+
+  private static class ProjectsKey {
+    private final Integer userId;
+    private final String permission;
+
+    ProjectsKey(@Nullable Integer userId, String permission) {
+      this.userId = userId;
+      this.permission = permission;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ProjectsKey other = (ProjectsKey) o;
+      return Objects.equal(userId, other.userId) && permission.equals(other.permission);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(userId, permission);
+    }
+  }
+
+  private static class IndexedProjectsKey {
+    private final String login;
+    private final Set<String> groups;
+
+    IndexedProjectsKey(@Nullable String login, Set<String> groups) {
+      this.login = login;
+      this.groups = ImmutableSet.copyOf(groups);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      IndexedProjectsKey other = (IndexedProjectsKey) o;
+      return Objects.equal(login, other.login) && groups.equals(other.groups);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(login, groups);
+    }
+  }
+
+  /**
+   * Values are loaded on demand and expire {@link #EXPIRATION_IN_SECONDS} after being loaded. A value
+   * is returned but not kept when it was loaded concurrently with {@link #clear()}, or when the total
+   * weight of kept values would exceed the maximum.
+   */
+  abstract static class ExpiringCache<K, V> {
+    private final int maxWeight;
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache<K, Entry<V>> entries;
+
+    ExpiringCache(int maxEntries, int maxWeight, Ticker ticker) {
+      this.maxWeight = maxWeight;
+      this.entries = CacheBuilder.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(EXPIRATION_IN_SECONDS, TimeUnit.SECONDS)
+        .ticker(ticker)
+        .build(new CacheLoader<K, Entry<V>>() {
+          @Override
+          public Entry<V> load(K key) {
+            long loadGeneration = generation.get();
+            V value = ExpiringCache.this.load(key);
+            int valueWeight = weigh(value);
+            return new Entry<V>(value, valueWeight, loadGeneration, weight() + valueWeight <= ExpiringCache.this.maxWeight);
+          }
+        });
+    }
+
+    abstract V load(K key);
+
+    abstract int weigh(V value);
+
+    V get(K key) {
+      Entry<V> entry = entries.getUnchecked(key);
+      if (entry.generation != generation.get()) {
+        // loaded before the last call to clear()
+        entries.invalidate(key);
+        entry = entries.getUnchecked(key);
+      }
+      if (!entry.kept || entry.generation != generation.get()) {
+        entries.invalidate(key);
+      }
+      return entry.value;
+    }
+
+    void clear() {
+      generation.incrementAndGet();
+      entries.invalidateAll();
+    }
+
+    long weight() {
+      long weight = 0L;
+      for (Entry<V> entry : entries.asMap().values()) {
+        if (entry.kept) {
+          weight += entry.weight;
+        }
+      }
+      return weight;
+    }
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private final int weight;
+    private final long generation;
+    private final boolean kept;
+
+    Entry(V value, int weight, long generation, boolean kept) {
+      this.value = value;
+      this.weight = weight;
+      this.generation = generation;
+      this.kept = kept;
+    }
+  }
+}
@@ -21,14 +21,9 @@ package org.sonar.server.user;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Strings;
-import com.google.common.collect.HashMultimap;
 import org.sonar.api.security.DefaultGroups;
-import org.sonar.api.utils.log.Logger;
-import org.sonar.api.utils.log.Loggers;
-import org.sonar.core.permission.GlobalPermissions;
 import org.sonar.core.resource.ResourceDao;
 import org.sonar.core.resource.ResourceDto;
-import org.sonar.core.user.AuthorizationDao;
 import org.sonar.server.exceptions.ForbiddenException;
 import org.sonar.server.exceptions.UnauthorizedException;
 import org.sonar.server.platform.Platform;
@@ -36,7 +31,6 @@ import org.sonar.server.platform.Platform;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -44,7 +38,6 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
-import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
 
@@ -56,7 +49,6 @@ public class UserSession {
   public static final UserSession ANONYMOUS = new UserSession();
 
   private static final ThreadLocal<UserSession> THREAD_LOCAL = new ThreadLocal<UserSession>();
-  private static final Logger LOG = Loggers.get(UserSession.class);
   private static final String INSUFFICIENT_PRIVILEGES_MESSAGE = "Insufficient privileges";
 
   private Integer userId;
@@ -66,11 +58,9 @@ public class UserSession {
   private Locale locale = Locale.ENGLISH;
   List<String> globalPermissions = null;
 
-  HashMultimap<String, String> projectKeyByPermission = HashMultimap.create();
-  HashMultimap<String, String> projectUuidByPermission = HashMultimap.create();
+  Map<String, AuthorizedProjects> authorizedProjectsByPermission = newHashMap();
   Map<String, String> projectKeyByComponentKey = newHashMap();
   Map<String, String> projectUuidByComponentUuid = newHashMap();
-  List<String> projectPermissions = newArrayList();
 
   UserSession() {
     // Do not forget that when forceAuthentication is set to true, the Anyone group should not be set (but this will be check when
@@ -162,15 +152,7 @@ public class UserSession {
 
   List<String> globalPermissions() {
     if (globalPermissions == null) {
-      List<String> permissionKeys = authorizationDao().selectGlobalPermissions(login);
-      globalPermissions = new ArrayList<String>();
-      for (String permissionKey : permissionKeys) {
-        if (!GlobalPermissions.ALL.contains(permissionKey)) {
-          LOG.warn("Ignoring unknown permission {} for user {}", permissionKey, login);
-        } else {
-          globalPermissions.add(permissionKey);
-        }
-      }
+      globalPermissions = permissionCache().globalPermissions(login);
     }
     return globalPermissions;
   }
@@ -199,28 +181,34 @@ public class UserSession {
    * Does the user have the given project permission ?
    */
   public boolean hasProjectPermission(String permission, String projectKey) {
-    if (!projectPermissions.contains(permission)) {
-      Collection<String> projectKeys = authorizationDao().selectAuthorizedRootProjectsKeys(userId, permission);
-      for (String key : projectKeys) {
-        projectKeyByPermission.put(permission, key);
-      }
-      projectPermissions.add(permission);
-    }
-    return projectKeyByPermission.get(permission).contains(projectKey);
+    return authorizedProjects(permission).containsKey(projectKey);
   }
 
   /**
    * Does the user have the given project permission ?
    */
   public boolean hasProjectPermissionByUuid(String permission, String projectUuid) {
-    if (!projectPermissions.contains(permission)) {
-      Collection<String> projectUuids = authorizationDao().selectAuthorizedRootProjectsUuids(userId, permission);
-      for (String key : projectUuids) {
-        projectUuidByPermission.put(permission, key);
-      }
-      projectPermissions.add(permission);
+    return authorizedProjects(permission).containsUuid(projectUuid);
+  }
+
+  /**
+   * Uuids of the root projects on which user has the given permission, for example to filter
+   * search requests.
+   */
+  public Collection<String> authorizedProjectUuids(String permission) {
+    return authorizedProjects(permission).uuids();
+  }
+
+  /**
+   * Projects are loaded once per request, by key and by uuid at the same time.
+   */
+  AuthorizedProjects authorizedProjects(String permission) {
+    AuthorizedProjects projects = authorizedProjectsByPermission.get(permission);
+    if (projects == null) {
+      projects = permissionCache().authorizedProjects(userId, permission);
+      authorizedProjectsByPermission.put(permission, projects);
     }
-    return projectUuidByPermission.get(permission).contains(projectUuid);
+    return projects;
   }
 
   /**
@@ -273,8 +261,8 @@ public class UserSession {
     return false;
   }
 
-  AuthorizationDao authorizationDao() {
-    return Platform.component(AuthorizationDao.class);
+  UserPermissionCache permissionCache() {
+    return Platform.component(UserPermissionCache.class);
   }
 
   ResourceDao resourceDao() {
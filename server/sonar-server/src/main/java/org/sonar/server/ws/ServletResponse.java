@@ -20,23 +20,62 @@
 package org.sonar.server.ws;
 
 import com.google.common.base.Charsets;
+import org.apache.commons.io.output.ThresholdingOutputStream;
 import org.sonar.api.server.ws.Response;
 import org.sonar.api.utils.text.JsonWriter;
 import org.sonar.api.utils.text.XmlWriter;
 import org.sonar.server.plugins.MimeTypes;
 
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletResponse;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 
+/**
+ * Response of Java web services. It is buffered in memory. When created with a {@link HttpServletResponse},
+ * the responses that are larger than {@link #STREAMING_THRESHOLD} are directly written to the HTTP response,
+ * so that they are streamed (chunked transfer encoding). Compression is done by the servlet container.
+ */
 public class ServletResponse implements Response {
 
+  /**
+   * Smaller responses are kept in memory and rendered by Rails, so that the headers set by Rails,
+   * for example cookies, are not lost by committing the HTTP response too early.
+   */
+  static final int STREAMING_THRESHOLD = 64 * 1024;
+
   public static class ServletStream implements Stream {
     private String mediaType;
     private int httpStatus = 200;
-    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final HttpServletResponse target;
+    private final OutputStream output;
+    private OutputStream targetOutput = null;
+
+    private ServletStream(@Nullable HttpServletResponse target) {
+      this.target = target;
+      this.output = new ThresholdingOutputStream(target == null ? Integer.MAX_VALUE : STREAMING_THRESHOLD) {
+        @Override
+        protected OutputStream getStream() {
+          return targetOutput == null ? buffer : targetOutput;
+        }
+
+        @Override
+        protected void thresholdReached() throws IOException {
+          startStreaming();
+        }
+
+        @Override
+        public void close() throws IOException {
+          // closing writers must not complete the response, see #finish()
+          flush();
+        }
+      };
+    }
 
     @CheckForNull
     public String mediaType() {
@@ -50,12 +89,18 @@ public class ServletResponse implements Response {
     @Override
     public ServletStream setMediaType(String s) {
       this.mediaType = s;
+      if (isStreamed()) {
+        target.setContentType(s);
+      }
       return this;
     }
 
     @Override
     public ServletStream setStatus(int httpStatus) {
       this.httpStatus = httpStatus;
+      if (isStreamed()) {
+        target.setStatus(httpStatus);
+      }
       return this;
     }
 
@@ -64,17 +109,84 @@ public class ServletResponse implements Response {
       return output;
     }
 
+    private void startStreaming() throws IOException {
+      target.setStatus(httpStatus);
+      if (mediaType != null) {
+        target.setContentType(mediaType);
+      }
+      targetOutput = target.getOutputStream();
+      buffer.writeTo(targetOutput);
+      buffer.reset();
+    }
+
+    /**
+     * @return true if the output is written to the HTTP response. If false, then the output
+     * is available in memory, see {@link #bufferedBytes()}.
+     */
+    public boolean isStreamed() {
+      return targetOutput != null;
+    }
+
+    /**
+     * Content that is written in memory. It is empty when the response is streamed.
+     */
+    public byte[] bufferedBytes() {
+      return buffer.toByteArray();
+    }
+
+    /**
+     * Content that is written in memory. It is empty when the response is streamed.
+     */
     public String outputAsString() {
-      return new String(output.toByteArray(), Charsets.UTF_8);
+      return new String(buffer.toByteArray(), Charsets.UTF_8);
+    }
+
+    /**
+     * @return true if the output is streamed and if headers have already been sent, so
+     * that the response can't be reset anymore.
+     */
+    public boolean isCommitted() {
+      return isStreamed() && target.isCommitted();
     }
 
     public ServletStream reset() {
-      output.reset();
+      buffer.reset();
+      if (isStreamed()) {
+        // status and headers, for example cookies, are kept
+        target.resetBuffer();
+      }
       return this;
     }
+
+    /**
+     * Completes the streamed response. Does nothing if the response is buffered in memory.
+     */
+    public void finish() {
+      if (isStreamed()) {
+        try {
+          target.flushBuffer();
+        } catch (IOException e) {
+          throw new IllegalStateException("Fail to complete HTTP response", e);
+        }
+      }
+    }
   }
 
-  private final ServletStream stream = new ServletStream();
+  private final ServletStream stream;
+
+  /**
+   * Response buffered in memory
+   */
+  public ServletResponse() {
+    this.stream = new ServletStream(null);
+  }
+
+  /**
+   * Response streamed to the HTTP response when it is large
+   */
+  public ServletResponse(HttpServletResponse target) {
+    this.stream = new ServletStream(target);
+  }
 
   @Override
   public JsonWriter newJsonWriter() {
@@ -28,6 +28,7 @@ import org.sonar.api.server.ws.Request;
 import org.sonar.api.server.ws.WebService;
 import org.sonar.api.server.ws.internal.ValidatingRequest;
 import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.core.telemetry.Telemetry;
 import org.sonar.server.exceptions.BadRequestException;
 import org.sonar.server.exceptions.Errors;
 import org.sonar.server.exceptions.Message;
@@ -45,16 +46,21 @@ import java.util.List;
  */
 public class WebServiceEngine implements ServerComponent, Startable {
 
+  static final String REQUEST_METRIC = "sonar_ws_request_seconds";
+  static final String ERRORS_METRIC = "sonar_ws_errors_total";
+
   private final WebService.Context context;
 
   private final I18n i18n;
+  private final Telemetry telemetry;
 
-  public WebServiceEngine(WebService[] webServices, I18n i18n) {
+  public WebServiceEngine(WebService[] webServices, I18n i18n, Telemetry telemetry) {
     context = new WebService.Context();
     for (WebService webService : webServices) {
       webService.define(context);
     }
     this.i18n = i18n;
+    this.telemetry = telemetry;
   }
 
   @Override
@@ -77,8 +83,10 @@ public class WebServiceEngine implements ServerComponent, Startable {
 
   public void execute(ValidatingRequest request, ServletResponse response,
     String controllerPath, String actionKey) {
+    long startNanos = System.nanoTime();
+    WebService.Action action = null;
     try {
-      WebService.Action action = getAction(controllerPath, actionKey);
+      action = getAction(controllerPath, actionKey);
       request.setAction(action);
       verifyRequest(action, request);
       action.handler().handle(request, response);
@@ -95,6 +103,10 @@ public class WebServiceEngine implements ServerComponent, Startable {
       Loggers.get(getClass()).error("Fail to process request " + request, e);
       sendErrors(response, 500, new Errors().add(Message.of(e.getMessage())));
     }
+    response.stream().finish();
+    if (action != null) {
+      telemetry.timer(REQUEST_METRIC, "Execution time of web service requests", "action", action.path()).recordSince(startNanos);
+    }
   }
 
   private WebService.Action getAction(String controllerPath, String actionKey) {
@@ -117,7 +129,13 @@ public class WebServiceEngine implements ServerComponent, Startable {
   }
 
   private void sendErrors(ServletResponse response, int status, Errors errors) {
+    telemetry.counter(ERRORS_METRIC, "Web service requests in error", "status", String.valueOf(status)).increment();
     ServletResponse.ServletStream stream = response.stream();
+    if (stream.isCommitted()) {
+      // part of the response has already been streamed to client. Status can't be changed anymore.
+      Loggers.get(getClass()).warn(String.format("Fail to send errors with status %d, response is already committed", status));
+      return;
+    }
     stream.reset();
     stream.setStatus(status);
     stream.setMediaType(MimeTypes.JSON);
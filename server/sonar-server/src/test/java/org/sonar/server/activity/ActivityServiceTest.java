@@ -19,6 +19,7 @@
  */
 package org.sonar.server.activity;
 
+import com.google.common.collect.Lists;
 import org.assertj.core.data.MapEntry;
 import org.junit.Before;
 import org.junit.ClassRule;
@@ -34,6 +35,7 @@ import org.sonar.server.db.DbClient;
 import org.sonar.server.es.EsTester;
 import org.sonar.server.issue.db.IssueDao;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -54,6 +56,8 @@ public class ActivityServiceTest {
 
   @Before
   public void before() {
+    db.truncateTables();
+    es.truncateIndices();
     ActivityDao activityDao = new ActivityDao(db.myBatis(), system);
     IssueDao issueDao = new IssueDao(db.myBatis());
     DbClient dbClient = new DbClient(db.database(), db.myBatis(), issueDao, activityDao);
@@ -88,4 +92,27 @@ public class ActivityServiceTest {
     assertThat(docs.get(0).getDetails()).containsOnly(MapEntry.entry("foo", "bar"));
   }
 
+  @Test
+  public void insert_and_index_in_bulk() throws Exception {
+    when(system.now()).thenReturn(1_500_000_000_000L);
+
+    List<Activity> activities = Lists.newArrayList();
+    for (int i = 0; i < 3; i++) {
+      Activity activity = new Activity();
+      activity.setType(Activity.Type.QPROFILE);
+      activity.setAction("ACTION_" + i);
+      activities.add(activity);
+    }
+    service.save(activities);
+
+    assertThat(db.countRowsOfTable("activities")).isEqualTo(3);
+    assertThat(es.getDocuments("activities", "activity", ActivityDoc.class)).hasSize(3);
+  }
+
+  @Test
+  public void do_nothing_when_no_activities() throws Exception {
+    service.save(Collections.<Activity>emptyList());
+
+    assertThat(db.countRowsOfTable("activities")).isZero();
+  }
 }
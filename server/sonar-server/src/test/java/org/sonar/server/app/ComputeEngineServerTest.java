@@ -0,0 +1,107 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.app;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.platform.ComponentContainer;
+import org.sonar.process.ProcessProperties;
+import org.sonar.process.Props;
+import org.sonar.server.computation.ComputationThreadLauncher;
+import org.sonar.server.platform.Platform;
+import org.sonar.server.platform.ServerImpl;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ComputeEngineServerTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  Platform platform = mock(Platform.class);
+  ComputationThreadLauncher launcher = mock(ComputationThreadLauncher.class);
+
+  @Test
+  public void start_platform_and_schedule_processing_of_reports() throws Exception {
+    ComponentContainer container = new ComponentContainer();
+    container.add(launcher);
+    when(platform.isStarted()).thenReturn(true);
+    when(platform.getContainer()).thenReturn(container);
+
+    ComputeEngineServer server = new ComputeEngineServer(newProps(), platform, 1L, TimeUnit.MILLISECONDS);
+    server.start();
+
+    assertThat(server.isReady()).isTrue();
+    verify(platform).doStartWithoutStartupTasks();
+    verify(launcher, timeout(2000)).scheduleTasks();
+
+    server.stop();
+    server.awaitStop();
+    verify(platform).doStop();
+  }
+
+  @Test
+  public void wait_for_database_upgrade() throws Exception {
+    when(platform.isStarted()).thenReturn(false);
+
+    ComputeEngineServer server = new ComputeEngineServer(newProps(), platform, 1L, TimeUnit.MILLISECONDS);
+    server.start();
+
+    // process is ready so that web server can be used to upgrade database
+    assertThat(server.isReady()).isTrue();
+    verify(platform, timeout(2000).atLeast(2)).doStartWithoutStartupTasks();
+    verify(launcher, never()).scheduleTasks();
+
+    server.stop();
+  }
+
+  @Test
+  public void do_not_share_deploy_dir_with_web_server() throws Exception {
+    Props props = newProps();
+    ComputeEngineServer server = new ComputeEngineServer(props, platform, 1L, TimeUnit.HOURS);
+    server.start();
+
+    ArgumentCaptor<Properties> properties = ArgumentCaptor.forClass(Properties.class);
+    verify(platform).init(properties.capture());
+    assertThat(properties.getValue().getProperty(ServerImpl.DEPLOY_DIR_PROPERTY))
+      .isEqualTo(new File(props.nonNullValue(ProcessProperties.PATH_TEMP), "ce/deploy").getAbsolutePath());
+    assertThat(properties.getValue().getProperty("foo")).isEqualTo("bar");
+
+    server.stop();
+  }
+
+  private Props newProps() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty(ProcessProperties.PATH_TEMP, temp.newFolder().getAbsolutePath());
+    properties.setProperty("foo", "bar");
+    return new Props(properties);
+  }
+}
@@ -36,6 +36,7 @@ import org.sonar.core.permission.GlobalPermissions;
 import org.sonar.core.persistence.DbSession;
 import org.sonar.core.persistence.DbTester;
 import org.sonar.core.properties.PropertiesDao;
+import org.sonar.core.user.AuthorizationDao;
 import org.sonar.server.component.ComponentTesting;
 import org.sonar.server.component.db.ComponentDao;
 import org.sonar.server.db.DbClient;
@@ -45,6 +46,7 @@ import org.sonar.server.issue.IssueTesting;
 import org.sonar.server.issue.db.IssueDao;
 import org.sonar.server.issue.index.*;
 import org.sonar.server.user.MockUserSession;
+import org.sonar.server.user.UserPermissionCache;
 import org.sonar.server.ws.WsTester;
 import org.sonar.test.DbTests;
 
@@ -88,9 +90,10 @@ public class IssuesActionTest {
     this.session = db.myBatis().openSession(false);
 
     DbClient dbClient = new DbClient(db.database(), db.myBatis(), new IssueDao(db.myBatis()), new ComponentDao());
-    issueIndex = new IssueIndex(es.client(), System2.INSTANCE);
+    UserPermissionCache permissionCache = new UserPermissionCache(mock(AuthorizationDao.class), es.client());
+    issueIndex = new IssueIndex(es.client(), System2.INSTANCE, permissionCache);
     issueIndexer = new IssueIndexer(null, es.client());
-    issueAuthorizationIndexer = new IssueAuthorizationIndexer(null, es.client());
+    issueAuthorizationIndexer = new IssueAuthorizationIndexer(null, es.client(), permissionCache);
     issuesAction = new IssuesAction(dbClient, issueIndex);
     componentDao = new ComponentDao();
 
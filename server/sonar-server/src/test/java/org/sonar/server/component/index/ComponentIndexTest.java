@@ -0,0 +1,155 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.component.index;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.sonar.api.config.Settings;
+import org.sonar.core.persistence.DbTester;
+import org.sonar.server.component.db.ComponentDao;
+import org.sonar.server.db.DbClient;
+import org.sonar.server.es.EsTester;
+import org.sonar.server.es.SearchOptions;
+import org.sonar.server.es.SearchResult;
+import org.sonar.test.DbTests;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+@Category(DbTests.class)
+public class ComponentIndexTest {
+
+  @ClassRule
+  public static DbTester dbTester = new DbTester();
+
+  @ClassRule
+  public static EsTester esTester = new EsTester().addDefinitions(new ComponentIndexDefinition(new Settings()));
+
+  ComponentIndex index;
+
+  @Before
+  public void setUp() throws Exception {
+    dbTester.truncateTables();
+    esTester.truncateIndices();
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    ComponentIndexer indexer = new ComponentIndexer(new DbClient(dbTester.database(), dbTester.myBatis(), new ComponentDao()), esTester.client());
+    indexer.indexAll();
+    index = new ComponentIndex(esTester.client());
+  }
+
+  @Test
+  public void search_all_components() throws Exception {
+    SearchResult<ComponentDoc> result = index.search(new ComponentIndexQuery(), new SearchOptions());
+
+    assertThat(result.getTotal()).isEqualTo(5L);
+  }
+
+  @Test
+  public void search_by_substring_of_name() throws Exception {
+    assertThat(searchUuids("Context")).containsOnly("BCDE", "CDEF");
+    assertThat(searchUuids("questcont")).containsOnly("BCDE");
+    assertThat(searchUuids("ONARQ")).containsOnly("JKLM");
+    assertThat(searchUuids("unknown")).isEmpty();
+  }
+
+  @Test
+  public void copies_of_projects_in_views_are_not_returned() throws Exception {
+    assertThat(searchUuids("Apache")).containsOnly("ABCD");
+  }
+
+  @Test
+  public void search_by_substring_of_key() throws Exception {
+    assertThat(searchUuids("codehaus")).containsOnly("JKLM");
+    assertThat(searchUuids("struts-core")).containsOnly("BCDE", "CDEF");
+  }
+
+  @Test
+  public void matches_on_name_are_returned_first() throws Exception {
+    List<String> uuids = searchUuids("struts");
+
+    assertThat(uuids).hasSize(3);
+    assertThat(uuids.get(0)).isEqualTo("ABCD");
+  }
+
+  @Test
+  public void filter_by_qualifiers() throws Exception {
+    SearchResult<ComponentDoc> result = index.search(new ComponentIndexQuery().setText("struts").setQualifiers(Arrays.asList("TRK")), new SearchOptions());
+
+    assertThat(uuids(result)).containsOnly("ABCD");
+  }
+
+  @Test
+  public void filter_by_uuids() throws Exception {
+    SearchResult<ComponentDoc> result = index.search(new ComponentIndexQuery().setText("struts").setUuids(Arrays.asList("ABCD", "BCDE", "JKLM")), new SearchOptions());
+
+    assertThat(uuids(result)).containsOnly("ABCD", "BCDE");
+  }
+
+  @Test
+  public void filter_by_project_uuids() throws Exception {
+    SearchResult<ComponentDoc> result = index.search(new ComponentIndexQuery().setText("struts").setProjectUuids(Arrays.asList("ABCD", "JKLM")), new SearchOptions());
+
+    assertThat(uuids(result)).containsOnly("ABCD", "BCDE", "CDEF");
+  }
+
+  @Test
+  public void filter_by_empty_project_uuids() throws Exception {
+    SearchResult<ComponentDoc> result = index.search(new ComponentIndexQuery().setProjectUuids(Collections.<String>emptyList()), new SearchOptions());
+
+    assertThat(result.getTotal()).isEqualTo(0L);
+  }
+
+  @Test
+  public void paginate_results() throws Exception {
+    SearchResult<ComponentDoc> result = index.search(new ComponentIndexQuery().setText("struts"), new SearchOptions().setPage(2, 2));
+
+    assertThat(result.getTotal()).isEqualTo(3L);
+    assertThat(result.getDocs()).hasSize(1);
+  }
+
+  @Test
+  public void fail_if_search_text_is_too_short() throws Exception {
+    try {
+      index.search(new ComponentIndexQuery().setText("s"), new SearchOptions());
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("Minimum search is 2 characters");
+    }
+  }
+
+  private List<String> searchUuids(String text) {
+    return uuids(index.search(new ComponentIndexQuery().setText(text), new SearchOptions()));
+  }
+
+  private static List<String> uuids(SearchResult<ComponentDoc> result) {
+    List<String> uuids = newArrayList();
+    for (ComponentDoc doc : result.getDocs()) {
+      uuids.add(doc.uuid());
+    }
+    return uuids;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.component.index;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.sonar.api.config.Settings;
+import org.sonar.core.persistence.DbTester;
+import org.sonar.server.component.db.ComponentDao;
+import org.sonar.server.db.DbClient;
+import org.sonar.server.es.EsTester;
+import org.sonar.test.DbTests;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Category(DbTests.class)
+public class ComponentIndexerTest {
+
+  @ClassRule
+  public static DbTester dbTester = new DbTester();
+
+  @ClassRule
+  public static EsTester esTester = new EsTester().addDefinitions(new ComponentIndexDefinition(new Settings()));
+
+  ComponentIndexer indexer;
+
+  @Before
+  public void setUp() throws Exception {
+    dbTester.truncateTables();
+    esTester.truncateIndices();
+    indexer = new ComponentIndexer(new DbClient(dbTester.database(), dbTester.myBatis(), new ComponentDao()), esTester.client());
+    indexer.setEnabled(true);
+  }
+
+  @Test
+  public void index_nothing() throws Exception {
+    indexer.index();
+
+    assertThat(esTester.countDocuments(ComponentIndexDefinition.INDEX, ComponentIndexDefinition.TYPE_COMPONENT)).isEqualTo(0L);
+  }
+
+  @Test
+  public void index_all_enabled_components_except_directories() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+
+    indexer.index();
+
+    List<String> uuids = esTester.getDocumentFieldValues(ComponentIndexDefinition.INDEX, ComponentIndexDefinition.TYPE_COMPONENT, ComponentIndexDefinition.FIELD_UUID);
+    assertThat(uuids).containsOnly("ABCD", "BCDE", "DEFG", "JKLM");
+
+    List<ComponentDoc> docs = esTester.getDocuments(ComponentIndexDefinition.INDEX, ComponentIndexDefinition.TYPE_COMPONENT, ComponentDoc.class);
+    for (ComponentDoc doc : docs) {
+      if (doc.uuid().equals("DEFG")) {
+        assertThat(doc.projectUuid()).isEqualTo("ABCD");
+        assertThat(doc.key()).isEqualTo("org.struts:struts-core:src/org/struts/RequestContext.java");
+        assertThat(doc.name()).isEqualTo("RequestContext.java");
+        assertThat(doc.qualifier()).isEqualTo("FIL");
+      }
+    }
+  }
+
+  @Test
+  public void do_nothing_on_startup_when_index_is_not_empty() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    indexer.index("JKLM");
+
+    indexer.index();
+
+    assertThat(esTester.countDocuments(ComponentIndexDefinition.INDEX, ComponentIndexDefinition.TYPE_COMPONENT)).isEqualTo(1L);
+  }
+
+  @Test
+  public void index_project() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+
+    indexer.index("ABCD");
+
+    List<String> uuids = esTester.getDocumentFieldValues(ComponentIndexDefinition.INDEX, ComponentIndexDefinition.TYPE_COMPONENT, ComponentIndexDefinition.FIELD_UUID);
+    assertThat(uuids).containsOnly("ABCD", "BCDE", "DEFG");
+  }
+
+  @Test
+  public void reindex_project_updates_renamed_components_and_deletes_removed_components() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    indexer.indexAll();
+
+    dbTester.executeUpdateSql("update projects set name='Struts Main' where uuid='BCDE'");
+    dbTester.executeUpdateSql("update projects set enabled=false where uuid='DEFG'");
+    indexer.index("ABCD");
+
+    List<ComponentDoc> docs = esTester.getDocuments(ComponentIndexDefinition.INDEX, ComponentIndexDefinition.TYPE_COMPONENT, ComponentDoc.class);
+    assertThat(docs).hasSize(3);
+    for (ComponentDoc doc : docs) {
+      assertThat(doc.uuid()).isIn("ABCD", "BCDE", "JKLM");
+      if (doc.uuid().equals("BCDE")) {
+        assertThat(doc.name()).isEqualTo("Struts Main");
+      }
+    }
+  }
+
+  @Test
+  public void delete_project() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    indexer.indexAll();
+
+    indexer.deleteByProject("ABCD");
+
+    List<String> uuids = esTester.getDocumentFieldValues(ComponentIndexDefinition.INDEX, ComponentIndexDefinition.TYPE_COMPONENT, ComponentIndexDefinition.FIELD_UUID);
+    assertThat(uuids).containsOnly("JKLM");
+  }
+}
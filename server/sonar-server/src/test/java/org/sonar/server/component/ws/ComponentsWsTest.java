@@ -26,6 +26,7 @@ import org.sonar.api.i18n.I18n;
 import org.sonar.api.server.ws.RailsHandler;
 import org.sonar.api.server.ws.WebService;
 import org.sonar.api.utils.Durations;
+import org.sonar.server.component.index.ComponentIndex;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.ws.WsTester;
 
@@ -38,7 +39,7 @@ public class ComponentsWsTest {
 
   @Before
   public void setUp() throws Exception {
-    WsTester tester = new WsTester(new ComponentsWs(new ComponentAppAction(mock(DbClient.class), mock(Durations.class), mock(I18n.class)), new SearchAction(mock(DbClient.class))));
+    WsTester tester = new WsTester(new ComponentsWs(new ComponentAppAction(mock(DbClient.class), mock(Durations.class), mock(I18n.class)), new SearchAction(mock(DbClient.class), mock(ComponentIndex.class))));
     controller = tester.controller("api/components");
   }
 
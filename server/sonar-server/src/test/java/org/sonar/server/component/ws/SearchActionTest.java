@@ -24,12 +24,16 @@ import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.sonar.api.config.Settings;
 import org.sonar.api.web.UserRole;
 import org.sonar.core.persistence.DbTester;
 import org.sonar.core.user.AuthorizationDao;
 import org.sonar.server.component.db.ComponentDao;
-import org.sonar.server.component.db.ComponentIndexDao;
+import org.sonar.server.component.index.ComponentIndex;
+import org.sonar.server.component.index.ComponentIndexDefinition;
+import org.sonar.server.component.index.ComponentIndexer;
 import org.sonar.server.db.DbClient;
+import org.sonar.server.es.EsTester;
 import org.sonar.server.user.MockUserSession;
 import org.sonar.server.ws.WsTester;
 import org.sonar.test.DbTests;
@@ -44,20 +48,28 @@ public class SearchActionTest {
   @ClassRule
   public static DbTester dbTester = new DbTester();
 
+  @ClassRule
+  public static EsTester esTester = new EsTester().addDefinitions(new ComponentIndexDefinition(new Settings()));
+
+  ComponentIndexer indexer;
+
   WsTester tester;
 
   @Before
   public void setUp() throws Exception {
     dbTester.truncateTables();
+    esTester.truncateIndices();
     DbClient dbClient = new DbClient(dbTester.database(), dbTester.myBatis(),
-      new ComponentDao(), new AuthorizationDao(dbTester.myBatis()), new ComponentIndexDao()
+      new ComponentDao(), new AuthorizationDao(dbTester.myBatis())
       );
-    tester = new WsTester(new ComponentsWs(mock(ComponentAppAction.class), new SearchAction(dbClient)));
+    indexer = new ComponentIndexer(dbClient, esTester.client());
+    tester = new WsTester(new ComponentsWs(mock(ComponentAppAction.class), new SearchAction(dbClient, new ComponentIndex(esTester.client()))));
   }
 
   @Test
   public void return_projects_from_view() throws Exception {
     dbTester.prepareDbUnit(getClass(), "shared.xml");
+    indexer.indexAll();
     MockUserSession.set().setLogin("john").addProjectUuidPermissions(UserRole.USER, "EFGH");
 
     WsTester.TestRequest request = tester.newGetRequest("api/components", "search").setParam("componentUuid", "EFGH").setParam("q", "st");
@@ -67,6 +79,7 @@ public class SearchActionTest {
   @Test
   public void return_projects_from_subview() throws Exception {
     dbTester.prepareDbUnit(getClass(), "shared.xml");
+    indexer.indexAll();
     MockUserSession.set().setLogin("john").addComponentUuidPermission(UserRole.USER, "EFGH", "FGHI");
 
     WsTester.TestRequest request = tester.newGetRequest("api/components", "search").setParam("componentUuid", "FGHI").setParam("q", "st");
@@ -76,6 +89,7 @@ public class SearchActionTest {
   @Test
   public void return_only_authorized_projects_from_view() throws Exception {
     dbTester.prepareDbUnit(getClass(), "return_only_authorized_projects_from_view.xml");
+    indexer.indexAll();
     MockUserSession.set().setLogin("john").addProjectUuidPermissions(UserRole.USER, "EFGH");
 
     WsTester.TestRequest request = tester.newGetRequest("api/components", "search").setParam("componentUuid", "EFGH").setParam("q", "st");
@@ -85,6 +99,7 @@ public class SearchActionTest {
   @Test
   public void return_paged_result() throws Exception {
     dbTester.prepareDbUnit(getClass(), "shared.xml");
+    indexer.indexAll();
     MockUserSession.set().setLogin("john").addProjectUuidPermissions(UserRole.USER, "EFGH");
 
     WsTester.TestRequest request = tester.newGetRequest("api/components", "search").setParam("componentUuid", "EFGH").setParam("q", "st").setParam("p", "2").setParam("ps", "1");
@@ -94,6 +109,7 @@ public class SearchActionTest {
   @Test
   public void return_only_first_page() throws Exception {
     dbTester.prepareDbUnit(getClass(), "shared.xml");
+    indexer.indexAll();
     MockUserSession.set().setLogin("john").addProjectUuidPermissions(UserRole.USER, "EFGH");
 
     WsTester.TestRequest request = tester.newGetRequest("api/components", "search").setParam("componentUuid", "EFGH").setParam("q", "st").setParam("p", "1").setParam("ps", "1");
@@ -103,6 +119,7 @@ public class SearchActionTest {
   @Test
   public void fail_when_search_param_is_too_short() throws Exception {
     dbTester.prepareDbUnit(getClass(), "shared.xml");
+    indexer.indexAll();
     MockUserSession.set().setLogin("john").addProjectUuidPermissions(UserRole.USER, "EFGH");
 
     WsTester.TestRequest request = tester.newGetRequest("api/components", "search").setParam("componentUuid", "EFGH").setParam("q", "s");
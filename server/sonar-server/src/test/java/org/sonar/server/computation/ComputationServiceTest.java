@@ -37,6 +37,7 @@ import org.sonar.batch.protocol.output.BatchReportWriter;
 import org.sonar.core.computation.db.AnalysisReportDto;
 import org.sonar.core.computation.db.AnalysisReportDto.Status;
 import org.sonar.core.persistence.DbTester;
+import org.sonar.core.telemetry.Telemetry;
 import org.sonar.server.activity.Activity;
 import org.sonar.server.activity.ActivityService;
 import org.sonar.server.component.db.ComponentDao;
@@ -76,7 +77,7 @@ public class ComputationServiceTest {
   @Before
   public void setUp() throws Exception {
     DbClient dbClient = new DbClient(dbTester.database(), dbTester.myBatis(), new ComponentDao(), new SnapshotDao(system));
-    sut = new ComputationService(dbClient, steps, activityService, settingsFactory, tempFolder, system);
+    sut = new ComputationService(dbClient, steps, activityService, settingsFactory, tempFolder, system, new Telemetry());
 
     // db contains project with key "P1"
     dbTester.prepareDbUnit(getClass(), "shared.xml");
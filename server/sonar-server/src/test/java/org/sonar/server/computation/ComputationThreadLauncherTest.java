@@ -27,7 +27,9 @@ import org.junit.Test;
 import org.junit.rules.DisableOnDebug;
 import org.junit.rules.TestRule;
 import org.junit.rules.Timeout;
+import org.sonar.api.config.Settings;
 import org.sonar.api.platform.Server;
+import org.sonar.process.ProcessProperties;
 
 import java.util.concurrent.TimeUnit;
 
@@ -40,6 +42,7 @@ public class ComputationThreadLauncherTest {
 
   ComputationThreadLauncher sut;
   ReportQueue queue;
+  Settings settings = new Settings();
 
   @Before
   public void before() {
@@ -53,7 +56,7 @@ public class ComputationThreadLauncherTest {
 
   @Test
   public void call_findAndBook_when_launching_a_recurrent_task() throws Exception {
-    sut = new ComputationThreadLauncher(queue, 0, 1, TimeUnit.MILLISECONDS);
+    sut = new ComputationThreadLauncher(queue, settings, 0, 1, TimeUnit.MILLISECONDS);
 
     sut.onServerStart(mock(Server.class));
 
@@ -64,7 +67,7 @@ public class ComputationThreadLauncherTest {
 
   @Test
   public void call_findAndBook_when_executing_task_immediately() throws Exception {
-    sut = new ComputationThreadLauncher(queue, 1, 1, TimeUnit.HOURS);
+    sut = new ComputationThreadLauncher(queue, settings, 1, 1, TimeUnit.HOURS);
     sut.start();
 
     sut.startAnalysisTaskNow();
@@ -74,9 +77,34 @@ public class ComputationThreadLauncherTest {
     verify(queue, atLeastOnce()).pop();
   }
 
+  @Test
+  public void do_not_process_reports_in_web_server_if_compute_engine_process_is_enabled() throws Exception {
+    settings.setProperty(ProcessProperties.CE_ENABLED, true);
+    sut = new ComputationThreadLauncher(queue, settings, 0, 1, TimeUnit.MILLISECONDS);
+
+    sut.onServerStart(mock(Server.class));
+    sut.startAnalysisTaskNow();
+
+    sleep();
+
+    verifyZeroInteractions(queue);
+  }
+
+  @Test
+  public void schedule_tasks_in_compute_engine_process() throws Exception {
+    settings.setProperty(ProcessProperties.CE_ENABLED, true);
+    sut = new ComputationThreadLauncher(queue, settings, 0, 1, TimeUnit.MILLISECONDS);
+
+    sut.scheduleTasks();
+
+    sleep();
+
+    verify(queue, atLeastOnce()).pop();
+  }
+
   @Test
   public void test_real_constructor() throws Exception {
-    sut = new ComputationThreadLauncher(queue);
+    sut = new ComputationThreadLauncher(queue, settings);
     sut.start();
   }
 
@@ -20,6 +20,7 @@
 
 package org.sonar.server.computation;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
@@ -37,6 +38,7 @@ import org.sonar.server.component.ComponentTesting;
 import org.sonar.server.component.db.ComponentDao;
 import org.sonar.server.computation.db.AnalysisReportDao;
 import org.sonar.server.db.DbClient;
+import org.sonar.server.exceptions.BadRequestException;
 import org.sonar.test.DbTests;
 
 import java.io.File;
@@ -44,6 +46,7 @@ import java.io.InputStream;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.sonar.core.computation.db.AnalysisReportDto.Status.PENDING;
@@ -205,6 +208,101 @@ public class ReportQueueTest {
 
   }
 
+  @Test
+  public void upload_report_by_chunks() throws Exception {
+    String uploadUuid = sut.startUpload("P1");
+    assertThat(sut.uploadedBytes(uploadUuid)).isEqualTo(0L);
+    // not processable until last chunk is received
+    assertThat(sut.all()).isEmpty();
+
+    assertThat(sut.appendChunk(uploadUuid, 0L, IOUtils.toInputStream("some "), DigestUtils.md5Hex("some "))).isEqualTo(5L);
+    assertThat(sut.appendChunk(uploadUuid, 5L, IOUtils.toInputStream("data"), DigestUtils.md5Hex("data"))).isEqualTo(9L);
+    assertThat(sut.uploadedBytes(uploadUuid)).isEqualTo(9L);
+
+    ReportQueue.Item item = sut.completeUpload("P1", uploadUuid);
+    assertThat(item.zipFile).isFile().hasContent("some data").hasParent(analysisDir());
+    assertThat(item.dto.getUuid()).isEqualTo(uploadUuid);
+    assertThat(sut.selectByProjectKey("P1")).extracting("status").containsExactly(PENDING);
+    assertThat(analysisDir().list()).containsOnly(uploadUuid + ".zip");
+  }
+
+  @Test
+  public void discard_chunk_with_invalid_checksum() throws Exception {
+    String uploadUuid = sut.startUpload("P1");
+    sut.appendChunk(uploadUuid, 0L, IOUtils.toInputStream("some "), DigestUtils.md5Hex("some "));
+
+    try {
+      sut.appendChunk(uploadUuid, 5L, IOUtils.toInputStream("corrupted"), DigestUtils.md5Hex("data"));
+      fail();
+    } catch (BadRequestException e) {
+      assertThat(e.firstError().getKey()).isEqualTo("Invalid checksum of chunk at offset 5 of upload " + uploadUuid);
+    }
+
+    // upload can be resumed
+    assertThat(sut.uploadedBytes(uploadUuid)).isEqualTo(5L);
+    sut.appendChunk(uploadUuid, 5L, IOUtils.toInputStream("data"), DigestUtils.md5Hex("data"));
+    assertThat(sut.completeUpload("P1", uploadUuid).zipFile).hasContent("some data");
+  }
+
+  @Test
+  public void fail_to_append_chunk_at_invalid_offset() throws Exception {
+    String uploadUuid = sut.startUpload("P1");
+
+    try {
+      sut.appendChunk(uploadUuid, 3L, IOUtils.toInputStream("data"), DigestUtils.md5Hex("data"));
+      fail();
+    } catch (BadRequestException e) {
+      assertThat(e.firstError().getKey()).isEqualTo("Invalid offset 3 of upload " + uploadUuid + ". Expected offset is 0");
+    }
+    assertThat(sut.uploadedBytes(uploadUuid)).isEqualTo(0L);
+  }
+
+  @Test
+  public void complete_upload_again_returns_queued_report() throws Exception {
+    String uploadUuid = sut.startUpload("P1");
+    sut.appendChunk(uploadUuid, 0L, IOUtils.toInputStream("some data"), DigestUtils.md5Hex("some data"));
+    ReportQueue.Item item = sut.completeUpload("P1", uploadUuid);
+
+    ReportQueue.Item again = sut.completeUpload("P1", uploadUuid);
+
+    assertThat(again.dto.getId()).isEqualTo(item.dto.getId());
+    assertThat(again.zipFile).isEqualTo(item.zipFile);
+    assertThat(sut.selectByProjectKey("P1")).hasSize(1);
+  }
+
+  @Test(expected = BadRequestException.class)
+  public void fail_to_complete_unknown_upload() throws Exception {
+    sut.completeUpload("P1", "unknown");
+  }
+
+  @Test
+  public void purge_expired_uploads() throws Exception {
+    String expiredUuid = sut.startUpload("P1");
+    File expiredFile = new File(analysisDir(), expiredUuid + ".zip.part");
+    expiredFile.setLastModified(System.currentTimeMillis() - ReportQueue.UPLOAD_EXPIRATION_MS - 60000L);
+    String uploadUuid = sut.startUpload("P1");
+
+    sut.purgeExpiredUploads();
+
+    assertThat(analysisDir().list()).containsOnly(uploadUuid + ".zip.part");
+    try {
+      sut.appendChunk(expiredUuid, 0L, IOUtils.toInputStream("data"), DigestUtils.md5Hex("data"));
+      fail();
+    } catch (BadRequestException e) {
+      assertThat(e.firstError().getKey()).isEqualTo("Upload not found: " + expiredUuid);
+    }
+  }
+
+  @Test(expected = BadRequestException.class)
+  public void fail_if_upload_does_not_exist() throws Exception {
+    sut.uploadedBytes("unknown");
+  }
+
+  @Test(expected = BadRequestException.class)
+  public void fail_if_invalid_upload_uuid() throws Exception {
+    sut.uploadedBytes("../../etc/passwd");
+  }
+
   private InputStream generateData() {
     return IOUtils.toInputStream("some data");
   }
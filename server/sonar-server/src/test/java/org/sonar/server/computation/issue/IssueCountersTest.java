@@ -0,0 +1,121 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.issue;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+import org.sonar.api.issue.Issue;
+import org.sonar.api.issue.internal.DefaultIssue;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.rule.Severity;
+import org.sonar.core.issue.db.IssueCounterDto;
+
+import javax.annotation.CheckForNull;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class IssueCountersTest {
+
+  static final Map<String, String> PARENTS = ImmutableMap.of("FILE1", "DIR", "FILE2", "DIR", "DIR", "PROJECT");
+
+  IssueCounters counters = new IssueCounters(PARENTS, new Long[] {1_000_000L, null, 2_000_000L, null, null});
+
+  @Test
+  public void aggregate_counters_on_ancestors() throws Exception {
+    counters.add(newIssue("FILE1", Severity.MAJOR, 500_000L));
+    counters.add(newIssue("FILE2", Severity.MAJOR, 1_500_000L));
+    counters.add(newIssue("FILE2", Severity.BLOCKER, 2_500_000L));
+
+    List<IssueCounterDto> dtos = counters.toDtos("PROJECT");
+
+    IssueCounterDto fileMajor = find(dtos, "FILE2", IssueCounterDto.FACET_SEVERITIES, Severity.MAJOR);
+    assertThat(fileMajor.getProjectUuid()).isEqualTo("PROJECT");
+    assertThat(fileMajor.getIssuesCount()).isEqualTo(1);
+    assertThat(fileMajor.getNewIssuesCount(1)).isEqualTo(1);
+    assertThat(fileMajor.getNewIssuesCount(2)).isNull();
+    assertThat(fileMajor.getNewIssuesCount(3)).isEqualTo(0);
+
+    IssueCounterDto projectMajor = find(dtos, "PROJECT", IssueCounterDto.FACET_SEVERITIES, Severity.MAJOR);
+    assertThat(projectMajor.getIssuesCount()).isEqualTo(2);
+    assertThat(projectMajor.getNewIssuesCount(1)).isEqualTo(1);
+    assertThat(projectMajor.getNewIssuesCount(3)).isEqualTo(0);
+
+    IssueCounterDto projectRule = find(dtos, "DIR", IssueCounterDto.FACET_RULES, "xoo:x1");
+    assertThat(projectRule.getIssuesCount()).isEqualTo(3);
+    assertThat(projectRule.getNewIssuesCount(1)).isEqualTo(2);
+    assertThat(projectRule.getNewIssuesCount(3)).isEqualTo(1);
+
+    assertThat(find(dtos, "PROJECT", IssueCounterDto.FACET_STATUSES, Issue.STATUS_OPEN).getIssuesCount()).isEqualTo(3);
+    assertThat(find(dtos, "PROJECT", IssueCounterDto.FACET_ASSIGNEES, IssueCounterDto.UNASSIGNED).getIssuesCount()).isEqualTo(3);
+    assertThat(find(dtos, "FILE1", IssueCounterDto.FACET_SEVERITIES, Severity.BLOCKER)).isNull();
+  }
+
+  @Test
+  public void ignore_resolved_issues() throws Exception {
+    counters.add(newIssue("FILE1", Severity.MAJOR, 500_000L).setStatus(Issue.STATUS_RESOLVED).setResolution(Issue.RESOLUTION_FALSE_POSITIVE));
+
+    assertThat(counters.toDtos("PROJECT")).isEmpty();
+  }
+
+  @Test
+  public void count_by_assignee() throws Exception {
+    counters.add(newIssue("FILE1", Severity.MAJOR, 500_000L).setAssignee("john"));
+    counters.add(newIssue("FILE1", Severity.MAJOR, 500_000L));
+
+    List<IssueCounterDto> dtos = counters.toDtos("PROJECT");
+    assertThat(find(dtos, "FILE1", IssueCounterDto.FACET_ASSIGNEES, "john").getIssuesCount()).isEqualTo(1);
+    assertThat(find(dtos, "FILE1", IssueCounterDto.FACET_ASSIGNEES, IssueCounterDto.UNASSIGNED).getIssuesCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void fail_if_not_five_periods() throws Exception {
+    try {
+      new IssueCounters(PARENTS, new Long[] {1000L});
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessage("Dates of the 5 periods must be defined");
+    }
+  }
+
+  private static DefaultIssue newIssue(String componentUuid, String severity, long creationDate) {
+    return new DefaultIssue()
+      .setKey("ISSUE_" + creationDate)
+      .setComponentUuid(componentUuid)
+      .setRuleKey(RuleKey.of("xoo", "x1"))
+      .setSeverity(severity)
+      .setStatus(Issue.STATUS_OPEN)
+      .setCreationDate(new Date(creationDate));
+  }
+
+  @CheckForNull
+  private static IssueCounterDto find(List<IssueCounterDto> dtos, String componentUuid, String facet, String value) {
+    for (IssueCounterDto dto : dtos) {
+      if (dto.getComponentUuid().equals(componentUuid) && dto.getFacet().equals(facet) && dto.getFacetValue().equals(value)) {
+        return dto;
+      }
+    }
+    return null;
+  }
+}
@@ -23,7 +23,7 @@ package org.sonar.server.computation.step;
 import org.junit.Test;
 import org.sonar.batch.protocol.output.BatchReportReader;
 import org.sonar.core.component.ComponentDto;
-import org.sonar.core.resource.ResourceIndexerDao;
+import org.sonar.server.component.index.ComponentIndexer;
 import org.sonar.server.computation.ComputationContext;
 
 import java.io.IOException;
@@ -32,18 +32,18 @@ import static org.mockito.Mockito.*;
 
 public class IndexComponentsStepTest extends BaseStepTest {
 
-  ResourceIndexerDao resourceIndexerDao = mock(ResourceIndexerDao.class);
-  IndexComponentsStep sut = new IndexComponentsStep(resourceIndexerDao);
+  ComponentIndexer indexer = mock(ComponentIndexer.class);
+  IndexComponentsStep sut = new IndexComponentsStep(indexer);
 
   @Test
-  public void call_indexProject_of_dao() throws IOException {
+  public void index_components_of_project() throws IOException {
     ComponentDto project = mock(ComponentDto.class);
-    when(project.getId()).thenReturn(123L);
+    when(project.uuid()).thenReturn("ABCD");
     ComputationContext context = new ComputationContext(mock(BatchReportReader.class), project);
 
     sut.execute(context);
 
-    verify(resourceIndexerDao).indexProject(123L);
+    verify(indexer).index("ABCD");
   }
 
   @Override
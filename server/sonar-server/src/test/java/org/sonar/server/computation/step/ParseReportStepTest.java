@@ -23,6 +23,7 @@ import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.Matchers;
 import org.sonar.batch.protocol.Constants;
 import org.sonar.batch.protocol.output.BatchReport;
 import org.sonar.batch.protocol.output.BatchReportReader;
@@ -39,7 +40,10 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 public class ParseReportStepTest extends BaseStepTest {
@@ -75,6 +79,25 @@ public class ParseReportStepTest extends BaseStepTest {
     verify(issueComputation).afterReportProcessing();
   }
 
+  @Test
+  public void do_not_process_issues_of_unchanged_files() throws Exception {
+    File reportDir = generateReport();
+    BatchReportWriter writer = new BatchReportWriter(reportDir);
+    writer.writeComponent(BatchReport.Component.newBuilder()
+      .setRef(3)
+      .setType(Constants.ComponentType.FILE)
+      .setUuid("FILE2_UUID")
+      .setIsUnchanged(true)
+      .build());
+
+    ComputationContext context = new ComputationContext(new BatchReportReader(reportDir), mock(ComponentDto.class));
+    sut.execute(context);
+
+    verify(issueComputation).processComponentIssues(context, Collections.<BatchReport.Issue>emptyList(), "PROJECT_UUID", 1);
+    verify(issueComputation).processComponentIssues(context, Collections.<BatchReport.Issue>emptyList(), "FILE1_UUID", 2);
+    verify(issueComputation, never()).processComponentIssues(eq(context), Matchers.<Iterable<BatchReport.Issue>>any(), eq("FILE2_UUID"), anyInt());
+  }
+
   private File generateReport() throws IOException {
     File dir = temp.newFolder();
     // project and 2 files
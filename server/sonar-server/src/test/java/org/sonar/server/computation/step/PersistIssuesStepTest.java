@@ -29,18 +29,30 @@ import org.sonar.api.issue.internal.FieldDiffs;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.rule.Severity;
 import org.sonar.api.utils.System2;
+import org.sonar.batch.protocol.Constants;
+import org.sonar.batch.protocol.output.BatchReport;
+import org.sonar.batch.protocol.output.BatchReportReader;
+import org.sonar.batch.protocol.output.BatchReportWriter;
+import org.sonar.core.component.ComponentDto;
 import org.sonar.core.issue.db.UpdateConflictResolver;
 import org.sonar.core.persistence.DbSession;
 import org.sonar.core.persistence.DbTester;
+import org.sonar.server.component.db.SnapshotDao;
+import org.sonar.server.computation.ComputationContext;
 import org.sonar.server.computation.issue.IssueCache;
 import org.sonar.server.computation.issue.RuleCache;
 import org.sonar.server.computation.issue.RuleCacheLoader;
 import org.sonar.server.db.DbClient;
+import org.sonar.server.issue.db.IssueCounterDao;
 import org.sonar.server.issue.db.IssueDao;
 import org.sonar.server.rule.db.RuleDao;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -62,6 +74,8 @@ public class PersistIssuesStepTest extends BaseStepTest {
 
   ComputationStep step;
 
+  ComputationContext context;
+
   @Override
   protected ComputationStep step() throws IOException {
     return step;
@@ -71,12 +85,35 @@ public class PersistIssuesStepTest extends BaseStepTest {
   public void setup() throws Exception {
     dbTester.truncateTables();
     session = dbTester.myBatis().openSession(false);
-    dbClient = new DbClient(dbTester.database(), dbTester.myBatis(), new IssueDao(dbTester.myBatis()), new RuleDao());
+    dbClient = new DbClient(dbTester.database(), dbTester.myBatis(), new IssueDao(dbTester.myBatis()), new RuleDao(),
+      new IssueCounterDao(), new SnapshotDao(System2.INSTANCE));
 
     issueCache = new IssueCache(temp.newFile(), System2.INSTANCE);
     system2 = mock(System2.class);
     when(system2.now()).thenReturn(1400000000000L);
     step = new PersistIssuesStep(dbClient, system2, new UpdateConflictResolver(), new RuleCache(new RuleCacheLoader(dbClient)), issueCache);
+    context = new ComputationContext(new BatchReportReader(generateReport()), new ComponentDto().setUuid("PROJECT"));
+  }
+
+  private File generateReport() throws IOException {
+    File dir = temp.newFolder();
+    BatchReportWriter writer = new BatchReportWriter(dir);
+    writer.writeMetadata(BatchReport.Metadata.newBuilder()
+      .setRootComponentRef(1)
+      .setSnapshotId(10L)
+      .build());
+    writer.writeComponent(BatchReport.Component.newBuilder()
+      .setRef(1)
+      .setType(Constants.ComponentType.PROJECT)
+      .setUuid("PROJECT")
+      .addChildRef(2)
+      .build());
+    writer.writeComponent(BatchReport.Component.newBuilder()
+      .setRef(2)
+      .setType(Constants.ComponentType.FILE)
+      .setUuid("COMPONENT")
+      .build());
+    return dir;
   }
 
   @After
@@ -98,7 +135,7 @@ public class PersistIssuesStepTest extends BaseStepTest {
         .setNew(true)
     ).close();
 
-    step.execute(null);
+    step.execute(context);
 
     dbTester.assertDbUnit(getClass(), "insert_new_issue-result.xml", new String[]{"id"}, "issues");
   }
@@ -119,7 +156,7 @@ public class PersistIssuesStepTest extends BaseStepTest {
         .setChanged(true)
     ).close();
 
-    step.execute(null);
+    step.execute(context);
 
     dbTester.assertDbUnit(getClass(), "close_issue-result.xml", "issues");
   }
@@ -147,7 +184,7 @@ public class PersistIssuesStepTest extends BaseStepTest {
         )
     ).close();
 
-    step.execute(null);
+    step.execute(context);
 
     dbTester.assertDbUnit(getClass(), "add_comment-result.xml", new String[]{"id", "created_at", "updated_at"}, "issue_changes");
   }
@@ -173,9 +210,128 @@ public class PersistIssuesStepTest extends BaseStepTest {
         )
     ).close();
 
-    step.execute(null);
+    step.execute(context);
 
     dbTester.assertDbUnit(getClass(), "add_change-result.xml", new String[]{"id", "created_at", "updated_at"}, "issue_changes");
   }
 
+  @Test
+  public void compute_counters_of_unresolved_issues() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "compute_counters.xml");
+
+    issueCache.newAppender()
+      .append(new DefaultIssue()
+        .setKey("ISSUE1")
+        .setRuleKey(RuleKey.of("xoo", "S01"))
+        .setComponentUuid("COMPONENT")
+        .setProjectUuid("PROJECT")
+        .setSeverity(Severity.BLOCKER)
+        .setStatus(Issue.STATUS_OPEN)
+        .setCreationDate(new Date(1500000000000L))
+        .setNew(true))
+      .append(new DefaultIssue()
+        .setKey("ISSUE2")
+        .setRuleKey(RuleKey.of("xoo", "S01"))
+        .setComponentUuid("COMPONENT")
+        .setProjectUuid("PROJECT")
+        .setSeverity(Severity.MAJOR)
+        .setStatus(Issue.STATUS_CONFIRMED)
+        .setAssignee("john")
+        .setCreationDate(new Date(1300000000000L))
+        .setNew(true))
+      .append(new DefaultIssue()
+        .setKey("ISSUE3")
+        .setRuleKey(RuleKey.of("xoo", "S01"))
+        .setComponentUuid("COMPONENT")
+        .setProjectUuid("PROJECT")
+        .setSeverity(Severity.MAJOR)
+        .setStatus(Issue.STATUS_CLOSED)
+        .setResolution(Issue.RESOLUTION_FIXED)
+        .setCreationDate(new Date(1500000000000L))
+        .setNew(true))
+      .close();
+
+    step.execute(context);
+
+    dbTester.assertDbUnit(getClass(), "compute_counters-result.xml", new String[] {"id"}, "issue_counters");
+  }
+
+  @Test
+  public void count_issues_of_unchanged_files_from_report() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "compute_counters.xml");
+    File dir = temp.newFolder();
+    BatchReportWriter writer = new BatchReportWriter(dir);
+    writer.writeMetadata(BatchReport.Metadata.newBuilder()
+      .setRootComponentRef(1)
+      .setSnapshotId(10L)
+      .build());
+    writer.writeComponent(BatchReport.Component.newBuilder()
+      .setRef(1)
+      .setType(Constants.ComponentType.PROJECT)
+      .setUuid("PROJECT")
+      .addChildRef(2)
+      .build());
+    writer.writeComponent(BatchReport.Component.newBuilder()
+      .setRef(2)
+      .setType(Constants.ComponentType.FILE)
+      .setUuid("COMPONENT")
+      .setIsUnchanged(true)
+      .build());
+    writer.writeComponentIssues(2, Arrays.asList(
+      BatchReport.Issue.newBuilder()
+        .setUuid("ISSUE1")
+        .setRuleRepository("xoo")
+        .setRuleKey("S01")
+        .setSeverity(Constants.Severity.BLOCKER)
+        .setStatus(Issue.STATUS_OPEN)
+        .setCreationDate(1500000000000L)
+        .build(),
+      BatchReport.Issue.newBuilder()
+        .setUuid("ISSUE2")
+        .setRuleRepository("xoo")
+        .setRuleKey("S01")
+        .setSeverity(Constants.Severity.MAJOR)
+        .setStatus(Issue.STATUS_CONFIRMED)
+        .setAssignee("john")
+        .setCreationDate(1300000000000L)
+        .build(),
+      BatchReport.Issue.newBuilder()
+        .setUuid("ISSUE3")
+        .setRuleRepository("xoo")
+        .setRuleKey("S01")
+        .setSeverity(Constants.Severity.MAJOR)
+        .setStatus(Issue.STATUS_CLOSED)
+        .setResolution(Issue.RESOLUTION_FIXED)
+        .setCreationDate(1500000000000L)
+        .build()));
+    // issues of unchanged files are not processed by ParseReportStep
+    issueCache.newAppender().close();
+
+    step.execute(new ComputationContext(new BatchReportReader(dir), new ComponentDto().setUuid("PROJECT")));
+
+    // same counters as if issues were processed
+    dbTester.assertDbUnit(getClass(), "compute_counters-result.xml", new String[] {"id"}, "issue_counters");
+    assertThat(dbTester.countRowsOfTable("issues")).isEqualTo(0);
+  }
+
+  @Test
+  public void replace_counters_of_previous_analysis() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "replace_counters.xml");
+
+    issueCache.newAppender().append(new DefaultIssue()
+      .setKey("ISSUE")
+      .setRuleKey(RuleKey.of("xoo", "S01"))
+      .setComponentUuid("COMPONENT")
+      .setProjectUuid("PROJECT")
+      .setSeverity(Severity.BLOCKER)
+      .setStatus(Issue.STATUS_CLOSED)
+      .setResolution(Issue.RESOLUTION_FIXED)
+      .setNew(false)
+      .setChanged(true)
+    ).close();
+
+    step.execute(context);
+
+    dbTester.assertDbUnit(getClass(), "replace_counters-result.xml", "issue_counters");
+  }
 }
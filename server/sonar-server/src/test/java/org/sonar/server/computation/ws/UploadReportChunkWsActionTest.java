@@ -0,0 +1,128 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package org.sonar.server.computation.ws;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.core.computation.db.AnalysisReportDto;
+import org.sonar.core.permission.GlobalPermissions;
+import org.sonar.server.computation.ComputationThreadLauncher;
+import org.sonar.server.computation.ReportQueue;
+import org.sonar.server.exceptions.ForbiddenException;
+import org.sonar.server.user.MockUserSession;
+import org.sonar.server.ws.WsTester;
+
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class UploadReportChunkWsActionTest {
+
+  ComputationThreadLauncher workerLauncher = mock(ComputationThreadLauncher.class);
+  ReportQueue queue = mock(ReportQueue.class);
+  WsTester wsTester;
+  UploadReportChunkWsAction sut;
+
+  @Before
+  public void before() {
+    sut = new UploadReportChunkWsAction(queue, workerLauncher);
+    wsTester = new WsTester(new ComputationWebService(sut, new UploadReportStatusWsAction(queue)));
+  }
+
+  @Test
+  public void define_metadata() throws Exception {
+    WebService.Action action = wsTester.controller("api/computation").action("upload_report_chunk");
+    assertThat(action).isNotNull();
+    assertThat(action.isPost()).isTrue();
+    assertThat(action.params()).hasSize(6);
+  }
+
+  @Test
+  public void start_upload_with_first_chunk() throws Exception {
+    MockUserSession.set().setGlobalPermissions(GlobalPermissions.SCAN_EXECUTION);
+    when(queue.startUpload("P1")).thenReturn("U1");
+    when(queue.appendChunk(eq("U1"), eq(0L), any(InputStream.class), eq("abc"))).thenReturn(4L);
+
+    WsTester.Result response = wsTester.newPostRequest(ComputationWebService.API_ENDPOINT, "upload_report_chunk")
+      .setParam(UploadReportChunkWsAction.PARAM_PROJECT_KEY, "P1")
+      .setParam(UploadReportChunkWsAction.PARAM_MD5, "abc")
+      .setParam(UploadReportChunkWsAction.PARAM_CHUNK, "data")
+      .execute();
+
+    assertThat(response.outputAsString()).isEqualTo("{\"uploadId\":\"U1\",\"offset\":4}");
+    verify(queue, never()).completeUpload(anyString(), anyString());
+    verifyZeroInteractions(workerLauncher);
+  }
+
+  @Test
+  public void submit_report_with_last_chunk() throws Exception {
+    MockUserSession.set().setGlobalPermissions(GlobalPermissions.SCAN_EXECUTION);
+    when(queue.appendChunk(eq("U1"), eq(4L), any(InputStream.class), eq("abc"))).thenReturn(8L);
+    AnalysisReportDto dto = mock(AnalysisReportDto.class);
+    when(dto.getId()).thenReturn(42L);
+    when(queue.completeUpload("P1", "U1")).thenReturn(new ReportQueue.Item(dto, null));
+
+    WsTester.Result response = wsTester.newPostRequest(ComputationWebService.API_ENDPOINT, "upload_report_chunk")
+      .setParam(UploadReportChunkWsAction.PARAM_PROJECT_KEY, "P1")
+      .setParam(UploadReportChunkWsAction.PARAM_UPLOAD_ID, "U1")
+      .setParam(UploadReportChunkWsAction.PARAM_OFFSET, "4")
+      .setParam(UploadReportChunkWsAction.PARAM_MD5, "abc")
+      .setParam(UploadReportChunkWsAction.PARAM_LAST, "true")
+      .setParam(UploadReportChunkWsAction.PARAM_CHUNK, "data")
+      .execute();
+
+    assertThat(response.outputAsString()).isEqualTo("{\"uploadId\":\"U1\",\"offset\":8,\"key\":\"42\"}");
+    verify(queue, never()).startUpload(anyString());
+    verify(workerLauncher).startAnalysisTaskNow();
+  }
+
+  @Test
+  public void return_status_of_upload() throws Exception {
+    MockUserSession.set().setGlobalPermissions(GlobalPermissions.SCAN_EXECUTION);
+    when(queue.uploadedBytes("U1")).thenReturn(4L);
+
+    WsTester.Result response = wsTester.newGetRequest(ComputationWebService.API_ENDPOINT, "upload_report_status")
+      .setParam(UploadReportStatusWsAction.PARAM_UPLOAD_ID, "U1")
+      .execute();
+
+    assertThat(response.outputAsString()).isEqualTo("{\"uploadId\":\"U1\",\"offset\":4}");
+  }
+
+  @Test(expected = ForbiddenException.class)
+  public void requires_scan_permission() throws Exception {
+    MockUserSession.set().setGlobalPermissions(GlobalPermissions.DASHBOARD_SHARING);
+
+    wsTester.newPostRequest(ComputationWebService.API_ENDPOINT, "upload_report_chunk")
+      .setParam(UploadReportChunkWsAction.PARAM_PROJECT_KEY, "P1")
+      .setParam(UploadReportChunkWsAction.PARAM_MD5, "abc")
+      .setParam(UploadReportChunkWsAction.PARAM_CHUNK, "data")
+      .execute();
+  }
+}
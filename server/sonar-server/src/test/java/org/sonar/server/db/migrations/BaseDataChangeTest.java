@@ -32,9 +32,13 @@ import org.sonar.server.db.migrations.Select.Row;
 import org.sonar.server.db.migrations.Select.RowReader;
 import org.sonar.test.DbTests;
 
+import javax.annotation.Nullable;
+
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -52,6 +56,7 @@ public class BaseDataChangeTest extends AbstractDaoTestCase {
   @Before
   public void setUp() throws Exception {
     db.executeUpdateSql("truncate table persons");
+    db.executeUpdateSql("truncate table properties");
   }
 
   @Test
@@ -265,6 +270,7 @@ public class BaseDataChangeTest extends AbstractDaoTestCase {
   @Test
   public void mass_batch_insert() throws Exception {
     db.executeUpdateSql("truncate table persons");
+    db.executeUpdateSql("truncate table properties");
 
     final int count = BatchSession.MAX_BATCH_SIZE + 10;
     new BaseDataChange(db.database()) {
@@ -360,6 +366,42 @@ public class BaseDataChangeTest extends AbstractDaoTestCase {
     db.assertDbUnit(getClass(), "mass-update-result.xml", "persons");
   }
 
+  @Test
+  public void mass_update_by_id_ranges() throws Exception {
+    db.prepareDbUnit(getClass(), "persons.xml");
+
+    new PersonsMassUpdate(null).execute();
+
+    db.assertDbUnit(getClass(), "mass-update-result.xml", "persons");
+    // checkpoint is removed when all ranges are processed
+    assertThat(db.countRowsOfTable("properties")).isEqualTo(0);
+  }
+
+  @Test
+  public void resume_mass_update_by_id_ranges_from_checkpoint() throws Exception {
+    db.prepareDbUnit(getClass(), "persons.xml");
+
+    try {
+      new PersonsMassUpdate(3L).execute();
+      fail();
+    } catch (IllegalStateException e) {
+      // ranges of ids 1 and 2 are completed
+      assertThat(db.selectFirst("select text_value as \"value\" from properties where prop_key='" + PersonsMassUpdate.CHECKPOINT + "'").get("value"))
+        .isEqualTo("3");
+    }
+
+    // update id 2 again, but it's not processed because its range is completed
+    db.executeUpdateSql("update persons set login='emmerik' where id=2");
+    new PersonsMassUpdate(null).execute();
+
+    List<Map<String, Object>> rows = db.select("select login as \"login\" from persons order by id");
+    assertThat(rows).hasSize(3);
+    assertThat(rows.get(0).get("login")).isEqualTo("barbara");
+    assertThat(rows.get(1).get("login")).isEqualTo("emmerik");
+    assertThat(rows.get(2).get("login")).isEqualTo("login3");
+    assertThat(db.countRowsOfTable("properties")).isEqualTo(0);
+  }
+
   @Test
   public void display_current_row_details_if_error_during_mass_update() throws Exception {
     db.prepareDbUnit(getClass(), "persons.xml");
@@ -466,6 +508,69 @@ public class BaseDataChangeTest extends AbstractDaoTestCase {
     assertThat(persons.get(0)[5]).isEqualTo(5.2);
   }
 
+  @Test
+  public void checkpoint_of_concurrent_mass_update_waits_for_previous_ranges() throws Exception {
+    db.prepareDbUnit(getClass(), "persons.xml");
+
+    // range of id 2 fails after the range of id 3 is completed by another thread
+    final List<String> threadNames = Collections.synchronizedList(new ArrayList<String>());
+    BaseDataChange change = new BaseDataChange(db.database()) {
+      @Override
+      public void execute(Context context) throws SQLException {
+        MassUpdate massUpdate = context.prepareMassUpdate();
+        massUpdate.selectByIdRanges("persons", "select id from persons where id>=? and id<?").rangeSize(1L).concurrency(2).concurrentOnH2();
+        massUpdate.update("update persons set login=? where id=?");
+        massUpdate.execute(new MassUpdate.Handler() {
+          @Override
+          public boolean handle(Select.Row row, SqlStatement update) throws SQLException {
+            long id = row.getNullableLong(1);
+            threadNames.add(Thread.currentThread().getName());
+            if (id == 2L) {
+              waitForLogin(3L, "login3");
+              throw new IllegalStateException("Unexpected error");
+            }
+            update.setString(1, "login" + id).setLong(2, id);
+            return true;
+          }
+        });
+      }
+    };
+    try {
+      change.execute();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Error during processing of row: [id=2]");
+      assertThat(e.getCause()).hasMessage("Unexpected error");
+    }
+
+    String checkpoint = IdRangeCheckpoint.PROPERTY_PREFIX + change.getClass().getSimpleName() + ".persons";
+    assertThat(db.selectFirst("select text_value as \"value\" from properties where prop_key='" + checkpoint + "'").get("value"))
+      .isEqualTo("2");
+    List<Map<String, Object>> rows = db.select("select login as \"login\" from persons order by id");
+    assertThat(rows.get(0).get("login")).isEqualTo("login1");
+    assertThat(rows.get(1).get("login")).isEqualTo("emmerik");
+    assertThat(rows.get(2).get("login")).isEqualTo("login3");
+    for (String threadName : threadNames) {
+      assertThat(threadName).startsWith("mass-update-");
+    }
+  }
+
+  private static void waitForLogin(long id, String login) {
+    for (int i = 0; i < 100; i++) {
+      List<Map<String, Object>> rows = db.select("select login as \"login\" from persons where id=" + id);
+      if (login.equals(rows.get(0).get("login"))) {
+        return;
+      }
+      try {
+        Thread.sleep(100L);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+    throw new IllegalStateException("Row " + id + " is not updated");
+  }
+
   static class UserReader implements Select.RowReader<Object[]> {
     @Override
     public Object[] read(Select.Row row) throws SQLException {
@@ -480,4 +585,36 @@ public class BaseDataChangeTest extends AbstractDaoTestCase {
       };
     }
   }
+
+  static class PersonsMassUpdate extends BaseDataChange {
+    static final String CHECKPOINT = IdRangeCheckpoint.PROPERTY_PREFIX + PersonsMassUpdate.class.getSimpleName() + ".persons";
+
+    private final Long failingId;
+
+    PersonsMassUpdate(@Nullable Long failingId) {
+      super(db.database());
+      this.failingId = failingId;
+    }
+
+    @Override
+    public void execute(Context context) throws SQLException {
+      MassUpdate massUpdate = context.prepareMassUpdate();
+      massUpdate.selectByIdRanges("persons", "select id from persons where id>=2 and id>=? and id<?").rangeSize(1L);
+      massUpdate.update("update persons set login=?, age=? where id=?");
+      massUpdate.execute(new MassUpdate.Handler() {
+        @Override
+        public boolean handle(Select.Row row, SqlStatement update) throws SQLException {
+          long id = row.getNullableLong(1);
+          if (failingId != null && failingId == id) {
+            throw new IllegalStateException("Unexpected error");
+          }
+          update
+            .setString(1, "login" + id)
+            .setInt(2, 10 + (int) id)
+            .setLong(3, id);
+          return true;
+        }
+      });
+    }
+  }
 }
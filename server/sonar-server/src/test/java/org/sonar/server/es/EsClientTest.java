@@ -22,6 +22,7 @@ package org.sonar.server.es;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.server.es.request.ProxyBulkRequestBuilder;
+import org.sonar.server.es.request.ProxyClearScrollRequestBuilder;
 import org.sonar.server.es.request.ProxyClusterHealthRequestBuilder;
 import org.sonar.server.es.request.ProxyClusterStateRequestBuilder;
 import org.sonar.server.es.request.ProxyClusterStatsRequestBuilder;
@@ -53,6 +54,7 @@ public class EsClientTest {
     client.start();
     assertThat(client.nativeClient()).isNotNull();
     assertThat(client.prepareBulk()).isInstanceOf(ProxyBulkRequestBuilder.class);
+    assertThat(client.prepareClearScroll("1234")).isInstanceOf(ProxyClearScrollRequestBuilder.class);
     assertThat(client.prepareClusterStats()).isInstanceOf(ProxyClusterStatsRequestBuilder.class);
     assertThat(client.prepareCount()).isInstanceOf(ProxyCountRequestBuilder.class);
     assertThat(client.prepareCreate("fakes")).isInstanceOf(ProxyCreateIndexRequestBuilder.class);
@@ -42,6 +42,7 @@ import org.elasticsearch.node.NodeBuilder;
 import org.elasticsearch.search.SearchHit;
 import org.junit.rules.ExternalResource;
 import org.sonar.api.platform.ComponentContainer;
+import org.sonar.core.telemetry.Telemetry;
 import org.sonar.server.search.BaseDoc;
 import org.sonar.test.TestUtils;
 
@@ -96,7 +97,7 @@ public class EsTester extends ExternalResource {
     DeleteIndexResponse response = node.client().admin().indices().prepareDelete("_all").get();
     assertThat(response.isAcknowledged()).isTrue();
 
-    client = new EsClient(node.client());
+    client = new EsClient(node.client(), new Telemetry());
     client.start();
 
     if (!definitions.isEmpty()) {
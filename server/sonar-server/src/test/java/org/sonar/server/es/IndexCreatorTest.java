@@ -19,6 +19,7 @@
  */
 package org.sonar.server.es;
 
+import com.google.common.base.Suppliers;
 import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
 import org.elasticsearch.cluster.metadata.MappingMetaData;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
@@ -89,6 +90,22 @@ public class IndexCreatorTest {
     creator.stop();
   }
 
+  @Test
+  public void compute_number_of_shards_from_volume_at_creation() throws Exception {
+    IndexDefinitions registry = new IndexDefinitions(new IndexDefinition[] {new ShardedIndexDefinition(25L)});
+    registry.start();
+    new IndexCreator(es.client(), registry).start();
+    String hash = setting("sharded", "index.sonar_hash");
+    assertThat(setting("sharded", "index.number_of_shards")).isEqualTo("3");
+
+    // growth of data does not re-create index
+    registry = new IndexDefinitions(new IndexDefinition[] {new ShardedIndexDefinition(1000L)});
+    registry.start();
+    new IndexCreator(es.client(), registry).start();
+    assertThat(setting("sharded", "index.sonar_hash")).isEqualTo(hash);
+    assertThat(setting("sharded", "index.number_of_shards")).isEqualTo("3");
+  }
+
   private String setting(String indexName, String settingKey) {
     GetSettingsResponse indexSettings = es.client().nativeClient().admin().indices().prepareGetSettings(indexName).get();
     return indexSettings.getSetting(indexName, settingKey);
@@ -128,4 +145,19 @@ public class IndexCreatorTest {
       mapping.createIntegerField("newField");
     }
   }
+
+  public static class ShardedIndexDefinition implements IndexDefinition {
+    private final long docs;
+
+    public ShardedIndexDefinition(long docs) {
+      this.docs = docs;
+    }
+
+    @Override
+    public void define(IndexDefinitionContext context) {
+      NewIndex index = context.create("sharded");
+      index.configureShards(new org.sonar.api.config.Settings(), 1, 10L, Suppliers.ofInstance(docs));
+      index.createType("fake").stringFieldBuilder("key").build();
+    }
+  }
 }
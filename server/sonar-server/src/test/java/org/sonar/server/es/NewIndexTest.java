@@ -19,6 +19,7 @@
  */
 package org.sonar.server.es;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Test;
@@ -88,6 +89,7 @@ public class NewIndexTest {
     mapping.stringFieldBuilder("not_searchable_field").disableSearch().build();
     mapping.stringFieldBuilder("all_capabilities_field")
       .enableGramSearch()
+      .enableSubstringSearch()
       .enableWordSearch()
       .enableSorting()
       .build();
@@ -105,7 +107,7 @@ public class NewIndexTest {
     props = (Map) mapping.getProperty("all_capabilities_field");
     assertThat(props.get("type")).isEqualTo("multi_field");
     // no need to test values, it's not the scope of this test
-    assertThat((Map) props.get("fields")).isNotEmpty();
+    assertThat(((Map) props.get("fields")).keySet()).contains("grams", "substrings", "words", "sort", "all_capabilities_field");
   }
 
   @Test
@@ -144,4 +146,31 @@ public class NewIndexTest {
       assertThat(e).hasMessage("Can't mix searchable and non-searchable arguments on field: my_field");
     }
   }
+
+  @Test
+  public void compute_number_of_shards_from_expected_documents() throws Exception {
+    NewIndex index = new NewIndex("issues");
+    index.configureShards(new org.sonar.api.config.Settings(), 2, 100L, Suppliers.ofInstance(1050L));
+
+    assertThat(index.getSettings().get("index.number_of_shards")).isNull();
+    assertThat(index.getShardsSizing().compute()).isEqualTo(11);
+
+    index.configureShards(new org.sonar.api.config.Settings(), 2, 100L, Suppliers.ofInstance(0L));
+    assertThat(index.getShardsSizing().compute()).isEqualTo(2);
+
+    index.configureShards(new org.sonar.api.config.Settings(), 2, 100L, Suppliers.ofInstance(1000000L));
+    assertThat(index.getShardsSizing().compute()).isEqualTo(NewIndex.MAX_SHARDS);
+  }
+
+  @Test
+  public void configured_number_of_shards() throws Exception {
+    org.sonar.api.config.Settings config = new org.sonar.api.config.Settings();
+    config.setProperty("sonar.search.issues.shards", 6);
+    NewIndex index = new NewIndex("issues");
+    index.configureShards(config, 2, 100L, Suppliers.ofInstance(1050L));
+
+    assertThat(index.getSettings().get("index.number_of_shards")).isEqualTo("6");
+    assertThat(index.getSettings().get(NewIndex.SETTING_SHARDS_SIZING)).isNull();
+    assertThat(index.getShardsSizing()).isNull();
+  }
 }
@@ -0,0 +1,103 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.db;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.sonar.core.issue.db.IssueCounterDto;
+import org.sonar.core.persistence.DbSession;
+import org.sonar.core.persistence.DbTester;
+import org.sonar.test.DbTests;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Category(DbTests.class)
+public class IssueCounterDaoTest {
+
+  @ClassRule
+  public static DbTester dbTester = new DbTester();
+
+  DbSession session;
+
+  IssueCounterDao dao = new IssueCounterDao();
+
+  @Before
+  public void setUp() throws Exception {
+    session = dbTester.myBatis().openSession(false);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    session.close();
+  }
+
+  @Test
+  public void select_by_component_uuid() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+
+    List<IssueCounterDto> counters = dao.selectByComponentUuid(session, "FILE");
+    assertThat(counters).hasSize(1);
+    IssueCounterDto counter = counters.get(0);
+    assertThat(counter.getId()).isEqualTo(3L);
+    assertThat(counter.getProjectUuid()).isEqualTo("PROJECT");
+    assertThat(counter.getComponentUuid()).isEqualTo("FILE");
+    assertThat(counter.getFacet()).isEqualTo(IssueCounterDto.FACET_SEVERITIES);
+    assertThat(counter.getFacetValue()).isEqualTo("MAJOR");
+    assertThat(counter.getIssuesCount()).isEqualTo(2);
+    assertThat(counter.getNewIssuesCount(1)).isEqualTo(1);
+    assertThat(counter.getNewIssuesCount(2)).isNull();
+
+    assertThat(dao.selectByComponentUuid(session, "PROJECT")).hasSize(2);
+    assertThat(dao.selectByComponentUuid(session, "UNKNOWN")).isEmpty();
+  }
+
+  @Test
+  public void insert() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "empty.xml");
+
+    dao.insert(session, new IssueCounterDto()
+      .setProjectUuid("PROJECT")
+      .setComponentUuid("FILE")
+      .setFacet(IssueCounterDto.FACET_RULES)
+      .setFacetValue("xoo:x1")
+      .setIssuesCount(5)
+      .setNewIssuesCount(1, 2)
+      .setNewIssuesCount(3, 0));
+    session.commit();
+
+    dbTester.assertDbUnit(getClass(), "insert-result.xml", new String[] {"id"}, "issue_counters");
+  }
+
+  @Test
+  public void delete_by_project_uuid() throws Exception {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+
+    dao.deleteByProjectUuid(session, "PROJECT");
+    session.commit();
+
+    assertThat(dbTester.countRowsOfTable("issue_counters")).isEqualTo(1);
+    assertThat(dao.selectByComponentUuid(session, "OTHER_PROJECT")).hasSize(1);
+  }
+}
@@ -28,6 +28,7 @@ import org.sonar.api.config.Settings;
 import org.sonar.core.persistence.DbTester;
 import org.sonar.server.db.DbClient;
 import org.sonar.server.es.EsTester;
+import org.sonar.server.user.UserPermissionCache;
 import org.sonar.test.DbTests;
 
 import java.util.Arrays;
@@ -35,6 +36,7 @@ import java.util.Collection;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 @Category(DbTests.class)
 public class IssueAuthorizationIndexerTest {
@@ -108,6 +110,6 @@ public class IssueAuthorizationIndexerTest {
   }
 
   private IssueAuthorizationIndexer createIndexer() {
-    return new IssueAuthorizationIndexer(new DbClient(dbTester.database(), dbTester.myBatis()), esTester.client());
+    return new IssueAuthorizationIndexer(new DbClient(dbTester.database(), dbTester.myBatis()), esTester.client(), mock(UserPermissionCache.class));
   }
 }
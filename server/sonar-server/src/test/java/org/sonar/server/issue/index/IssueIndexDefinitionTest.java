@@ -42,7 +42,8 @@ public class IssueIndexDefinitionTest {
     assertThat(issuesIndex.getTypes().keySet()).containsOnly("issue", "authorization");
 
     // no cluster by default
-    assertThat(issuesIndex.getSettings().get("index.number_of_shards")).isEqualTo("1");
+    assertThat(issuesIndex.getSettings().get("index.number_of_shards")).isNull();
+    assertThat(issuesIndex.getShardsSizing().compute()).isEqualTo(1);
     assertThat(issuesIndex.getSettings().get("index.number_of_replicas")).isEqualTo("0");
   }
 
@@ -54,7 +55,19 @@ public class IssueIndexDefinitionTest {
     def.define(context);
 
     NewIndex issuesIndex = context.getIndices().get("issues");
-    assertThat(issuesIndex.getSettings().get("index.number_of_shards")).isEqualTo("4");
+    assertThat(issuesIndex.getShardsSizing().compute()).isEqualTo(4);
     assertThat(issuesIndex.getSettings().get("index.number_of_replicas")).isEqualTo("1");
   }
+
+  @Test
+  public void configure_number_of_shards() throws Exception {
+    Settings settings = new Settings();
+    settings.setProperty("sonar.search.issues.shards", 8);
+    IssueIndexDefinition def = new IssueIndexDefinition(settings);
+    def.define(context);
+
+    NewIndex index = context.getIndices().get("issues");
+    assertThat(index.getSettings().get("index.number_of_shards")).isEqualTo("8");
+    assertThat(index.getShardsSizing()).isNull();
+  }
 }
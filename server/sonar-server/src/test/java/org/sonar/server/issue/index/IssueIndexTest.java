@@ -36,6 +36,7 @@ import org.sonar.api.utils.DateUtils;
 import org.sonar.api.utils.KeyValueFormat;
 import org.sonar.api.utils.System2;
 import org.sonar.core.component.ComponentDto;
+import org.sonar.core.user.AuthorizationDao;
 import org.sonar.server.component.ComponentTesting;
 import org.sonar.server.es.EsTester;
 import org.sonar.server.es.SearchOptions;
@@ -44,6 +45,7 @@ import org.sonar.server.exceptions.NotFoundException;
 import org.sonar.server.issue.IssueQuery;
 import org.sonar.server.issue.IssueTesting;
 import org.sonar.server.user.MockUserSession;
+import org.sonar.server.user.UserPermissionCache;
 import org.sonar.server.view.index.ViewDoc;
 import org.sonar.server.view.index.ViewIndexDefinition;
 import org.sonar.server.view.index.ViewIndexer;
@@ -74,13 +76,14 @@ public class IssueIndexTest {
   public void setUp() throws Exception {
     tester.truncateIndices();
     issueIndexer = new IssueIndexer(null, tester.client());
-    issueAuthorizationIndexer = new IssueAuthorizationIndexer(null, tester.client());
+    UserPermissionCache permissionCache = new UserPermissionCache(mock(AuthorizationDao.class), tester.client());
+    issueAuthorizationIndexer = new IssueAuthorizationIndexer(null, tester.client(), permissionCache);
     viewIndexer = new ViewIndexer(null, tester.client());
     System2 system = mock(System2.class);
     when(system.getDefaultTimeZone()).thenReturn(TimeZone.getTimeZone("+01:00"));
     when(system.now()).thenReturn(System.currentTimeMillis());
 
-    index = new IssueIndex(tester.client(), system);
+    index = new IssueIndex(tester.client(), system, permissionCache);
 
   }
 
@@ -0,0 +1,106 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.web.UserRole;
+import org.sonar.core.persistence.DbSession;
+import org.sonar.core.persistence.DbTester;
+import org.sonar.server.component.db.ComponentDao;
+import org.sonar.server.db.DbClient;
+import org.sonar.server.exceptions.ForbiddenException;
+import org.sonar.server.exceptions.NotFoundException;
+import org.sonar.server.issue.db.IssueCounterDao;
+import org.sonar.server.user.MockUserSession;
+import org.sonar.server.ws.WsTester;
+import org.sonar.test.DbTests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Category(DbTests.class)
+public class CountersActionTest {
+
+  @ClassRule
+  public static DbTester db = new DbTester();
+
+  DbSession session;
+
+  WsTester tester;
+
+  @Before
+  public void before() throws Exception {
+    db.truncateTables();
+    session = db.myBatis().openSession(false);
+    DbClient dbClient = new DbClient(db.database(), db.myBatis(), new ComponentDao(), new IssueCounterDao());
+    tester = new WsTester(new IssuesWs(new CountersAction(dbClient)));
+  }
+
+  @After
+  public void after() {
+    session.close();
+  }
+
+  @Test
+  public void define() throws Exception {
+    WebService.Action action = tester.controller("api/issues").action("counters");
+    assertThat(action.isInternal()).isTrue();
+    assertThat(action.since()).isEqualTo("5.2");
+    assertThat(action.responseExampleAsString()).isNotEmpty();
+    assertThat(action.param("componentKey").isRequired()).isTrue();
+  }
+
+  @Test
+  public void show_counters() throws Exception {
+    db.prepareDbUnit(getClass(), "shared.xml");
+    MockUserSession.set().setLogin("john").addProjectUuidPermissions(UserRole.USER, "ABCD");
+
+    tester.newGetRequest("api/issues", "counters").setParam("componentKey", "org.struts:struts").execute()
+      .assertJson(getClass(), "show_counters.json");
+  }
+
+  @Test
+  public void empty_counters() throws Exception {
+    db.prepareDbUnit(getClass(), "shared.xml");
+    MockUserSession.set().setLogin("john").addProjectUuidPermissions(UserRole.USER, "ABCD");
+
+    tester.newGetRequest("api/issues", "counters").setParam("componentKey", "org.struts:struts-core").execute()
+      .assertJson("{\"severities\": [], \"statuses\": [], \"rules\": [], \"assignees\": []}");
+  }
+
+  @Test(expected = ForbiddenException.class)
+  public void fail_on_missing_permission() throws Exception {
+    db.prepareDbUnit(getClass(), "shared.xml");
+    MockUserSession.set().setLogin("john");
+
+    tester.newGetRequest("api/issues", "counters").setParam("componentKey", "org.struts:struts").execute();
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void fail_if_component_does_not_exist() throws Exception {
+    MockUserSession.set().setLogin("john").addProjectUuidPermissions(UserRole.USER, "ABCD");
+
+    tester.newGetRequest("api/issues", "counters").setParam("componentKey", "unknown").execute();
+  }
+}
@@ -19,8 +19,11 @@
  */
 package org.sonar.server.notifications;
 
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Sets;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.sonar.api.config.Settings;
@@ -32,9 +35,11 @@ import org.sonar.core.properties.PropertiesDao;
 import org.sonar.server.db.DbClient;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.*;
@@ -46,8 +51,8 @@ public class NotificationServiceTest {
 
   DefaultNotificationManager manager = mock(DefaultNotificationManager.class);
   Notification notification = mock(Notification.class);
-  NotificationChannel emailChannel = mock(NotificationChannel.class);
-  NotificationChannel gtalkChannel = mock(NotificationChannel.class);
+  NotificationChannel emailChannel = spy(new FakeNotificationChannel());
+  NotificationChannel gtalkChannel = spy(new FakeNotificationChannel());
   NotificationDispatcher commentOnIssueAssignedToMe = mock(NotificationDispatcher.class);
   NotificationDispatcher commentOnIssueCreatedByMe = mock(NotificationDispatcher.class);
   NotificationDispatcher qualityGateChange = mock(NotificationDispatcher.class);
@@ -64,7 +69,7 @@ public class NotificationServiceTest {
     when(commentOnIssueCreatedByMe.getType()).thenReturn("issue-changes");
     when(qualityGateChange.getKey()).thenReturn("QGateChange");
     when(qualityGateChange.getType()).thenReturn("qgate-changes");
-    when(manager.getFromQueue()).thenReturn(notification).thenReturn(null);
+    when(manager.getFromQueue(anyInt())).thenReturn(Arrays.asList(notification)).thenReturn(Collections.<Notification>emptyList());
 
     Settings settings = new Settings().setProperty("sonar.notifications.delay", 1L);
 
@@ -171,7 +176,8 @@ public class NotificationServiceTest {
   @Test
   public void shouldNotStopWhenException() {
     setUpMocks();
-    when(manager.getFromQueue()).thenThrow(new RuntimeException("Unexpected exception")).thenReturn(notification).thenReturn(null);
+    when(manager.getFromQueue(anyInt())).thenThrow(new RuntimeException("Unexpected exception")).thenReturn(Arrays.asList(notification))
+      .thenReturn(Collections.<Notification>emptyList());
     doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
     doAnswer(addUser(CREATOR_SIMON, emailChannel)).when(commentOnIssueCreatedByMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
 
@@ -194,6 +200,48 @@ public class NotificationServiceTest {
     verify(gtalkChannel, never()).deliver(any(Notification.class), anyString());
   }
 
+  @Test
+  public void deliver_batch_of_notifications_at_once_per_channel() {
+    setUpMocks();
+    Notification otherNotification = mock(Notification.class);
+    doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(any(Notification.class), any(NotificationDispatcher.Context.class));
+    doAnswer(addUser(CREATOR_EVGENY, emailChannel)).when(commentOnIssueCreatedByMe).dispatch(same(otherNotification), any(NotificationDispatcher.Context.class));
+
+    service.deliver(Arrays.asList(notification, otherNotification));
+
+    ArgumentCaptor<ListMultimap> deliveries = ArgumentCaptor.forClass(ListMultimap.class);
+    verify(emailChannel, times(1)).deliverAll(deliveries.capture());
+    assertThat(deliveries.getValue().get(ASSIGNEE_SIMON)).containsExactly(notification, otherNotification);
+    assertThat(deliveries.getValue().get(CREATOR_EVGENY)).containsExactly(otherNotification);
+    verify(gtalkChannel, never()).deliverAll(any(ListMultimap.class));
+  }
+
+  @Test
+  public void split_deliveries_by_user_when_channel_supports_concurrent_deliveries() {
+    setUpMocks();
+    when(emailChannel.getMaxConcurrentDeliveries()).thenReturn(5);
+    doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
+    doAnswer(addUser(CREATOR_EVGENY, emailChannel)).when(commentOnIssueCreatedByMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
+
+    service.deliver(notification);
+
+    verify(emailChannel, times(2)).deliverAll(any(ListMultimap.class));
+    verify(emailChannel).deliver(notification, ASSIGNEE_SIMON);
+    verify(emailChannel).deliver(notification, CREATOR_EVGENY);
+  }
+
+  @Test
+  public void resolve_recipients_with_cache() {
+    setUpMocks();
+
+    service.deliver(Arrays.asList(notification, notification));
+
+    InOrder inOrder = inOrder(manager, commentOnIssueAssignedToMe);
+    inOrder.verify(manager).startRecipientsCache();
+    inOrder.verify(commentOnIssueAssignedToMe, times(2)).dispatch(same(notification), any(NotificationDispatcher.Context.class));
+    inOrder.verify(manager).stopRecipientsCache();
+  }
+
   @Test
   public void getDispatchers() {
     setUpMocks();
@@ -213,7 +261,8 @@ public class NotificationServiceTest {
   public void shouldLogEvery10Minutes() throws InterruptedException {
     setUpMocks();
     // Emulate 2 notifications in DB
-    when(manager.getFromQueue()).thenReturn(notification).thenReturn(notification).thenReturn(null);
+    when(manager.getFromQueue(anyInt())).thenReturn(Arrays.asList(notification)).thenReturn(Arrays.asList(notification))
+      .thenReturn(Collections.<Notification>emptyList());
     when(manager.count()).thenReturn(1L).thenReturn(0L);
     service = spy(service);
     // Emulate processing of each notification take 10 min to have a log each time
@@ -254,4 +303,11 @@ public class NotificationServiceTest {
       }
     };
   }
+
+  private static class FakeNotificationChannel extends NotificationChannel {
+    @Override
+    public void deliver(Notification notification, String userlogin) {
+      // nothing to do
+    }
+  }
 }
@@ -35,12 +35,14 @@ import org.sonar.server.rule.index.RuleNormalizer;
 import org.sonar.server.search.IndexDefinition;
 import org.sonar.server.source.index.SourceLineDoc;
 import org.sonar.server.source.index.SourceLineIndexDefinition;
+import org.sonar.server.user.UserPermissionCache;
 import org.sonar.server.view.index.ViewDoc;
 import org.sonar.server.view.index.ViewIndexDefinition;
 import org.sonar.test.DbTests;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 @Category(DbTests.class)
 public class BackendCleanupMediumTest {
@@ -55,7 +57,7 @@ public class BackendCleanupMediumTest {
 
   @Before
   public void setUp() throws Exception {
-    backendCleanup = new BackendCleanup(esTester.client(), dbTester.myBatis());
+    backendCleanup = new BackendCleanup(esTester.client(), dbTester.myBatis(), mock(UserPermissionCache.class));
   }
 
   @Test
@@ -82,6 +82,22 @@ public class ServerImplTest {
     assertThat(server.getImplementationBuild()).isEqualTo("0b9545a8b74aca473cb776275be4dc93a327c363");
   }
 
+  @Test
+  public void deploy_dir_is_in_web_directory_by_default() {
+    server.start();
+
+    assertThat(server.getDeployDir()).isEqualTo(new File(sonarHome.getRoot(), "web/deploy"));
+  }
+
+  @Test
+  public void override_deploy_dir() throws Exception {
+    File deployDir = sonarHome.newFolder("ce-deploy");
+    settings.setProperty(ServerImpl.DEPLOY_DIR_PROPERTY, deployDir.getAbsolutePath());
+    server.start();
+
+    assertThat(server.getDeployDir()).isEqualTo(deployDir);
+  }
+
   @Test
   public void read_file_with_no_version() {
     exception.expect(IllegalStateException.class);
@@ -0,0 +1,89 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.ws;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.internal.SimpleGetRequest;
+import org.sonar.core.permission.GlobalPermissions;
+import org.sonar.core.persistence.Database;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.server.db.DbClient;
+import org.sonar.server.exceptions.ForbiddenException;
+import org.sonar.server.user.MockUserSession;
+import org.sonar.server.ws.WsTester;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SystemMetricsWsActionTest {
+
+  Telemetry telemetry = new Telemetry();
+  DbClient dbClient = mock(DbClient.class, RETURNS_DEEP_STUBS);
+  SystemMetricsWsAction sut = new SystemMetricsWsAction(telemetry, dbClient);
+
+  @Before
+  public void setUp() {
+    BasicDataSource dataSource = mock(BasicDataSource.class);
+    when(dataSource.getNumActive()).thenReturn(3);
+    when(dataSource.getMaxActive()).thenReturn(50);
+    Database database = mock(Database.class);
+    when(database.getDataSource()).thenReturn(dataSource);
+    when(dbClient.database()).thenReturn(database);
+  }
+
+  @Test(expected = ForbiddenException.class)
+  public void should_fail_when_does_not_have_admin_right() throws Exception {
+    MockUserSession.set().setLogin("login").setGlobalPermissions(GlobalPermissions.SCAN_EXECUTION);
+
+    sut.handle(mock(Request.class), mock(Response.class));
+  }
+
+  @Test
+  public void write_text_exposition_format() throws Exception {
+    MockUserSession.set().setLogin("login").setGlobalPermissions(GlobalPermissions.SYSTEM_ADMIN);
+    telemetry.timer("sonar_ws_request_seconds", "Execution time", "action", "api/issues/search").record(TimeUnit.MILLISECONDS.toNanos(20));
+    telemetry.timer("sonar_ws_request_seconds", "Execution time", "action", "api/issues/search").record(TimeUnit.MILLISECONDS.toNanos(300));
+    telemetry.counter("sonar_ws_errors_total", "Errors", "status", "404").increment();
+
+    WsTester.TestResponse response = new WsTester.TestResponse();
+    sut.handle(new SimpleGetRequest(), response);
+
+    String output = response.outputAsString();
+    assertThat(output).contains("# HELP sonar_ws_request_seconds Execution time\n# TYPE sonar_ws_request_seconds histogram\n");
+    assertThat(output).contains("sonar_ws_request_seconds_bucket{action=\"api/issues/search\",le=\"0.01\"} 0\n");
+    assertThat(output).contains("sonar_ws_request_seconds_bucket{action=\"api/issues/search\",le=\"0.025\"} 1\n");
+    assertThat(output).contains("sonar_ws_request_seconds_bucket{action=\"api/issues/search\",le=\"+Inf\"} 2\n");
+    assertThat(output).contains("sonar_ws_request_seconds_sum{action=\"api/issues/search\"} 0.32\n");
+    assertThat(output).contains("sonar_ws_request_seconds_count{action=\"api/issues/search\"} 2\n");
+    assertThat(output).contains("sonar_ws_request_seconds_max{action=\"api/issues/search\"} 0.3\n");
+    assertThat(output).contains("# TYPE sonar_ws_errors_total counter\nsonar_ws_errors_total{status=\"404\"} 1\n");
+    assertThat(output).contains("sonar_jvm_memory_used_bytes{area=\"heap\"} ");
+    assertThat(output).contains("sonar_db_pool_active_connections 3\n");
+    assertThat(output).contains("sonar_db_pool_max_connections 50\n");
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.ws;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.commons.lang.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.core.permission.GlobalPermissions;
+import org.sonar.core.persistence.Database;
+import org.sonar.core.persistence.profiling.ProfiledDataSource;
+import org.sonar.core.persistence.profiling.SqlStatistics;
+import org.sonar.server.db.DbClient;
+import org.sonar.server.exceptions.ForbiddenException;
+import org.sonar.server.user.MockUserSession;
+import org.sonar.server.ws.WsTester;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SystemSqlStatisticsWsActionTest {
+
+  BasicDataSource delegate = mock(BasicDataSource.class);
+  ProfiledDataSource dataSource = new ProfiledDataSource(delegate, new SqlStatistics(0L));
+  DbClient dbClient = mock(DbClient.class);
+  WsTester tester;
+
+  @Before
+  public void setUp() {
+    Database database = mock(Database.class);
+    when(database.getDataSource()).thenReturn(dataSource);
+    when(dbClient.database()).thenReturn(database);
+    tester = new WsTester(new SystemWs(new SystemSqlStatisticsWsAction(dbClient)));
+  }
+
+  @Test(expected = ForbiddenException.class)
+  public void fail_when_does_not_have_admin_right() throws Exception {
+    MockUserSession.set().setLogin("login").setGlobalPermissions(GlobalPermissions.SCAN_EXECUTION);
+
+    tester.newGetRequest("api/system", "sql_statistics").execute();
+  }
+
+  @Test
+  public void list_statements() throws Exception {
+    MockUserSession.set().setLogin("login").setGlobalPermissions(GlobalPermissions.SYSTEM_ADMIN);
+    execute("select * from projects where id=1");
+    execute("select * from projects where id=2");
+
+    WsTester.Result result = tester.newGetRequest("api/system", "sql_statistics").execute();
+
+    result.assertJson("{\"total\": 1, \"statements\": [{\"sql\": \"select * from projects where id=?\", \"count\": 2, \"rows\": 0," +
+      "\"slowest\": {\"sql\": \"select * from projects where id=1\", \"parameters\": \"\"}}]}");
+  }
+
+  @Test
+  public void limit_number_of_statements() throws Exception {
+    MockUserSession.set().setLogin("login").setGlobalPermissions(GlobalPermissions.SYSTEM_ADMIN);
+    execute("select * from projects");
+    execute("select * from issues");
+
+    String json = tester.newGetRequest("api/system", "sql_statistics").setParam(WebService.Param.PAGE_SIZE, "1").execute().outputAsString();
+
+    assertThat(json).contains("\"total\":2");
+    assertThat(StringUtils.countMatches(json, "\"sql\":")).isEqualTo(2);
+  }
+
+  @Test
+  public void no_statements_if_data_source_is_not_profiled() throws Exception {
+    MockUserSession.set().setLogin("login").setGlobalPermissions(GlobalPermissions.SYSTEM_ADMIN);
+    Database database = mock(Database.class);
+    when(database.getDataSource()).thenReturn(mock(BasicDataSource.class));
+    when(dbClient.database()).thenReturn(database);
+
+    tester.newGetRequest("api/system", "sql_statistics").execute().assertJson("{\"total\": 0, \"statements\": []}");
+  }
+
+  private void execute(String sql) throws Exception {
+    Connection connection = mock(Connection.class);
+    when(delegate.getConnection()).thenReturn(connection);
+    when(connection.createStatement()).thenReturn(mock(Statement.class));
+    dataSource.getConnection().createStatement().execute(sql);
+  }
+}
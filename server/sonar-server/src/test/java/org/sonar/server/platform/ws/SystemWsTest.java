@@ -22,6 +22,8 @@ package org.sonar.server.platform.ws;
 import org.junit.Test;
 import org.sonar.api.config.Settings;
 import org.sonar.api.server.ws.WebService;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.server.db.DbClient;
 import org.sonar.server.platform.Platform;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,13 +35,17 @@ public class SystemWsTest {
   public void define() throws Exception {
     SystemRestartWsAction action1 = new SystemRestartWsAction(mock(Settings.class), mock(Platform.class));
     SystemInfoWsAction action2 = new SystemInfoWsAction();
-    SystemWs ws = new SystemWs(action1, action2);
+    SystemMetricsWsAction action3 = new SystemMetricsWsAction(new Telemetry(), mock(DbClient.class));
+    SystemSqlStatisticsWsAction action4 = new SystemSqlStatisticsWsAction(mock(DbClient.class));
+    SystemWs ws = new SystemWs(action1, action2, action3, action4);
     WebService.Context context = new WebService.Context();
 
     ws.define(context);
 
     assertThat(context.controllers()).hasSize(1);
-    assertThat(context.controller("api/system").actions()).hasSize(2);
+    assertThat(context.controller("api/system").actions()).hasSize(4);
     assertThat(context.controller("api/system").action("info")).isNotNull();
+    assertThat(context.controller("api/system").action("metrics")).isNotNull();
+    assertThat(context.controller("api/system").action("sql_statistics")).isNotNull();
   }
 }
@@ -870,6 +870,30 @@ public class RuleActivatorMediumTest {
 
   }
 
+  @Test
+  public void bulk_activation_propagates_to_descendants() {
+    createChildProfiles();
+    RuleActivation activation = new RuleActivation(RuleTesting.XOO_X1);
+    activation.setSeverity(Severity.BLOCKER);
+    activation.setParameter("max", "7");
+    activate(activation, XOO_P2_KEY);
+
+    BulkChangeResult result = ruleActivator.bulkActivate(
+      new RuleQuery().setRepositories(Arrays.asList("xoo")), XOO_P1_KEY, Severity.MINOR);
+
+    dbSession.clearCache();
+    assertThat(result.countSucceeded()).isEqualTo(3);
+    assertThat(countActiveRules(XOO_P1_KEY)).isEqualTo(3);
+    assertThat(countActiveRules(XOO_P2_KEY)).isEqualTo(3);
+    assertThat(countActiveRules(XOO_P3_KEY)).isEqualTo(3);
+    verifyHasActiveRule(ActiveRuleKey.of(XOO_P1_KEY, RuleTesting.XOO_X1), Severity.MINOR, null, ImmutableMap.of("max", "10"));
+    // P2 already declared x1 -> it now overrides P1, and P3 keeps inheriting from P2
+    verifyHasActiveRule(ActiveRuleKey.of(XOO_P2_KEY, RuleTesting.XOO_X1), Severity.BLOCKER, ActiveRuleDto.OVERRIDES, ImmutableMap.of("max", "7"));
+    verifyHasActiveRule(ActiveRuleKey.of(XOO_P3_KEY, RuleTesting.XOO_X1), Severity.BLOCKER, ActiveRuleDto.INHERITED, ImmutableMap.of("max", "7"));
+    verifyHasActiveRule(ActiveRuleKey.of(XOO_P3_KEY, RuleTesting.XOO_X2), Severity.MINOR, ActiveRuleDto.INHERITED, Collections.<String, String>emptyMap());
+    assertThat(index.findByProfile(XOO_P3_KEY)).hasSize(3);
+  }
+
   @Test
   public void set_and_unset_parent_profile() {
     // x1 is activated on the "future parent" P1
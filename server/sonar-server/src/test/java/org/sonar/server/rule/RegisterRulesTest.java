@@ -23,6 +23,7 @@ import com.google.common.collect.Sets;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.sonar.api.platform.Server;
 import org.sonar.api.resources.Language;
 import org.sonar.api.resources.Languages;
 import org.sonar.api.rule.RuleKey;
@@ -33,6 +34,7 @@ import org.sonar.api.utils.DateUtils;
 import org.sonar.api.utils.System2;
 import org.sonar.core.persistence.AbstractDaoTestCase;
 import org.sonar.core.persistence.DbSession;
+import org.sonar.core.properties.PropertiesDao;
 import org.sonar.core.qualityprofile.db.QualityProfileDao;
 import org.sonar.core.rule.RuleDto;
 import org.sonar.core.rule.RuleParamDto;
@@ -41,6 +43,7 @@ import org.sonar.server.db.DbClient;
 import org.sonar.server.qualityprofile.RuleActivator;
 import org.sonar.server.qualityprofile.db.ActiveRuleDao;
 import org.sonar.server.rule.db.RuleDao;
+import org.sonar.server.startup.StartupFingerprints;
 
 import java.util.Date;
 import java.util.List;
@@ -59,6 +62,7 @@ public class RegisterRulesTest extends AbstractDaoTestCase {
   System2 system;
   DbClient dbClient;
   DbSession dbSession;
+  StartupFingerprints fingerprints;
 
   @Before
   public void before() {
@@ -69,6 +73,9 @@ public class RegisterRulesTest extends AbstractDaoTestCase {
     dbClient = new DbClient(getDatabase(), getMyBatis(), ruleDao, activeRuleDao,
       new QualityProfileDao(getMyBatis(), system), new CharacteristicDao(getMyBatis()));
     dbSession = dbClient.openSession(false);
+    Server server = mock(Server.class);
+    when(server.getVersion()).thenReturn("5.2");
+    fingerprints = new StartupFingerprints(new PropertiesDao(getMyBatis()), server);
   }
 
   @After
@@ -116,6 +123,20 @@ public class RegisterRulesTest extends AbstractDaoTestCase {
     assertThat(rule1.getUpdatedAt()).isEqualTo(DATE1);
   }
 
+  @Test
+  public void do_not_merge_rules_when_definitions_did_not_change() {
+    execute(new FakeRepositoryV1());
+    RuleDto rule1 = dbClient.ruleDao().getNullableByKey(dbSession, RuleKey.of("fake", "rule1"));
+    dbClient.ruleDao().update(dbSession, rule1.setName("Renamed in db"));
+    dbSession.commit();
+
+    execute(new FakeRepositoryV1());
+
+    dbSession.clearCache();
+    rule1 = dbClient.ruleDao().getNullableByKey(dbSession, RuleKey.of("fake", "rule1"));
+    assertThat(rule1.getName()).isEqualTo("Renamed in db");
+  }
+
   @Test
   public void update_and_remove_rules_on_changes() {
     execute(new FakeRepositoryV1());
@@ -216,7 +237,7 @@ public class RegisterRulesTest extends AbstractDaoTestCase {
     Languages languages = mock(Languages.class);
     when(languages.get("java")).thenReturn(mock(Language.class));
 
-    RegisterRules task = new RegisterRules(loader, ruleActivator, dbClient, languages);
+    RegisterRules task = new RegisterRules(loader, ruleActivator, dbClient, languages, fingerprints);
     task.start();
     // Execute a commit to refresh session state as the task is using its own session
     dbSession.commit();
@@ -35,6 +35,8 @@ import org.sonar.core.rule.RuleDto;
 import org.sonar.core.rule.RuleDto.Format;
 import org.sonar.core.rule.RuleParamDto;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -131,6 +133,14 @@ public class RuleDaoTest extends AbstractDaoTestCase {
     assertThat(dao.getNullableByKey(session, RuleKey.of("Unknown", "AvoidComparison"))).isNull();
   }
 
+  @Test
+  public void select_by_rule_keys() throws Exception {
+    setupData("select_by_rule_key");
+    assertThat(dao.getByKeys(session, Arrays.asList(RuleKey.of("checkstyle", "AvoidComparison"), RuleKey.of("checkstyle", "AvoidNull"),
+      RuleKey.of("checkstyle", "Unknown")))).extracting("id").containsOnly(1, 2);
+    assertThat(dao.getByKeys(session, Collections.<RuleKey>emptyList())).isEmpty();
+  }
+
   @Test
   public void select_by_name() throws Exception {
     setupData("select_by_name");
@@ -325,6 +335,15 @@ public class RuleDaoTest extends AbstractDaoTestCase {
     assertThat(ruleDto.getRuleId()).isEqualTo(1);
   }
 
+  @Test
+  public void select_parameters_by_rule_ids() throws Exception {
+    setupData("select_parameters_by_rule_ids");
+
+    assertThat(dao.findRuleParamsByRuleIds(session, Arrays.asList(1, 2))).extracting("name").containsOnly("myParameter", "otherParam");
+    assertThat(dao.findRuleParamsByRuleIds(session, Arrays.asList(2))).extracting("name").containsOnly("otherParam");
+    assertThat(dao.findRuleParamsByRuleIds(session, Collections.<Integer>emptyList())).isEmpty();
+  }
+
   @Test
   public void insert_parameter() {
     setupData("insert_parameter");
@@ -26,6 +26,7 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.sonar.api.config.Settings;
+import org.sonar.core.telemetry.Telemetry;
 import org.sonar.process.ProcessProperties;
 import org.sonar.server.es.EsServerHolder;
 
@@ -52,7 +53,7 @@ public class BaseIndexTest {
     settings.setProperty(ProcessProperties.CLUSTER_NODE_NAME, holder.getNodeName());
     settings.setProperty(ProcessProperties.SEARCH_PORT, String.valueOf(holder.getPort()));
     settings.setProperty(ProcessProperties.SEARCH_HOST, String.valueOf(holder.getHostName()));
-    searchClient = new SearchClient(settings);
+    searchClient = new SearchClient(settings, new Telemetry());
   }
 
   @After
@@ -42,7 +42,8 @@ public class SourceLineIndexDefinitionTest {
     assertThat(index.getTypes().keySet()).containsOnly("sourceline");
 
     // no cluster by default
-    assertThat(index.getSettings().get("index.number_of_shards")).isEqualTo("1");
+    assertThat(index.getSettings().get("index.number_of_shards")).isNull();
+    assertThat(index.getShardsSizing().compute()).isEqualTo(1);
     assertThat(index.getSettings().get("index.number_of_replicas")).isEqualTo("0");
   }
 
@@ -54,8 +55,19 @@ public class SourceLineIndexDefinitionTest {
     def.define(context);
 
     NewIndex issuesIndex = context.getIndices().get("sourcelines");
-    assertThat(issuesIndex.getSettings().get("index.number_of_shards")).isEqualTo("4");
+    assertThat(issuesIndex.getShardsSizing().compute()).isEqualTo(4);
     assertThat(issuesIndex.getSettings().get("index.number_of_replicas")).isEqualTo("1");
   }
 
+  @Test
+  public void configure_number_of_shards() throws Exception {
+    Settings settings = new Settings();
+    settings.setProperty("sonar.search.sourcelines.shards", 8);
+    IndexDefinition def = new SourceLineIndexDefinition(settings);
+    def.define(context);
+
+    NewIndex index = context.getIndices().get("sourcelines");
+    assertThat(index.getSettings().get("index.number_of_shards")).isEqualTo("8");
+    assertThat(index.getShardsSizing()).isNull();
+  }
 }
@@ -29,6 +29,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 import org.sonar.api.web.UserRole;
 import org.sonar.core.persistence.DbSession;
 import org.sonar.core.persistence.DbTester;
+import org.sonar.core.source.LineHashes;
 import org.sonar.core.source.db.FileSourceDao;
 import org.sonar.server.component.db.ComponentDao;
 import org.sonar.server.db.DbClient;
@@ -76,7 +77,21 @@ public class HashActionTest {
     MockUserSession.set().setLogin("polop").addProjectUuidPermissions(UserRole.USER, PROJECT_UUID);
 
     WsTester.TestRequest request = tester.newGetRequest("api/sources", "hash").setParam("key", COMPONENT_KEY);
-    assertThat(request.execute().outputAsString()).isEqualTo("987654");
+    assertThat(request.execute().outputAsString()).isEqualTo("8d7b3d6b83c0a517eac07e1aac94b773\n\n9a0364b9e99bb480dd25e1f0284c8555");
+  }
+
+  @Test
+  public void show_hashes_in_binary_format() throws Exception {
+    db.prepareDbUnit(getClass(), "shared.xml");
+    MockUserSession.set().setLogin("polop").addProjectUuidPermissions(UserRole.USER, PROJECT_UUID);
+
+    WsTester.TestRequest request = tester.newGetRequest("api/sources", "hash").setParam("key", COMPONENT_KEY).setParam("format", "binary");
+    long[] hashes = LineHashes.decode(request.execute().output());
+
+    assertThat(LineHashes.lineCount(hashes)).isEqualTo(3);
+    assertThat(LineHashes.toHex(hashes, 1)).isEqualTo("8d7b3d6b83c0a517eac07e1aac94b773");
+    assertThat(LineHashes.isEmpty(hashes, 2)).isTrue();
+    assertThat(LineHashes.toHex(hashes, 3)).isEqualTo("9a0364b9e99bb480dd25e1f0284c8555");
   }
 
   @Test
@@ -139,7 +139,7 @@ public class LinesActionTest {
       .setUpdateDate(updatedAt);
     line3.setField(SourceLineIndexDefinition.FIELD_SCM_DATE, scmDate);
 
-    when(sourceLineIndex.getLines(eq(componentUuid), anyInt(), anyInt())).thenReturn(newArrayList(
+    when(sourceLineIndex.getLines(anyString(), eq(componentUuid), anyInt(), anyInt())).thenReturn(newArrayList(
       line1,
       line2,
       line3
@@ -158,7 +158,7 @@ public class LinesActionTest {
   public void fail_to_show_source_if_no_source_found() throws Exception {
     String componentUuid = "abcd";
     String projectUuid = "efgh";
-    when(sourceLineIndex.getLines(anyString(), anyInt(), anyInt())).thenReturn(Lists.<SourceLineDoc>newArrayList());
+    when(sourceLineIndex.getLines(anyString(), anyString(), anyInt(), anyInt())).thenReturn(Lists.<SourceLineDoc>newArrayList());
 
     String componentKey = "componentKey";
     when(componentService.getByUuid(componentUuid)).thenReturn(new ComponentDto().setKey(componentKey).setProjectUuid(projectUuid));
@@ -182,7 +182,7 @@ public class LinesActionTest {
     when(componentService.getByUuid(fileUuid)).thenReturn(new ComponentDto().setKey(componentKey).setProjectUuid(projectUuid));
     MockUserSession.set().setLogin("login").addProjectUuidPermissions(UserRole.CODEVIEWER, projectUuid);
 
-    when(sourceLineIndex.getLines(fileUuid, 3, 3)).thenReturn(newArrayList(
+    when(sourceLineIndex.getLines(projectUuid, fileUuid, 3, 3)).thenReturn(newArrayList(
       new SourceLineDoc()
         .setProjectUuid(projectUuid)
         .setFileUuid(fileUuid)
@@ -32,12 +32,18 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 public class RegisterMetricsTest extends AbstractDbUnitTestCase {
 
+  StartupFingerprints fingerprints = mock(StartupFingerprints.class);
+
   @Test
   public void shouldSaveIfNew() {
     setupData("shouldSaveIfNew");
@@ -57,7 +63,7 @@ public class RegisterMetricsTest extends AbstractDbUnitTestCase {
       .setUserManaged(false)
       .create();
 
-    RegisterMetrics synchronizer = new RegisterMetrics(new MeasuresDao(getSession()), mock(QualityGateConditionDao.class), new Metrics[0]);
+    RegisterMetrics synchronizer = new RegisterMetrics(new MeasuresDao(getSession()), mock(QualityGateConditionDao.class), fingerprints, new Metrics[0]);
     synchronizer.register(Arrays.asList(metric1, metric2));
     checkTables("shouldSaveIfNew", "metrics");
   }
@@ -66,7 +72,7 @@ public class RegisterMetricsTest extends AbstractDbUnitTestCase {
   public void shouldUpdateIfAlreadyExists() {
     setupData("shouldUpdateIfAlreadyExists");
 
-    RegisterMetrics synchronizer = new RegisterMetrics(new MeasuresDao(getSession()), mock(QualityGateConditionDao.class), new Metrics[0]);
+    RegisterMetrics synchronizer = new RegisterMetrics(new MeasuresDao(getSession()), mock(QualityGateConditionDao.class), fingerprints, new Metrics[0]);
     synchronizer.register(Lists.<Metric>newArrayList(new Metric.Builder("key", "new short name", Metric.ValueType.FLOAT)
       .setDescription("new description")
       .setDirection(-1)
@@ -90,7 +96,7 @@ public class RegisterMetricsTest extends AbstractDbUnitTestCase {
       .create()));
 
     MeasuresDao measuresDao = new MeasuresDao(getSession());
-    RegisterMetrics loader = new RegisterMetrics(measuresDao, mock(QualityGateConditionDao.class), new Metrics[] {metrics});
+    RegisterMetrics loader = new RegisterMetrics(measuresDao, mock(QualityGateConditionDao.class), fingerprints, new Metrics[] {metrics});
     List<Metric> result = loader.getMetricsRepositories();
 
     assertThat(result).hasSize(1);
@@ -110,7 +116,7 @@ public class RegisterMetricsTest extends AbstractDbUnitTestCase {
       .create()));
 
     MeasuresDao measuresDao = new MeasuresDao(getSession());
-    RegisterMetrics loader = new RegisterMetrics(measuresDao, mock(QualityGateConditionDao.class), new Metrics[] {metrics});
+    RegisterMetrics loader = new RegisterMetrics(measuresDao, mock(QualityGateConditionDao.class), fingerprints, new Metrics[] {metrics});
     List<Metric> result = loader.getMetricsRepositories();
 
     assertThat(result).isEmpty();
@@ -121,7 +127,7 @@ public class RegisterMetricsTest extends AbstractDbUnitTestCase {
     setupData("shouldEnableOnlyLoadedMetrics");
 
     MeasuresDao measuresDao = new MeasuresDao(getSession());
-    RegisterMetrics loader = new RegisterMetrics(measuresDao, mock(QualityGateConditionDao.class), new Metrics[0]);
+    RegisterMetrics loader = new RegisterMetrics(measuresDao, mock(QualityGateConditionDao.class), fingerprints, new Metrics[0]);
     loader.start();
 
     assertThat(measuresDao.getMetric("deprecated").getEnabled()).isFalse();
@@ -131,8 +137,31 @@ public class RegisterMetricsTest extends AbstractDbUnitTestCase {
   @Test
   public void clean_quality_gate_conditions() {
     QualityGateConditionDao conditionDao = mock(QualityGateConditionDao.class);
-    RegisterMetrics loader = new RegisterMetrics(new MeasuresDao(getSession()), conditionDao, new Metrics[0]);
+    RegisterMetrics loader = new RegisterMetrics(new MeasuresDao(getSession()), conditionDao, fingerprints, new Metrics[0]);
     loader.cleanAlerts();
     verify(conditionDao).deleteConditionsWithInvalidMetrics();
   }
+
+  @Test
+  public void skip_registration_if_metrics_did_not_change() {
+    setupData("shouldEnableOnlyLoadedMetrics");
+    when(fingerprints.isUpToDate(eq(RegisterMetrics.FINGERPRINT_KEY), anyString())).thenReturn(true);
+    QualityGateConditionDao conditionDao = mock(QualityGateConditionDao.class);
+
+    MeasuresDao measuresDao = new MeasuresDao(getSession());
+    new RegisterMetrics(measuresDao, conditionDao, fingerprints, new Metrics[0]).start();
+
+    assertThat(measuresDao.getMetric("deprecated").getEnabled()).isTrue();
+    verifyZeroInteractions(conditionDao);
+    verify(fingerprints, never()).store(anyString(), anyString());
+  }
+
+  @Test
+  public void store_fingerprint_after_registration() {
+    setupData("shouldEnableOnlyLoadedMetrics");
+
+    new RegisterMetrics(new MeasuresDao(getSession()), mock(QualityGateConditionDao.class), fingerprints, new Metrics[0]).start();
+
+    verify(fingerprints).store(eq(RegisterMetrics.FINGERPRINT_KEY), anyString());
+  }
 }
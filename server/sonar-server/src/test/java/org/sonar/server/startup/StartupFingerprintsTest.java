@@ -0,0 +1,81 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.startup;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.sonar.api.platform.Server;
+import org.sonar.core.persistence.DbTester;
+import org.sonar.core.properties.PropertiesDao;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StartupFingerprintsTest {
+
+  @ClassRule
+  public static DbTester db = new DbTester();
+
+  Server server = mock(Server.class);
+  StartupFingerprints fingerprints;
+
+  @Before
+  public void setUp() {
+    db.truncateTables();
+    when(server.getVersion()).thenReturn("5.2");
+    fingerprints = new StartupFingerprints(new PropertiesDao(db.myBatis()), server);
+  }
+
+  @Test
+  public void not_up_to_date_if_never_stored() {
+    assertThat(fingerprints.isUpToDate("rules", "abc")).isFalse();
+  }
+
+  @Test
+  public void store_fingerprint() {
+    fingerprints.store("rules", "abc");
+
+    assertThat(fingerprints.isUpToDate("rules", "abc")).isTrue();
+    assertThat(fingerprints.isUpToDate("rules", "def")).isFalse();
+    assertThat(fingerprints.isUpToDate("metrics", "abc")).isFalse();
+  }
+
+  @Test
+  public void not_up_to_date_after_server_upgrade() {
+    fingerprints.store("rules", "abc");
+
+    when(server.getVersion()).thenReturn("5.3");
+    assertThat(fingerprints.isUpToDate("rules", "abc")).isFalse();
+  }
+
+  @Test
+  public void fingerprint_of_values() {
+    String fingerprint = StartupFingerprints.newFingerprint().add("a").add(1).add((Object) null).add(Arrays.asList("b", "c")).build();
+
+    assertThat(fingerprint).hasSize(40);
+    assertThat(StartupFingerprints.newFingerprint().add("a").add(1).add((Object) null).add(Arrays.asList("b", "c")).build()).isEqualTo(fingerprint);
+    assertThat(StartupFingerprints.newFingerprint().add("a1").add((Object) null).add(Arrays.asList("b", "c")).build()).isNotEqualTo(fingerprint);
+    assertThat(StartupFingerprints.newFingerprint().add("a").add(1).add(Arrays.asList("b", "c")).build()).isNotEqualTo(fingerprint);
+  }
+}
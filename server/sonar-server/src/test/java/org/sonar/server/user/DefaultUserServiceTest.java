@@ -50,7 +50,8 @@ public class DefaultUserServiceTest {
   UserService userService = mock(UserService.class);
   UserFinder finder = mock(UserFinder.class);
   UserDao dao = mock(UserDao.class);
-  DefaultUserService service = new DefaultUserService(userService, finder, dao);
+  UserPermissionCache permissionCache = mock(UserPermissionCache.class);
+  DefaultUserService service = new DefaultUserService(userService, finder, dao, permissionCache);
 
   @Rule
   public ExpectedException thrown = ExpectedException.none();
@@ -115,6 +116,7 @@ public class DefaultUserServiceTest {
     MockUserSession.set().setLogin("simon").setGlobalPermissions(GlobalPermissions.SYSTEM_ADMIN);
     service.deactivate("julien");
     verify(dao).deactivateUserByLogin("julien");
+    verify(permissionCache).clear();
     verify(userService).index();
   }
 
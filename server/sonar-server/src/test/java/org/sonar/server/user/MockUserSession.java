@@ -21,7 +21,6 @@ package org.sonar.server.user;
 
 import com.google.common.collect.HashMultimap;
 import org.sonar.core.resource.ResourceDao;
-import org.sonar.core.user.AuthorizationDao;
 
 import javax.annotation.Nullable;
 
@@ -34,15 +33,16 @@ import static org.mockito.Mockito.mock;
 
 public class MockUserSession extends UserSession {
 
-  private final AuthorizationDao authorizationDao;
+  private final UserPermissionCache permissionCache;
 
   private final ResourceDao resourceDao;
 
+  private final HashMultimap<String, String> projectKeyByPermission = HashMultimap.create();
+  private final HashMultimap<String, String> projectUuidByPermission = HashMultimap.create();
+
   private MockUserSession() {
     globalPermissions = Collections.emptyList();
-    projectKeyByPermission = HashMultimap.create();
-    projectUuidByPermission = HashMultimap.create();
-    authorizationDao = mock(AuthorizationDao.class);
+    permissionCache = mock(UserPermissionCache.class);
     resourceDao = mock(ResourceDao.class);
   }
 
@@ -91,13 +91,11 @@ public class MockUserSession extends UserSession {
    */
   @Deprecated
   public MockUserSession addProjectPermissions(String projectPermission, String... projectKeys) {
-    this.projectPermissions.add(projectPermission);
     this.projectKeyByPermission.putAll(projectPermission, newArrayList(projectKeys));
     return this;
   }
 
   public MockUserSession addProjectUuidPermissions(String projectPermission, String... projectUuids) {
-    this.projectPermissions.add(projectPermission);
     this.projectUuidByPermission.putAll(projectPermission, newArrayList(projectUuids));
     return this;
   }
@@ -119,8 +117,13 @@ public class MockUserSession extends UserSession {
   }
 
   @Override
-  AuthorizationDao authorizationDao() {
-    return authorizationDao;
+  AuthorizedProjects authorizedProjects(String permission) {
+    return new AuthorizedProjects(projectKeyByPermission.get(permission), projectUuidByPermission.get(permission));
+  }
+
+  @Override
+  UserPermissionCache permissionCache() {
+    return permissionCache;
   }
 
   @Override
@@ -0,0 +1,232 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.sonar.api.config.Settings;
+import org.sonar.api.utils.System2;
+import org.sonar.api.web.UserRole;
+import org.sonar.core.component.ComponentDto;
+import org.sonar.core.permission.GlobalPermissions;
+import org.sonar.core.user.AuthorizationDao;
+import org.sonar.server.component.ComponentTesting;
+import org.sonar.server.es.EsTester;
+import org.sonar.server.issue.index.IssueAuthorizationDao;
+import org.sonar.server.issue.index.IssueAuthorizationIndexer;
+import org.sonar.server.issue.index.IssueIndexDefinition;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserPermissionCacheTest {
+
+  @ClassRule
+  public static EsTester es = new EsTester().addDefinitions(new IssueIndexDefinition(new Settings()));
+
+  AuthorizationDao authorizationDao = mock(AuthorizationDao.class);
+
+  System2 system = mock(System2.class);
+
+  UserPermissionCache cache = new UserPermissionCache(authorizationDao, es.client(), system);
+
+  IssueAuthorizationIndexer indexer = new IssueAuthorizationIndexer(null, es.client(), cache);
+
+  @Before
+  public void setUp() throws Exception {
+    es.truncateIndices();
+  }
+
+  @Test
+  public void ignore_unknown_global_permissions() throws Exception {
+    when(authorizationDao.selectGlobalPermissions("marius")).thenReturn(Arrays.asList("admin", "unknown"));
+
+    assertThat(cache.globalPermissions("marius")).containsOnly(GlobalPermissions.SYSTEM_ADMIN);
+  }
+
+  @Test
+  public void load_global_permissions_once() throws Exception {
+    when(authorizationDao.selectGlobalPermissions("marius")).thenReturn(Arrays.asList("admin"));
+    when(authorizationDao.selectGlobalPermissions(null)).thenReturn(Arrays.asList("scan"));
+
+    assertThat(cache.globalPermissions("marius")).containsOnly("admin");
+    assertThat(cache.globalPermissions("marius")).containsOnly("admin");
+    assertThat(cache.globalPermissions(null)).containsOnly("scan");
+
+    verify(authorizationDao, times(1)).selectGlobalPermissions("marius");
+    verify(authorizationDao, times(1)).selectGlobalPermissions(null);
+  }
+
+  @Test
+  public void load_authorized_projects_once() throws Exception {
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(
+      ComponentTesting.newProjectDto("ABCD").setKey("struts"),
+      ComponentTesting.newProjectDto("BCDE").setKey("sonar")));
+
+    AuthorizedProjects projects = cache.authorizedProjects(1, UserRole.USER);
+    assertThat(projects.size()).isEqualTo(2);
+    assertThat(projects.containsKey("struts")).isTrue();
+    assertThat(projects.containsKey("unknown")).isFalse();
+    assertThat(projects.containsUuid("BCDE")).isTrue();
+    assertThat(projects.containsUuid("CDEF")).isFalse();
+
+    assertThat(cache.authorizedProjects(1, UserRole.USER)).isSameAs(projects);
+    assertThat(cache.authorizedProjects(null, UserRole.USER).size()).isEqualTo(0);
+    assertThat(cache.authorizedProjects(1, UserRole.ADMIN).size()).isEqualTo(0);
+
+    verify(authorizationDao, times(1)).selectAuthorizedRootProjects(1, UserRole.USER);
+  }
+
+  @Test
+  public void reload_permissions_after_clear() throws Exception {
+    when(authorizationDao.selectGlobalPermissions("marius")).thenReturn(Arrays.asList("admin"));
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto("ABCD")));
+    cache.globalPermissions("marius");
+    cache.authorizedProjects(1, UserRole.USER);
+
+    cache.clear();
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto("BCDE")));
+
+    assertThat(cache.authorizedProjects(1, UserRole.USER).containsUuid("BCDE")).isTrue();
+    cache.globalPermissions("marius");
+    verify(authorizationDao, times(2)).selectGlobalPermissions("marius");
+  }
+
+  @Test
+  public void reload_permissions_when_expired() throws Exception {
+    when(system.now()).thenReturn(1000L);
+    cache.globalPermissions("marius");
+    cache.authorizedProjects(1, UserRole.USER);
+
+    when(system.now()).thenReturn(1000L + UserPermissionCache.EXPIRATION_IN_SECONDS * 1000L);
+    cache.globalPermissions("marius");
+    cache.authorizedProjects(1, UserRole.USER);
+    verify(authorizationDao, times(1)).selectGlobalPermissions("marius");
+    verify(authorizationDao, times(1)).selectAuthorizedRootProjects(1, UserRole.USER);
+
+    when(system.now()).thenReturn(1000L + UserPermissionCache.EXPIRATION_IN_SECONDS * 1000L + 1L);
+    cache.globalPermissions("marius");
+    cache.authorizedProjects(1, UserRole.USER);
+    verify(authorizationDao, times(2)).selectGlobalPermissions("marius");
+    verify(authorizationDao, times(2)).selectAuthorizedRootProjects(1, UserRole.USER);
+  }
+
+  @Test
+  public void do_not_cache_permissions_loaded_while_clearing() throws Exception {
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenAnswer(new Answer<List<ComponentDto>>() {
+      boolean cleared = false;
+
+      @Override
+      public List<ComponentDto> answer(InvocationOnMock invocation) throws Throwable {
+        if (!cleared) {
+          // permissions are changed by another thread after being loaded
+          cache.clear();
+          cleared = true;
+          return newArrayList(ComponentTesting.newProjectDto("ABCD"));
+        }
+        return newArrayList(ComponentTesting.newProjectDto("BCDE"));
+      }
+    });
+
+    // permissions loaded before clear are reloaded
+    assertThat(cache.authorizedProjects(1, UserRole.USER).containsUuid("BCDE")).isTrue();
+    assertThat(cache.authorizedProjects(1, UserRole.USER).containsUuid("BCDE")).isTrue();
+
+    verify(authorizationDao, times(2)).selectAuthorizedRootProjects(1, UserRole.USER);
+  }
+
+  @Test
+  public void do_not_keep_entries_when_too_many_projects_are_cached() throws Exception {
+    UserPermissionCache.ExpiringCache<String, List<String>> projects = new UserPermissionCache.ExpiringCache<String, List<String>>(10, 5, Ticker.systemTicker()) {
+      @Override
+      List<String> load(String key) {
+        return "freddy".equals(key) ? Arrays.asList("A", "B", "C", "D") : Arrays.asList("A", "B");
+      }
+
+      @Override
+      int weigh(List<String> value) {
+        return value.size();
+      }
+    };
+    List<String> simon = projects.get("simon");
+    List<String> marius = projects.get("marius");
+    assertThat(projects.weight()).isEqualTo(4L);
+    assertThat(projects.get("simon")).isSameAs(simon);
+    assertThat(projects.get("marius")).isSameAs(marius);
+
+    // too big to be kept
+    List<String> freddy = projects.get("freddy");
+    assertThat(freddy).hasSize(4);
+    assertThat(projects.get("freddy")).isNotSameAs(freddy);
+    assertThat(projects.weight()).isEqualTo(4L);
+
+    projects.clear();
+    assertThat(projects.weight()).isEqualTo(0L);
+  }
+
+  @Test
+  public void load_projects_of_index_authorized_to_user_or_groups() throws Exception {
+    indexer.index(newArrayList(
+      new IssueAuthorizationDao.Dto("P1", 1L).addGroup("sonar-users"),
+      new IssueAuthorizationDao.Dto("P2", 1L).addUser("marius"),
+      new IssueAuthorizationDao.Dto("P3", 1L).addGroup("sonar-admins")));
+
+    assertThat(cache.indexedProjects("marius", ImmutableSet.of("sonar-users")).uuids()).containsOnly("P1", "P2");
+    assertThat(cache.indexedProjects("simon", ImmutableSet.of("sonar-users", "sonar-admins")).uuids()).containsOnly("P1", "P3");
+    assertThat(cache.indexedProjects(null, ImmutableSet.of("Anyone")).uuids()).isEmpty();
+    assertThat(cache.indexedProjects(null, Collections.<String>emptySet()).uuids()).isEmpty();
+  }
+
+  @Test
+  public void reload_projects_of_index_when_authorizations_are_indexed() throws Exception {
+    indexer.index(newArrayList(new IssueAuthorizationDao.Dto("P1", 1L).addGroup("sonar-users")));
+
+    UserPermissionCache.IndexedProjects projects = cache.indexedProjects("marius", ImmutableSet.of("sonar-users"));
+    assertThat(cache.indexedProjects("marius", ImmutableSet.of("sonar-users"))).isSameAs(projects);
+    assertThat(cache.indexedProjects("marius", ImmutableSet.<String>of())).isNotSameAs(projects);
+
+    // new project
+    indexer.index(newArrayList(new IssueAuthorizationDao.Dto("P2", 2L).addGroup("sonar-users")));
+    UserPermissionCache.IndexedProjects reloaded = cache.indexedProjects("marius", ImmutableSet.of("sonar-users"));
+    assertThat(reloaded.uuids()).containsOnly("P1", "P2");
+    assertThat(reloaded.filterCacheKey()).isNotEqualTo(projects.filterCacheKey());
+
+    // permission removed
+    indexer.index(newArrayList(new IssueAuthorizationDao.Dto("P1", 3L).addGroup("sonar-admins")));
+    assertThat(cache.indexedProjects("marius", ImmutableSet.of("sonar-users")).uuids()).containsOnly("P2");
+
+    // project deleted
+    indexer.deleteProject("P2", true);
+    assertThat(cache.indexedProjects("marius", ImmutableSet.of("sonar-users")).uuids()).isEmpty();
+  }
+}
@@ -28,6 +28,7 @@ import org.sonar.core.resource.ResourceDao;
 import org.sonar.core.resource.ResourceDto;
 import org.sonar.core.user.AuthorizationDao;
 import org.sonar.server.component.ComponentTesting;
+import org.sonar.server.es.EsClient;
 import org.sonar.server.exceptions.ForbiddenException;
 
 import javax.annotation.Nullable;
@@ -38,6 +39,8 @@ import java.util.Locale;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class UserSessionTest {
@@ -114,7 +117,7 @@ public class UserSessionTest {
   public void has_project_permission() throws Exception {
     AuthorizationDao authorizationDao = mock(AuthorizationDao.class);
     UserSession session = new SpyUserSession("marius", authorizationDao).setUserId(1);
-    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(newArrayList("com.foo:Bar"));
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto().setKey("com.foo:Bar")));
 
     assertThat(session.hasProjectPermission(UserRole.USER, "com.foo:Bar")).isTrue();
     assertThat(session.hasProjectPermission(UserRole.CODEVIEWER, "com.foo:Bar")).isFalse();
@@ -125,18 +128,41 @@ public class UserSessionTest {
   public void has_project_permission_by_uuid() throws Exception {
     AuthorizationDao authorizationDao = mock(AuthorizationDao.class);
     UserSession session = new SpyUserSession("marius", authorizationDao).setUserId(1);
-    when(authorizationDao.selectAuthorizedRootProjectsUuids(1, UserRole.USER)).thenReturn(newArrayList("ABCD"));
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto("ABCD")));
 
     assertThat(session.hasProjectPermissionByUuid(UserRole.USER, "ABCD")).isTrue();
     assertThat(session.hasProjectPermissionByUuid(UserRole.CODEVIEWER, "ABCD")).isFalse();
     assertThat(session.hasProjectPermissionByUuid(UserRole.ADMIN, "ABCD")).isFalse();
   }
 
+  @Test
+  public void authorized_project_uuids() throws Exception {
+    AuthorizationDao authorizationDao = mock(AuthorizationDao.class);
+    UserSession session = new SpyUserSession("marius", authorizationDao).setUserId(1);
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto("BCDE"), ComponentTesting.newProjectDto("ABCD")));
+
+    assertThat(session.authorizedProjectUuids(UserRole.USER)).containsExactly("ABCD", "BCDE");
+    assertThat(session.authorizedProjectUuids(UserRole.ADMIN)).isEmpty();
+  }
+
+  @Test
+  public void load_project_permission_by_key_and_by_uuid_once() throws Exception {
+    AuthorizationDao authorizationDao = mock(AuthorizationDao.class);
+    UserSession session = new SpyUserSession("marius", authorizationDao).setUserId(1);
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto("ABCD").setKey("com.foo:Bar")));
+
+    assertThat(session.hasProjectPermission(UserRole.USER, "com.foo:Bar")).isTrue();
+    assertThat(session.hasProjectPermissionByUuid(UserRole.USER, "ABCD")).isTrue();
+    assertThat(session.hasProjectPermissionByUuid(UserRole.USER, "BCDE")).isFalse();
+
+    verify(authorizationDao, times(1)).selectAuthorizedRootProjects(1, UserRole.USER);
+  }
+
   @Test
   public void check_project_permission_ok() throws Exception {
     AuthorizationDao authorizationDao = mock(AuthorizationDao.class);
     UserSession session = new SpyUserSession("marius", authorizationDao).setUserId(1);
-    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(newArrayList("com.foo:Bar"));
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto().setKey("com.foo:Bar")));
 
     session.checkProjectPermission(UserRole.USER, "com.foo:Bar");
   }
@@ -145,7 +171,7 @@ public class UserSessionTest {
   public void check_project_permission_ko() throws Exception {
     AuthorizationDao authorizationDao = mock(AuthorizationDao.class);
     UserSession session = new SpyUserSession("marius", authorizationDao).setUserId(1);
-    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(newArrayList("com.foo:Bar2"));
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto().setKey("com.foo:Bar2")));
 
     session.checkProjectPermission(UserRole.USER, "com.foo:Bar");
   }
@@ -156,7 +182,7 @@ public class UserSessionTest {
     UserSession session = new SpyUserSession("marius", authorizationDao).setUserId(1);
 
     ComponentDto project = ComponentTesting.newProjectDto();
-    when(authorizationDao.selectAuthorizedRootProjectsUuids(1, UserRole.USER)).thenReturn(newArrayList(project.uuid()));
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(project));
 
     session.checkProjectUuidPermission(UserRole.USER, project.uuid());
   }
@@ -167,7 +193,7 @@ public class UserSessionTest {
     UserSession session = new SpyUserSession("marius", authorizationDao).setUserId(1);
 
     ComponentDto project = ComponentTesting.newProjectDto();
-    when(authorizationDao.selectAuthorizedRootProjectsUuids(1, UserRole.USER)).thenReturn(newArrayList(project.uuid()));
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(project));
 
     session.checkProjectUuidPermission(UserRole.USER, "another project");
   }
@@ -180,7 +206,7 @@ public class UserSessionTest {
 
     String componentKey = "com.foo:Bar:BarFile.xoo";
     when(resourceDao.getRootProjectByComponentKey(componentKey)).thenReturn(new ResourceDto().setKey(componentKey));
-    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(newArrayList(componentKey));
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto().setKey(componentKey)));
 
     assertThat(session.hasComponentPermission(UserRole.USER, componentKey)).isTrue();
     assertThat(session.hasComponentPermission(UserRole.CODEVIEWER, componentKey)).isFalse();
@@ -194,7 +220,7 @@ public class UserSessionTest {
     UserSession session = new SpyUserSession("marius", authorizationDao, resourceDao).setUserId(1);
 
     when(resourceDao.getRootProjectByComponentKey("com.foo:Bar:BarFile.xoo")).thenReturn(new ResourceDto().setKey("com.foo:Bar"));
-    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(newArrayList("com.foo:Bar"));
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto().setKey("com.foo:Bar")));
 
     session.checkComponentPermission(UserRole.USER, "com.foo:Bar:BarFile.xoo");
   }
@@ -206,7 +232,7 @@ public class UserSessionTest {
     UserSession session = new SpyUserSession("marius", authorizationDao, resourceDao).setUserId(1);
 
     when(resourceDao.getRootProjectByComponentKey("com.foo:Bar:BarFile.xoo")).thenReturn(new ResourceDto().setKey("com.foo:Bar2"));
-    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(newArrayList("com.foo:Bar"));
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto().setKey("com.foo:Bar")));
 
     session.checkComponentPermission(UserRole.USER, "com.foo:Bar:BarFile.xoo");
   }
@@ -229,7 +255,7 @@ public class UserSessionTest {
     UserSession session = new SpyUserSession("marius", authorizationDao, resourceDao).setUserId(1);
 
     ComponentDto project = ComponentTesting.newProjectDto();
-    when(authorizationDao.selectAuthorizedRootProjectsKeys(1, UserRole.USER)).thenReturn(newArrayList(project.uuid()));
+    when(authorizationDao.selectAuthorizedRootProjects(1, UserRole.USER)).thenReturn(newArrayList(ComponentTesting.newProjectDto().setKey(project.uuid())));
 
     session.checkComponentPermission(UserRole.USER, "another");
   }
@@ -249,8 +275,8 @@ public class UserSessionTest {
     }
 
     @Override
-    AuthorizationDao authorizationDao() {
-      return authorizationDao;
+    UserPermissionCache permissionCache() {
+      return new UserPermissionCache(authorizationDao, mock(EsClient.class));
     }
 
     @Override
@@ -0,0 +1,136 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.ws;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.server.plugins.MimeTypes;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class ServletResponseTest {
+
+  ByteArrayOutputStream httpOutput = new ByteArrayOutputStream();
+  HttpServletResponse target = mock(HttpServletResponse.class);
+
+  @Before
+  public void setUp() throws Exception {
+    when(target.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        httpOutput.write(b);
+      }
+
+      public boolean isReady() {
+        return true;
+      }
+
+      public void setWriteListener(javax.servlet.WriteListener writeListener) {
+        // not needed
+      }
+    });
+  }
+
+  @Test
+  public void buffer_in_memory_by_default() throws Exception {
+    ServletResponse response = new ServletResponse();
+    writeJson(response);
+
+    assertThat(response.stream().outputAsString()).isEqualTo("{\"foo\":\"bar\"}");
+    assertThat(response.stream().mediaType()).isEqualTo(MimeTypes.JSON);
+    assertThat(response.stream().isCommitted()).isFalse();
+  }
+
+  @Test
+  public void buffer_small_response_in_memory() throws Exception {
+    ServletResponse response = new ServletResponse(target);
+    response.stream().setStatus(201);
+    writeJson(response);
+    response.stream().finish();
+
+    assertThat(response.stream().isStreamed()).isFalse();
+    assertThat(response.stream().outputAsString()).isEqualTo("{\"foo\":\"bar\"}");
+    assertThat(new String(response.stream().bufferedBytes(), "UTF-8")).isEqualTo("{\"foo\":\"bar\"}");
+    assertThat(httpOutput.size()).isEqualTo(0);
+    // response is rendered by Rails
+    verifyZeroInteractions(target);
+  }
+
+  @Test
+  public void stream_large_response_to_http_response() throws Exception {
+    ServletResponse response = new ServletResponse(target);
+    response.stream().setStatus(201);
+    response.stream().setMediaType(MimeTypes.TXT);
+    String content = StringUtils.repeat("a", ServletResponse.STREAMING_THRESHOLD + 10);
+    Writer writer = new OutputStreamWriter(response.stream().output(), "UTF-8");
+    writer.write(content);
+    writer.close();
+    response.stream().finish();
+
+    assertThat(response.stream().isStreamed()).isTrue();
+    assertThat(httpOutput.toString("UTF-8")).isEqualTo(content);
+    assertThat(response.stream().outputAsString()).isEmpty();
+    verify(target).setStatus(201);
+    verify(target).setContentType(MimeTypes.TXT);
+    verify(target, never()).setHeader(eq("Content-Encoding"), anyString());
+    verify(target).flushBuffer();
+  }
+
+  @Test
+  public void reset_buffer_of_http_response() throws Exception {
+    ServletResponse response = new ServletResponse(target);
+    response.stream().output().write(new byte[ServletResponse.STREAMING_THRESHOLD + 1]);
+    response.stream().reset();
+
+    verify(target).resetBuffer();
+  }
+
+  @Test
+  public void committed_if_streamed_http_response_is_committed() throws Exception {
+    when(target.isCommitted()).thenReturn(true);
+    ServletResponse response = new ServletResponse(target);
+    assertThat(response.stream().isCommitted()).isFalse();
+
+    response.stream().output().write(new byte[ServletResponse.STREAMING_THRESHOLD + 1]);
+    assertThat(response.stream().isCommitted()).isTrue();
+  }
+
+  private static void writeJson(ServletResponse response) {
+    JsonWriter json = response.newJsonWriter();
+    json.beginObject().prop("foo", "bar").endObject().close();
+  }
+}
@@ -30,6 +30,8 @@ import org.sonar.api.server.ws.RequestHandler;
 import org.sonar.api.server.ws.Response;
 import org.sonar.api.server.ws.WebService;
 import org.sonar.api.server.ws.internal.ValidatingRequest;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.core.telemetry.Timer;
 import org.sonar.server.exceptions.BadRequestException;
 import org.sonar.server.exceptions.Errors;
 import org.sonar.server.exceptions.Message;
@@ -37,6 +39,8 @@ import org.sonar.server.plugins.MimeTypes;
 import org.sonar.server.user.MockUserSession;
 
 import javax.annotation.Nullable;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -45,6 +49,8 @@ import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class WebServiceEngineTest {
@@ -94,7 +100,8 @@ public class WebServiceEngineTest {
   }
 
   I18n i18n = mock(I18n.class);
-  WebServiceEngine engine = new WebServiceEngine(new WebService[] {new SystemWebService()}, i18n);
+  Telemetry telemetry = new Telemetry();
+  WebServiceEngine engine = new WebServiceEngine(new WebService[] {new SystemWebService()}, i18n, telemetry);
 
   @Before
   public void start() {
@@ -121,6 +128,14 @@ public class WebServiceEngineTest {
     assertThat(response.stream().outputAsString()).isEqualTo("good");
   }
 
+  @Test
+  public void record_execution_time() throws Exception {
+    engine.execute(new SimpleRequest("GET"), new ServletResponse(), "api/system", "health");
+
+    Timer timer = telemetry.timer(WebServiceEngine.REQUEST_METRIC, "", "action", "api/system/health");
+    assertThat(timer.count()).isEqualTo(1);
+  }
+
   @Test
   public void no_content() throws Exception {
     ValidatingRequest request = new SimpleRequest("GET");
@@ -289,6 +304,21 @@ public class WebServiceEngineTest {
     assertThat(response.stream().mediaType()).isEqualTo(MimeTypes.JSON);
   }
 
+  @Test
+  public void do_not_send_errors_if_response_is_already_committed() throws Exception {
+    ValidatingRequest request = new SimpleRequest("GET");
+    HttpServletResponse httpResponse = mock(HttpServletResponse.class);
+    when(httpResponse.getOutputStream()).thenReturn(mock(ServletOutputStream.class));
+    when(httpResponse.isCommitted()).thenReturn(true);
+    ServletResponse response = new ServletResponse(httpResponse);
+
+    engine.execute(request, response, "api/system", "fail_after_streaming");
+
+    verify(httpResponse, never()).resetBuffer();
+    verify(httpResponse, never()).setStatus(500);
+    verify(httpResponse).flushBuffer();
+  }
+
   static class SystemWebService implements WebService {
     @Override
     public void define(Context context) {
@@ -323,6 +353,14 @@ public class WebServiceEngineTest {
             throw new IllegalStateException("Unexpected");
           }
         });
+      newController.createAction("fail_after_streaming")
+        .setHandler(new RequestHandler() {
+          @Override
+          public void handle(Request request, Response response) throws Exception {
+            response.stream().output().write(new byte[ServletResponse.STREAMING_THRESHOLD + 1]);
+            throw new IllegalStateException("Unexpected");
+          }
+        });
       newController.createAction("fail_with_i18n_message")
         .setHandler(new RequestHandler() {
           @Override
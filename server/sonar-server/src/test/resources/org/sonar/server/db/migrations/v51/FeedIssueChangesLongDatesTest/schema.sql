@@ -12,3 +12,11 @@ CREATE TABLE "ISSUE_CHANGES" (
   "UPDATED_AT_MS" BIGINT,
   "ISSUE_CHANGE_CREATION_DATE_MS" BIGINT
 );
+
+CREATE TABLE "PROPERTIES" (
+  "ID" INTEGER NOT NULL GENERATED BY DEFAULT AS IDENTITY (START WITH 1, INCREMENT BY 1),
+  "PROP_KEY" VARCHAR(512),
+  "RESOURCE_ID" INTEGER,
+  "TEXT_VALUE" CLOB(2147483647),
+  "USER_ID" INTEGER
+);
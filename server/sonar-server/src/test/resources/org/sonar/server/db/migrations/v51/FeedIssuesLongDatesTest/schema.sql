@@ -7,3 +7,11 @@ CREATE TABLE "ISSUES" (
   "ISSUE_UPDATE_DATE" TIMESTAMP,
   "ISSUE_UPDATE_DATE_MS" BIGINT,
 );
+
+CREATE TABLE "PROPERTIES" (
+  "ID" INTEGER NOT NULL GENERATED BY DEFAULT AS IDENTITY (START WITH 1, INCREMENT BY 1),
+  "PROP_KEY" VARCHAR(512),
+  "RESOURCE_ID" INTEGER,
+  "TEXT_VALUE" CLOB(2147483647),
+  "USER_ID" INTEGER
+);
@@ -71,6 +71,18 @@ class Api::ApiController < ApplicationController
     resource
   end
 
+  #
+  # Searches the components index for the components that the current user is allowed to browse,
+  # ordered by relevance. Authorization is applied by the index, so total and pages are exact.
+  # Returns a org.sonar.server.es.SearchResult of ComponentDoc.
+  #
+  def search_authorized_components(text, qualifiers=[], page=1, page_size=Java::OrgSonarServerEs::SearchOptions::MAX_LIMIT)
+    project_uuids = Java::OrgSonarServerUser::UserSession.get().authorizedProjectUuids('user')
+    query = Java::OrgSonarServerComponentIndex::ComponentIndexQuery.new.setText(text).setQualifiers(qualifiers).setProjectUuids(project_uuids)
+    options = Java::OrgSonarServerEs::SearchOptions.new.setPage(page, page_size)
+    Internal.component_index.search(query, options)
+  end
+
 
   #
   #
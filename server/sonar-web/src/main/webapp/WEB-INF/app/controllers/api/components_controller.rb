@@ -25,39 +25,29 @@ class Api::ComponentsController < Api::ApiController
   # Internal WS for the top-right search engine
   def suggestions
     search = params[:s]
-    bad_request("Minimum search is #{ResourceIndex::MIN_SEARCH_SIZE} characters") if search.empty? || search.to_s.size<ResourceIndex::MIN_SEARCH_SIZE
+    min_search_size = Java::OrgSonarServerComponentIndex::ComponentIndex::MINIMUM_SEARCH_CHARACTERS
+    bad_request("Minimum search is #{min_search_size} characters") if search.blank? || search.to_s.size<min_search_size
 
-    # SONAR-5198 Escape '_' on Oracle and MsSQL
-    dialect = java_facade.getDatabase().getDialect().getId()
-    additional_escape = dialect == 'oracle' || dialect == 'mssql' ? "ESCAPE '\\'" : ''
-
-    key = escape_like(search).downcase
-    results = ResourceIndex.all(:select => 'distinct(resource_id),root_project_id,qualifier,name_size', # optimization to not load unused columns like 'kee'
-                                :conditions => ['kee like ? ' + additional_escape, key + '%'],
-                                :order => 'name_size')
-
-    results = select_authorized(:user, results)
-
-    resource_ids=[]
-    resource_indexes_by_qualifier={}
-    results.each do |resource_index|
-      qualifier = fix_qualifier(resource_index.qualifier)
-      resource_indexes_by_qualifier[qualifier] ||= []
-      array = resource_indexes_by_qualifier[qualifier]
-      if array.size < MAX_RESULTS
-        resource_ids << resource_index.resource_id
-        array << resource_index
-      end
+    total = 0
+    resource_uuids=[]
+    docs_by_qualifier={}
+    java_facade.getResourceTypes().each do |resource_type|
+      qualifier=resource_type.getQualifier()
+      result = search_authorized_components(search, qualifiers_of(qualifier), 1, MAX_RESULTS)
+      total += result.getTotal()
+      docs = result.getDocs().to_a
+      docs_by_qualifier[qualifier] = docs
+      resource_uuids.concat(docs.map { |doc| doc.uuid() })
     end
 
-    resources_by_id = {}
-    unless resource_ids.empty?
-      Project.find(:all, :conditions => ['id in (?)', resource_ids]).each do |resource|
-        resources_by_id[resource.id]=resource
+    resources_by_uuid = {}
+    unless resource_uuids.empty?
+      Project.find(:all, :conditions => ['uuid in (?)', resource_uuids]).each do |resource|
+        resources_by_uuid[resource.uuid]=resource
       end
     end
 
-    json = {'total' => results.size}
+    json = {'total' => total}
     json_results = []
     java_facade.getResourceTypes().each do |resource_type|
       qualifier_results={}
@@ -65,9 +55,8 @@ class Api::ComponentsController < Api::ApiController
       qualifier_results['q']=qualifier
       qualifier_results['icon']=resource_type.getIconPath()
       qualifier_results['name']=Api::Utils.message("qualifiers.#{qualifier}")
-      resource_indexes=resource_indexes_by_qualifier[qualifier]||[]
-      qualifier_results['items']=resource_indexes.map do |resource_index|
-        resource=resources_by_id[resource_index.resource_id]
+      docs=docs_by_qualifier[qualifier]||[]
+      qualifier_results['items']=docs.map { |doc| resources_by_uuid[doc.uuid()] }.compact.map do |resource|
         {
             'key' => resource.key,
             'name' => resource.name(true)
@@ -86,14 +75,15 @@ class Api::ComponentsController < Api::ApiController
 
   private
 
-  def fix_qualifier(q)
+  # legacy qualifiers are displayed as files and directories
+  def qualifiers_of(q)
     case q
-      when 'CLA' then
-        'FIL'
-      when 'PAC' then
-        'DIR'
+      when 'FIL' then
+        ['FIL', 'CLA']
+      when 'DIR' then
+        ['DIR', 'PAC']
       else
-        q
+        [q]
     end
   end
 
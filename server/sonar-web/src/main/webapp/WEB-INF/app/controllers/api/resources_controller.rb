@@ -39,39 +39,30 @@ class Api::ResourcesController < Api::ApiController
       qualifiers=[]
     end
 
-    bad_request("Minimum search is #{ResourceIndex::MIN_SEARCH_SIZE} characters") if search_text.size<ResourceIndex::MIN_SEARCH_SIZE
+    min_search_size=Java::OrgSonarServerComponentIndex::ComponentIndex::MINIMUM_SEARCH_CHARACTERS
+    bad_request("Minimum search is #{min_search_size} characters") if search_text.size<min_search_size
     bad_request("Page index must be greater than 0") if page<=0
     bad_request("Page size must be greater than 0") if page_size<=0
 
-    key = escape_like(search_text).downcase
-    conditions=['kee like ?']
-    condition_values=[key + '%']
-
-    unless qualifiers.empty?
-      conditions<<'qualifier in (?)'
-      condition_values<<qualifiers
-    end
-    indexes = ResourceIndex.all(:select => 'distinct(resource_id),root_project_id,qualifier,name_size', # optimization to not load unused columns like 'kee'
-                                 :conditions => [conditions.join(' and ')].concat(condition_values),
-                                 :order => 'name_size')
-
-    indexes = select_authorized(:user, indexes)
-    total = indexes.size
-
     select2_format=(params[:f]=='s2')
 
     if select2_format && qualifiers.size>1
       # select2.js does not manage lazy loading of grouped options -> (almost) all the results are returned
-      resource_ids=indexes[0...100].map { |index| index.resource_id }
+      result = search_authorized_components(search_text, qualifiers, 1, 100)
     else
       # we don't group results when only one qualifier is requested, so we can enable lazy loading (pagination)
-      offset=(page-1)*page_size
-      resource_ids=indexes[offset...offset+page_size].map { |index| index.resource_id }
+      result = search_authorized_components(search_text, qualifiers, page, page_size)
     end
+    total = result.getTotal()
+    resource_uuids=result.getDocs().to_a.map { |doc| doc.uuid() }
 
     resources=[]
-    unless resource_ids.empty?
-      resources=Project.all(:select => 'id,qualifier,name,long_name,kee,uuid', :conditions => ['id in (?) and enabled=?', resource_ids, true])
+    unless resource_uuids.empty?
+      resources_by_uuid={}
+      Project.all(:select => 'id,qualifier,name,long_name,kee,uuid', :conditions => ['uuid in (?) and enabled=?', resource_uuids, true]).each do |resource|
+        resources_by_uuid[resource.uuid]=resource
+      end
+      resources=resource_uuids.map { |uuid| resources_by_uuid[uuid] }.compact
     end
 
     if select2_format
@@ -54,6 +54,10 @@ class Internal
     component(Java::OrgSonarServerUser::GroupMembershipService.java_class)
   end
 
+  def self.permission_cache
+    component(Java::OrgSonarServerUser::UserPermissionCache.java_class)
+  end
+
   def self.quality_profiles
     component(Java::OrgSonarServerQualityprofile::QProfiles.java_class)
   end
@@ -82,6 +86,10 @@ class Internal
     component(Java::OrgSonarApiUtils::Durations.java_class)
   end
 
+  def self.component_index
+    component(Java::OrgSonarServerComponentIndex::ComponentIndex.java_class)
+  end
+
   def self.i18n
     component(Java::OrgSonarServerUi::JRubyI18n.java_class)
   end
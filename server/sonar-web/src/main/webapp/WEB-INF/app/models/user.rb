@@ -23,7 +23,7 @@ class User < ActiveRecord::Base
 
   FAVOURITE_PROPERTY_KEY='favourite'
 
-  has_and_belongs_to_many :groups
+  has_and_belongs_to_many :groups, :after_add => :clear_permission_cache, :after_remove => :clear_permission_cache
 
   has_many :user_roles, :dependent => :delete_all
   has_many :properties, :foreign_key => 'user_id', :dependent => :delete_all
@@ -105,6 +105,13 @@ class User < ActiveRecord::Base
     save
   end
 
+  # permissions of users are cached by the server, see UserPermissionCache
+  def clear_permission_cache(group=nil)
+    # the cache is not available yet when groups are created by database migrations
+    cache = Internal.permission_cache
+    cache.clear if cache
+  end
+
   def <=>(other)
     return -1 if name.nil?
     return 1 if other.name.nil?
@@ -17,17 +17,14 @@
 # along with this program; if not, write to the Free Software Foundation,
 # Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
 #
-class ResourceIndex < ActiveRecord::Base
 
-  set_table_name 'resource_index'
 
-  belongs_to :resource, :class_name => 'Project', :foreign_key => 'resource_id'
-  belongs_to :root_project, :class_name => 'Project', :foreign_key => 'root_project_id'
-
-  MIN_SEARCH_SIZE=2
+#
+# SonarQube 5.2
+#
+class AddFileSourcesBinaryLineHashes < ActiveRecord::Migration
 
-  def resource_id_for_authorization
-    root_project_id
+  def self.up
+    add_column 'file_sources', :binary_line_hashes, :binary, :null => true
   end
-
 end
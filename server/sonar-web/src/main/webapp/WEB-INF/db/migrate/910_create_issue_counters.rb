@@ -0,0 +1,44 @@
+#
+# SonarQube, open source software quality management tool.
+# Copyright (C) 2008-2014 SonarSource
+# mailto:contact AT sonarsource DOT com
+#
+# SonarQube is free software; you can redistribute it and/or
+# modify it under the terms of the GNU Lesser General Public
+# License as published by the Free Software Foundation; either
+# version 3 of the License, or (at your option) any later version.
+#
+# SonarQube is distributed in the hope that it will be useful,
+# but WITHOUT ANY WARRANTY; without even the implied warranty of
+# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+# Lesser General Public License for more details.
+#
+# You should have received a copy of the GNU Lesser General Public License
+# along with this program; if not, write to the Free Software Foundation,
+# Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+#
+
+#
+# SonarQube 5.2
+#
+class CreateIssueCounters < ActiveRecord::Migration
+
+  def self.up
+    create_table :issue_counters do |t|
+      t.column :project_uuid, :string, :limit => 50, :null => false
+      t.column :component_uuid, :string, :limit => 50, :null => false
+      t.column :facet, :string, :limit => 20, :null => false
+      t.column :facet_value, :string, :limit => 255, :null => false
+      t.column :issues_count, :integer, :null => false
+      t.column :new_issues_count_1, :integer, :null => true
+      t.column :new_issues_count_2, :integer, :null => true
+      t.column :new_issues_count_3, :integer, :null => true
+      t.column :new_issues_count_4, :integer, :null => true
+      t.column :new_issues_count_5, :integer, :null => true
+    end
+
+    add_index 'issue_counters', 'project_uuid', :name => 'issue_counters_project_uuid'
+    add_index 'issue_counters', 'component_uuid', :name => 'issue_counters_component_uuid'
+  end
+
+end
@@ -36,7 +36,7 @@ import java.util.List;
 import java.util.Properties;
 
 /**
- * Entry-point of process that starts and monitors elasticsearch and web servers
+ * Entry-point of process that starts and monitors elasticsearch, web server and optionally compute engine
  */
 public class App implements Stoppable {
 
@@ -98,6 +98,23 @@ public class App implements Stoppable {
         webServer.addClasspath(driverPath);
       }
       commands.add(webServer);
+
+      if (props.valueAsBoolean(ProcessProperties.CE_ENABLED, false)) {
+        JavaCommand computeEngine = new JavaCommand("ce")
+          .setWorkDir(homeDir)
+          .addJavaOptions(ProcessProperties.CE_ENFORCED_JVM_ARGS)
+          .addJavaOptions(props.nonNullValue(ProcessProperties.CE_JAVA_OPTS))
+          .addJavaOptions(props.nonNullValue(ProcessProperties.CE_JAVA_ADDITIONAL_OPTS))
+          .setTempDir(tempDir.getAbsoluteFile())
+          .setClassName("org.sonar.server.app.ComputeEngineServer")
+          .setArguments(props.rawProperties())
+          .addClasspath("./lib/common/*")
+          .addClasspath("./lib/server/*");
+        if (driverPath != null) {
+          computeEngine.addClasspath(driverPath);
+        }
+        commands.add(computeEngine);
+      }
     }
     return commands;
   }
@@ -105,6 +105,25 @@ public class AppTest {
     assertThat(argument.getValue()).extracting("key").containsOnly("search");
   }
 
+  @Test
+  public void start_compute_engine_in_dedicated_process_if_enabled() throws Exception {
+    Monitor monitor = mock(Monitor.class);
+    App app = new App(monitor);
+    Props props = initDefaultProps();
+    props.set("sonar.ce.enabled", "true");
+    props.set("sonar.jdbc.driverPath", "oracle/ojdbc6.jar");
+    app.start(props);
+
+    Class<List<JavaCommand>> listClass = (Class<List<JavaCommand>>)(Class)List.class;
+    ArgumentCaptor<List<JavaCommand>> argument = ArgumentCaptor.forClass(listClass);
+    verify(monitor).start(argument.capture());
+
+    assertThat(argument.getValue()).extracting("key").containsExactly("search", "web", "ce");
+    JavaCommand computeEngine = argument.getValue().get(2);
+    assertThat(computeEngine.getClassName()).isEqualTo("org.sonar.server.app.ComputeEngineServer");
+    assertThat(computeEngine.getClasspath()).contains("oracle/ojdbc6.jar");
+  }
+
   @Test
   public void add_custom_jdbc_driver_to_tomcat_classpath() throws Exception {
     Monitor monitor = mock(Monitor.class);
@@ -2690,6 +2690,25 @@ public final class BatchReport {
      */
     int getLines();
 
+    /**
+     * <code>optional bool is_unchanged = 16;</code>
+     *
+     * <pre>
+     * Only available on FILE type. True if neither the source nor the issues of the file
+     * changed since the previous analysis
+     * </pre>
+     */
+    boolean hasIsUnchanged();
+    /**
+     * <code>optional bool is_unchanged = 16;</code>
+     *
+     * <pre>
+     * Only available on FILE type. True if neither the source nor the issues of the file
+     * changed since the previous analysis
+     * </pre>
+     */
+    boolean getIsUnchanged();
+
     /**
      * <code>optional int64 id = 13;</code>
      *
@@ -2867,13 +2886,13 @@ public final class BatchReport {
               break;
             }
             case 64: {
-              bitField0_ |= 0x00000400;
+              bitField0_ |= 0x00000800;
               snapshotId_ = input.readInt64();
               break;
             }
             case 74: {
               com.google.protobuf.ByteString bs = input.readBytes();
-              bitField0_ |= 0x00000800;
+              bitField0_ |= 0x00001000;
               uuid_ = bs;
               break;
             }
@@ -2886,9 +2905,9 @@ public final class BatchReport {
               break;
             }
             case 90: {
-              if (!((mutable_bitField0_ & 0x00004000) == 0x00004000)) {
+              if (!((mutable_bitField0_ & 0x00008000) == 0x00008000)) {
                 event_ = new java.util.ArrayList<org.sonar.batch.protocol.output.BatchReport.Event>();
-                mutable_bitField0_ |= 0x00004000;
+                mutable_bitField0_ |= 0x00008000;
               }
               event_.add(input.readMessage(org.sonar.batch.protocol.output.BatchReport.Event.PARSER, extensionRegistry));
               break;
@@ -2900,7 +2919,7 @@ public final class BatchReport {
               break;
             }
             case 104: {
-              bitField0_ |= 0x00000200;
+              bitField0_ |= 0x00000400;
               id_ = input.readInt64();
               break;
             }
@@ -2915,6 +2934,11 @@ public final class BatchReport {
               lines_ = input.readInt32();
               break;
             }
+            case 128: {
+              bitField0_ |= 0x00000200;
+              isUnchanged_ = input.readBool();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -2929,7 +2953,7 @@ public final class BatchReport {
         if (((mutable_bitField0_ & 0x00000080) == 0x00000080)) {
           link_ = java.util.Collections.unmodifiableList(link_);
         }
-        if (((mutable_bitField0_ & 0x00004000) == 0x00004000)) {
+        if (((mutable_bitField0_ & 0x00008000) == 0x00008000)) {
           event_ = java.util.Collections.unmodifiableList(event_);
         }
         this.unknownFields = unknownFields.build();
@@ -3324,6 +3348,31 @@ public final class BatchReport {
       return lines_;
     }
 
+    public static final int IS_UNCHANGED_FIELD_NUMBER = 16;
+    private boolean isUnchanged_;
+    /**
+     * <code>optional bool is_unchanged = 16;</code>
+     *
+     * <pre>
+     * Only available on FILE type. True if neither the source nor the issues of the file
+     * changed since the previous analysis
+     * </pre>
+     */
+    public boolean hasIsUnchanged() {
+      return ((bitField0_ & 0x00000200) == 0x00000200);
+    }
+    /**
+     * <code>optional bool is_unchanged = 16;</code>
+     *
+     * <pre>
+     * Only available on FILE type. True if neither the source nor the issues of the file
+     * changed since the previous analysis
+     * </pre>
+     */
+    public boolean getIsUnchanged() {
+      return isUnchanged_;
+    }
+
     public static final int ID_FIELD_NUMBER = 13;
     private long id_;
     /**
@@ -3334,7 +3383,7 @@ public final class BatchReport {
      * </pre>
      */
     public boolean hasId() {
-      return ((bitField0_ & 0x00000200) == 0x00000200);
+      return ((bitField0_ & 0x00000400) == 0x00000400);
     }
     /**
      * <code>optional int64 id = 13;</code>
@@ -3353,7 +3402,7 @@ public final class BatchReport {
      * <code>optional int64 snapshot_id = 8;</code>
      */
     public boolean hasSnapshotId() {
-      return ((bitField0_ & 0x00000400) == 0x00000400);
+      return ((bitField0_ & 0x00000800) == 0x00000800);
     }
     /**
      * <code>optional int64 snapshot_id = 8;</code>
@@ -3368,7 +3417,7 @@ public final class BatchReport {
      * <code>optional string uuid = 9;</code>
      */
     public boolean hasUuid() {
-      return ((bitField0_ & 0x00000800) == 0x00000800);
+      return ((bitField0_ & 0x00001000) == 0x00001000);
     }
     /**
      * <code>optional string uuid = 9;</code>
@@ -3451,6 +3500,7 @@ public final class BatchReport {
       version_ = "";
       key_ = "";
       lines_ = 0;
+      isUnchanged_ = false;
       id_ = 0L;
       snapshotId_ = 0L;
       uuid_ = "";
@@ -3494,10 +3544,10 @@ public final class BatchReport {
       for (int i = 0; i < childRef_.size(); i++) {
         output.writeInt32NoTag(childRef_.get(i));
       }
-      if (((bitField0_ & 0x00000400) == 0x00000400)) {
+      if (((bitField0_ & 0x00000800) == 0x00000800)) {
         output.writeInt64(8, snapshotId_);
       }
-      if (((bitField0_ & 0x00000800) == 0x00000800)) {
+      if (((bitField0_ & 0x00001000) == 0x00001000)) {
         output.writeBytes(9, getUuidBytes());
       }
       for (int i = 0; i < link_.size(); i++) {
@@ -3509,7 +3559,7 @@ public final class BatchReport {
       if (((bitField0_ & 0x00000040) == 0x00000040)) {
         output.writeBytes(12, getVersionBytes());
       }
-      if (((bitField0_ & 0x00000200) == 0x00000200)) {
+      if (((bitField0_ & 0x00000400) == 0x00000400)) {
         output.writeInt64(13, id_);
       }
       if (((bitField0_ & 0x00000080) == 0x00000080)) {
@@ -3518,6 +3568,9 @@ public final class BatchReport {
       if (((bitField0_ & 0x00000100) == 0x00000100)) {
         output.writeInt32(15, lines_);
       }
+      if (((bitField0_ & 0x00000200) == 0x00000200)) {
+        output.writeBool(16, isUnchanged_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -3565,11 +3618,11 @@ public final class BatchReport {
         }
         childRefMemoizedSerializedSize = dataSize;
       }
-      if (((bitField0_ & 0x00000400) == 0x00000400)) {
+      if (((bitField0_ & 0x00000800) == 0x00000800)) {
         size += com.google.protobuf.CodedOutputStream
           .computeInt64Size(8, snapshotId_);
       }
-      if (((bitField0_ & 0x00000800) == 0x00000800)) {
+      if (((bitField0_ & 0x00001000) == 0x00001000)) {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(9, getUuidBytes());
       }
@@ -3585,7 +3638,7 @@ public final class BatchReport {
         size += com.google.protobuf.CodedOutputStream
           .computeBytesSize(12, getVersionBytes());
       }
-      if (((bitField0_ & 0x00000200) == 0x00000200)) {
+      if (((bitField0_ & 0x00000400) == 0x00000400)) {
         size += com.google.protobuf.CodedOutputStream
           .computeInt64Size(13, id_);
       }
@@ -3597,6 +3650,10 @@ public final class BatchReport {
         size += com.google.protobuf.CodedOutputStream
           .computeInt32Size(15, lines_);
       }
+      if (((bitField0_ & 0x00000200) == 0x00000200)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(16, isUnchanged_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -3742,15 +3799,17 @@ public final class BatchReport {
         bitField0_ = (bitField0_ & ~0x00000200);
         lines_ = 0;
         bitField0_ = (bitField0_ & ~0x00000400);
-        id_ = 0L;
+        isUnchanged_ = false;
         bitField0_ = (bitField0_ & ~0x00000800);
-        snapshotId_ = 0L;
+        id_ = 0L;
         bitField0_ = (bitField0_ & ~0x00001000);
-        uuid_ = "";
+        snapshotId_ = 0L;
         bitField0_ = (bitField0_ & ~0x00002000);
+        uuid_ = "";
+        bitField0_ = (bitField0_ & ~0x00004000);
         if (eventBuilder_ == null) {
           event_ = java.util.Collections.emptyList();
-          bitField0_ = (bitField0_ & ~0x00004000);
+          bitField0_ = (bitField0_ & ~0x00008000);
         } else {
           eventBuilder_.clear();
         }
@@ -3835,19 +3894,23 @@ public final class BatchReport {
         if (((from_bitField0_ & 0x00000800) == 0x00000800)) {
           to_bitField0_ |= 0x00000200;
         }
-        result.id_ = id_;
+        result.isUnchanged_ = isUnchanged_;
         if (((from_bitField0_ & 0x00001000) == 0x00001000)) {
           to_bitField0_ |= 0x00000400;
         }
-        result.snapshotId_ = snapshotId_;
+        result.id_ = id_;
         if (((from_bitField0_ & 0x00002000) == 0x00002000)) {
           to_bitField0_ |= 0x00000800;
         }
+        result.snapshotId_ = snapshotId_;
+        if (((from_bitField0_ & 0x00004000) == 0x00004000)) {
+          to_bitField0_ |= 0x00001000;
+        }
         result.uuid_ = uuid_;
         if (eventBuilder_ == null) {
-          if (((bitField0_ & 0x00004000) == 0x00004000)) {
+          if (((bitField0_ & 0x00008000) == 0x00008000)) {
             event_ = java.util.Collections.unmodifiableList(event_);
-            bitField0_ = (bitField0_ & ~0x00004000);
+            bitField0_ = (bitField0_ & ~0x00008000);
           }
           result.event_ = event_;
         } else {
@@ -3942,6 +4005,9 @@ public final class BatchReport {
         if (other.hasLines()) {
           setLines(other.getLines());
         }
+        if (other.hasIsUnchanged()) {
+          setIsUnchanged(other.getIsUnchanged());
+        }
         if (other.hasId()) {
           setId(other.getId());
         }
@@ -3949,7 +4015,7 @@ public final class BatchReport {
           setSnapshotId(other.getSnapshotId());
         }
         if (other.hasUuid()) {
-          bitField0_ |= 0x00002000;
+          bitField0_ |= 0x00004000;
           uuid_ = other.uuid_;
           onChanged();
         }
@@ -3957,7 +4023,7 @@ public final class BatchReport {
           if (!other.event_.isEmpty()) {
             if (event_.isEmpty()) {
               event_ = other.event_;
-              bitField0_ = (bitField0_ & ~0x00004000);
+              bitField0_ = (bitField0_ & ~0x00008000);
             } else {
               ensureEventIsMutable();
               event_.addAll(other.event_);
@@ -3970,7 +4036,7 @@ public final class BatchReport {
               eventBuilder_.dispose();
               eventBuilder_ = null;
               event_ = other.event_;
-              bitField0_ = (bitField0_ & ~0x00004000);
+              bitField0_ = (bitField0_ & ~0x00008000);
               eventBuilder_ = 
                 com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
                    getEventFieldBuilder() : null;
@@ -4887,6 +4953,58 @@ public final class BatchReport {
         return this;
       }
 
+      private boolean isUnchanged_ ;
+      /**
+       * <code>optional bool is_unchanged = 16;</code>
+       *
+       * <pre>
+       * Only available on FILE type. True if neither the source nor the issues of the file
+       * changed since the previous analysis
+       * </pre>
+       */
+      public boolean hasIsUnchanged() {
+        return ((bitField0_ & 0x00000800) == 0x00000800);
+      }
+      /**
+       * <code>optional bool is_unchanged = 16;</code>
+       *
+       * <pre>
+       * Only available on FILE type. True if neither the source nor the issues of the file
+       * changed since the previous analysis
+       * </pre>
+       */
+      public boolean getIsUnchanged() {
+        return isUnchanged_;
+      }
+      /**
+       * <code>optional bool is_unchanged = 16;</code>
+       *
+       * <pre>
+       * Only available on FILE type. True if neither the source nor the issues of the file
+       * changed since the previous analysis
+       * </pre>
+       */
+      public Builder setIsUnchanged(boolean value) {
+        bitField0_ |= 0x00000800;
+        isUnchanged_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool is_unchanged = 16;</code>
+       *
+       * <pre>
+       * Only available on FILE type. True if neither the source nor the issues of the file
+       * changed since the previous analysis
+       * </pre>
+       */
+      public Builder clearIsUnchanged() {
+        bitField0_ = (bitField0_ & ~0x00000800);
+        isUnchanged_ = false;
+        onChanged();
+        return this;
+      }
+
       private long id_ ;
       /**
        * <code>optional int64 id = 13;</code>
@@ -4896,7 +5014,7 @@ public final class BatchReport {
        * </pre>
        */
       public boolean hasId() {
-        return ((bitField0_ & 0x00000800) == 0x00000800);
+        return ((bitField0_ & 0x00001000) == 0x00001000);
       }
       /**
        * <code>optional int64 id = 13;</code>
@@ -4916,7 +5034,7 @@ public final class BatchReport {
        * </pre>
        */
       public Builder setId(long value) {
-        bitField0_ |= 0x00000800;
+        bitField0_ |= 0x00001000;
         id_ = value;
         onChanged();
         return this;
@@ -4929,7 +5047,7 @@ public final class BatchReport {
        * </pre>
        */
       public Builder clearId() {
-        bitField0_ = (bitField0_ & ~0x00000800);
+        bitField0_ = (bitField0_ & ~0x00001000);
         id_ = 0L;
         onChanged();
         return this;
@@ -4940,7 +5058,7 @@ public final class BatchReport {
        * <code>optional int64 snapshot_id = 8;</code>
        */
       public boolean hasSnapshotId() {
-        return ((bitField0_ & 0x00001000) == 0x00001000);
+        return ((bitField0_ & 0x00002000) == 0x00002000);
       }
       /**
        * <code>optional int64 snapshot_id = 8;</code>
@@ -4952,7 +5070,7 @@ public final class BatchReport {
        * <code>optional int64 snapshot_id = 8;</code>
        */
       public Builder setSnapshotId(long value) {
-        bitField0_ |= 0x00001000;
+        bitField0_ |= 0x00002000;
         snapshotId_ = value;
         onChanged();
         return this;
@@ -4961,7 +5079,7 @@ public final class BatchReport {
        * <code>optional int64 snapshot_id = 8;</code>
        */
       public Builder clearSnapshotId() {
-        bitField0_ = (bitField0_ & ~0x00001000);
+        bitField0_ = (bitField0_ & ~0x00002000);
         snapshotId_ = 0L;
         onChanged();
         return this;
@@ -4972,7 +5090,7 @@ public final class BatchReport {
        * <code>optional string uuid = 9;</code>
        */
       public boolean hasUuid() {
-        return ((bitField0_ & 0x00002000) == 0x00002000);
+        return ((bitField0_ & 0x00004000) == 0x00004000);
       }
       /**
        * <code>optional string uuid = 9;</code>
@@ -5015,7 +5133,7 @@ public final class BatchReport {
         if (value == null) {
     throw new NullPointerException();
   }
-  bitField0_ |= 0x00002000;
+  bitField0_ |= 0x00004000;
         uuid_ = value;
         onChanged();
         return this;
@@ -5024,7 +5142,7 @@ public final class BatchReport {
        * <code>optional string uuid = 9;</code>
        */
       public Builder clearUuid() {
-        bitField0_ = (bitField0_ & ~0x00002000);
+        bitField0_ = (bitField0_ & ~0x00004000);
         uuid_ = getDefaultInstance().getUuid();
         onChanged();
         return this;
@@ -5037,7 +5155,7 @@ public final class BatchReport {
         if (value == null) {
     throw new NullPointerException();
   }
-  bitField0_ |= 0x00002000;
+  bitField0_ |= 0x00004000;
         uuid_ = value;
         onChanged();
         return this;
@@ -5046,9 +5164,9 @@ public final class BatchReport {
       private java.util.List<org.sonar.batch.protocol.output.BatchReport.Event> event_ =
         java.util.Collections.emptyList();
       private void ensureEventIsMutable() {
-        if (!((bitField0_ & 0x00004000) == 0x00004000)) {
+        if (!((bitField0_ & 0x00008000) == 0x00008000)) {
           event_ = new java.util.ArrayList<org.sonar.batch.protocol.output.BatchReport.Event>(event_);
-          bitField0_ |= 0x00004000;
+          bitField0_ |= 0x00008000;
          }
       }
 
@@ -5198,7 +5316,7 @@ public final class BatchReport {
       public Builder clearEvent() {
         if (eventBuilder_ == null) {
           event_ = java.util.Collections.emptyList();
-          bitField0_ = (bitField0_ & ~0x00004000);
+          bitField0_ = (bitField0_ & ~0x00008000);
           onChanged();
         } else {
           eventBuilder_.clear();
@@ -5275,7 +5393,7 @@ public final class BatchReport {
           eventBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
               org.sonar.batch.protocol.output.BatchReport.Event, org.sonar.batch.protocol.output.BatchReport.Event.Builder, org.sonar.batch.protocol.output.BatchReport.EventOrBuilder>(
                   event_,
-                  ((bitField0_ & 0x00004000) == 0x00004000),
+                  ((bitField0_ & 0x00008000) == 0x00008000),
                   getParentForChildren(),
                   isClean());
           event_ = null;
@@ -22051,69 +22169,69 @@ public final class BatchReport {
       "Type\022\014\n\004href\030\002 \001(\t\"w\n\005Event\022\025\n\rcomponent" +
       "_ref\030\001 \001(\005\022\014\n\004name\030\002 \001(\t\022\023\n\013description\030" +
       "\003 \001(\t\022 \n\010category\030\004 \001(\0162\016.EventCategory\022" +
-      "\022\n\nevent_data\030\005 \001(\t\"\235\002\n\tComponent\022\013\n\003ref",
+      "\022\n\nevent_data\030\005 \001(\t\"\263\002\n\tComponent\022\013\n\003ref",
       "\030\001 \001(\005\022\014\n\004path\030\002 \001(\t\022\014\n\004name\030\003 \001(\t\022\034\n\004ty" +
       "pe\030\004 \001(\0162\016.ComponentType\022\017\n\007is_test\030\005 \001(" +
       "\010\022\020\n\010language\030\006 \001(\t\022\025\n\tchild_ref\030\007 \003(\005B\002" +
       "\020\001\022\034\n\004link\030\n \003(\0132\016.ComponentLink\022\017\n\007vers" +
-      "ion\030\014 \001(\t\022\013\n\003key\030\016 \001(\t\022\r\n\005lines\030\017 \001(\005\022\n\n" +
-      "\002id\030\r \001(\003\022\023\n\013snapshot_id\030\010 \001(\003\022\014\n\004uuid\030\t" +
-      " \001(\t\022\025\n\005event\030\013 \003(\0132\006.Event\"\340\003\n\007Measure\022" +
-      "%\n\nvalue_type\030\001 \001(\0162\021.MeasureValueType\022\025" +
-      "\n\rboolean_value\030\002 \001(\010\022\021\n\tint_value\030\003 \001(\005" +
-      "\022\022\n\nlong_value\030\004 \001(\003\022\024\n\014double_value\030\005 \001",
-      "(\001\022\024\n\014string_value\030\006 \001(\t\022\022\n\nmetric_key\030\007" +
-      " \001(\t\022\023\n\013description\030\t \001(\t\022\020\n\010rule_key\030\n " +
-      "\001(\t\022\033\n\010severity\030\013 \001(\0162\t.Severity\022\024\n\014aler" +
-      "t_status\030\014 \001(\t\022\022\n\nalert_text\030\r \001(\t\022\031\n\021va" +
-      "riation_value_1\030\016 \001(\001\022\031\n\021variation_value" +
-      "_2\030\017 \001(\001\022\031\n\021variation_value_3\030\020 \001(\001\022\031\n\021v" +
-      "ariation_value_4\030\021 \001(\001\022\031\n\021variation_valu" +
-      "e_5\030\022 \001(\001\022\020\n\010tendency\030\023 \001(\005\022\026\n\016character" +
-      "ic_id\030\024 \001(\005\022\021\n\tperson_id\030\025 \001(\005\"<\n\010Measur" +
-      "es\022\025\n\rcomponent_ref\030\001 \001(\005\022\031\n\007measure\030\002 \003",
-      "(\0132\010.Measure\"\231\004\n\005Issue\022\027\n\017rule_repositor" +
-      "y\030\001 \001(\t\022\020\n\010rule_key\030\002 \001(\t\022\014\n\004line\030\003 \001(\005\022" +
-      "\013\n\003msg\030\004 \001(\t\022\033\n\010severity\030\005 \001(\0162\t.Severit" +
-      "y\022\013\n\003tag\030\006 \003(\t\022\025\n\reffort_to_fix\030\007 \001(\001\022\016\n" +
-      "\006is_new\030\010 \001(\010\022\014\n\004uuid\030\t \001(\t\022\027\n\017debt_in_m" +
-      "inutes\030\n \001(\003\022\022\n\nresolution\030\013 \001(\t\022\016\n\006stat" +
-      "us\030\014 \001(\t\022\020\n\010checksum\030\r \001(\t\022\027\n\017manual_sev" +
-      "erity\030\016 \001(\010\022\020\n\010reporter\030\017 \001(\t\022\020\n\010assigne" +
-      "e\030\020 \001(\t\022\027\n\017action_plan_key\030\021 \001(\t\022\022\n\nattr" +
-      "ibutes\030\022 \001(\t\022\024\n\014author_login\030\023 \001(\t\022\025\n\rcr",
-      "eation_date\030\024 \001(\003\022\022\n\nclose_date\030\025 \001(\003\022\023\n" +
-      "\013update_date\030\026 \001(\003\022\023\n\013selected_at\030\027 \001(\003\022" +
-      "\023\n\013diff_fields\030\030 \001(\t\022\022\n\nis_changed\030\031 \001(\010" +
-      "\022\036\n\026must_send_notification\030\032 \001(\010\"N\n\006Issu" +
-      "es\022\025\n\rcomponent_ref\030\001 \001(\005\022\025\n\005issue\030\002 \003(\013" +
-      "2\006.Issue\022\026\n\016component_uuid\030\003 \001(\t\"\236\001\n\003Scm" +
-      "\022\025\n\rcomponent_ref\030\001 \001(\005\022!\n\tchangeset\030\002 \003" +
-      "(\0132\016.Scm.Changeset\022 \n\024changesetIndexByLi" +
-      "ne\030\003 \003(\005B\002\020\001\032;\n\tChangeset\022\020\n\010revision\030\001 " +
-      "\001(\t\022\016\n\006author\030\002 \001(\t\022\014\n\004date\030\003 \001(\003\"R\n\tDup",
-      "licate\022\026\n\016other_file_ref\030\001 \001(\005\022\025\n\005range\030" +
-      "\002 \001(\0132\006.Range\022\026\n\016other_file_key\030\003 \001(\t\"M\n" +
-      "\013Duplication\022\037\n\017origin_position\030\001 \001(\0132\006." +
-      "Range\022\035\n\tduplicate\030\002 \003(\0132\n.Duplicate\"H\n\014" +
-      "Duplications\022\025\n\rcomponent_ref\030\001 \001(\005\022!\n\013d" +
-      "uplication\030\002 \003(\0132\014.Duplication\"W\n\005Range\022" +
-      "\022\n\nstart_line\030\001 \001(\005\022\020\n\010end_line\030\002 \001(\005\022\024\n" +
-      "\014start_offset\030\003 \001(\005\022\022\n\nend_offset\030\004 \001(\005\"" +
-      "~\n\007Symbols\022\020\n\010file_ref\030\001 \001(\005\022\037\n\006symbol\030\002" +
-      " \003(\0132\017.Symbols.Symbol\032@\n\006Symbol\022\033\n\013decla",
-      "ration\030\001 \001(\0132\006.Range\022\031\n\treference\030\002 \003(\0132" +
-      "\006.Range\"\260\001\n\010Coverage\022\014\n\004line\030\001 \001(\005\022\022\n\nco" +
-      "nditions\030\002 \001(\005\022\017\n\007ut_hits\030\003 \001(\010\022\017\n\007it_hi" +
-      "ts\030\004 \001(\010\022\035\n\025ut_covered_conditions\030\005 \001(\005\022" +
-      "\035\n\025it_covered_conditions\030\006 \001(\005\022\"\n\032overal" +
-      "l_covered_conditions\030\007 \001(\005\"\263\001\n\022SyntaxHig" +
-      "hlighting\022\020\n\010file_ref\030\001 \001(\005\022?\n\021highlight" +
-      "ing_rule\030\002 \003(\0132$.SyntaxHighlighting.High" +
-      "lightingRule\032J\n\020HighlightingRule\022\025\n\005rang" +
-      "e\030\001 \001(\0132\006.Range\022\037\n\004type\030\002 \001(\0162\021.Highligh",
-      "tingTypeB#\n\037org.sonar.batch.protocol.out" +
-      "putH\001"
+      "ion\030\014 \001(\t\022\013\n\003key\030\016 \001(\t\022\r\n\005lines\030\017 \001(\005\022\024\n" +
+      "\014is_unchanged\030\020 \001(\010\022\n\n\002id\030\r \001(\003\022\023\n\013snaps" +
+      "hot_id\030\010 \001(\003\022\014\n\004uuid\030\t \001(\t\022\025\n\005event\030\013 \003(" +
+      "\0132\006.Event\"\340\003\n\007Measure\022%\n\nvalue_type\030\001 \001(" +
+      "\0162\021.MeasureValueType\022\025\n\rboolean_value\030\002 " +
+      "\001(\010\022\021\n\tint_value\030\003 \001(\005\022\022\n\nlong_value\030\004 \001",
+      "(\003\022\024\n\014double_value\030\005 \001(\001\022\024\n\014string_value" +
+      "\030\006 \001(\t\022\022\n\nmetric_key\030\007 \001(\t\022\023\n\013descriptio" +
+      "n\030\t \001(\t\022\020\n\010rule_key\030\n \001(\t\022\033\n\010severity\030\013 " +
+      "\001(\0162\t.Severity\022\024\n\014alert_status\030\014 \001(\t\022\022\n\n" +
+      "alert_text\030\r \001(\t\022\031\n\021variation_value_1\030\016 " +
+      "\001(\001\022\031\n\021variation_value_2\030\017 \001(\001\022\031\n\021variat" +
+      "ion_value_3\030\020 \001(\001\022\031\n\021variation_value_4\030\021" +
+      " \001(\001\022\031\n\021variation_value_5\030\022 \001(\001\022\020\n\010tende" +
+      "ncy\030\023 \001(\005\022\026\n\016characteric_id\030\024 \001(\005\022\021\n\tper" +
+      "son_id\030\025 \001(\005\"<\n\010Measures\022\025\n\rcomponent_re",
+      "f\030\001 \001(\005\022\031\n\007measure\030\002 \003(\0132\010.Measure\"\231\004\n\005I" +
+      "ssue\022\027\n\017rule_repository\030\001 \001(\t\022\020\n\010rule_ke" +
+      "y\030\002 \001(\t\022\014\n\004line\030\003 \001(\005\022\013\n\003msg\030\004 \001(\t\022\033\n\010se" +
+      "verity\030\005 \001(\0162\t.Severity\022\013\n\003tag\030\006 \003(\t\022\025\n\r" +
+      "effort_to_fix\030\007 \001(\001\022\016\n\006is_new\030\010 \001(\010\022\014\n\004u" +
+      "uid\030\t \001(\t\022\027\n\017debt_in_minutes\030\n \001(\003\022\022\n\nre" +
+      "solution\030\013 \001(\t\022\016\n\006status\030\014 \001(\t\022\020\n\010checks" +
+      "um\030\r \001(\t\022\027\n\017manual_severity\030\016 \001(\010\022\020\n\010rep" +
+      "orter\030\017 \001(\t\022\020\n\010assignee\030\020 \001(\t\022\027\n\017action_" +
+      "plan_key\030\021 \001(\t\022\022\n\nattributes\030\022 \001(\t\022\024\n\014au",
+      "thor_login\030\023 \001(\t\022\025\n\rcreation_date\030\024 \001(\003\022" +
+      "\022\n\nclose_date\030\025 \001(\003\022\023\n\013update_date\030\026 \001(\003" +
+      "\022\023\n\013selected_at\030\027 \001(\003\022\023\n\013diff_fields\030\030 \001" +
+      "(\t\022\022\n\nis_changed\030\031 \001(\010\022\036\n\026must_send_noti" +
+      "fication\030\032 \001(\010\"N\n\006Issues\022\025\n\rcomponent_re" +
+      "f\030\001 \001(\005\022\025\n\005issue\030\002 \003(\0132\006.Issue\022\026\n\016compon" +
+      "ent_uuid\030\003 \001(\t\"\236\001\n\003Scm\022\025\n\rcomponent_ref\030" +
+      "\001 \001(\005\022!\n\tchangeset\030\002 \003(\0132\016.Scm.Changeset" +
+      "\022 \n\024changesetIndexByLine\030\003 \003(\005B\002\020\001\032;\n\tCh" +
+      "angeset\022\020\n\010revision\030\001 \001(\t\022\016\n\006author\030\002 \001(",
+      "\t\022\014\n\004date\030\003 \001(\003\"R\n\tDuplicate\022\026\n\016other_fi" +
+      "le_ref\030\001 \001(\005\022\025\n\005range\030\002 \001(\0132\006.Range\022\026\n\016o" +
+      "ther_file_key\030\003 \001(\t\"M\n\013Duplication\022\037\n\017or" +
+      "igin_position\030\001 \001(\0132\006.Range\022\035\n\tduplicate" +
+      "\030\002 \003(\0132\n.Duplicate\"H\n\014Duplications\022\025\n\rco" +
+      "mponent_ref\030\001 \001(\005\022!\n\013duplication\030\002 \003(\0132\014" +
+      ".Duplication\"W\n\005Range\022\022\n\nstart_line\030\001 \001(" +
+      "\005\022\020\n\010end_line\030\002 \001(\005\022\024\n\014start_offset\030\003 \001(" +
+      "\005\022\022\n\nend_offset\030\004 \001(\005\"~\n\007Symbols\022\020\n\010file" +
+      "_ref\030\001 \001(\005\022\037\n\006symbol\030\002 \003(\0132\017.Symbols.Sym",
+      "bol\032@\n\006Symbol\022\033\n\013declaration\030\001 \001(\0132\006.Ran" +
+      "ge\022\031\n\treference\030\002 \003(\0132\006.Range\"\260\001\n\010Covera" +
+      "ge\022\014\n\004line\030\001 \001(\005\022\022\n\nconditions\030\002 \001(\005\022\017\n\007" +
+      "ut_hits\030\003 \001(\010\022\017\n\007it_hits\030\004 \001(\010\022\035\n\025ut_cov" +
+      "ered_conditions\030\005 \001(\005\022\035\n\025it_covered_cond" +
+      "itions\030\006 \001(\005\022\"\n\032overall_covered_conditio" +
+      "ns\030\007 \001(\005\"\263\001\n\022SyntaxHighlighting\022\020\n\010file_" +
+      "ref\030\001 \001(\005\022?\n\021highlighting_rule\030\002 \003(\0132$.S" +
+      "yntaxHighlighting.HighlightingRule\032J\n\020Hi" +
+      "ghlightingRule\022\025\n\005range\030\001 \001(\0132\006.Range\022\037\n",
+      "\004type\030\002 \001(\0162\021.HighlightingTypeB#\n\037org.so" +
+      "nar.batch.protocol.outputH\001"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
         new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
@@ -22151,7 +22269,7 @@ public final class BatchReport {
     internal_static_Component_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_Component_descriptor,
-        new java.lang.String[] { "Ref", "Path", "Name", "Type", "IsTest", "Language", "ChildRef", "Link", "Version", "Key", "Lines", "Id", "SnapshotId", "Uuid", "Event", });
+        new java.lang.String[] { "Ref", "Path", "Name", "Type", "IsTest", "Language", "ChildRef", "Link", "Version", "Key", "Lines", "IsUnchanged", "Id", "SnapshotId", "Uuid", "Event", });
     internal_static_Measure_descriptor =
       getDescriptor().getMessageTypes().get(4);
     internal_static_Measure_fieldAccessorTable = new
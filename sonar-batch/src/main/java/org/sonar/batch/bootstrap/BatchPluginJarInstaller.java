@@ -19,16 +19,27 @@
  */
 package org.sonar.batch.bootstrap;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.sonar.api.BatchComponent;
 import org.sonar.core.plugins.DefaultPluginMetadata;
 import org.sonar.core.plugins.PluginJarInstaller;
 import org.sonar.home.cache.FileCache;
+import org.sonar.updatecenter.common.PluginManifest;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
 public class BatchPluginJarInstaller extends PluginJarInstaller implements BatchComponent {
 
+  private static final String MANIFEST_SUFFIX = "_manifest.mf";
+
   private FileCache cache;
 
   public BatchPluginJarInstaller(FileCache cache) {
@@ -36,7 +47,7 @@ public class BatchPluginJarInstaller extends PluginJarInstaller implements Batch
   }
 
   public DefaultPluginMetadata installToCache(File pluginFile, boolean isCore) {
-    DefaultPluginMetadata metadata = extractMetadata(pluginFile, isCore);
+    DefaultPluginMetadata metadata = extractMetadata(pluginFile, loadManifest(pluginFile), isCore);
     install(metadata, null, pluginFile);
     return metadata;
   }
@@ -46,4 +57,53 @@ public class BatchPluginJarInstaller extends PluginJarInstaller implements Batch
     return cache.unzip(pluginFile);
   }
 
+  /**
+   * The manifest is copied next to the cached plugin file, which directory is named by hash. It's
+   * read from jar only once for a given version of plugin.
+   */
+  private static PluginManifest loadManifest(File pluginFile) {
+    File manifestFile = new File(pluginFile.getParentFile(), pluginFile.getName() + MANIFEST_SUFFIX);
+    try {
+      if (!manifestFile.exists()) {
+        copyManifest(pluginFile, manifestFile);
+      }
+      InputStream input = new FileInputStream(manifestFile);
+      try {
+        return new PluginManifest(new Manifest(input));
+      } finally {
+        IOUtils.closeQuietly(input);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to load manifest of plugin: " + pluginFile, e);
+    }
+  }
+
+  private static void copyManifest(File pluginFile, File manifestFile) throws IOException {
+    Manifest manifest;
+    JarFile jar = new JarFile(pluginFile);
+    try {
+      manifest = jar.getManifest();
+    } finally {
+      jar.close();
+    }
+    if (manifest == null) {
+      throw new IllegalStateException("Plugin has no manifest: " + pluginFile);
+    }
+    // other processes may load the same plugin concurrently
+    File tempFile = File.createTempFile(pluginFile.getName(), MANIFEST_SUFFIX, pluginFile.getParentFile());
+    OutputStream output = new FileOutputStream(tempFile);
+    try {
+      manifest.write(output);
+    } finally {
+      IOUtils.closeQuietly(output);
+    }
+    if (!tempFile.renameTo(manifestFile)) {
+      if (manifestFile.exists()) {
+        // already copied by another process
+        FileUtils.deleteQuietly(tempFile);
+      } else {
+        FileUtils.moveFile(tempFile, manifestFile);
+      }
+    }
+  }
 }
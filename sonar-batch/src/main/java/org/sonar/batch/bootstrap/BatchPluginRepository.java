@@ -23,33 +23,42 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.lang.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.Plugin;
 import org.sonar.api.SonarPlugin;
 import org.sonar.api.config.Settings;
 import org.sonar.api.platform.PluginMetadata;
 import org.sonar.api.platform.PluginRepository;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.api.utils.log.Profiler;
 import org.sonar.core.plugins.PluginClassloaders;
 import org.sonar.core.plugins.RemotePlugin;
 
 import java.io.File;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
 
 public class BatchPluginRepository implements PluginRepository {
 
-  private static final Logger LOG = LoggerFactory.getLogger(BatchPluginRepository.class);
+  private static final Logger LOG = Loggers.get(BatchPluginRepository.class);
   private static final String CORE_PLUGIN = "core";
+  private static final int MAX_INSTALL_THREADS = 5;
 
   private PluginsRepository pluginsReferential;
   private Map<String, Plugin> pluginsByKey;
   private Map<String, PluginMetadata> metadataByKey;
+  private Map<String, String> remotePluginHashes = Collections.emptyMap();
   private Settings settings;
   private PluginClassloaders classLoaders;
   private final DefaultAnalysisMode analysisMode;
@@ -64,8 +73,10 @@ public class BatchPluginRepository implements PluginRepository {
   }
 
   public void start() {
-    LOG.info("Install plugins");
-    doStart(pluginsReferential.pluginList());
+    Profiler profiler = Profiler.create(LOG).startInfo("Install plugins");
+    List<RemotePlugin> remotePlugins = pluginsReferential.pluginList();
+    remotePluginHashes = hashesByKey(remotePlugins);
+    doStart(remotePlugins);
 
     Map<PluginMetadata, SonarPlugin> localPlugins = pluginsReferential.localPlugins();
     if (!localPlugins.isEmpty()) {
@@ -75,24 +86,88 @@ public class BatchPluginRepository implements PluginRepository {
         pluginsByKey.put(pluginByMetadata.getKey().getKey(), pluginByMetadata.getValue());
       }
     }
+    profiler.stopInfo();
   }
 
   void doStart(List<RemotePlugin> remotePlugins) {
     PluginFilter filter = new PluginFilter(settings, analysisMode);
-    metadataByKey = Maps.newHashMap();
+    List<RemotePlugin> acceptedPlugins = newArrayList();
     for (RemotePlugin remote : remotePlugins) {
       if (filter.accepts(remote.getKey())) {
-        File pluginFile = pluginsReferential.pluginFile(remote);
-        PluginMetadata metadata = pluginInstaller.installToCache(pluginFile, remote.isCore());
-        if (StringUtils.isBlank(metadata.getBasePlugin()) || filter.accepts(metadata.getBasePlugin())) {
-          metadataByKey.put(metadata.getKey(), metadata);
-        } else {
-          LOG.debug("Excluded plugin: " + metadata.getKey());
-        }
+        acceptedPlugins.add(remote);
+      }
+    }
+
+    Profiler profiler = Profiler.createIfDebug(LOG).start();
+    metadataByKey = Maps.newHashMap();
+    for (PluginMetadata metadata : install(acceptedPlugins)) {
+      if (StringUtils.isBlank(metadata.getBasePlugin()) || filter.accepts(metadata.getBasePlugin())) {
+        metadataByKey.put(metadata.getKey(), metadata);
+      } else {
+        LOG.debug("Excluded plugin: " + metadata.getKey());
       }
     }
+    profiler.stopDebug(String.format("Download and install %d plugins", acceptedPlugins.size()));
+
+    profiler.start();
     classLoaders = new PluginClassloaders(Thread.currentThread().getContextClassLoader());
     pluginsByKey = classLoaders.init(metadataByKey.values());
+    profiler.stopDebug("Create classloaders of plugins");
+  }
+
+  /**
+   * Plugins are concurrently downloaded, or loaded from cache, and installed.
+   */
+  private List<PluginMetadata> install(List<RemotePlugin> remotePlugins) {
+    List<PluginMetadata> result = newArrayList();
+    if (remotePlugins.isEmpty()) {
+      return result;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(remotePlugins.size(), MAX_INSTALL_THREADS),
+      new ThreadFactoryBuilder().setNameFormat("plugin-install-%d").setDaemon(true).build());
+    try {
+      List<Future<PluginMetadata>> futures = newArrayList();
+      for (final RemotePlugin remote : remotePlugins) {
+        futures.add(executor.submit(new Callable<PluginMetadata>() {
+          @Override
+          public PluginMetadata call() {
+            File pluginFile = pluginsReferential.pluginFile(remote);
+            return pluginInstaller.installToCache(pluginFile, remote.isCore());
+          }
+        }));
+      }
+      for (Future<PluginMetadata> future : futures) {
+        result.add(future.get());
+      }
+      return result;
+
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Fail to install plugins", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while installing plugins", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Keys and hashes of the plugins listed by server when this repository was started, including
+   * the plugins that are not accepted by batch
+   */
+  public Map<String, String> getRemotePluginHashes() {
+    return remotePluginHashes;
+  }
+
+  public static Map<String, String> hashesByKey(List<RemotePlugin> remotePlugins) {
+    Map<String, String> result = Maps.newHashMap();
+    for (RemotePlugin remote : remotePlugins) {
+      result.put(remote.getKey(), remote.file() != null ? remote.file().getHash() : null);
+    }
+    return result;
   }
 
   public void stop() {
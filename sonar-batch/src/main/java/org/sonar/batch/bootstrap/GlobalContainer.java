@@ -83,6 +83,7 @@ public class GlobalContainer extends ComponentContainer {
       BatchPluginJarInstaller.class,
       GlobalSettings.class,
       ServerClient.class,
+      ServerRequestStats.class,
       ExtensionInstaller.class,
       Logback.class,
       DefaultServer.class,
@@ -155,7 +156,12 @@ public class GlobalContainer extends ComponentContainer {
   }
 
   public void executeTask(Map<String, String> taskProperties, Object... components) {
-    new TaskContainer(this, taskProperties, components).execute();
+    try {
+      new TaskContainer(this, taskProperties, components).execute();
+    } finally {
+      // the container can be reused by next tasks, see BatchDaemon
+      getComponentByType(ServerRequestStats.class).clear();
+    }
   }
 
 }
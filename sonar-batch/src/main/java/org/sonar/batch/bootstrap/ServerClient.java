@@ -29,11 +29,13 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.BatchComponent;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.utils.HttpDownloader;
+import org.sonar.api.utils.System2;
 import org.sonar.batch.bootstrapper.EnvironmentInformation;
 
 import javax.annotation.Nullable;
@@ -58,9 +60,13 @@ public class ServerClient implements BatchComponent {
   private static final String GET = "GET";
   private BootstrapProperties props;
   private HttpDownloader.BaseHttpDownloader downloader;
+  private final ServerRequestStats stats;
+  private final System2 system;
 
-  public ServerClient(BootstrapProperties settings, EnvironmentInformation env) {
+  public ServerClient(BootstrapProperties settings, EnvironmentInformation env, ServerRequestStats stats, System2 system) {
     this.props = settings;
+    this.stats = stats;
+    this.system = system;
     this.downloader = new HttpDownloader.BaseHttpDownloader(settings.properties(), env.toString());
   }
 
@@ -101,15 +107,24 @@ public class ServerClient implements BatchComponent {
 
   public String request(String pathStartingWithSlash, String requestMethod, boolean wrapHttpException, @Nullable Integer timeoutMillis) {
     InputSupplier<InputStream> inputSupplier = doRequest(pathStartingWithSlash, requestMethod, timeoutMillis);
+    InputStream input = null;
     try {
-      return IOUtils.toString(inputSupplier.getInput(), "UTF-8");
+      input = inputSupplier.getInput();
+      return IOUtils.toString(input, "UTF-8");
     } catch (HttpDownloader.HttpException e) {
       throw wrapHttpException ? handleHttpException(e) : e;
     } catch (IOException e) {
       throw new IllegalStateException(String.format("Unable to request: %s", pathStartingWithSlash), e);
+    } finally {
+      // the connection can be re-used by next requests (HTTP keep-alive) only if response is closed
+      IOUtils.closeQuietly(input);
     }
   }
 
+  /**
+   * The response stream must be closed in order to release the connection. It is then kept alive
+   * and re-used by the next requests to server.
+   */
   public InputSupplier<InputStream> doRequest(String pathStartingWithSlash, String requestMethod, @Nullable Integer timeoutMillis) {
     Preconditions.checkArgument(pathStartingWithSlash.startsWith("/"), "Path must start with slash /");
     String path = StringEscapeUtils.escapeHtml(pathStartingWithSlash);
@@ -122,7 +137,7 @@ public class ServerClient implements BatchComponent {
       } else {
         inputSupplier = downloader.newInputSupplier(uri, requestMethod, getLogin(), getPassword(), timeoutMillis);
       }
-      return inputSupplier;
+      return new MeasuredInputSupplier(inputSupplier, ServerRequestStats.endpointOf(pathStartingWithSlash));
     } catch (Exception e) {
       throw new IllegalStateException(String.format("Unable to request: %s", uri), e);
     }
@@ -178,4 +193,43 @@ public class ServerClient implements BatchComponent {
     }
   }
 
+  /**
+   * Records the duration of request, from its sending to the close of response, and the number of downloaded bytes
+   */
+  private class MeasuredInputSupplier implements InputSupplier<InputStream> {
+    private final InputSupplier<InputStream> delegate;
+    private final String endpoint;
+
+    MeasuredInputSupplier(InputSupplier<InputStream> delegate, String endpoint) {
+      this.delegate = delegate;
+      this.endpoint = endpoint;
+    }
+
+    @Override
+    public InputStream getInput() throws IOException {
+      final long start = system.now();
+      InputStream input;
+      try {
+        input = delegate.getInput();
+      } catch (IOException | RuntimeException e) {
+        stats.record(endpoint, system.now() - start, 0L);
+        throw e;
+      }
+      return new CountingInputStream(input) {
+        private boolean recorded = false;
+
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            if (!recorded) {
+              recorded = true;
+              stats.record(endpoint, system.now() - start, getByteCount());
+            }
+          }
+        }
+      };
+    }
+  }
 }
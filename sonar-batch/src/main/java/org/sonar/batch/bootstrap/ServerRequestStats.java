@@ -0,0 +1,111 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package org.sonar.batch.bootstrap;
+
+import com.google.common.collect.Lists;
+import org.sonar.api.BatchComponent;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of requests, duration and downloaded/uploaded bytes of the calls to server, grouped by endpoint
+ * (URL path without query string). It is thread-safe as some requests are executed concurrently, for example
+ * the download of plugins.
+ *
+ * @since 5.2
+ */
+public class ServerRequestStats implements BatchComponent {
+
+  private final ConcurrentMap<String, EndpointStats> statsByEndpoint = new ConcurrentHashMap<>();
+
+  public void record(String endpoint, long durationMs, long bytes) {
+    EndpointStats stats = statsByEndpoint.get(endpoint);
+    if (stats == null) {
+      EndpointStats newStats = new EndpointStats(endpoint);
+      stats = statsByEndpoint.putIfAbsent(endpoint, newStats);
+      if (stats == null) {
+        stats = newStats;
+      }
+    }
+    stats.add(durationMs, bytes);
+  }
+
+  public void clear() {
+    statsByEndpoint.clear();
+  }
+
+  /**
+   * Stats sorted by descending total duration
+   */
+  public List<EndpointStats> all() {
+    List<EndpointStats> result = Lists.newArrayList(statsByEndpoint.values());
+    Collections.sort(result, new Comparator<EndpointStats>() {
+      @Override
+      public int compare(EndpointStats o1, EndpointStats o2) {
+        return Long.valueOf(o2.durationMs()).compareTo(o1.durationMs());
+      }
+    });
+    return result;
+  }
+
+  static String endpointOf(String path) {
+    int queryIndex = path.indexOf('?');
+    return queryIndex < 0 ? path : path.substring(0, queryIndex);
+  }
+
+  public static class EndpointStats {
+    private final String endpoint;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong durationMs = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    EndpointStats(String endpoint) {
+      this.endpoint = endpoint;
+    }
+
+    void add(long durationMs, long bytes) {
+      this.requests.incrementAndGet();
+      this.durationMs.addAndGet(durationMs);
+      this.bytes.addAndGet(bytes);
+    }
+
+    public String endpoint() {
+      return endpoint;
+    }
+
+    public long requests() {
+      return requests.get();
+    }
+
+    public long durationMs() {
+      return durationMs.get();
+    }
+
+    public long bytes() {
+      return bytes.get();
+    }
+  }
+}
@@ -19,9 +19,18 @@
  */
 package org.sonar.batch.bootstrapper;
 
+import com.google.common.base.Objects;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import org.sonar.api.CoreProperties;
+import org.sonar.api.platform.Server;
+import org.sonar.batch.bootstrap.BatchPluginRepository;
 import org.sonar.batch.bootstrap.GlobalContainer;
+import org.sonar.batch.bootstrap.PluginsRepository;
+import org.sonar.batch.protocol.GsonHelper;
+import org.sonar.batch.protocol.input.GlobalRepositories;
+import org.sonar.batch.repository.GlobalRepositoriesLoader;
 
 import java.util.Collections;
 import java.util.List;
@@ -109,6 +118,49 @@ public final class Batch {
     this.started = false;
   }
 
+  /**
+   * Restarts the batch if the server changed since the batch was started, so that plugins and global
+   * repositories are loaded again. The server is considered as changed when its version, the index
+   * of its plugins (keys and hashes), its global settings or its metrics changed.
+   *
+   * @return true if the batch has been restarted
+   */
+  synchronized boolean restartIfServerChanged() {
+    if (!started) {
+      throw new IllegalStateException("Batch is not started.");
+    }
+    if (isServerUnchanged()) {
+      return false;
+    }
+    stop();
+    start();
+    return true;
+  }
+
+  private boolean isServerUnchanged() {
+    GlobalRepositories current = bootstrapContainer.getComponentByType(GlobalRepositories.class);
+    GlobalRepositories fresh = bootstrapContainer.getComponentByType(GlobalRepositoriesLoader.class).load();
+    String currentVersion = bootstrapContainer.getComponentByType(Server.class).getVersion();
+    if (!Objects.equal(currentVersion, fresh.globalSettings().get(CoreProperties.SERVER_VERSION))
+      || !current.globalSettings().equals(fresh.globalSettings())
+      || !sameMetrics(current, fresh)) {
+      return false;
+    }
+    // index of plugins is downloaded only if nothing else changed
+    Map<String, String> currentPlugins = bootstrapContainer.getComponentByType(BatchPluginRepository.class).getRemotePluginHashes();
+    Map<String, String> freshPlugins = BatchPluginRepository.hashesByKey(bootstrapContainer.getComponentByType(PluginsRepository.class).pluginList());
+    return currentPlugins.equals(freshPlugins);
+  }
+
+  private static boolean sameMetrics(GlobalRepositories current, GlobalRepositories fresh) {
+    Gson gson = GsonHelper.create();
+    return gson.toJson(current.metrics()).equals(gson.toJson(fresh.metrics()));
+  }
+
+  Map<String, String> getBootstrapProperties() {
+    return bootstrapProperties;
+  }
+
   private void configureLogging() {
     if (logging != null) {
       logging.configure();
@@ -0,0 +1,251 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.bootstrapper;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.CoreProperties;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Keeps a started {@link Batch} warm between analyses. Tasks are sent by clients on a loopback socket, so that
+ * the JVM, the loaded plugins and the global repositories are shared by all the tasks. The batch is restarted
+ * when global data of server changed since the previous task.
+ * <p/>
+ * The port and a random secret are written to a file readable only by its owner. Protocol: the client writes
+ * the secret on the first line, then the task properties (format of {@link Properties}) and shuts down its output.
+ * The daemon executes the task and answers a single line, either <code>OK</code> or <code>ERROR &lt;message&gt;</code>.
+ * Connections that do not provide the secret are rejected before reading the task. Tasks are executed sequentially.
+ *
+ * @since 5.2
+ */
+public final class BatchDaemon {
+
+  public static final String OK = "OK";
+  public static final String ERROR = "ERROR";
+
+  static final String PORT_PROPERTY = "port";
+  static final String SECRET_PROPERTY = "secret";
+  private static final int READ_TIMEOUT_MS = 10000;
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchDaemon.class);
+
+  private final Batch batch;
+  private final ServerSocket serverSocket;
+  private final File daemonFile;
+  private final String secret;
+  private volatile boolean stopped = false;
+
+  /**
+   * @param port the local port, or 0 to use any free port
+   * @param daemonFile the file to be created with the port and the secret expected from clients. It is
+   *                   deleted when daemon is stopped.
+   */
+  public BatchDaemon(Batch batch, int port, File daemonFile) throws IOException {
+    this.batch = batch;
+    this.daemonFile = daemonFile;
+    this.secret = new BigInteger(256, new SecureRandom()).toString(Character.MAX_RADIX);
+    this.serverSocket = new ServerSocket(port, 0, InetAddress.getByName(null));
+    try {
+      writeDaemonFile();
+    } catch (IOException e) {
+      IOUtils.closeQuietly(serverSocket);
+      throw e;
+    }
+  }
+
+  private void writeDaemonFile() throws IOException {
+    Files.deleteIfExists(daemonFile.toPath());
+    try {
+      Files.createFile(daemonFile.toPath(), PosixFilePermissions.asFileAttribute(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE)));
+    } catch (UnsupportedOperationException e) {
+      // not a POSIX file system, for example on Windows
+      Files.createFile(daemonFile.toPath());
+      if (!daemonFile.setReadable(false, false) || !daemonFile.setReadable(true, true)) {
+        throw new IOException("Fail to restrict permissions of " + daemonFile, e);
+      }
+    }
+    Properties props = new Properties();
+    props.setProperty(PORT_PROPERTY, String.valueOf(getPort()));
+    props.setProperty(SECRET_PROPERTY, secret);
+    OutputStream output = new FileOutputStream(daemonFile);
+    try {
+      props.store(output, null);
+    } finally {
+      IOUtils.closeQuietly(output);
+    }
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Starts the batch and executes the tasks received until {@link #stop()} is called.
+   */
+  public void serve() {
+    batch.start();
+    try {
+      while (!stopped) {
+        Socket socket;
+        try {
+          socket = serverSocket.accept();
+        } catch (SocketException e) {
+          if (stopped) {
+            break;
+          }
+          throw new IllegalStateException("Fail to accept batch tasks", e);
+        } catch (IOException e) {
+          throw new IllegalStateException("Fail to accept batch tasks", e);
+        }
+        handle(socket);
+      }
+    } finally {
+      batch.stop();
+    }
+  }
+
+  public void stop() {
+    stopped = true;
+    IOUtils.closeQuietly(serverSocket);
+    if (!daemonFile.delete() && daemonFile.exists()) {
+      LOG.warn("Fail to delete " + daemonFile);
+    }
+  }
+
+  private void handle(Socket socket) {
+    try {
+      socket.setSoTimeout(READ_TIMEOUT_MS);
+      BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), Charsets.UTF_8));
+      String response;
+      if (isAuthorized(reader.readLine())) {
+        Map<String, String> taskProperties = readProperties(reader);
+        socket.setSoTimeout(0);
+        response = execute(taskProperties);
+      } else {
+        LOG.warn("Reject batch client with invalid secret");
+        response = ERROR + " Unauthorized";
+      }
+      Writer writer = new OutputStreamWriter(socket.getOutputStream(), Charsets.UTF_8);
+      writer.write(response);
+      writer.write('\n');
+      writer.flush();
+    } catch (IOException e) {
+      LOG.warn("Fail to communicate with batch client", e);
+    } finally {
+      IOUtils.closeQuietly(socket);
+    }
+  }
+
+  private String execute(Map<String, String> taskProperties) {
+    String daemonMode = batch.getBootstrapProperties().get(CoreProperties.ANALYSIS_MODE);
+    String taskMode = taskProperties.get(CoreProperties.ANALYSIS_MODE);
+    if (taskMode != null && !Objects.equal(daemonMode, taskMode)) {
+      return ERROR + " Analysis mode " + taskMode + " is not supported by daemon started in mode " + daemonMode;
+    }
+    try {
+      if (batch.restartIfServerChanged()) {
+        LOG.info("Batch restarted because of changes on server");
+      }
+      batch.executeTask(taskProperties);
+      return OK;
+    } catch (RuntimeException e) {
+      LOG.error("Fail to execute batch task", e);
+      return ERROR + " " + Objects.firstNonNull(e.getMessage(), e.getClass().getName()).replace('\n', ' ');
+    }
+  }
+
+  private boolean isAuthorized(String clientSecret) {
+    return clientSecret != null && MessageDigest.isEqual(secret.getBytes(Charsets.UTF_8), clientSecret.getBytes(Charsets.UTF_8));
+  }
+
+  static Map<String, String> readProperties(Reader reader) throws IOException {
+    Properties props = new Properties();
+    props.load(reader);
+    Map<String, String> result = Maps.newHashMap();
+    for (String key : props.stringPropertyNames()) {
+      result.put(key, props.getProperty(key));
+    }
+    return result;
+  }
+
+  /**
+   * Sends a task to the daemon described by the given file and waits for its completion.
+   *
+   * @param daemonFile the file created by daemon, see {@link #BatchDaemon(Batch, int, File)}
+   * @return the response of daemon, {@link #OK} or a line starting with {@link #ERROR}
+   */
+  public static String submit(File daemonFile, Map<String, String> taskProperties) throws IOException {
+    Properties daemonProps = new Properties();
+    InputStream input = new FileInputStream(daemonFile);
+    try {
+      daemonProps.load(input);
+    } finally {
+      IOUtils.closeQuietly(input);
+    }
+    int port = Integer.parseInt(daemonProps.getProperty(PORT_PROPERTY));
+    return submit(port, daemonProps.getProperty(SECRET_PROPERTY), taskProperties);
+  }
+
+  static String submit(int port, String secret, Map<String, String> taskProperties) throws IOException {
+    Socket socket = new Socket(InetAddress.getByName(null), port);
+    try {
+      Properties props = new Properties();
+      props.putAll(taskProperties);
+      Writer writer = new OutputStreamWriter(socket.getOutputStream(), Charsets.UTF_8);
+      writer.write(secret);
+      writer.write('\n');
+      props.store(writer, null);
+      writer.flush();
+      socket.shutdownOutput();
+      return IOUtils.toString(socket.getInputStream(), Charsets.UTF_8.name()).trim();
+    } finally {
+      IOUtils.closeQuietly(socket);
+    }
+  }
+}
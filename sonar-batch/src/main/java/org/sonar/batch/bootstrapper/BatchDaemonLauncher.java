@@ -0,0 +1,99 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.bootstrapper;
+
+import com.google.common.base.Charsets;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.Map;
+
+/**
+ * Command-line entry point of {@link BatchDaemon}, to be executed with sonar-batch and its dependencies in classpath:
+ * <ul>
+ *   <li><code>serve &lt;bootstrap properties file&gt; &lt;daemon file&gt;</code> starts a daemon until the JVM is stopped.
+ *   Bootstrap properties are the ones given to {@link Batch.Builder#setBootstrapProperties(Map)}, for example
+ *   the URL of server and the credentials.</li>
+ *   <li><code>submit &lt;daemon file&gt; &lt;task properties file&gt;</code> executes a task on the daemon and
+ *   exits with status 0 if the task succeeded.</li>
+ * </ul>
+ *
+ * @since 5.2
+ */
+public final class BatchDaemonLauncher {
+
+  static final int SUCCESS = 0;
+  static final int FAILURE = 1;
+  static final int USAGE = 2;
+
+  private static final String ENVIRONMENT_KEY = "BatchDaemon";
+
+  private BatchDaemonLauncher() {
+    // only static methods
+  }
+
+  public static void main(String... args) throws IOException {
+    System.exit(run(System.out, args));
+  }
+
+  static int run(PrintStream out, String... args) throws IOException {
+    if (args.length == 3 && "serve".equals(args[0])) {
+      serve(readProperties(new File(args[1])), new File(args[2]));
+      return SUCCESS;
+    }
+    if (args.length == 3 && "submit".equals(args[0])) {
+      String response = BatchDaemon.submit(new File(args[1]), readProperties(new File(args[2])));
+      out.println(response);
+      return BatchDaemon.OK.equals(response) ? SUCCESS : FAILURE;
+    }
+    out.println("Usage: serve <bootstrap properties file> <daemon file>");
+    out.println("       submit <daemon file> <task properties file>");
+    return USAGE;
+  }
+
+  private static void serve(Map<String, String> bootstrapProperties, File daemonFile) throws IOException {
+    Batch batch = Batch.builder()
+      .setEnvironment(new EnvironmentInformation(ENVIRONMENT_KEY, BatchDaemonLauncher.class.getPackage().getImplementationVersion()))
+      .setBootstrapProperties(bootstrapProperties)
+      .build();
+    final BatchDaemon daemon = new BatchDaemon(batch, 0, daemonFile);
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override
+      public void run() {
+        daemon.stop();
+      }
+    });
+    daemon.serve();
+  }
+
+  private static Map<String, String> readProperties(File file) throws IOException {
+    Reader reader = new InputStreamReader(new FileInputStream(file), Charsets.UTF_8);
+    try {
+      return BatchDaemon.readProperties(reader);
+    } finally {
+      IOUtils.closeQuietly(reader);
+    }
+  }
+}
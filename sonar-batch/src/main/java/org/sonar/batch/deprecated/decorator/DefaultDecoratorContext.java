@@ -24,7 +24,6 @@ import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import org.sonar.api.batch.DecoratorContext;
 import org.sonar.api.batch.SonarIndex;
-import org.sonar.api.batch.sensor.duplication.internal.DefaultDuplication;
 import org.sonar.api.design.Dependency;
 import org.sonar.api.measures.*;
 import org.sonar.api.resources.Project;
@@ -118,8 +117,12 @@ public class DefaultDecoratorContext implements DecoratorContext {
     String metricKey = ((MeasuresFilters.MetricFilter<M>) filter).filterOnMetricKey();
     if (CoreMetrics.DUPLICATIONS_DATA_KEY.equals(metricKey)) {
       // Hack for SONAR-5765
-      Iterable<DefaultDuplication> group = duplicationCache.byComponent(resource.getEffectiveKey());
-      unfiltered = Arrays.asList(new Measure(CoreMetrics.DUPLICATIONS_DATA, DuplicationUtils.toXml(group)));
+      String xml;
+      // the cache is not thread-safe, see DecoratorsExecutor
+      synchronized (sonarIndex) {
+        xml = DuplicationUtils.toXml(duplicationCache.byComponent(resource.getEffectiveKey()));
+      }
+      unfiltered = Arrays.asList(new Measure(CoreMetrics.DUPLICATIONS_DATA, xml));
     } else {
       // optimization
       unfiltered = measuresByMetric.get(metricKey);
@@ -197,22 +200,30 @@ public class DefaultDecoratorContext implements DecoratorContext {
   @Override
   public Dependency saveDependency(Dependency dependency) {
     checkReadOnly("addDependency");
-    return sonarIndex.addDependency(dependency);
+    synchronized (sonarIndex) {
+      return sonarIndex.addDependency(dependency);
+    }
   }
 
   @Override
   public Set<Dependency> getDependencies() {
-    return sonarIndex.getDependencies();
+    synchronized (sonarIndex) {
+      return sonarIndex.getDependencies();
+    }
   }
 
   @Override
   public Collection<Dependency> getIncomingDependencies() {
-    return sonarIndex.getIncomingEdges(resource);
+    synchronized (sonarIndex) {
+      return sonarIndex.getIncomingEdges(resource);
+    }
   }
 
   @Override
   public Collection<Dependency> getOutgoingDependencies() {
-    return sonarIndex.getOutgoingEdges(resource);
+    synchronized (sonarIndex) {
+      return sonarIndex.getOutgoingEdges(resource);
+    }
   }
 
   @Override
@@ -220,7 +231,9 @@ public class DefaultDecoratorContext implements DecoratorContext {
     if (violation.getResource() == null) {
       violation.setResource(resource);
     }
-    sonarIndex.addViolation(violation, force);
+    synchronized (sonarIndex) {
+      sonarIndex.addViolation(violation, force);
+    }
     return this;
   }
 
@@ -325,6 +325,10 @@ public class Cache<V> {
     return new EntryIterable<V>(exchange, firstKey);
   }
 
+  public Iterable<Entry<V>> entries(Object firstKey, Object secondKey) {
+    return new EntryIterable<V>(exchange, firstKey, secondKey);
+  }
+
   private void resetKey(Object key) {
     exchange.clear();
     exchange.append(key);
@@ -483,7 +487,7 @@ public class Cache<V> {
     private final Object[] key;
     private final V value;
 
-    Entry(Object[] key, V value) {
+    public Entry(Object[] key, V value) {
       this.key = key;
       this.value = value;
     }
@@ -20,6 +20,8 @@
 package org.sonar.batch.index;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.database.DatabaseSession;
@@ -32,12 +34,15 @@ import org.sonar.api.utils.internal.Uuids;
 import org.sonar.batch.ProjectTree;
 import org.sonar.core.component.ScanGraph;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.Query;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.sonar.api.utils.DateUtils.dateToLong;
 
@@ -57,6 +62,11 @@ public class ResourcePersister implements ScanPersister {
   private final ScanGraph graph;
   private final ProjectTree projectTree;
 
+  // existing models of the components of modules, loaded with a single request per module uuid
+  private final Map<String, ResourceModel> modelsByKey = Maps.newHashMap();
+  private final Set<String> prefetchedModuleUuids = Sets.newHashSet();
+  private final Map<Integer, ResourceModel> modelsById = Maps.newHashMap();
+
   public ResourcePersister(ProjectTree projectTree, DatabaseSession session, ResourcePermissions permissions, ResourceCache resourceCache, ScanGraph graph) {
     this.projectTree = projectTree;
     this.session = session;
@@ -70,6 +80,8 @@ public class ResourcePersister implements ScanPersister {
     for (BatchResource resource : resourceCache.all()) {
       persist(resource);
     }
+    // directories and files are committed all together
+    session.commit();
 
     for (BatchResource lib : resourceCache.allLibraries()) {
       if (lib.snapshot() != null) {
@@ -94,7 +106,7 @@ public class ResourcePersister implements ScanPersister {
     Snapshot s;
     if (parentBatchResource != null) {
       persist(parentBatchResource);
-      s = persist(findModule(parentBatchResource), batchResource.resource(), parentBatchResource.resource());
+      s = persistWithoutCommit(findModule(parentBatchResource), batchResource.resource(), parentBatchResource.resource());
     } else {
       // Root project
       s = persistProject((Project) batchResource.resource(), null);
@@ -133,7 +145,7 @@ public class ResourcePersister implements ScanPersister {
     } else {
       model.setRootId(null);
     }
-    model = session.save(model);
+    model = save(model);
     project.setId(model.getId());
     project.setUuid(model.getUuid());
 
@@ -152,6 +164,12 @@ public class ResourcePersister implements ScanPersister {
   }
 
   Snapshot persist(Project project, Resource resource, @Nullable Resource parent) {
+    Snapshot snapshot = persistWithoutCommit(project, resource, parent);
+    session.commit();
+    return snapshot;
+  }
+
+  private Snapshot persistWithoutCommit(Project project, Resource resource, @Nullable Resource parent) {
     Snapshot snapshot;
     if (resource instanceof Project) {
       // should not occur, please use the method saveProject()
@@ -165,7 +183,7 @@ public class ResourcePersister implements ScanPersister {
 
   Snapshot persistLibrary(Date analysisDate, Library library) {
     ResourceModel model = findOrCreateModel(library, null);
-    model = session.save(model);
+    model = save(model);
     // TODO to be removed
     library.setId(model.getId());
     library.setUuid(model.getUuid());
@@ -209,9 +227,9 @@ public class ResourcePersister implements ScanPersister {
   private Snapshot persistFileOrDirectory(Project project, Resource resource, @Nullable Resource parentReference) {
     BatchResource moduleResource = resourceCache.get(project);
     Integer moduleId = moduleResource.resource().getId();
-    ResourceModel model = findOrCreateModel(resource, parentReference != null ? parentReference : project);
+    ResourceModel model = findOrCreateModel(resource, parentReference != null ? parentReference : project, project);
     model.setRootId(moduleId);
-    model = session.save(model);
+    model = save(model);
     resource.setId(model.getId());
     resource.setUuid(model.getUuid());
 
@@ -224,15 +242,23 @@ public class ResourcePersister implements ScanPersister {
 
     Snapshot snapshot = new Snapshot(model, parentSnapshot);
     snapshot.setBuildDateMs(System.currentTimeMillis());
-    snapshot = session.save(snapshot);
-    session.commit();
-    return snapshot;
+    return session.save(snapshot);
+  }
+
+  private ResourceModel save(ResourceModel model) {
+    ResourceModel saved = session.save(model);
+    modelsById.put(saved.getId(), saved);
+    return saved;
   }
 
   private ResourceModel findOrCreateModel(Resource resource, @Nullable Resource parentResource) {
+    return findOrCreateModel(resource, parentResource, null);
+  }
+
+  private ResourceModel findOrCreateModel(Resource resource, @Nullable Resource parentResource, @Nullable Project module) {
     ResourceModel model;
     try {
-      model = session.getSingleResult(ResourceModel.class, "key", resource.getEffectiveKey());
+      model = findModel(resource, module);
       if (model == null) {
         if (StringUtils.isBlank(resource.getEffectiveKey())) {
           throw new SonarException("Unable to persist resource " + resource.toString() + ". Resource effective key is blank. This may be caused by an outdated plugin.");
@@ -250,6 +276,47 @@ public class ResourcePersister implements ScanPersister {
     }
   }
 
+  @CheckForNull
+  private ResourceModel findModel(Resource resource, @Nullable Project module) {
+    String key = resource.getEffectiveKey();
+    if (module != null && module.getUuid() != null && key != null && key.startsWith(componentKeyPrefix(module))) {
+      prefetchModels(module);
+      return modelsByKey.get(key);
+    }
+    return session.getSingleResult(ResourceModel.class, "key", key);
+  }
+
+  /**
+   * Loads all the existing components of the module, instead of one request per component. Components are
+   * selected by module uuid, not by key prefix, so that branches and other projects whose keys start with the
+   * module key are not loaded.
+   */
+  private void prefetchModels(Project module) {
+    String moduleUuid = module.getUuid();
+    if (moduleUuid != null && prefetchedModuleUuids.add(moduleUuid)) {
+      String prefix = componentKeyPrefix(module);
+      Query query = session.createQuery("from " + ResourceModel.class.getSimpleName() + " r WHERE r.moduleUuid = :moduleUuid");
+      query.setParameter("moduleUuid", moduleUuid);
+      List<ResourceModel> models = query.getResultList();
+      for (ResourceModel model : models) {
+        // sub-modules may have keys that do not start with the key of module
+        if (model.getKey().startsWith(prefix) && modelsByKey.put(model.getKey(), model) != null) {
+          throw new NonUniqueResultException("Expected single result for entitiy " + ResourceModel.class.getSimpleName() + " with criterias : key," + model.getKey());
+        }
+        modelsById.put(model.getId(), model);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  Set<String> prefetchedKeys() {
+    return modelsByKey.keySet();
+  }
+
+  private static String componentKeyPrefix(Project module) {
+    return module.getEffectiveKey() + ":";
+  }
+
   ResourceModel createModel(Resource resource, @Nullable Resource parentResource) {
     ResourceModel model = new ResourceModel();
     model.setEnabled(Boolean.TRUE);
@@ -282,7 +349,10 @@ public class ResourcePersister implements ScanPersister {
       model.setProjectUuid(model.getUuid());
       model.setModuleUuidPath(MODULE_UUID_PATH_SEPARATOR + model.getUuid() + MODULE_UUID_PATH_SEPARATOR);
     } else {
-      ResourceModel parentModel = session.getSingleResult(ResourceModel.class, "id", parentResource.getId());
+      ResourceModel parentModel = modelsById.get(parentResource.getId());
+      if (parentModel == null) {
+        parentModel = session.getSingleResult(ResourceModel.class, "id", parentResource.getId());
+      }
       model.setProjectUuid(parentModel.getProjectUuid());
       if (Scopes.isProject(resource)) {
         // Sub module
@@ -22,7 +22,6 @@ package org.sonar.batch.index;
 import org.sonar.api.batch.fs.internal.FileMetadata;
 import org.sonar.api.batch.fs.internal.FileMetadata.LineHashConsumer;
 
-import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
@@ -33,6 +32,7 @@ import org.sonar.batch.ProjectTree;
 import org.sonar.batch.scan.filesystem.InputPathCache;
 import org.sonar.core.persistence.DbSession;
 import org.sonar.core.persistence.MyBatis;
+import org.sonar.core.source.LineHashes;
 import org.sonar.core.source.db.FileSourceDto;
 import org.sonar.core.source.db.FileSourceMapper;
 
@@ -99,7 +99,7 @@ public class SourcePersister implements ScanPersister {
         .setBinaryData(data)
         .setDataHash(dataHash)
         .setSrcHash(inputFile.hash())
-        .setLineHashes(lineHashesAsMd5Hex(inputFile))
+        .setBinaryLineHashes(binaryLineHashes(inputFile))
         .setCreatedAt(system2.now())
         .setUpdatedAt(0L);
       mapper.insert(dto);
@@ -113,7 +113,9 @@ public class SourcePersister implements ScanPersister {
           .setBinaryData(data)
           .setDataHash(dataHash)
           .setSrcHash(inputFile.hash())
-          .setLineHashes(lineHashesAsMd5Hex(inputFile));
+          // legacy text column is emptied as soon as the file is updated (progressive migration)
+          .setLineHashes(null)
+          .setBinaryLineHashes(binaryLineHashes(inputFile));
         // Optimization only change updated at when updating binary data to avoid unecessary indexation by E/S
         if (binaryDataUpdated) {
           previousDto.setUpdatedAt(0L);
@@ -125,25 +127,19 @@ public class SourcePersister implements ScanPersister {
   }
 
   @CheckForNull
-  private String lineHashesAsMd5Hex(DefaultInputFile f) {
+  private static byte[] binaryLineHashes(DefaultInputFile f) {
     if (f.lines() == 0) {
       return null;
     }
-    // A md5 string is 32 char long + '\n' = 33
-    final StringBuilder result = new StringBuilder(f.lines() * (32 + 1));
-
+    final long[] hashes = LineHashes.create(f.lines());
     FileMetadata.computeLineHashesForIssueTracking(f, new LineHashConsumer() {
 
       @Override
       public void consume(int lineIdx, @Nullable byte[] hash) {
-        if (lineIdx > 1) {
-          result.append("\n");
-        }
-        result.append(hash != null ? Hex.encodeHexString(hash) : "");
+        LineHashes.set(hashes, lineIdx, hash);
       }
     });
-
-    return result.toString();
+    return LineHashes.encode(hashes, true);
   }
 
   private byte[] computeData(DefaultInputFile inputFile) {
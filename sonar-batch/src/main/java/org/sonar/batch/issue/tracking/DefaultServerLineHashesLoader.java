@@ -20,10 +20,20 @@
 package org.sonar.batch.issue.tracking;
 
 import com.google.common.base.Splitter;
-import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.InputSupplier;
+import org.sonar.api.utils.HttpDownloader;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.api.utils.log.Profiler;
 import org.sonar.batch.bootstrap.ServerClient;
+import org.sonar.core.source.LineHashes;
+
+import javax.annotation.CheckForNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 public class DefaultServerLineHashesLoader implements ServerLineHashesLoader {
 
@@ -34,19 +44,34 @@ public class DefaultServerLineHashesLoader implements ServerLineHashesLoader {
   }
 
   @Override
-  public String[] getLineHashes(String fileKey) {
-    String hashesFromWs = loadHashesFromWs(fileKey);
-    return Iterators.toArray(Splitter.on('\n').split(hashesFromWs).iterator(), String.class);
-  }
-
-  private String loadHashesFromWs(String fileKey) {
+  @CheckForNull
+  public long[] getLineHashes(String fileKey) {
     Profiler profiler = Profiler.createIfDebug(Loggers.get(getClass()))
       .addContext("file", fileKey)
       .startDebug("Load line hashes");
-    try {
-      return server.request("/api/sources/hash?key=" + ServerClient.encodeForUrl(fileKey));
+    InputSupplier<InputStream> request = server.doRequest("/api/sources/hash?key=" + ServerClient.encodeForUrl(fileKey) + "&format=binary", "GET", null);
+    try (InputStream is = request.getInput()) {
+      return decode(ByteStreams.toByteArray(is));
+    } catch (HttpDownloader.HttpException e) {
+      throw server.handleHttpException(e);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to load line hashes of file " + fileKey, e);
     } finally {
       profiler.stopDebug();
     }
   }
+
+  @CheckForNull
+  private static long[] decode(byte[] response) {
+    if (response.length == 0) {
+      // file is unknown or has no hashes
+      return null;
+    }
+    if (response[0] == LineHashes.RAW || response[0] == LineHashes.LZ4) {
+      return LineHashes.decode(response);
+    }
+    // text format, returned by servers that ignore the parameter "format"
+    String text = new String(response, StandardCharsets.UTF_8);
+    return LineHashes.fromHex(Lists.newArrayList(Splitter.on('\n').split(text)));
+  }
 }
@@ -19,74 +19,107 @@
  */
 package org.sonar.batch.issue.tracking;
 
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.FileMetadata;
 import org.sonar.api.batch.fs.internal.FileMetadata.LineHashConsumer;
-
-import com.google.common.collect.LinkedHashMultimap;
-import com.google.common.collect.Multimap;
-import org.apache.commons.codec.binary.Hex;
-import org.apache.commons.lang.ObjectUtils;
-import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.core.source.LineHashes;
 
 import javax.annotation.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 /**
- * Wraps a {@link Sequence} to assign hash codes to elements.
+ * Line hashes of a file, in the format of {@link LineHashes}. Lines are numbered from 1.
+ * <p/>
+ * Lines having the same hash are indexed by a chained hash table of primitive arrays, so that
+ * large files do not require to box line numbers and hashes.
  */
 public final class FileHashes {
 
-  private final String[] hashes;
-  private final Multimap<String, Integer> linesByHash;
+  private static final int NO_LINE = 0;
+
+  private final long[] hashes;
+  private final int lineCount;
+
+  /**
+   * Index of the first line of each bucket, or {@link #NO_LINE}
+   */
+  private final int[] buckets;
 
-  private FileHashes(String[] hashes, Multimap<String, Integer> linesByHash) {
+  /**
+   * Index of the next line of the same bucket, or {@link #NO_LINE}. Array index is the line number.
+   */
+  private final int[] nextLines;
+
+  private FileHashes(long[] hashes) {
     this.hashes = hashes;
-    this.linesByHash = linesByHash;
+    this.lineCount = LineHashes.lineCount(hashes);
+    this.buckets = new int[Math.max(1, Integer.highestOneBit(Math.max(1, lineCount)) << 1)];
+    this.nextLines = new int[lineCount + 1];
+    // lines are inserted in reverse order so that each chain is sorted by line
+    for (int line = lineCount; line > 0; line--) {
+      int bucket = bucket(getHashCode(line));
+      nextLines[line] = buckets[bucket];
+      buckets[bucket] = line;
+    }
   }
 
-  public static FileHashes create(String[] hashes) {
-    int size = hashes.length;
-    Multimap<String, Integer> linesByHash = LinkedHashMultimap.create();
-    for (int i = 0; i < size; i++) {
-      // indices in array are shifted one line before
-      linesByHash.put(hashes[i], i + 1);
-    }
-    return new FileHashes(hashes, linesByHash);
+  public static FileHashes create(long[] hashes) {
+    return new FileHashes(hashes);
+  }
+
+  public static FileHashes create(String[] hexHashes) {
+    return new FileHashes(LineHashes.fromHex(Arrays.asList(hexHashes)));
   }
 
   public static FileHashes create(DefaultInputFile f) {
-    final byte[][] hashes = new byte[f.lines()][];
+    final long[] hashes = LineHashes.create(f.lines());
     FileMetadata.computeLineHashesForIssueTracking(f, new LineHashConsumer() {
 
       @Override
       public void consume(int lineIdx, @Nullable byte[] hash) {
-        hashes[lineIdx - 1] = hash;
+        LineHashes.set(hashes, lineIdx, hash);
       }
     });
-
-    int size = hashes.length;
-    Multimap<String, Integer> linesByHash = LinkedHashMultimap.create();
-    String[] hexHashes = new String[size];
-    for (int i = 0; i < size; i++) {
-      String hash = hashes[i] != null ? Hex.encodeHexString(hashes[i]) : "";
-      hexHashes[i] = hash;
-      // indices in array are shifted one line before
-      linesByHash.put(hash, i + 1);
-    }
-    return new FileHashes(hexHashes, linesByHash);
+    return new FileHashes(hashes);
   }
 
   public int length() {
-    return hashes.length;
+    return lineCount;
   }
 
-  public Collection<Integer> getLinesForHash(String hash) {
-    return linesByHash.get(hash);
+  /**
+   * Lines of this file that have the same hash as the line <code>otherLine</code> of <code>other</code>
+   */
+  public Collection<Integer> getLinesForHash(FileHashes other, int otherLine) {
+    List<Integer> lines = new ArrayList<>();
+    for (int line = buckets[bucket(other.getHashCode(otherLine))]; line != NO_LINE; line = nextLines[line]) {
+      if (LineHashes.equals(hashes, line, other.hashes, otherLine)) {
+        lines.add(line);
+      }
+    }
+    return lines;
   }
 
+  /**
+   * Hexadecimal value of the hash, or empty string if the line has no hash
+   */
   public String getHash(int line) {
-    // indices in array are shifted one line before
-    return (String) ObjectUtils.defaultIfNull(hashes[line - 1], "");
+    return LineHashes.toHex(hashes, line);
+  }
+
+  public int getHashCode(int line) {
+    return LineHashes.hashCode(hashes, line);
+  }
+
+  public boolean hasSameHash(int line, FileHashes other, int otherLine) {
+    return LineHashes.equals(hashes, line, other.hashes, otherLine);
+  }
+
+  private int bucket(int hashCode) {
+    return (hashCode ^ (hashCode >>> 16)) & (buckets.length - 1);
   }
 }
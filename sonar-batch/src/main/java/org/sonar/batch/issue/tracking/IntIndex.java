@@ -0,0 +1,120 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.issue.tracking;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of int keys. Each key is given a dense index, from 0 to {@link #size()} - 1, in
+ * insertion order, so that callers can store the associated values in arrays of primitives instead of
+ * boxing keys and values in a {@link java.util.HashMap}.
+ */
+final class IntIndex {
+
+  private static final int EMPTY = 0;
+
+  private int[] keys;
+
+  /**
+   * 1 + index of the key hashed into the slot, or {@link #EMPTY}
+   */
+  private int[] slots;
+
+  private int size = 0;
+
+  IntIndex() {
+    this(16);
+  }
+
+  IntIndex(int expectedSize) {
+    int capacity = 4;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    this.slots = new int[capacity];
+    this.keys = new int[Math.max(4, expectedSize)];
+  }
+
+  int size() {
+    return size;
+  }
+
+  int keyAt(int index) {
+    return keys[index];
+  }
+
+  /**
+   * @return the index of the key, or -1 if the key has not been added
+   */
+  int indexOf(int key) {
+    int mask = slots.length - 1;
+    for (int slot = mix(key) & mask; slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+      int index = slots[slot] - 1;
+      if (keys[index] == key) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Adds the key if it's not already present.
+   * @return the index of the key
+   */
+  int add(int key) {
+    int mask = slots.length - 1;
+    int slot = mix(key) & mask;
+    while (slots[slot] != EMPTY) {
+      int index = slots[slot] - 1;
+      if (keys[index] == key) {
+        return index;
+      }
+      slot = (slot + 1) & mask;
+    }
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+    }
+    int index = size;
+    keys[index] = key;
+    slots[slot] = index + 1;
+    size++;
+    if (size * 2 > slots.length) {
+      rehash(slots.length * 2);
+    }
+    return index;
+  }
+
+  private void rehash(int capacity) {
+    slots = new int[capacity];
+    int mask = capacity - 1;
+    for (int index = 0; index < size; index++) {
+      int slot = mix(keys[index]) & mask;
+      while (slots[slot] != EMPTY) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = index + 1;
+    }
+  }
+
+  private static int mix(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
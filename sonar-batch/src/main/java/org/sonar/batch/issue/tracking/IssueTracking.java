@@ -23,21 +23,31 @@ package org.sonar.batch.issue.tracking;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.LinkedHashMultimap;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 import org.sonar.api.BatchComponent;
 import org.sonar.api.batch.InstantiationStrategy;
 import org.sonar.api.issue.internal.DefaultIssue;
 
 import javax.annotation.Nullable;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 @InstantiationStrategy(InstantiationStrategy.PER_BATCH)
 public class IssueTracking implements BatchComponent {
 
+  /**
+   * Maximum number of pairs of lines that are compared when looking for moved blocks of code
+   */
+  private static final int MAX_LINE_PAIRS = 250000;
+
+  /**
+   * Maximum length of blocks when pairing lines of large files
+   */
+  private static final int MAX_BLOCK_LENGTH = 1000;
+
   /**
    * @param sourceHashHolder Null when working on resource that is not a file (directory/project)
    */
@@ -117,58 +127,75 @@ public class IssueTracking implements BatchComponent {
     RollingFileHashes a = RollingFileHashes.create(hashedReference, 5);
     RollingFileHashes b = RollingFileHashes.create(hashedSource, 5);
 
-    Multimap<Integer, DefaultIssue> newIssuesByLines = newIssuesByLines(newIssues, rec, result);
-    Multimap<Integer, ServerIssue> lastIssuesByLines = lastIssuesByLines(result.unmatched(), rec);
+    IssuesByLine<DefaultIssue> newIssuesByLines = newIssuesByLines(newIssues, rec, result);
+    IssuesByLine<ServerIssue> lastIssuesByLines = lastIssuesByLines(result.unmatched(), rec);
 
-    Map<Integer, HashOccurrence> map = Maps.newHashMap();
+    HashOccurrences occurrences = new HashOccurrences();
+    for (int line : lastIssuesByLines.lines()) {
+      occurrences.addLineA(a.getHash(line), line);
+    }
+    for (int line : newIssuesByLines.lines()) {
+      occurrences.addLineB(b.getHash(line), line);
+    }
 
-    for (Integer line : lastIssuesByLines.keySet()) {
-      int hash = a.getHash(line);
-      HashOccurrence hashOccurrence = map.get(hash);
-      if (hashOccurrence == null) {
-        // first occurrence in A
-        hashOccurrence = new HashOccurrence();
-        hashOccurrence.lineA = line;
-        hashOccurrence.countA = 1;
-        map.put(hash, hashOccurrence);
-      } else {
-        hashOccurrence.countA++;
+    for (int i = 0; i < occurrences.size(); i++) {
+      if (occurrences.countA[i] == 1 && occurrences.countB[i] == 1) {
+        // Guaranteed that lineA has been moved to lineB, so we can map all issues on lineA to all issues on lineB
+        map(newIssuesByLines.get(occurrences.lineB[i]), lastIssuesByLines.get(occurrences.lineA[i]), result);
+        lastIssuesByLines.removeAll(occurrences.lineA[i]);
+        newIssuesByLines.removeAll(occurrences.lineB[i]);
       }
     }
 
-    for (Integer line : newIssuesByLines.keySet()) {
-      int hash = b.getHash(line);
-      HashOccurrence hashOccurrence = map.get(hash);
-      if (hashOccurrence != null) {
-        hashOccurrence.lineB = line;
-        hashOccurrence.countB++;
+    int[] oldLines = lastIssuesByLines.lines();
+    int[] newLines = newIssuesByLines.lines();
+    LinePairs possibleLinePairs;
+    if ((long) oldLines.length * newLines.length < MAX_LINE_PAIRS) {
+      possibleLinePairs = new LinePairs(oldLines.length * newLines.length);
+      for (int oldLine : oldLines) {
+        for (int newLine : newLines) {
+          possibleLinePairs.add(oldLine, newLine, rec.computeLengthOfMaximalBlock(oldLine, newLine));
+        }
       }
+    } else {
+      possibleLinePairs = linePairsWithSameHash(hashedReference, hashedSource, rec, oldLines, newLines);
+    }
+    possibleLinePairs.sort();
+    for (int i = 0; i < possibleLinePairs.size(); i++) {
+      // High probability that lineA has been moved to lineB, so we can map all Issues on lineA to all Issues on lineB
+      map(newIssuesByLines.get(possibleLinePairs.lineB(i)), lastIssuesByLines.get(possibleLinePairs.lineA(i)), result);
     }
+  }
 
-    for (HashOccurrence hashOccurrence : map.values()) {
-      if (hashOccurrence.countA == 1 && hashOccurrence.countB == 1) {
-        // Guaranteed that lineA has been moved to lineB, so we can map all issues on lineA to all issues on lineB
-        map(newIssuesByLines.get(hashOccurrence.lineB), lastIssuesByLines.get(hashOccurrence.lineA), result);
-        lastIssuesByLines.removeAll(hashOccurrence.lineA);
-        newIssuesByLines.removeAll(hashOccurrence.lineB);
-      }
+  /**
+   * Too many lines to compare all of them (for example generated files), so only lines having the same hash
+   * are paired, up to {@link #MAX_LINE_PAIRS} pairs. Length of blocks is bounded to {@link #MAX_BLOCK_LENGTH}.
+   */
+  private static LinePairs linePairsWithSameHash(FileHashes hashedReference, FileHashes hashedSource, IssueTrackingBlocksRecognizer rec,
+    int[] oldLines, int[] newLines) {
+    // positions in newLines are chained by hash code. Chains are sorted by position.
+    IntIndex hashCodes = new IntIndex(newLines.length);
+    int[] firstPositions = new int[newLines.length];
+    int[] nextPositions = new int[newLines.length];
+    for (int position = newLines.length - 1; position >= 0; position--) {
+      int index = hashCodes.add(hashedSource.getHashCode(newLines[position]));
+      nextPositions[position] = firstPositions[index];
+      firstPositions[index] = position + 1;
     }
 
-    // Check if remaining number of lines exceeds threshold
-    if (lastIssuesByLines.keySet().size() * newIssuesByLines.keySet().size() < 250000) {
-      List<LinePair> possibleLinePairs = Lists.newArrayList();
-      for (Integer oldLine : lastIssuesByLines.keySet()) {
-        for (Integer newLine : newIssuesByLines.keySet()) {
-          int weight = rec.computeLengthOfMaximalBlock(oldLine, newLine);
-          possibleLinePairs.add(new LinePair(oldLine, newLine, weight));
+    LinePairs pairs = new LinePairs(MAX_LINE_PAIRS);
+    for (int oldLine : oldLines) {
+      int index = hashCodes.indexOf(hashedReference.getHashCode(oldLine));
+      if (index >= 0) {
+        for (int position = firstPositions[index]; position != 0 && !pairs.isFull(); position = nextPositions[position - 1]) {
+          int newLine = newLines[position - 1];
+          if (hashedReference.hasSameHash(oldLine, hashedSource, newLine)) {
+            pairs.add(oldLine, newLine, rec.computeLengthOfMaximalBlock(oldLine, newLine, MAX_BLOCK_LENGTH));
+          }
         }
       }
-      Collections.sort(possibleLinePairs, LINE_PAIR_COMPARATOR);
-      for (LinePair linePair : possibleLinePairs) {
-        // High probability that lineA has been moved to lineB, so we can map all Issues on lineA to all Issues on lineB
-        map(newIssuesByLines.get(linePair.lineB), lastIssuesByLines.get(linePair.lineA), result);
-      }
     }
+    return pairs;
   }
 
   private void mapIssuesOnSameRule(Collection<DefaultIssue> newIssues, IssueTrackingResult result) {
@@ -177,7 +204,7 @@ public class IssueTracking implements BatchComponent {
       if (isNotAlreadyMapped(newIssue, result)) {
         mapIssue(
           newIssue,
-          findLastIssueWithSameChecksumAndMessage(newIssue, result.unmatchedByKeyForRule(newIssue.ruleKey()).values()),
+          findLastIssueWithSameChecksumAndMessage(newIssue, result.unmatchedForRuleAndForChecksum(newIssue.ruleKey(), newIssue.checksum())),
           result);
       }
     }
@@ -187,7 +214,7 @@ public class IssueTracking implements BatchComponent {
       if (isNotAlreadyMapped(newIssue, result)) {
         mapIssue(
           newIssue,
-          findLastIssueWithSameLineAndMessage(newIssue, result.unmatchedByKeyForRule(newIssue.ruleKey()).values()),
+          findLastIssueWithSameLineAndMessage(newIssue, result.unmatchedForRuleAndForLine(newIssue.ruleKey(), newIssue.line())),
           result);
       }
     }
@@ -198,7 +225,7 @@ public class IssueTracking implements BatchComponent {
       if (isNotAlreadyMapped(newIssue, result)) {
         mapIssue(
           newIssue,
-          findLastIssueWithSameChecksum(newIssue, result.unmatchedByKeyForRule(newIssue.ruleKey()).values()),
+          findLastIssueWithSameChecksum(newIssue, result.unmatchedForRuleAndForChecksum(newIssue.ruleKey(), newIssue.checksum())),
           result);
       }
     }
@@ -217,8 +244,8 @@ public class IssueTracking implements BatchComponent {
     }
   }
 
-  private Multimap<Integer, DefaultIssue> newIssuesByLines(Collection<DefaultIssue> newIssues, IssueTrackingBlocksRecognizer rec, IssueTrackingResult result) {
-    Multimap<Integer, DefaultIssue> newIssuesByLines = LinkedHashMultimap.create();
+  private IssuesByLine<DefaultIssue> newIssuesByLines(Collection<DefaultIssue> newIssues, IssueTrackingBlocksRecognizer rec, IssueTrackingResult result) {
+    IssuesByLine<DefaultIssue> newIssuesByLines = new IssuesByLine<>();
     for (DefaultIssue newIssue : newIssues) {
       if (isNotAlreadyMapped(newIssue, result) && rec.isValidLineInSource(newIssue.line())) {
         newIssuesByLines.put(newIssue.line(), newIssue);
@@ -227,8 +254,8 @@ public class IssueTracking implements BatchComponent {
     return newIssuesByLines;
   }
 
-  private Multimap<Integer, ServerIssue> lastIssuesByLines(Collection<ServerIssue> previousIssues, IssueTrackingBlocksRecognizer rec) {
-    Multimap<Integer, ServerIssue> previousIssuesByLines = LinkedHashMultimap.create();
+  private IssuesByLine<ServerIssue> lastIssuesByLines(Collection<ServerIssue> previousIssues, IssueTrackingBlocksRecognizer rec) {
+    IssuesByLine<ServerIssue> previousIssuesByLines = new IssuesByLine<>();
     for (ServerIssue previousIssue : previousIssues) {
       if (rec.isValidLineInReference(previousIssue.line())) {
         previousIssuesByLines.put(previousIssue.line(), previousIssue);
@@ -273,7 +300,7 @@ public class IssueTracking implements BatchComponent {
   }
 
   private boolean isNotAlreadyMapped(ServerIssue previousIssue, IssueTrackingResult result) {
-    return result.unmatched().contains(previousIssue);
+    return result.isUnmatched(previousIssue);
   }
 
   private boolean isNotAlreadyMapped(DefaultIssue newIssue, IssueTrackingResult result) {
@@ -303,35 +330,138 @@ public class IssueTracking implements BatchComponent {
     return getClass().getSimpleName();
   }
 
-  private static class LinePair {
-    int lineA;
-    int lineB;
-    int weight;
+  /**
+   * Issues grouped by line, keeping the order of first insertion of lines
+   */
+  private static class IssuesByLine<T> {
+    private final IntIndex lines = new IntIndex();
+    private final List<List<T>> issues = new ArrayList<>();
+
+    void put(int line, T issue) {
+      int index = lines.add(line);
+      if (index == issues.size()) {
+        issues.add(new ArrayList<T>(1));
+      }
+      issues.get(index).add(issue);
+    }
 
-    public LinePair(int lineA, int lineB, int weight) {
-      this.lineA = lineA;
-      this.lineB = lineB;
-      this.weight = weight;
+    List<T> get(int line) {
+      int index = lines.indexOf(line);
+      List<T> result = index < 0 ? null : issues.get(index);
+      return result == null ? Collections.<T>emptyList() : result;
+    }
+
+    void removeAll(int line) {
+      int index = lines.indexOf(line);
+      if (index >= 0) {
+        issues.set(index, null);
+      }
     }
-  }
 
-  private static class HashOccurrence {
-    int lineA;
-    int lineB;
-    int countA;
-    int countB;
+    int[] lines() {
+      int[] result = new int[lines.size()];
+      int size = 0;
+      for (int index = 0; index < lines.size(); index++) {
+        if (issues.get(index) != null) {
+          result[size] = lines.keyAt(index);
+          size++;
+        }
+      }
+      return size == result.length ? result : Arrays.copyOf(result, size);
+    }
   }
 
-  private static final Comparator<LinePair> LINE_PAIR_COMPARATOR = new Comparator<LinePair>() {
-    @Override
-    public int compare(LinePair o1, LinePair o2) {
-      int weightDiff = o2.weight - o1.weight;
-      if (weightDiff != 0) {
-        return weightDiff;
-      } else {
-        return Math.abs(o1.lineA - o1.lineB) - Math.abs(o2.lineA - o2.lineB);
+  /**
+   * Occurrences of rolling hashes in reference (A) and in source (B)
+   */
+  private static class HashOccurrences {
+    private final IntIndex hashes = new IntIndex();
+    int[] lineA = new int[16];
+    int[] lineB = new int[16];
+    int[] countA = new int[16];
+    int[] countB = new int[16];
+
+    void addLineA(int hash, int line) {
+      int index = hashes.add(hash);
+      if (index == lineA.length) {
+        int capacity = index * 2;
+        lineA = Arrays.copyOf(lineA, capacity);
+        lineB = Arrays.copyOf(lineB, capacity);
+        countA = Arrays.copyOf(countA, capacity);
+        countB = Arrays.copyOf(countB, capacity);
+      }
+      if (countA[index] == 0) {
+        // first occurrence in A
+        lineA[index] = line;
       }
+      countA[index]++;
     }
-  };
+
+    void addLineB(int hash, int line) {
+      int index = hashes.indexOf(hash);
+      if (index >= 0) {
+        lineB[index] = line;
+        countB[index]++;
+      }
+    }
+
+    int size() {
+      return hashes.size();
+    }
+  }
+
+  /**
+   * Pairs of lines sorted by decreasing weight then by increasing distance between lines. Sort is stable.
+   * Each pair is packed with its sort key in a long, so that sorting does not allocate objects:
+   * 22 bits for weight, 22 bits for distance and 18 bits for insertion index.
+   */
+  private static class LinePairs {
+    private static final int MAX_SIZE = 1 << 18;
+    private static final int MAX_VALUE = (1 << 22) - 1;
+
+    private final int[] linesA;
+    private final int[] linesB;
+    private final long[] keys;
+    private int size = 0;
+
+    LinePairs(int capacity) {
+      Preconditions.checkArgument(capacity <= MAX_SIZE, "Too many line pairs: %s", capacity);
+      this.linesA = new int[capacity];
+      this.linesB = new int[capacity];
+      this.keys = new long[capacity];
+    }
+
+    void add(int lineA, int lineB, int weight) {
+      int distance = Math.min(Math.abs(lineA - lineB), MAX_VALUE);
+      linesA[size] = lineA;
+      linesB[size] = lineB;
+      keys[size] = ((long) (MAX_VALUE - Math.min(weight, MAX_VALUE)) << 40) | ((long) distance << 18) | size;
+      size++;
+    }
+
+    boolean isFull() {
+      return size == keys.length;
+    }
+
+    void sort() {
+      Arrays.sort(keys, 0, size);
+    }
+
+    int size() {
+      return size;
+    }
+
+    int lineA(int i) {
+      return linesA[index(i)];
+    }
+
+    int lineB(int i) {
+      return linesB[index(i)];
+    }
+
+    private int index(int i) {
+      return (int) (keys[i] & (MAX_SIZE - 1));
+    }
+  }
 
 }
@@ -44,20 +44,29 @@ public class IssueTrackingBlocksRecognizer {
    * @param startB number of line from second version of text (numbering starts from 1)
    */
   public int computeLengthOfMaximalBlock(int startA, int startB) {
-    if (!a.getHash(startA).equals(b.getHash(startB))) {
+    return computeLengthOfMaximalBlock(startA, startB, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Same as {@link #computeLengthOfMaximalBlock(int, int)}, but stops looking for identical lines after
+   * <code>maxLength</code> lines in each direction.
+   */
+  public int computeLengthOfMaximalBlock(int startA, int startB, int maxLength) {
+    if (!a.hasSameHash(startA, b, startB)) {
       return 0;
     }
     int length = 0;
     int ai = startA;
     int bi = startB;
-    while (ai <= a.length() && bi <= b.length() && a.getHash(ai).equals(b.getHash(bi))) {
+    while (ai <= a.length() && bi <= b.length() && length < maxLength && a.hasSameHash(ai, b, bi)) {
       ai++;
       bi++;
       length++;
     }
+    int forwardLength = length;
     ai = startA;
     bi = startB;
-    while (ai > 0 && bi > 0 && a.getHash(ai).equals(b.getHash(bi))) {
+    while (ai > 0 && bi > 0 && length - forwardLength < maxLength && a.hasSameHash(ai, b, bi)) {
       ai--;
       bi--;
       length++;
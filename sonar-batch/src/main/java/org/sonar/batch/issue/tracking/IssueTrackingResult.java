@@ -20,6 +20,7 @@
 package org.sonar.batch.issue.tracking;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import org.apache.commons.lang.StringUtils;
@@ -37,12 +38,17 @@ class IssueTrackingResult {
   private final Map<String, ServerIssue> unmatchedByKey = new HashMap<>();
   private final Map<RuleKey, Map<String, ServerIssue>> unmatchedByRuleAndKey = new HashMap<>();
   private final Map<RuleKey, Map<Integer, Multimap<String, ServerIssue>>> unmatchedByRuleAndLineAndChecksum = new HashMap<>();
+  private final Map<RuleKey, Multimap<String, ServerIssue>> unmatchedByRuleAndChecksum = new HashMap<>();
   private final Map<DefaultIssue, ServerIssue> matched = Maps.newIdentityHashMap();
 
   Collection<ServerIssue> unmatched() {
     return unmatchedByKey.values();
   }
 
+  boolean isUnmatched(ServerIssue issue) {
+    return issue.equals(unmatchedByKey.get(issue.key()));
+  }
+
   Map<String, ServerIssue> unmatchedByKeyForRule(RuleKey ruleKey) {
     return unmatchedByRuleAndKey.containsKey(ruleKey) ? unmatchedByRuleAndKey.get(ruleKey) : Collections.<String, ServerIssue>emptyMap();
   }
@@ -64,6 +70,24 @@ class IssueTrackingResult {
     return unmatchedForRuleAndLine.get(checksumNotNull);
   }
 
+  Collection<ServerIssue> unmatchedForRuleAndForLine(RuleKey ruleKey, @Nullable Integer line) {
+    Map<Integer, Multimap<String, ServerIssue>> unmatchedForRule = unmatchedByRuleAndLineAndChecksum.get(ruleKey);
+    if (unmatchedForRule == null) {
+      return Collections.emptyList();
+    }
+    Multimap<String, ServerIssue> unmatchedForRuleAndLine = unmatchedForRule.get(line != null ? line : 0);
+    return unmatchedForRuleAndLine != null ? unmatchedForRuleAndLine.values() : Collections.<ServerIssue>emptyList();
+  }
+
+  /**
+   * Unlike {@link #unmatchedForRuleAndForLineAndForChecksum(RuleKey, Integer, String)}, null checksum
+   * is not considered as an empty checksum
+   */
+  Collection<ServerIssue> unmatchedForRuleAndForChecksum(RuleKey ruleKey, @Nullable String checksum) {
+    Multimap<String, ServerIssue> unmatchedForRule = unmatchedByRuleAndChecksum.get(ruleKey);
+    return unmatchedForRule != null ? unmatchedForRule.get(checksum) : Collections.<ServerIssue>emptyList();
+  }
+
   Collection<DefaultIssue> matched() {
     return matched.keySet();
   }
@@ -82,7 +106,9 @@ class IssueTrackingResult {
     if (!unmatchedByRuleAndKey.containsKey(ruleKey)) {
       unmatchedByRuleAndKey.put(ruleKey, new HashMap<String, ServerIssue>());
       unmatchedByRuleAndLineAndChecksum.put(ruleKey, new HashMap<Integer, Multimap<String, ServerIssue>>());
+      unmatchedByRuleAndChecksum.put(ruleKey, LinkedHashMultimap.<String, ServerIssue>create());
     }
+    unmatchedByRuleAndChecksum.get(ruleKey).put(i.checksum(), i);
     unmatchedByRuleAndKey.get(ruleKey).put(i.key(), i);
     Map<Integer, Multimap<String, ServerIssue>> unmatchedForRule = unmatchedByRuleAndLineAndChecksum.get(ruleKey);
     Integer lineNotNull = lineNotNull(i);
@@ -107,5 +133,6 @@ class IssueTrackingResult {
     Integer lineNotNull = lineNotNull(matching);
     String checksumNotNull = StringUtils.defaultString(matching.checksum(), "");
     unmatchedByRuleAndLineAndChecksum.get(ruleKey).get(lineNotNull).get(checksumNotNull).remove(matching);
+    unmatchedByRuleAndChecksum.get(ruleKey).remove(matching.checksum(), matching);
   }
 }
@@ -32,15 +32,15 @@ public class RollingFileHashes {
 
     RollingHashCalculator hashCalulator = new RollingHashCalculator(halfBlockSize * 2 + 1);
     for (int i = 1; i <= Math.min(size, halfBlockSize + 1); i++) {
-      hashCalulator.add(hashes.getHash(i).hashCode());
+      hashCalulator.add(hashes.getHashCode(i));
     }
     for (int i = 1; i <= size; i++) {
       rollingHashes[i - 1] = hashCalulator.getHash();
       if (i - halfBlockSize > 0) {
-        hashCalulator.remove(hashes.getHash(i - halfBlockSize).hashCode());
+        hashCalulator.remove(hashes.getHashCode(i - halfBlockSize));
       }
       if (i + 1 + halfBlockSize <= size) {
-        hashCalulator.add(hashes.getHash(i + 1 + halfBlockSize).hashCode());
+        hashCalulator.add(hashes.getHashCode(i + 1 + halfBlockSize));
       } else {
         hashCalulator.add(0);
       }
@@ -21,7 +21,14 @@ package org.sonar.batch.issue.tracking;
 
 import org.sonar.api.BatchComponent;
 
+import javax.annotation.CheckForNull;
+
 public interface ServerLineHashesLoader extends BatchComponent {
 
-  String[] getLineHashes(String fileKey);
+  /**
+   * Line hashes of the file as stored on server, in the format of {@link org.sonar.core.source.LineHashes}.
+   * Returns null if the server does not have any hashes for this file.
+   */
+  @CheckForNull
+  long[] getLineHashes(String fileKey);
 }
@@ -49,7 +49,7 @@ public class SourceHashHolder {
       } else if (status == Status.SAME) {
         hashedReference = hashedSource;
       } else {
-        String[] lineHashes = lastSnapshots.getLineHashes(inputFile.key());
+        long[] lineHashes = lastSnapshots.getLineHashes(inputFile.key());
         hashedReference = lineHashes != null ? FileHashes.create(lineHashes) : null;
       }
     }
@@ -71,7 +71,7 @@ public class SourceHashHolder {
     if (reference == null) {
       return ImmutableSet.of();
     } else {
-      return getHashedSource().getLinesForHash(reference.getHash(originLine));
+      return getHashedSource().getLinesForHash(reference, originLine);
     }
   }
 }
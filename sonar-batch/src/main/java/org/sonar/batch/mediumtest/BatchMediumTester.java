@@ -43,6 +43,7 @@ import org.sonar.batch.repository.ServerIssuesLoader;
 import org.sonar.core.component.ComponentKeys;
 import org.sonar.core.plugins.DefaultPluginMetadata;
 import org.sonar.core.plugins.RemotePlugin;
+import org.sonar.core.source.LineHashes;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -138,7 +139,7 @@ public class BatchMediumTester {
     }
 
     public BatchMediumTesterBuilder mockLineHashes(String fileKey, String[] lineHashes) {
-      serverLineHashes.byKey.put(fileKey, lineHashes);
+      serverLineHashes.byKey.put(fileKey, LineHashes.fromHex(Arrays.asList(lineHashes)));
       return this;
     }
 
@@ -336,10 +337,10 @@ public class BatchMediumTester {
   }
 
   private static class FakeServerLineHashesLoader implements ServerLineHashesLoader {
-    private Map<String, String[]> byKey = new HashMap<String, String[]>();
+    private Map<String, long[]> byKey = new HashMap<String, long[]>();
 
     @Override
-    public String[] getLineHashes(String fileKey) {
+    public long[] getLineHashes(String fileKey) {
       if (byKey.containsKey(fileKey)) {
         return byKey.get(fileKey);
       } else {
@@ -19,30 +19,40 @@
  */
 package org.sonar.batch.phases;
 
-import org.sonar.batch.deprecated.decorator.DefaultDecoratorContext;
-
-import org.sonar.batch.deprecated.decorator.DecoratorsSelector;
 import com.google.common.collect.Lists;
 import org.sonar.api.BatchComponent;
 import org.sonar.api.batch.Decorator;
 import org.sonar.api.batch.DecoratorContext;
 import org.sonar.api.batch.SonarIndex;
+import org.sonar.api.batch.ThreadSafeDecorator;
+import org.sonar.api.config.Settings;
 import org.sonar.api.measures.MetricFinder;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
 import org.sonar.api.utils.MessageException;
 import org.sonar.api.utils.SonarException;
 import org.sonar.batch.bootstrap.BatchExtensionDictionnary;
+import org.sonar.batch.deprecated.decorator.DecoratorsSelector;
+import org.sonar.batch.deprecated.decorator.DefaultDecoratorContext;
 import org.sonar.batch.duplication.DuplicationCache;
+import org.sonar.batch.events.BatchEvent;
 import org.sonar.batch.events.EventBus;
 import org.sonar.batch.scan.measure.MeasureCache;
 import org.sonar.batch.sensor.coverage.CoverageExclusions;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class DecoratorsExecutor implements BatchComponent {
 
+  /**
+   * Number of threads used to decorate resources. Children of a resource are decorated concurrently
+   * when greater than 1. Internal and experimental, disabled by default.
+   */
+  public static final String THREADS_PROPERTY = "sonar.batch.decorators.threads";
+
   private DecoratorsSelector decoratorsSelector;
   private SonarIndex index;
   private EventBus eventBus;
@@ -51,10 +61,12 @@ public class DecoratorsExecutor implements BatchComponent {
   private MeasureCache measureCache;
   private MetricFinder metricFinder;
   private final DuplicationCache duplicationCache;
+  private final Settings settings;
+  private boolean parallel = false;
 
   public DecoratorsExecutor(BatchExtensionDictionnary batchExtDictionnary,
     Project project, SonarIndex index, EventBus eventBus, CoverageExclusions coverageFilter, MeasureCache measureCache, MetricFinder metricFinder,
-    DuplicationCache duplicationCache) {
+    DuplicationCache duplicationCache, Settings settings) {
     this.measureCache = measureCache;
     this.metricFinder = metricFinder;
     this.duplicationCache = duplicationCache;
@@ -63,12 +75,27 @@ public class DecoratorsExecutor implements BatchComponent {
     this.eventBus = eventBus;
     this.project = project;
     this.coverageFilter = coverageFilter;
+    this.settings = settings;
   }
 
   public void execute() {
     Collection<Decorator> decorators = decoratorsSelector.select(project);
     eventBus.fireEvent(new DecoratorsPhaseEvent(Lists.newArrayList(decorators), true));
-    ((DefaultDecoratorContext) decorateResource(project, decorators, true)).end();
+    int threads = settings.getInt(THREADS_PROPERTY);
+    DefaultDecoratorContext context;
+    if (threads > 1) {
+      parallel = true;
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      try {
+        context = pool.invoke(new DecorateTask(project, decorators, true));
+      } finally {
+        pool.shutdown();
+        parallel = false;
+      }
+    } else {
+      context = (DefaultDecoratorContext) decorateResource(project, decorators, true);
+    }
+    context.end();
     eventBus.fireEvent(new DecoratorsPhaseEvent(Lists.newArrayList(decorators), false));
   }
 
@@ -79,7 +106,10 @@ public class DecoratorsExecutor implements BatchComponent {
       DefaultDecoratorContext childContext = (DefaultDecoratorContext) decorateResource(child, decorators, !isModule);
       childrenContexts.add(childContext.end());
     }
+    return decorate(resource, decorators, executeDecorators, childrenContexts);
+  }
 
+  private DefaultDecoratorContext decorate(Resource resource, Collection<Decorator> decorators, boolean executeDecorators, List<DecoratorContext> childrenContexts) {
     DefaultDecoratorContext context = new DefaultDecoratorContext(resource, index, childrenContexts, measureCache, metricFinder, duplicationCache, coverageFilter);
     context.init();
     if (executeDecorators) {
@@ -92,9 +122,15 @@ public class DecoratorsExecutor implements BatchComponent {
 
   void executeDecorator(Decorator decorator, DefaultDecoratorContext context, Resource resource) {
     try {
-      eventBus.fireEvent(new DecoratorExecutionEvent(decorator, true));
-      decorator.decorate(resource, context);
-      eventBus.fireEvent(new DecoratorExecutionEvent(decorator, false));
+      if (parallel && !decorator.getClass().isAnnotationPresent(ThreadSafeDecorator.class)) {
+        // Decorators can access caches of issues, duplications or the index, which are not thread-safe.
+        // They share the same lock than DefaultDecoratorContext.
+        synchronized (index) {
+          doExecuteDecorator(decorator, context, resource);
+        }
+      } else {
+        doExecuteDecorator(decorator, context, resource);
+      }
 
     } catch (MessageException e) {
       throw e;
@@ -105,4 +141,51 @@ public class DecoratorsExecutor implements BatchComponent {
     }
   }
 
+  private void doExecuteDecorator(Decorator decorator, DefaultDecoratorContext context, Resource resource) {
+    fireEvent(new DecoratorExecutionEvent(decorator, true));
+    decorator.decorate(resource, context);
+    fireEvent(new DecoratorExecutionEvent(decorator, false));
+  }
+
+  private void fireEvent(BatchEvent event) {
+    // handlers are not thread-safe
+    synchronized (eventBus) {
+      eventBus.fireEvent(event);
+    }
+  }
+
+  /**
+   * Decorates the children of a resource concurrently, then the resource itself
+   */
+  private class DecorateTask extends RecursiveTask<DefaultDecoratorContext> {
+    private final Resource resource;
+    private final Collection<Decorator> decorators;
+    private final boolean executeDecorators;
+
+    DecorateTask(Resource resource, Collection<Decorator> decorators, boolean executeDecorators) {
+      this.resource = resource;
+      this.decorators = decorators;
+      this.executeDecorators = executeDecorators;
+    }
+
+    @Override
+    protected DefaultDecoratorContext compute() {
+      List<DecorateTask> childrenTasks = Lists.newArrayList();
+      Collection<Resource> children;
+      synchronized (index) {
+        children = index.getChildren(resource);
+      }
+      for (Resource child : children) {
+        boolean isModule = child instanceof Project;
+        childrenTasks.add(new DecorateTask(child, decorators, !isModule));
+      }
+      invokeAll(childrenTasks);
+      List<DecoratorContext> childrenContexts = Lists.newArrayList();
+      for (DecorateTask childTask : childrenTasks) {
+        childrenContexts.add(childTask.join().end());
+      }
+      return decorate(resource, decorators, executeDecorators, childrenContexts);
+    }
+  }
+
 }
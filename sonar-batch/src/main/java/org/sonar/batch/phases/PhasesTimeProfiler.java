@@ -82,18 +82,20 @@ public class PhasesTimeProfiler implements SensorExecutionHandler, DecoratorExec
   static class DecoratorsProfiler {
     List<Decorator> decorators = Lists.newArrayList();
     Map<Decorator, Long> durations = new IdentityHashMap<Decorator, Long>();
-    long startTime;
-    Decorator currentDecorator;
+    // decorators can be executed concurrently
+    ThreadLocal<Long> startTime = new ThreadLocal<Long>();
+    ThreadLocal<Decorator> currentDecorator = new ThreadLocal<Decorator>();
 
     DecoratorsProfiler() {
     }
 
     void start(Decorator decorator) {
-      this.startTime = System.currentTimeMillis();
-      this.currentDecorator = decorator;
+      this.startTime.set(System.currentTimeMillis());
+      this.currentDecorator.set(decorator);
     }
 
-    void stop() {
+    synchronized void stop() {
+      Decorator currentDecorator = this.currentDecorator.get();
       final Long cumulatedDuration;
       if (durations.containsKey(currentDecorator)) {
         cumulatedDuration = durations.get(currentDecorator);
@@ -101,14 +103,14 @@ public class PhasesTimeProfiler implements SensorExecutionHandler, DecoratorExec
         decorators.add(currentDecorator);
         cumulatedDuration = 0L;
       }
-      durations.put(currentDecorator, cumulatedDuration + (System.currentTimeMillis() - startTime));
+      durations.put(currentDecorator, cumulatedDuration + (System.currentTimeMillis() - startTime.get()));
     }
 
     void log() {
       LOG.debug(getMessage());
     }
 
-    String getMessage() {
+    synchronized String getMessage() {
       StringBuilder sb = new StringBuilder("Decorator time:").append(SystemUtils.LINE_SEPARATOR);
       for (Decorator decorator : decorators) {
         sb.append("\t").append(decorator.toString()).append(": ").append(durations.get(decorator)).append("ms")
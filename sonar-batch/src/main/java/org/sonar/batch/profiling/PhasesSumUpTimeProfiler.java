@@ -21,6 +21,7 @@ package org.sonar.batch.profiling;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +40,7 @@ import org.sonar.api.resources.Project;
 import org.sonar.api.utils.System2;
 import org.sonar.api.utils.TimeUtils;
 import org.sonar.batch.bootstrap.BootstrapProperties;
+import org.sonar.batch.bootstrap.ServerRequestStats;
 import org.sonar.batch.events.BatchStepHandler;
 import org.sonar.batch.phases.Phases;
 import org.sonar.batch.phases.event.PersisterExecutionHandler;
@@ -77,6 +79,7 @@ public class PhasesSumUpTimeProfiler implements ProjectAnalysisHandler, SensorEx
 
   private final System2 system;
   private final File out;
+  private final ServerRequestStats requestStats;
 
   static void println(String msg) {
     LOG.info(msg);
@@ -91,13 +94,14 @@ public class PhasesSumUpTimeProfiler implements ProjectAnalysisHandler, SensorEx
     println(sb.toString());
   }
 
-  public PhasesSumUpTimeProfiler(System2 system, BootstrapProperties bootstrapProps) {
+  public PhasesSumUpTimeProfiler(System2 system, BootstrapProperties bootstrapProps, ServerRequestStats requestStats) {
     String workingDirPath = StringUtils.defaultIfBlank(bootstrapProps.property(CoreProperties.WORKING_DIRECTORY), CoreProperties.WORKING_DIRECTORY_DEFAULT_VALUE);
     File workingDir = new File(workingDirPath).getAbsoluteFile();
     this.out = new File(workingDir, "profiling");
     this.out.mkdirs();
     this.totalProfiling = new ModuleProfiling(null, system);
     this.system = system;
+    this.requestStats = requestStats;
   }
 
   @Override
@@ -124,6 +128,9 @@ public class PhasesSumUpTimeProfiler implements ProjectAnalysisHandler, SensorEx
       if (module.isRoot() && !module.getModules().isEmpty()) {
         dumpTotalExecutionSummary();
       }
+      if (module.isRoot()) {
+        dumpServerRequests();
+      }
     }
   }
 
@@ -148,6 +155,28 @@ public class PhasesSumUpTimeProfiler implements ProjectAnalysisHandler, SensorEx
     dumpToFile(props, fileName);
   }
 
+  private void dumpServerRequests() {
+    List<ServerRequestStats.EndpointStats> allStats = requestStats.all();
+    if (allStats.isEmpty()) {
+      return;
+    }
+    println("");
+    println(" -------- Profiling of server requests --------");
+    println("");
+    Properties props = new Properties();
+    for (ServerRequestStats.EndpointStats stats : allStats) {
+      println(StringUtils.rightPad("   o " + stats.endpoint(), TEXT_RIGHT_PAD) + StringUtils.leftPad(TimeUtils.formatDuration(stats.durationMs()), TIME_LEFT_PAD)
+        + " (" + stats.requests() + " requests, " + FileUtils.byteCountToDisplaySize(stats.bytes()) + ")");
+      props.setProperty(stats.endpoint() + ".requests", "" + stats.requests());
+      props.setProperty(stats.endpoint() + ".time", "" + stats.durationMs());
+      props.setProperty(stats.endpoint() + ".bytes", "" + stats.bytes());
+    }
+    println("");
+    println(" -------- End of profiling of server requests --------");
+    println("");
+    dumpToFile(props, "server-requests-profiler.properties");
+  }
+
   private void dumpToFile(Properties props, String fileName) {
     File file = new File(out, fileName);
     try (FileOutputStream fos = new FileOutputStream(file)) {
@@ -272,18 +301,20 @@ public class PhasesSumUpTimeProfiler implements ProjectAnalysisHandler, SensorEx
   class DecoratorsProfiler {
     private List<Decorator> decorators = Lists.newArrayList();
     private Map<Decorator, Long> durations = new IdentityHashMap<Decorator, Long>();
-    private long startTime;
-    private Decorator currentDecorator;
+    // decorators can be executed concurrently
+    private ThreadLocal<Long> startTime = new ThreadLocal<Long>();
+    private ThreadLocal<Decorator> currentDecorator = new ThreadLocal<Decorator>();
 
     DecoratorsProfiler() {
     }
 
     void start(Decorator decorator) {
-      this.startTime = system.now();
-      this.currentDecorator = decorator;
+      this.startTime.set(system.now());
+      this.currentDecorator.set(decorator);
     }
 
-    void stop() {
+    synchronized void stop() {
+      Decorator currentDecorator = this.currentDecorator.get();
       final Long cumulatedDuration;
       if (durations.containsKey(currentDecorator)) {
         cumulatedDuration = durations.get(currentDecorator);
@@ -291,10 +322,10 @@ public class PhasesSumUpTimeProfiler implements ProjectAnalysisHandler, SensorEx
         decorators.add(currentDecorator);
         cumulatedDuration = 0L;
       }
-      durations.put(currentDecorator, cumulatedDuration + (system.now() - startTime));
+      durations.put(currentDecorator, cumulatedDuration + (system.now() - startTime.get()));
     }
 
-    public Map<Decorator, Long> getDurations() {
+    public synchronized Map<Decorator, Long> getDurations() {
       return durations;
     }
 
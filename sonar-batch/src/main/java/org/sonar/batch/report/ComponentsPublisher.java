@@ -22,12 +22,16 @@ package org.sonar.batch.report;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.bootstrap.ProjectDefinition;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.InputPath;
 import org.sonar.api.batch.bootstrap.ProjectReactor;
+import org.sonar.api.issue.internal.DefaultIssue;
 import org.sonar.api.resources.Language;
 import org.sonar.api.resources.Resource;
 import org.sonar.api.resources.ResourceUtils;
 import org.sonar.batch.index.BatchResource;
 import org.sonar.batch.index.ResourceCache;
+import org.sonar.batch.issue.IssueCache;
 import org.sonar.batch.protocol.Constants;
 import org.sonar.batch.protocol.Constants.ComponentLinkType;
 import org.sonar.batch.protocol.output.*;
@@ -45,11 +49,13 @@ public class ComponentsPublisher implements ReportPublisherStep {
   private final ResourceCache resourceCache;
   private final ProjectReactor reactor;
   private final EventCache eventCache;
+  private final IssueCache issueCache;
 
-  public ComponentsPublisher(ProjectReactor reactor, ResourceCache resourceCache, EventCache eventCache) {
+  public ComponentsPublisher(ProjectReactor reactor, ResourceCache resourceCache, EventCache eventCache, IssueCache issueCache) {
     this.reactor = reactor;
     this.resourceCache = resourceCache;
     this.eventCache = eventCache;
+    this.issueCache = issueCache;
   }
 
   @Override
@@ -83,6 +89,9 @@ public class ComponentsPublisher implements ReportPublisherStep {
     }
     if (ResourceUtils.isFile(r)) {
       builder.setIsTest(ResourceUtils.isUnitTestClass(r));
+      if (isUnchanged(batchResource)) {
+        builder.setIsUnchanged(true);
+      }
     }
     String name = getName(r);
     if (name != null) {
@@ -109,6 +118,24 @@ public class ComponentsPublisher implements ReportPublisherStep {
     }
   }
 
+  /**
+   * The file is unchanged if its hash is the same as in the previous analysis and if issue tracking
+   * did not create, update or close any of its issues. It implies that quality profiles and rules
+   * applied on the file did not change.
+   */
+  private boolean isUnchanged(BatchResource batchResource) {
+    InputPath inputPath = batchResource.inputPath();
+    if (!(inputPath instanceof InputFile) || ((InputFile) inputPath).status() != InputFile.Status.SAME) {
+      return false;
+    }
+    for (DefaultIssue issue : issueCache.byComponent(batchResource.resource().getEffectiveKey())) {
+      if (issue.isNew() || issue.isChanged()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void writeEvents(BatchResource batchResource, Builder builder) {
     if (isRealProjectOrModule(batchResource.resource())) {
       for (Event event : eventCache.getEvents(batchResource.batchId())) {
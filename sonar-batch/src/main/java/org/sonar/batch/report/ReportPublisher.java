@@ -21,7 +21,11 @@ package org.sonar.batch.report;
 
 import com.github.kevinsawicki.http.HttpRequest;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.codehaus.plexus.personality.plexus.lifecycle.phase.Startable;
 import org.codehaus.plexus.personality.plexus.lifecycle.phase.StartingException;
 import org.codehaus.plexus.personality.plexus.lifecycle.phase.StoppingException;
@@ -32,14 +36,20 @@ import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.bootstrap.ProjectReactor;
 import org.sonar.api.config.Settings;
 import org.sonar.api.platform.Server;
+import org.sonar.api.utils.System2;
 import org.sonar.api.utils.TempFolder;
 import org.sonar.api.utils.ZipUtils;
 import org.sonar.batch.bootstrap.DefaultAnalysisMode;
 import org.sonar.batch.bootstrap.ServerClient;
+import org.sonar.batch.bootstrap.ServerRequestStats;
 import org.sonar.batch.protocol.output.BatchReportWriter;
 
+import javax.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.net.MalformedURLException;
 import java.net.URL;
 
@@ -47,6 +57,9 @@ public class ReportPublisher implements BatchComponent, Startable {
 
   private static final Logger LOG = LoggerFactory.getLogger(ReportPublisher.class);
   public static final String KEEP_REPORT_PROP_KEY = "sonar.batch.keepReport";
+  static final int CHUNK_SIZE = 8 * 1024 * 1024;
+  private static final int MAX_CHUNK_FAILURES = 3;
+  private static final String UPLOAD_CHUNK_PATH = "/api/computation/upload_report_chunk";
 
   private final ServerClient serverClient;
   private final Server server;
@@ -54,20 +67,26 @@ public class ReportPublisher implements BatchComponent, Startable {
   private final ProjectReactor projectReactor;
   private final DefaultAnalysisMode analysisMode;
   private final TempFolder temp;
+  private final ServerRequestStats requestStats;
+  private final System2 system;
 
   private ReportPublisherStep[] publishers;
+  private int chunkSize = CHUNK_SIZE;
 
   private File reportDir;
   private BatchReportWriter writer;
 
   public ReportPublisher(Settings settings, ServerClient serverClient, Server server,
-    ProjectReactor projectReactor, DefaultAnalysisMode analysisMode, TempFolder temp, ReportPublisherStep[] publishers) {
+    ProjectReactor projectReactor, DefaultAnalysisMode analysisMode, TempFolder temp, ServerRequestStats requestStats, System2 system,
+    ReportPublisherStep[] publishers) {
     this.serverClient = serverClient;
     this.server = server;
     this.projectReactor = projectReactor;
     this.settings = settings;
     this.analysisMode = analysisMode;
     this.temp = temp;
+    this.requestStats = requestStats;
+    this.system = system;
     this.publishers = publishers;
   }
 
@@ -86,6 +105,11 @@ public class ReportPublisher implements BatchComponent, Startable {
     }
   }
 
+  @VisibleForTesting
+  void setChunkSize(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
   public File getReportDir() {
     return reportDir;
   }
@@ -99,7 +123,7 @@ public class ReportPublisher implements BatchComponent, Startable {
     if (!analysisMode.isPreview()) {
       File report = prepareReport();
       if (!analysisMode.isMediumTest()) {
-        uploadMultiPartReport(report);
+        uploadReport(report);
       }
     }
     logSuccess(LoggerFactory.getLogger(getClass()));
@@ -125,36 +149,118 @@ public class ReportPublisher implements BatchComponent, Startable {
     }
   }
 
+  /**
+   * Uploads the report by chunks of {@link #CHUNK_SIZE} bytes. The checksum of each chunk is verified by server.
+   * When the upload of a chunk fails, the upload is resumed from the offset known by server.
+   */
   @VisibleForTesting
-  void uploadMultiPartReport(File report) {
+  void uploadReport(File report) {
     LOG.debug("Publish results");
     long startTime = System.currentTimeMillis();
-    URL url;
+    String effectiveKey = projectReactor.getRoot().getKeyWithBranch();
+    String uploadId = null;
+    long offset = 0L;
+    int failures = 0;
+    boolean completed = false;
+    RandomAccessFile raf = null;
     try {
-      String effectiveKey = projectReactor.getRoot().getKeyWithBranch();
-      url = new URL(serverClient.getURL() + "/api/computation/submit_report?projectKey=" + effectiveKey);
-    } catch (MalformedURLException e) {
-      throw new IllegalArgumentException("Invalid URL", e);
+      raf = new RandomAccessFile(report, "r");
+      long size = raf.length();
+      do {
+        byte[] chunk = new byte[(int) Math.min(chunkSize, size - offset)];
+        raf.seek(offset);
+        raf.readFully(chunk);
+        boolean last = offset + chunk.length == size;
+        try {
+          JsonObject json = uploadChunk(effectiveKey, uploadId, offset, chunk, last);
+          uploadId = json.get("uploadId").getAsString();
+          offset = json.get("offset").getAsLong();
+          completed = last;
+          failures = 0;
+        } catch (ChunkUploadException e) {
+          failures++;
+          if (uploadId == null || failures >= MAX_CHUNK_FAILURES) {
+            throw new IllegalStateException(e.getMessage(), e);
+          }
+          LOG.warn("Fail to upload analysis report, resuming upload: " + e.getMessage());
+          offset = uploadedBytes(uploadId);
+        }
+      } while (!completed);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to read analysis report " + report, e);
+    } finally {
+      IOUtils.closeQuietly(raf);
+    }
+    long stopTime = System.currentTimeMillis();
+    LOG.info("Analysis reports sent to server in " + (stopTime - startTime) + "ms");
+  }
+
+  private JsonObject uploadChunk(String projectKey, @Nullable String uploadId, long offset, byte[] chunk, boolean last) {
+    StringBuilder url = new StringBuilder(serverClient.getURL())
+      .append(UPLOAD_CHUNK_PATH).append("?projectKey=").append(ServerClient.encodeForUrl(projectKey))
+      .append("&offset=").append(offset)
+      .append("&md5=").append(DigestUtils.md5Hex(chunk))
+      .append("&last=").append(last);
+    if (uploadId != null) {
+      url.append("&uploadId=").append(ServerClient.encodeForUrl(uploadId));
+    }
+    HttpRequest request = newRequest(HttpRequest.post(toUrl(url.toString())));
+    long start = system.now();
+    try {
+      request.part("chunk", null, "application/octet-stream", new ByteArrayInputStream(chunk));
+      return parseResponse(request);
+    } catch (HttpRequest.HttpRequestException e) {
+      throw new ChunkUploadException("Fail to upload chunk at offset " + offset, e);
+    } finally {
+      requestStats.record(UPLOAD_CHUNK_PATH, system.now() - start, chunk.length);
+    }
+  }
+
+  private long uploadedBytes(String uploadId) {
+    URL url = toUrl(serverClient.getURL() + "/api/computation/upload_report_status?uploadId=" + ServerClient.encodeForUrl(uploadId));
+    try {
+      return parseResponse(newRequest(HttpRequest.get(url))).get("offset").getAsLong();
+    } catch (HttpRequest.HttpRequestException | ChunkUploadException e) {
+      throw new IllegalStateException("Fail to get status of upload " + uploadId, e);
     }
-    HttpRequest request = HttpRequest.post(url);
+  }
+
+  private HttpRequest newRequest(HttpRequest request) {
     request.trustAllCerts();
     request.trustAllHosts();
     request.header("User-Agent", String.format("SonarQube %s", server.getVersion()));
     request.basic(serverClient.getLogin(), serverClient.getPassword());
-    request.part("report", null, "application/octet-stream", report);
+    return request;
+  }
+
+  private JsonObject parseResponse(HttpRequest request) {
+    int responseCode = request.code();
+    if (responseCode == 401) {
+      throw new IllegalStateException(String.format(serverClient.getMessageWhenNotAuthorized(), CoreProperties.LOGIN, CoreProperties.PASSWORD));
+    }
+    if (responseCode == 403) {
+      // SONAR-4397 Details are in response content
+      throw new IllegalStateException(request.body());
+    }
     if (!request.ok()) {
-      int responseCode = request.code();
-      if (responseCode == 401) {
-        throw new IllegalStateException(String.format(serverClient.getMessageWhenNotAuthorized(), CoreProperties.LOGIN, CoreProperties.PASSWORD));
-      }
-      if (responseCode == 403) {
-        // SONAR-4397 Details are in response content
-        throw new IllegalStateException(request.body());
-      }
-      throw new IllegalStateException(String.format("Fail to execute request [code=%s, url=%s]: %s", responseCode, url, request.body()));
+      // bad checksum, offset or server error. Upload can be resumed.
+      throw new ChunkUploadException(String.format("Fail to execute request [code=%s, url=%s]: %s", responseCode, request.url(), request.body()), null);
+    }
+    return new JsonParser().parse(request.body()).getAsJsonObject();
+  }
+
+  private static URL toUrl(String url) {
+    try {
+      return new URL(url);
+    } catch (MalformedURLException e) {
+      throw new IllegalArgumentException("Invalid URL", e);
+    }
+  }
+
+  private static class ChunkUploadException extends RuntimeException {
+    ChunkUploadException(String message, @Nullable Throwable cause) {
+      super(message, cause);
     }
-    long stopTime = System.currentTimeMillis();
-    LOG.info("Analysis reports sent to server in " + (stopTime - startTime) + "ms");
   }
 
   @VisibleForTesting
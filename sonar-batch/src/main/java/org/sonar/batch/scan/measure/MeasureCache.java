@@ -20,6 +20,7 @@
 package org.sonar.batch.scan.measure;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import org.sonar.api.BatchComponent;
 import org.sonar.api.batch.measure.MetricFinder;
 import org.sonar.api.measures.Measure;
@@ -31,33 +32,58 @@ import org.sonar.batch.index.Cache;
 import org.sonar.batch.index.Cache.Entry;
 import org.sonar.batch.index.Caches;
 
+import java.util.Iterator;
+import java.util.List;
+
 /**
  * Cache of all measures. This cache is shared amongst all project modules.
+ * <p/>
+ * Measures having only a numeric value are kept in memory by {@link NumericMeasureStore}, others are
+ * serialized in the persistit cache. Methods are thread-safe.
  */
 public class MeasureCache implements BatchComponent {
 
   private final Cache<Measure> cache;
+  private final NumericMeasureStore numericStore;
 
   public MeasureCache(Caches caches, MetricFinder metricFinder, TechnicalDebtModel techDebtModel) {
     caches.registerValueCoder(Measure.class, new MeasureValueCoder(metricFinder, techDebtModel));
     cache = caches.createCache("measures");
+    numericStore = new NumericMeasureStore(metricFinder);
   }
 
   public MeasureCache(Caches caches, MetricFinder metricFinder) {
     caches.registerValueCoder(Measure.class, new MeasureValueCoder(metricFinder, null));
     cache = caches.createCache("measures");
+    numericStore = new NumericMeasureStore(metricFinder);
   }
 
+  /**
+   * All the measures, ordered by resource key, metric key then measure key
+   */
   public Iterable<Entry<Measure>> entries() {
-    return cache.entries();
+    List<Entry<Measure>> numericEntries = Lists.newArrayList();
+    for (Object[] numeric : numericStore.all()) {
+      numericEntries.add(numericEntry((String) numeric[0], (Measure) numeric[1]));
+    }
+    synchronized (cache) {
+      return merge(numericEntries, cache.entries());
+    }
   }
 
   public Iterable<Measure> all() {
-    return cache.values();
+    return values(entries());
   }
 
   public Iterable<Measure> byResource(Resource r) {
-    return cache.values(r.getEffectiveKey());
+    String resourceKey = r.getEffectiveKey();
+    List<Entry<Measure>> numericEntries = Lists.newArrayList();
+    for (Measure numeric : numericStore.byResource(resourceKey)) {
+      numericEntries.add(numericEntry(resourceKey, numeric));
+    }
+    synchronized (cache) {
+      return values(merge(numericEntries, cache.entries(resourceKey)));
+    }
   }
 
   public Iterable<Measure> byMetric(Resource r, String metricKey) {
@@ -65,20 +91,100 @@ public class MeasureCache implements BatchComponent {
   }
 
   public Iterable<Measure> byMetric(String resourceKey, String metricKey) {
-    return cache.values(resourceKey, metricKey);
+    List<Entry<Measure>> numericEntries = Lists.newArrayList();
+    Measure numeric = numericStore.get(resourceKey, metricKey);
+    if (numeric != null) {
+      numericEntries.add(numericEntry(resourceKey, numeric));
+    }
+    synchronized (cache) {
+      return values(merge(numericEntries, cache.entries(resourceKey, metricKey)));
+    }
+  }
+
+  private static Entry<Measure> numericEntry(String resourceKey, Measure measure) {
+    return new Entry<Measure>(new Object[] {resourceKey, measure.getMetricKey(), computeMeasureKey(measure)}, measure);
+  }
+
+  /**
+   * Merges measures, both lists being sorted by resource key, metric key then measure key
+   */
+  private static List<Entry<Measure>> merge(List<Entry<Measure>> numericEntries, Iterable<Entry<Measure>> persistedEntries) {
+    List<Entry<Measure>> result = Lists.newArrayList();
+    Iterator<Entry<Measure>> numericIt = numericEntries.iterator();
+    Entry<Measure> numeric = numericIt.hasNext() ? numericIt.next() : null;
+    for (Entry<Measure> persisted : persistedEntries) {
+      while (numeric != null && compareKeys(numeric, persisted) < 0) {
+        result.add(numeric);
+        numeric = numericIt.hasNext() ? numericIt.next() : null;
+      }
+      result.add(persisted);
+    }
+    while (numeric != null) {
+      result.add(numeric);
+      numeric = numericIt.hasNext() ? numericIt.next() : null;
+    }
+    return result;
+  }
+
+  private static int compareKeys(Entry<Measure> e1, Entry<Measure> e2) {
+    int result = 0;
+    for (int i = 0; result == 0 && i < 3; i++) {
+      result = ((String) e1.key()[i]).compareTo((String) e2.key()[i]);
+    }
+    return result;
+  }
+
+  private static List<Measure> values(Iterable<Entry<Measure>> entries) {
+    List<Measure> result = Lists.newArrayList();
+    for (Entry<Measure> entry : entries) {
+      result.add(entry.value());
+    }
+    return result;
   }
 
   public MeasureCache put(Resource resource, Measure measure) {
     Preconditions.checkNotNull(resource.getEffectiveKey());
     Preconditions.checkNotNull(measure.getMetricKey());
-    cache.put(resource.getEffectiveKey(), measure.getMetricKey(), computeMeasureKey(measure), measure);
+    String resourceKey = resource.getEffectiveKey();
+    String metricKey = measure.getMetricKey();
+    String measureKey = computeMeasureKey(measure);
+    if (NumericMeasureStore.accepts(measure)) {
+      numericStore.put(resourceKey, metricKey, measure.getValue());
+      if (numericStore.hasOverflow(metricKey)) {
+        // the measure may have been previously stored with other fields
+        synchronized (cache) {
+          cache.remove(resourceKey, metricKey, measureKey);
+        }
+      }
+    } else {
+      if (isNumericMeasureKey(metricKey, measureKey)) {
+        numericStore.markOverflow(metricKey);
+        numericStore.remove(resourceKey, metricKey);
+      }
+      synchronized (cache) {
+        cache.put(resourceKey, metricKey, measureKey, measure);
+      }
+    }
     return this;
   }
 
   public boolean contains(Resource resource, Measure measure) {
     Preconditions.checkNotNull(resource.getEffectiveKey());
     Preconditions.checkNotNull(measure.getMetricKey());
-    return cache.containsKey(resource.getEffectiveKey(), measure.getMetricKey(), computeMeasureKey(measure));
+    String measureKey = computeMeasureKey(measure);
+    if (isNumericMeasureKey(measure.getMetricKey(), measureKey) && numericStore.contains(resource.getEffectiveKey(), measure.getMetricKey())) {
+      return true;
+    }
+    synchronized (cache) {
+      return cache.containsKey(resource.getEffectiveKey(), measure.getMetricKey(), measureKey);
+    }
+  }
+
+  /**
+   * Measures stored in {@link NumericMeasureStore} have no characteristic, no person and no rule
+   */
+  private static boolean isNumericMeasureKey(String metricKey, String measureKey) {
+    return measureKey.length() == metricKey.length() + 2 && measureKey.startsWith(metricKey) && measureKey.endsWith("||");
   }
 
   private static String computeMeasureKey(Measure m) {
@@ -0,0 +1,226 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.scan.measure;
+
+import com.google.common.collect.Lists;
+import org.sonar.api.batch.measure.MetricFinder;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.measures.PersistenceMode;
+
+import javax.annotation.CheckForNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory columnar storage of the measures that have only a numeric value, which are the large majority
+ * of measures. Values are stored as primitive doubles, with one column per metric, and rows identified
+ * by resource. Readers are lock-free, writers are synchronized per column.
+ */
+class NumericMeasureStore {
+
+  private static final int PAGE_BITS = 10;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+  private static final long ABSENT = Double.doubleToRawLongBits(Double.NaN);
+
+  private final MetricFinder metricFinder;
+  private final ConcurrentMap<String, Integer> rowsByResourceKey = new ConcurrentHashMap<String, Integer>();
+  private final AtomicInteger rowCount = new AtomicInteger();
+  private final ConcurrentSkipListMap<String, Column> columnsByMetricKey = new ConcurrentSkipListMap<String, Column>();
+
+  NumericMeasureStore(MetricFinder metricFinder) {
+    this.metricFinder = metricFinder;
+  }
+
+  /**
+   * Measures without any other field than metric and value. Other measures (data, variations, characteristic, person...)
+   * are not supported.
+   */
+  static boolean accepts(Measure m) {
+    Double value = m.getValue();
+    return m.getClass() == Measure.class && value != null && !value.isNaN()
+      && m.getData() == null && m.getDescription() == null && m.getAlertStatus() == null && m.getAlertText() == null
+      && m.getTendency() == null && m.getDate() == null && m.getUrl() == null
+      && m.getVariation1() == null && m.getVariation2() == null && m.getVariation3() == null && m.getVariation4() == null && m.getVariation5() == null
+      && m.getCharacteristic() == null && m.getRequirement() == null && m.getPersonId() == null
+      && m.getPersistenceMode() == PersistenceMode.FULL;
+  }
+
+  void put(String resourceKey, String metricKey, double value) {
+    column(metricKey).set(row(resourceKey), Double.doubleToRawLongBits(value));
+  }
+
+  boolean remove(String resourceKey, String metricKey) {
+    Integer row = rowsByResourceKey.get(resourceKey);
+    Column column = columnsByMetricKey.get(metricKey);
+    return row != null && column != null && column.set(row, ABSENT);
+  }
+
+  boolean contains(String resourceKey, String metricKey) {
+    return get(resourceKey, metricKey) != null;
+  }
+
+  @CheckForNull
+  Measure get(String resourceKey, String metricKey) {
+    Integer row = rowsByResourceKey.get(resourceKey);
+    Column column = columnsByMetricKey.get(metricKey);
+    if (row == null || column == null) {
+      return null;
+    }
+    return column.measure(row);
+  }
+
+  /**
+   * Measures of resource, ordered by metric key
+   */
+  List<Measure> byResource(String resourceKey) {
+    Integer row = rowsByResourceKey.get(resourceKey);
+    if (row == null) {
+      return Lists.newArrayList();
+    }
+    List<Measure> result = Lists.newArrayList();
+    for (Column column : columnsByMetricKey.values()) {
+      Measure measure = column.measure(row);
+      if (measure != null) {
+        result.add(measure);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Measures of all resources, as entries {resource key, measure} ordered by resource key then metric key
+   */
+  List<Object[]> all() {
+    List<Object[]> result = Lists.newArrayList();
+    for (String resourceKey : new TreeSet<String>(rowsByResourceKey.keySet())) {
+      for (Measure measure : byResource(resourceKey)) {
+        result.add(new Object[] {resourceKey, measure});
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Flags the metric as having at least one measure stored outside this store
+   */
+  void markOverflow(String metricKey) {
+    column(metricKey).overflow = true;
+  }
+
+  boolean hasOverflow(String metricKey) {
+    Column column = columnsByMetricKey.get(metricKey);
+    return column != null && column.overflow;
+  }
+
+  private int row(String resourceKey) {
+    Integer row = rowsByResourceKey.get(resourceKey);
+    if (row == null) {
+      Integer newRow = rowCount.getAndIncrement();
+      row = rowsByResourceKey.putIfAbsent(resourceKey, newRow);
+      if (row == null) {
+        row = newRow;
+      }
+    }
+    return row;
+  }
+
+  private Column column(String metricKey) {
+    Column column = columnsByMetricKey.get(metricKey);
+    if (column == null) {
+      Column newColumn = new Column(metricKey);
+      column = columnsByMetricKey.putIfAbsent(metricKey, newColumn);
+      if (column == null) {
+        column = newColumn;
+      }
+    }
+    return column;
+  }
+
+  private class Column {
+    private final String metricKey;
+    private volatile org.sonar.api.measures.Metric metric;
+    private volatile boolean overflow = false;
+    // pages of PAGE_SIZE rows are allocated on first write, so that sparse metrics are cheap
+    private volatile AtomicLongArray[] pages = new AtomicLongArray[0];
+
+    Column(String metricKey) {
+      this.metricKey = metricKey;
+    }
+
+    @CheckForNull
+    Measure measure(int row) {
+      AtomicLongArray[] currentPages = pages;
+      int pageIndex = row >>> PAGE_BITS;
+      if (pageIndex >= currentPages.length || currentPages[pageIndex] == null) {
+        return null;
+      }
+      long bits = currentPages[pageIndex].get(row & PAGE_MASK);
+      if (bits == ABSENT) {
+        return null;
+      }
+      Measure m = new Measure();
+      m.setMetric(metric());
+      m.setRawValue(Double.longBitsToDouble(bits));
+      return m;
+    }
+
+    /**
+     * @return true if a value was previously set
+     */
+    synchronized boolean set(int row, long bits) {
+      int pageIndex = row >>> PAGE_BITS;
+      AtomicLongArray[] currentPages = pages;
+      if (pageIndex >= currentPages.length || currentPages[pageIndex] == null) {
+        if (bits == ABSENT) {
+          return false;
+        }
+        AtomicLongArray page = new AtomicLongArray(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+          page.set(i, ABSENT);
+        }
+        AtomicLongArray[] newPages = Arrays.copyOf(currentPages, Math.max(currentPages.length, pageIndex + 1));
+        newPages[pageIndex] = page;
+        // publish page only once initialized
+        pages = newPages;
+        currentPages = newPages;
+      }
+      return currentPages[pageIndex].getAndSet(row & PAGE_MASK, bits) != ABSENT;
+    }
+
+    private org.sonar.api.measures.Metric metric() {
+      if (metric == null) {
+        org.sonar.api.batch.measure.Metric m = metricFinder.findByKey(metricKey);
+        if (m == null) {
+          throw new IllegalStateException("Unknow metric with key " + metricKey);
+        }
+        metric = (org.sonar.api.measures.Metric) m;
+      }
+      return metric;
+    }
+  }
+}
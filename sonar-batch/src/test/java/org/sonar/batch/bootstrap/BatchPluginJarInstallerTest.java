@@ -67,6 +67,21 @@ public class BatchPluginJarInstallerTest {
     assertThat(new File(fileFromCache.getParent(), "sonar-checkstyle-plugin-2.8.jar_unzip/org/sonar/plugins/checkstyle/CheckstyleVersion.class")).doesNotExist();
   }
 
+  @Test
+  public void should_cache_manifest_next_to_plugin() throws IOException {
+    File fileFromCache = getFileFromCache("sonar-checkstyle-plugin-2.8.jar");
+    extractor.installToCache(fileFromCache, true);
+
+    File manifest = new File(fileFromCache.getParent(), "sonar-checkstyle-plugin-2.8.jar_manifest.mf");
+    assertThat(manifest).exists();
+
+    // manifest is read from cache
+    FileUtils.write(manifest, FileUtils.readFileToString(manifest).replace("Plugin-Name: Checkstyle", "Plugin-Name: Cached Checkstyle"));
+    DefaultPluginMetadata metadata = extractor.installToCache(fileFromCache, true);
+    assertThat(metadata.getKey()).isEqualTo("checkstyle");
+    assertThat(metadata.getName()).isEqualTo("Cached Checkstyle");
+  }
+
   File getFileFromCache(String filename) throws IOException {
     File src = FileUtils.toFile(BatchPluginJarInstallerTest.class.getResource("/org/sonar/batch/bootstrap/BatchPluginJarInstallerTest/" + filename));
     File destFile = new File(new File(userHome, "" + filename.hashCode()), filename);
@@ -37,6 +37,7 @@ import java.io.IOException;
 import java.util.Arrays;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -128,6 +129,25 @@ public class BatchPluginRepositoryTest {
     return new File(destDir, filename);
   }
 
+  @Test
+  public void fail_if_plugin_can_not_be_installed() throws Exception {
+    RemotePlugin checkstyle = new RemotePlugin("checkstyle", true);
+    RemotePlugin findbugs = new RemotePlugin("findbugs", true);
+
+    DefaultPluginsRepository downloader = mock(DefaultPluginsRepository.class);
+    when(downloader.pluginFile(checkstyle)).thenReturn(fileFromCache("sonar-checkstyle-plugin-2.8.jar"));
+    when(downloader.pluginFile(findbugs)).thenThrow(new IllegalStateException("Fail to download plugin: findbugs"));
+
+    repository = new BatchPluginRepository(downloader, new Settings(), mode, new BatchPluginJarInstaller(cache));
+
+    try {
+      repository.doStart(Arrays.asList(checkstyle, findbugs));
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Fail to download plugin: findbugs");
+    }
+  }
+
   @Test
   public void shouldAlwaysAcceptIfNoWhiteListAndBlackList() {
     BatchPluginRepository.PluginFilter filter = new BatchPluginRepository.PluginFilter(new Settings(), mode);
@@ -31,6 +31,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
+import org.sonar.api.utils.System2;
 import org.sonar.batch.bootstrapper.EnvironmentInformation;
 
 import javax.servlet.ServletException;
@@ -55,6 +56,8 @@ public class ServerClientTest {
   public ExpectedException thrown = ExpectedException.none();
   MockHttpServer server = null;
   BootstrapProperties bootstrapProps = mock(BootstrapProperties.class);
+  ServerRequestStats requestStats = new ServerRequestStats();
+  System2 system = mock(System2.class);
 
   @After
   public void stopServer() {
@@ -68,7 +71,7 @@ public class ServerClientTest {
     BootstrapProperties settings = mock(BootstrapProperties.class);
     when(settings.property("sonar.host.url")).thenReturn("http://localhost:8080/sonar/");
 
-    ServerClient client = new ServerClient(settings, new EnvironmentInformation("Junit", "4"));
+    ServerClient client = new ServerClient(settings, new EnvironmentInformation("Junit", "4"), requestStats, system);
 
     assertThat(client.getURL()).isEqualTo("http://localhost:8080/sonar");
   }
@@ -82,6 +85,31 @@ public class ServerClientTest {
     assertThat(newServerClient().request("/foo")).isEqualTo("this is the content");
   }
 
+  @Test
+  public void should_record_stats_of_requests() throws Exception {
+    server = new MockHttpServer();
+    server.start();
+    server.setMockResponseData("this is the content");
+
+    when(system.now()).thenReturn(1000L, 1100L, 2000L, 2200L, 3000L, 3400L);
+    ServerClient client = newServerClient();
+    client.request("/foo?param=1");
+    client.request("/foo?param=2");
+    client.download("/bar", temp.newFile());
+
+    assertThat(requestStats.all()).extracting("endpoint").containsOnly("/foo", "/bar");
+    for (ServerRequestStats.EndpointStats stats : requestStats.all()) {
+      if (stats.endpoint().equals("/foo")) {
+        assertThat(stats.requests()).isEqualTo(2L);
+        assertThat(stats.bytes()).isEqualTo(2L * "this is the content".length());
+        assertThat(stats.durationMs()).isEqualTo(300L);
+      } else {
+        assertThat(stats.requests()).isEqualTo(1L);
+        assertThat(stats.durationMs()).isEqualTo(400L);
+      }
+    }
+  }
+
   @Test
   public void should_escape_html_from_url() throws Exception {
     server = new MockHttpServer();
@@ -153,7 +181,7 @@ public class ServerClientTest {
 
   private ServerClient newServerClient() {
     when(bootstrapProps.property("sonar.host.url")).thenReturn("http://localhost:" + server.getPort());
-    return new ServerClient(bootstrapProps, new EnvironmentInformation("Junit", "4"));
+    return new ServerClient(bootstrapProps, new EnvironmentInformation("Junit", "4"), requestStats, system);
   }
 
   static class MockHttpServer {
@@ -0,0 +1,55 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.bootstrapper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchDaemonLauncherTest {
+
+  ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+  @Test
+  public void print_usage_when_no_command() throws Exception {
+    int status = BatchDaemonLauncher.run(new PrintStream(output, true));
+
+    assertThat(status).isEqualTo(BatchDaemonLauncher.USAGE);
+    assertThat(output.toString()).startsWith("Usage: serve <bootstrap properties file> <daemon file>");
+  }
+
+  @Test
+  public void print_usage_when_unknown_command() throws Exception {
+    int status = BatchDaemonLauncher.run(new PrintStream(output, true), "restart", "foo", "bar");
+
+    assertThat(status).isEqualTo(BatchDaemonLauncher.USAGE);
+    assertThat(output.toString()).contains("submit <daemon file> <task properties file>");
+  }
+
+  @Test
+  public void print_usage_when_missing_arguments() throws Exception {
+    int status = BatchDaemonLauncher.run(new PrintStream(output, true), "submit", "daemon.properties");
+
+    assertThat(status).isEqualTo(BatchDaemonLauncher.USAGE);
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.bootstrapper;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.CoreProperties;
+import org.sonar.batch.bootstrap.PluginsRepository;
+import org.sonar.batch.mediumtest.BatchMediumTester;
+import org.sonar.batch.protocol.input.GlobalRepositories;
+import org.sonar.batch.repository.GlobalRepositoriesLoader;
+import org.sonar.core.plugins.RemotePlugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchDaemonTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  GlobalRepositoriesLoader globalRepositoriesLoader = mock(GlobalRepositoriesLoader.class);
+  PluginsRepository pluginsRepository = mock(PluginsRepository.class);
+  BatchDaemon daemon;
+  File daemonFile;
+  Thread thread;
+
+  @Before
+  public void startDaemon() throws Exception {
+    when(globalRepositoriesLoader.load()).thenReturn(new GlobalRepositories().addGlobalSetting("foo", "bar"));
+    // plugin is not installed in preview mode
+    when(pluginsRepository.pluginList()).thenReturn(Arrays.asList(new RemotePlugin("views", false).setFile("sonar-views-plugin.jar", "abc")));
+
+    Map<String, String> bootstrapProperties = Maps.newHashMap();
+    bootstrapProperties.put(BatchMediumTester.MEDIUM_TEST_ENABLED, "true");
+    bootstrapProperties.put(CoreProperties.ANALYSIS_MODE, CoreProperties.ANALYSIS_MODE_PREVIEW);
+    Batch batch = Batch.builder()
+      .setEnableLoggingConfiguration(false)
+      .addComponents(new EnvironmentInformation("daemonTest", "1.0"), pluginsRepository, globalRepositoriesLoader)
+      .setBootstrapProperties(bootstrapProperties)
+      .build();
+    daemonFile = new File(temp.newFolder(), "daemon.properties");
+    daemon = new BatchDaemon(batch, 0, daemonFile);
+    thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        daemon.serve();
+      }
+    });
+    thread.start();
+  }
+
+  @After
+  public void stopDaemon() throws Exception {
+    daemon.stop();
+    thread.join(10000L);
+  }
+
+  @Test
+  public void execute_tasks_in_same_batch() throws Exception {
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+
+    // loaded once at startup, then once before each task to detect changes on server
+    verify(globalRepositoriesLoader, times(3)).load();
+    verify(pluginsRepository, times(3)).pluginList();
+  }
+
+  @Test
+  public void restart_batch_when_server_changed() throws Exception {
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+
+    when(globalRepositoriesLoader.load()).thenReturn(new GlobalRepositories().addGlobalSetting("foo", "other"));
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+
+    // startup, first task, second task and restart
+    verify(globalRepositoriesLoader, times(4)).load();
+  }
+
+  @Test
+  public void restart_batch_when_server_is_upgraded() throws Exception {
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+
+    when(globalRepositoriesLoader.load()).thenReturn(new GlobalRepositories().addGlobalSetting("foo", "bar").addGlobalSetting(CoreProperties.SERVER_VERSION, "5.2"));
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+
+    verify(globalRepositoriesLoader, times(4)).load();
+    // index of plugins is not downloaded to check changes, as the server already changed
+    verify(pluginsRepository, times(3)).pluginList();
+  }
+
+  @Test
+  public void restart_batch_when_plugin_changed() throws Exception {
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+
+    when(pluginsRepository.pluginList()).thenReturn(Arrays.asList(new RemotePlugin("views", false).setFile("sonar-views-plugin.jar", "def")));
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+
+    // startup, three tasks and restart
+    verify(pluginsRepository, times(5)).pluginList();
+    verify(globalRepositoriesLoader, times(5)).load();
+  }
+
+  @Test
+  public void restart_batch_when_plugin_installed() throws Exception {
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+
+    when(pluginsRepository.pluginList()).thenReturn(Arrays.asList(
+      new RemotePlugin("views", false).setFile("sonar-views-plugin.jar", "abc"),
+      new RemotePlugin("devcockpit", false).setFile("sonar-devcockpit-plugin.jar", "ghi")));
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+
+    // startup, two tasks and restart
+    verify(pluginsRepository, times(4)).pluginList();
+  }
+
+  @Test
+  public void submit_task_from_command_line() throws Exception {
+    File taskFile = temp.newFile();
+    FileUtils.write(taskFile, "sonar.task=list");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    int status = BatchDaemonLauncher.run(new PrintStream(output, true), "submit", daemonFile.getAbsolutePath(), taskFile.getAbsolutePath());
+
+    assertThat(status).isEqualTo(BatchDaemonLauncher.SUCCESS);
+    assertThat(output.toString().trim()).isEqualTo(BatchDaemon.OK);
+  }
+
+  @Test
+  public void report_task_failure_from_command_line() throws Exception {
+    File taskFile = temp.newFile();
+    FileUtils.write(taskFile, "sonar.task=unknown");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    int status = BatchDaemonLauncher.run(new PrintStream(output, true), "submit", daemonFile.getAbsolutePath(), taskFile.getAbsolutePath());
+
+    assertThat(status).isEqualTo(BatchDaemonLauncher.FAILURE);
+    assertThat(output.toString()).startsWith(BatchDaemon.ERROR + " ");
+  }
+
+  @Test
+  public void report_task_failure() throws Exception {
+    String response = BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "unknown"));
+
+    assertThat(response).startsWith(BatchDaemon.ERROR + " ");
+    // daemon is still available
+    assertThat(BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list"))).isEqualTo(BatchDaemon.OK);
+  }
+
+  @Test
+  public void reject_task_with_other_analysis_mode() throws Exception {
+    String response = BatchDaemon.submit(daemonFile, ImmutableMap.of("sonar.task", "list", CoreProperties.ANALYSIS_MODE, CoreProperties.ANALYSIS_MODE_ANALYSIS));
+
+    assertThat(response).isEqualTo(BatchDaemon.ERROR + " Analysis mode analysis is not supported by daemon started in mode preview");
+  }
+
+  @Test
+  public void daemon_file_is_readable_only_by_owner() throws Exception {
+    assertThat(daemonFile).exists();
+    if (Files.getFileStore(daemonFile.toPath()).supportsFileAttributeView("posix")) {
+      assertThat(Files.getPosixFilePermissions(daemonFile.toPath())).containsOnly(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+    }
+  }
+
+  @Test
+  public void reject_client_with_invalid_secret() throws Exception {
+    String response = BatchDaemon.submit(daemon.getPort(), "wrong", ImmutableMap.of("sonar.task", "list"));
+
+    assertThat(response).isEqualTo(BatchDaemon.ERROR + " Unauthorized");
+    // only loaded at startup, task is not executed
+    verify(globalRepositoriesLoader, times(1)).load();
+  }
+
+  @Test
+  public void delete_daemon_file_on_stop() throws Exception {
+    daemon.stop();
+    thread.join(10000L);
+
+    assertThat(daemonFile).doesNotExist();
+  }
+}
@@ -29,6 +29,7 @@ import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.bootstrap.ProjectDefinition;
 import org.sonar.api.batch.measure.MetricFinder;
 import org.sonar.api.config.Settings;
+import org.sonar.api.database.model.ResourceModel;
 import org.sonar.api.database.model.Snapshot;
 import org.sonar.api.resources.*;
 import org.sonar.api.security.ResourcePermissions;
@@ -358,6 +359,44 @@ public class ResourcePersisterTest extends AbstractDbUnitTestCase {
     checkTables("shouldUpdateExistingResource", new String[] {"build_date", "created_at", "authorization_updated_at"}, "projects", "snapshots");
   }
 
+  @Test
+  public void shouldUpdateExistingFiles() {
+    setupData("shouldUpdateExistingFiles");
+
+    Directory dir = Directory.create("src/org");
+    dir.setEffectiveKey("foo:src/org");
+    File file = File.create("src/org/Foo.java");
+    file.setEffectiveKey("foo:src/org/Foo.java");
+    resourceCache.add(singleProject, null);
+    resourceCache.add(dir, singleProject);
+    resourceCache.add(file, dir);
+
+    persister.persist();
+
+    assertThat(dir.getId()).isEqualTo(1002);
+    assertThat(dir.getUuid()).isEqualTo("CDEF");
+    assertThat(file.getId()).isEqualTo(1003);
+    assertThat(file.getUuid()).isEqualTo("DEFG");
+    ResourceModel fileModel = getSession().getSingleResult(ResourceModel.class, "key", "foo:src/org/Foo.java");
+    assertThat(fileModel.getEnabled()).isTrue();
+    assertThat(fileModel.getModuleUuid()).isEqualTo("BCDE");
+  }
+
+  @Test
+  public void shouldNotLoadComponentsOfBranches() {
+    setupData("shouldNotLoadComponentsOfBranches");
+
+    Directory dir = Directory.create("src/org");
+    dir.setEffectiveKey("foo:src/org");
+    resourceCache.add(singleProject, null);
+    resourceCache.add(dir, singleProject);
+
+    persister.persist();
+
+    assertThat(dir.getId()).isEqualTo(1002);
+    assertThat(persister.prefetchedKeys()).containsOnly("foo:src/org", "foo:src/org/Foo.java");
+  }
+
   // SONAR-1700
   @Test
   public void shouldRemoveRootIndexIfResourceIsProject() {
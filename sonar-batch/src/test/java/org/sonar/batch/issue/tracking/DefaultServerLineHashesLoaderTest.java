@@ -19,64 +19,97 @@
  */
 package org.sonar.batch.issue.tracking;
 
-import org.junit.Before;
+import com.google.common.io.InputSupplier;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.sonar.api.utils.HttpDownloader;
 import org.sonar.batch.bootstrap.ServerClient;
+import org.sonar.core.source.LineHashes;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class DefaultServerLineHashesLoaderTest {
 
+  static final String HASH1 = "8d7b3d6b83c0a517eac07e1aac94b773";
+  static final String HASH2 = "9a0364b9e99bb480dd25e1f0284c8555";
+
   @Rule
   public ExpectedException thrown = ExpectedException.none();
 
-  @Before
-  public void before() {
-  }
+  ServerClient server = mock(ServerClient.class);
+  ServerLineHashesLoader lastSnapshots = new DefaultServerLineHashesLoader(server);
 
   @Test
-  public void should_download_source_from_ws_if_preview_mode() {
-    ServerClient server = mock(ServerClient.class);
-    when(server.request(anyString())).thenReturn("ae12\n\n43fb");
-
-    ServerLineHashesLoader lastSnapshots = new DefaultServerLineHashesLoader(server);
+  public void should_download_binary_hashes_from_ws() {
+    long[] expected = LineHashes.fromHex(Arrays.asList(HASH1, "", HASH2));
+    mockResponse(LineHashes.encode(expected, true));
 
-    String[] hashes = lastSnapshots.getLineHashes("myproject:org/foo/Bar.c");
-    assertThat(hashes).containsOnly("ae12", "", "43fb");
-    verify(server).request("/api/sources/hash?key=myproject%3Aorg%2Ffoo%2FBar.c");
+    long[] hashes = lastSnapshots.getLineHashes("myproject:org/foo/Bar.c");
+    assertThat(hashes).isEqualTo(expected);
+    verify(server).doRequest("/api/sources/hash?key=myproject%3Aorg%2Ffoo%2FBar.c&format=binary", "GET", null);
   }
 
   @Test
-  public void should_download_source_with_space_from_ws_if_preview_mode() {
-    ServerClient server = mock(ServerClient.class);
-    when(server.request(anyString())).thenReturn("ae12\n\n43fb");
+  public void should_download_source_with_space_from_ws() {
+    mockResponse(LineHashes.encode(LineHashes.fromHex(Arrays.asList(HASH1)), false));
 
-    ServerLineHashesLoader lastSnapshots = new DefaultServerLineHashesLoader(server);
+    long[] hashes = lastSnapshots.getLineHashes("myproject:org/foo/Foo Bar.c");
+    assertThat(LineHashes.toHex(hashes, 1)).isEqualTo(HASH1);
+    verify(server).doRequest("/api/sources/hash?key=myproject%3Aorg%2Ffoo%2FFoo+Bar.c&format=binary", "GET", null);
+  }
 
-    String[] hashes = lastSnapshots.getLineHashes("myproject:org/foo/Foo Bar.c");
-    assertThat(hashes).containsOnly("ae12", "", "43fb");
-    verify(server).request("/api/sources/hash?key=myproject%3Aorg%2Ffoo%2FFoo+Bar.c");
+  @Test
+  public void should_support_text_hashes() {
+    mockResponse((HASH1 + "\n\n" + HASH2).getBytes(StandardCharsets.UTF_8));
+
+    long[] hashes = lastSnapshots.getLineHashes("myproject:org/foo/Bar.c");
+    assertThat(LineHashes.lineCount(hashes)).isEqualTo(3);
+    assertThat(LineHashes.toHex(hashes, 1)).isEqualTo(HASH1);
+    assertThat(LineHashes.isEmpty(hashes, 2)).isTrue();
+    assertThat(LineHashes.toHex(hashes, 3)).isEqualTo(HASH2);
   }
 
   @Test
-  public void should_fail_to_download_source_from_ws() throws URISyntaxException {
-    ServerClient server = mock(ServerClient.class);
-    when(server.request(anyString())).thenThrow(new HttpDownloader.HttpException(new URI(""), 500));
+  public void no_hashes_if_no_content() {
+    mockResponse(new byte[0]);
 
-    ServerLineHashesLoader lastSnapshots = new DefaultServerLineHashesLoader(server);
+    assertThat(lastSnapshots.getLineHashes("myproject:org/foo/Bar.c")).isNull();
+  }
 
-    thrown.expect(HttpDownloader.HttpException.class);
+  @Test
+  public void should_fail_to_download_source_from_ws() throws Exception {
+    HttpDownloader.HttpException httpException = new HttpDownloader.HttpException(new URI(""), 500);
+    InputSupplier<InputStream> inputSupplier = mock(InputSupplier.class);
+    when(inputSupplier.getInput()).thenThrow(httpException);
+    when(server.doRequest(anyString(), eq("GET"), any(Integer.class))).thenReturn(inputSupplier);
+    when(server.handleHttpException(httpException)).thenReturn(new IllegalStateException("Fail to execute request"));
+
+    thrown.expect(IllegalStateException.class);
     lastSnapshots.getLineHashes("foo");
   }
 
+  private void mockResponse(byte[] response) {
+    InputSupplier<InputStream> inputSupplier = mock(InputSupplier.class);
+    try {
+      when(inputSupplier.getInput()).thenReturn(new ByteArrayInputStream(response));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    when(server.doRequest(anyString(), eq("GET"), any(Integer.class))).thenReturn(inputSupplier);
+  }
+
 }
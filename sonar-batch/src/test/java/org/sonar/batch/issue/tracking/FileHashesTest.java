@@ -0,0 +1,71 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.issue.tracking;
+
+import org.junit.Test;
+
+import static org.apache.commons.codec.digest.DigestUtils.md5Hex;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileHashesTest {
+
+  @Test
+  public void get_hashes() {
+    FileHashes hashes = FileHashes.create(new String[] {md5Hex("line1"), "", md5Hex("line3")});
+
+    assertThat(hashes.length()).isEqualTo(3);
+    assertThat(hashes.getHash(1)).isEqualTo(md5Hex("line1"));
+    assertThat(hashes.getHash(2)).isEmpty();
+    assertThat(hashes.getHashCode(2)).isEqualTo(0);
+  }
+
+  @Test
+  public void get_lines_for_hash() {
+    FileHashes reference = FileHashes.create(new String[] {md5Hex("a"), md5Hex("b"), md5Hex("c")});
+    FileHashes source = FileHashes.create(new String[] {md5Hex("b"), md5Hex("a"), md5Hex("x"), md5Hex("a")});
+
+    assertThat(source.getLinesForHash(reference, 1)).containsExactly(2, 4);
+    assertThat(source.getLinesForHash(reference, 2)).containsExactly(1);
+    assertThat(source.getLinesForHash(reference, 3)).isEmpty();
+    assertThat(source.hasSameHash(2, reference, 1)).isTrue();
+    assertThat(source.hasSameHash(3, reference, 3)).isFalse();
+  }
+
+  @Test
+  public void get_lines_for_hash_on_large_file() {
+    String[] lines = new String[10000];
+    for (int i = 0; i < lines.length; i++) {
+      lines[i] = md5Hex("line" + (i % 100));
+    }
+    FileHashes source = FileHashes.create(lines);
+    FileHashes reference = FileHashes.create(new String[] {md5Hex("line42")});
+
+    assertThat(source.getLinesForHash(reference, 1)).hasSize(100).startsWith(43, 143);
+  }
+
+  @Test
+  public void empty_file() {
+    FileHashes source = FileHashes.create(new String[0]);
+    FileHashes reference = FileHashes.create(new String[] {md5Hex("a")});
+
+    assertThat(source.length()).isEqualTo(0);
+    assertThat(source.getLinesForHash(reference, 1)).isEmpty();
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.batch.issue.tracking;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IntIndexTest {
+
+  @Test
+  public void add_keys() {
+    IntIndex index = new IntIndex();
+    assertThat(index.add(42)).isEqualTo(0);
+    assertThat(index.add(-3)).isEqualTo(1);
+    assertThat(index.add(42)).isEqualTo(0);
+
+    assertThat(index.size()).isEqualTo(2);
+    assertThat(index.indexOf(42)).isEqualTo(0);
+    assertThat(index.indexOf(-3)).isEqualTo(1);
+    assertThat(index.indexOf(0)).isEqualTo(-1);
+    assertThat(index.keyAt(1)).isEqualTo(-3);
+  }
+
+  @Test
+  public void grow() {
+    IntIndex index = new IntIndex(2);
+    for (int i = 0; i < 10000; i++) {
+      assertThat(index.add(i * 31)).isEqualTo(i);
+    }
+    assertThat(index.size()).isEqualTo(10000);
+    for (int i = 0; i < 10000; i++) {
+      assertThat(index.indexOf(i * 31)).isEqualTo(i);
+      assertThat(index.keyAt(i)).isEqualTo(i * 31);
+    }
+    assertThat(index.indexOf(1)).isEqualTo(-1);
+  }
+}
@@ -19,6 +19,7 @@
  */
 package org.sonar.batch.issue.tracking;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,6 +34,15 @@ public class IssueTrackingBlocksRecognizerTest {
     assertThat(compute(t("bcde"), t("abcde"), 3, 4)).isEqualTo(4);
   }
 
+  @Test
+  public void bounded_length_of_maximal_block() {
+    IssueTrackingBlocksRecognizer rec = new IssueTrackingBlocksRecognizer(t("abcde"), t("abcde"));
+    assertThat(rec.computeLengthOfMaximalBlock(3, 3, 1)).isEqualTo(1);
+    assertThat(rec.computeLengthOfMaximalBlock(3, 3, 2)).isEqualTo(3);
+    assertThat(rec.computeLengthOfMaximalBlock(3, 3, 100)).isEqualTo(5);
+    assertThat(rec.computeLengthOfMaximalBlock(3, 4, 100)).isEqualTo(0);
+  }
+
   private static int compute(FileHashes a, FileHashes b, int ai, int bi) {
     IssueTrackingBlocksRecognizer rec = new IssueTrackingBlocksRecognizer(a, b);
     return rec.computeLengthOfMaximalBlock(ai, bi);
@@ -41,7 +51,7 @@ public class IssueTrackingBlocksRecognizerTest {
   private static FileHashes t(String text) {
     String[] array = new String[text.length()];
     for (int i = 0; i < text.length(); i++) {
-      array[i] = "" + text.charAt(i);
+      array[i] = DigestUtils.md5Hex("" + text.charAt(i));
     }
     return FileHashes.create(array);
   }
@@ -49,6 +49,7 @@ import org.sonar.core.issue.IssueUpdater;
 import org.sonar.core.issue.db.IssueChangeDto;
 import org.sonar.core.issue.db.IssueDto;
 import org.sonar.core.issue.workflow.IssueWorkflow;
+import org.sonar.core.source.LineHashes;
 import org.sonar.java.api.JavaClass;
 
 import java.io.IOException;
@@ -561,13 +562,13 @@ public class IssueTrackingDecoratorTest {
     assertThat(issue.changes()).hasSize(1);
   }
 
-  private String[] computeHexHashes(String source) {
+  private long[] computeHexHashes(String source) {
     String[] lines = source.split("\n");
     String[] hashes = new String[lines.length];
     for (int i = 0; i < lines.length; i++) {
       hashes[i] = DigestUtils.md5Hex(lines[i].replaceAll("[\t ]", ""));
     }
-    return hashes;
+    return LineHashes.fromHex(Arrays.asList(hashes));
   }
 
 }
@@ -38,11 +38,13 @@ import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.core.issue.db.IssueDto;
+import org.sonar.core.source.LineHashes;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -333,6 +335,29 @@ public class IssueTrackingTest {
     assertThat(result.matching(newIssue5)).isSameAs(referenceIssue1);
   }
 
+  @Test
+  public void should_track_issues_based_on_blocks_recognition_on_large_file() throws Exception {
+    // too many lines to compare all pairs, only lines with same hashes are compared
+    StringBuilder reference = new StringBuilder();
+    for (int line = 1; line <= 600; line++) {
+      reference.append("line").append(line % 10).append("\n");
+    }
+    initLastHashesFromContent(reference.toString(), "inserted1\ninserted2\ninserted3\n" + reference);
+
+    List<ServerIssue> referenceIssues = Lists.newArrayList();
+    List<DefaultIssue> newIssues = Lists.newArrayList();
+    for (int line = 1; line <= 600; line++) {
+      referenceIssues.add(newReferenceIssue("message", line, "squid", "AvoidCycle", null));
+      newIssues.add(newDefaultIssue("message", line + 3, RuleKey.of("squid", "AvoidCycle"), null));
+    }
+
+    IssueTrackingResult result = tracking.track(sourceHashHolder, referenceIssues, newIssues);
+
+    for (int i = 0; i < 600; i++) {
+      assertThat(result.matching(newIssues.get(i))).isSameAs(referenceIssues.get(i));
+    }
+  }
+
   @Test
   public void dont_load_checksum_if_no_new_issue() throws Exception {
     sourceHashHolder = mock(SourceHashHolder.class);
@@ -367,25 +392,28 @@ public class IssueTrackingTest {
   }
 
   private void initLastHashes(String reference, String newSource) throws IOException {
+    initLastHashesFromContent(load(reference), load(newSource));
+  }
+
+  private void initLastHashesFromContent(String reference, String data) throws IOException {
     DefaultInputFile inputFile = mock(DefaultInputFile.class);
     File f = temp.newFile();
     when(inputFile.path()).thenReturn(f.toPath());
     when(inputFile.file()).thenReturn(f);
     when(inputFile.charset()).thenReturn(Charsets.UTF_8);
-    String data = load(newSource);
     when(inputFile.lines()).thenReturn(StringUtils.countMatches(data, "\n") + 1);
     FileUtils.write(f, data, Charsets.UTF_8);
     when(inputFile.key()).thenReturn("foo:Action.java");
-    when(lastSnapshots.getLineHashes("foo:Action.java")).thenReturn(computeHexHashes(load(reference)));
+    when(lastSnapshots.getLineHashes("foo:Action.java")).thenReturn(computeHexHashes(reference));
     sourceHashHolder = new SourceHashHolder(inputFile, lastSnapshots);
   }
 
-  private String[] computeHexHashes(String source) {
+  private long[] computeHexHashes(String source) {
     String[] lines = source.split("\n");
     String[] hashes = new String[lines.length];
     for (int i = 0; i < lines.length; i++) {
       hashes[i] = DigestUtils.md5Hex(lines[i].replaceAll("[\t ]", ""));
     }
-    return hashes;
+    return LineHashes.fromHex(Arrays.asList(hashes));
   }
 }
@@ -28,8 +28,10 @@ import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.core.source.LineHashes;
 
 import java.io.File;
+import java.util.Arrays;
 
 import static org.apache.commons.codec.digest.DigestUtils.md5Hex;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -83,7 +85,7 @@ public class SourceHashHolderTest {
     FileUtils.write(ioFile, source, Charsets.UTF_8);
     when(file.key()).thenReturn(key);
     when(file.status()).thenReturn(InputFile.Status.CHANGED);
-    when(lastSnapshots.getLineHashes(key)).thenReturn(new String[] {md5Hex(source)});
+    when(lastSnapshots.getLineHashes(key)).thenReturn(LineHashes.fromHex(Arrays.asList(md5Hex(source))));
 
     assertThat(sourceHashHolder.getHashedReference().getHash(1)).isEqualTo(md5Hex(source));
     verify(lastSnapshots).getLineHashes(key);
@@ -19,27 +19,41 @@
  */
 package org.sonar.batch.phases;
 
+import com.google.common.collect.Lists;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.sonar.api.batch.Decorator;
 import org.sonar.api.batch.DecoratorContext;
 import org.sonar.api.batch.SonarIndex;
+import org.sonar.api.config.Settings;
+import org.sonar.api.measures.Measure;
 import org.sonar.api.measures.MetricFinder;
+import org.sonar.api.resources.Directory;
 import org.sonar.api.resources.File;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
 import org.sonar.api.utils.SonarException;
 import org.sonar.batch.bootstrap.BatchExtensionDictionnary;
+import org.sonar.batch.bootstrap.ExtensionMatcher;
 import org.sonar.batch.deprecated.decorator.DefaultDecoratorContext;
 import org.sonar.batch.duplication.DuplicationCache;
 import org.sonar.batch.events.EventBus;
 import org.sonar.batch.scan.measure.MeasureCache;
 import org.sonar.batch.sensor.coverage.CoverageExclusions;
 
+import java.util.Collections;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class DecoratorsExecutorTest {
 
@@ -67,7 +81,7 @@ public class DecoratorsExecutorTest {
     doThrow(new SonarException()).when(decorator).decorate(any(Resource.class), any(DecoratorContext.class));
 
     DecoratorsExecutor executor = new DecoratorsExecutor(mock(BatchExtensionDictionnary.class), new Project("key"), mock(SonarIndex.class),
-      mock(EventBus.class), mock(CoverageExclusions.class), mock(MeasureCache.class), mock(MetricFinder.class), mock(DuplicationCache.class));
+      mock(EventBus.class), mock(CoverageExclusions.class), mock(MeasureCache.class), mock(MetricFinder.class), mock(DuplicationCache.class), new Settings());
     try {
       executor.executeDecorator(decorator, mock(DefaultDecoratorContext.class), File.create("src/org/foo/Bar.java", null, false));
       fail("Exception has not been thrown");
@@ -77,6 +91,75 @@ public class DecoratorsExecutorTest {
     }
   }
 
+  @Test
+  public void decorate_children_concurrently() {
+    Project project = new Project("key");
+    Directory dir = Directory.create("src");
+    List<Resource> files = Lists.newArrayList();
+    for (int i = 0; i < 100; i++) {
+      files.add(File.create("src/File" + i + ".java"));
+    }
+    SonarIndex index = mock(SonarIndex.class);
+    when(index.getChildren(any(Resource.class))).thenReturn(Collections.<Resource>emptyList());
+    when(index.getChildren(project)).thenReturn(Lists.<Resource>newArrayList(dir));
+    when(index.getChildren(dir)).thenReturn(files);
+    BatchExtensionDictionnary dictionnary = mock(BatchExtensionDictionnary.class);
+    // two different decorators which are not thread-safe, for example because they share a cache
+    Executions executions = new Executions();
+    NotThreadSafeDecorator decorator = new NotThreadSafeDecorator(executions);
+    NotThreadSafeDecorator otherDecorator = new NotThreadSafeDecorator(executions);
+    when(dictionnary.select(eq(Decorator.class), eq(project), eq(false), isNull(ExtensionMatcher.class))).thenReturn(
+      Lists.<Decorator>newArrayList(decorator, otherDecorator));
+    when(dictionnary.sort(anyCollection())).thenAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(InvocationOnMock invocation) {
+        return invocation.getArguments()[0];
+      }
+    });
+    MeasureCache measureCache = mock(MeasureCache.class);
+    when(measureCache.byResource(any(Resource.class))).thenReturn(Collections.<Measure>emptyList());
+    Settings settings = new Settings().setProperty(DecoratorsExecutor.THREADS_PROPERTY, 4);
+
+    DecoratorsExecutor executor = new DecoratorsExecutor(dictionnary, project, index,
+      mock(EventBus.class), mock(CoverageExclusions.class), measureCache, mock(MetricFinder.class), mock(DuplicationCache.class), settings);
+    executor.execute();
+
+    // files, directory then project
+    assertThat(decorator.decoratedResources).hasSize(102);
+    assertThat(decorator.decoratedResources.subList(0, 100)).containsAll(files);
+    assertThat(decorator.decoratedResources.subList(100, 102)).containsExactly(dir, project);
+    assertThat(otherDecorator.decoratedResources).hasSize(102);
+    assertThat(executions.concurrentExecution).isFalse();
+  }
+
+  static class Executions {
+    boolean running = false;
+    boolean concurrentExecution = false;
+  }
+
+  static class NotThreadSafeDecorator implements Decorator {
+    final Executions executions;
+    List<Resource> decoratedResources = Lists.newArrayList();
+
+    NotThreadSafeDecorator(Executions executions) {
+      this.executions = executions;
+    }
+
+    public void decorate(Resource resource, DecoratorContext context) {
+      if (executions.running) {
+        executions.concurrentExecution = true;
+      }
+      executions.running = true;
+      decoratedResources.add(resource);
+      Thread.yield();
+      executions.running = false;
+    }
+
+    public boolean shouldExecuteOnProject(Project project) {
+      return true;
+    }
+  }
+
   static class Decorator1 implements Decorator {
     public void decorate(Resource resource, DecoratorContext context) {
     }
@@ -47,16 +47,20 @@ import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
 import org.sonar.api.utils.System2;
 import org.sonar.batch.bootstrap.BootstrapProperties;
+import org.sonar.batch.bootstrap.ServerRequestStats;
 import org.sonar.batch.events.BatchStepEvent;
 import org.sonar.batch.index.ScanPersister;
 import org.sonar.batch.phases.Phases.Phase;
 import org.sonar.batch.phases.event.PersisterExecutionHandler;
 import org.sonar.batch.phases.event.PersistersPhaseHandler;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.spy;
@@ -69,13 +73,16 @@ public class PhasesSumUpTimeProfilerTest {
 
   private MockedSystem clock;
   private PhasesSumUpTimeProfiler profiler;
+  private ServerRequestStats requestStats = new ServerRequestStats();
+  private File workingDir;
 
   @Before
   public void prepare() throws Exception {
     clock = new MockedSystem();
     Map<String, String> props = Maps.newHashMap();
-    props.put(CoreProperties.WORKING_DIRECTORY, temp.newFolder().getAbsolutePath());
-    profiler = new PhasesSumUpTimeProfiler(clock, new BootstrapProperties(props));
+    workingDir = temp.newFolder();
+    props.put(CoreProperties.WORKING_DIRECTORY, workingDir.getAbsolutePath());
+    profiler = new PhasesSumUpTimeProfiler(clock, new BootstrapProperties(props), requestStats);
   }
 
   @Test
@@ -121,6 +128,26 @@ public class PhasesSumUpTimeProfilerTest {
     assertThat(profiler.totalProfiling.getProfilingPerPhase(Phase.POSTJOB).getProfilingPerItem(new FakePostJob()).totalTime()).isEqualTo(90L);
   }
 
+  @Test
+  public void dump_server_requests() throws Exception {
+    requestStats.record("/batch/project", 100L, 2000L);
+    requestStats.record("/api/sources/hash", 30L, 50L);
+    requestStats.record("/api/sources/hash", 20L, 50L);
+    final Project project = mockProject("my:project", true);
+    when(project.getModules()).thenReturn(Collections.<Project>emptyList());
+
+    fakeAnalysis(profiler, project);
+
+    Properties props = new Properties();
+    try (FileInputStream input = new FileInputStream(new File(workingDir, "profiling/server-requests-profiler.properties"))) {
+      props.load(input);
+    }
+    assertThat(props.getProperty("/batch/project.requests")).isEqualTo("1");
+    assertThat(props.getProperty("/api/sources/hash.requests")).isEqualTo("2");
+    assertThat(props.getProperty("/api/sources/hash.time")).isEqualTo("50");
+    assertThat(props.getProperty("/api/sources/hash.bytes")).isEqualTo("100");
+  }
+
   @Test
   public void testDisplayTimings() {
     AbstractTimeProfiling profiling = new AbstractTimeProfiling(System2.INSTANCE) {
@@ -26,12 +26,16 @@ import org.junit.rules.TemporaryFolder;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.bootstrap.ProjectDefinition;
 import org.sonar.api.batch.bootstrap.ProjectReactor;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.database.model.Snapshot;
+import org.sonar.api.issue.internal.DefaultIssue;
 import org.sonar.api.resources.Directory;
 import org.sonar.api.resources.Java;
 import org.sonar.api.resources.Project;
 import org.sonar.api.utils.DateUtils;
 import org.sonar.batch.index.ResourceCache;
+import org.sonar.batch.issue.IssueCache;
 import org.sonar.batch.protocol.Constants.ComponentLinkType;
 import org.sonar.batch.protocol.Constants.EventCategory;
 import org.sonar.batch.protocol.output.BatchReport.Component;
@@ -42,8 +46,10 @@ import org.sonar.batch.protocol.output.FileStructure;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -56,6 +62,7 @@ public class ComponentsPublisherTest {
   private ResourceCache resourceCache;
   private ComponentsPublisher publisher;
   private EventCache eventCache;
+  private IssueCache issueCache;
 
   @Before
   public void prepare() {
@@ -63,7 +70,9 @@ public class ComponentsPublisherTest {
     reactor.getRoot().properties().put(CoreProperties.PROJECT_VERSION_PROPERTY, "1.0");
     resourceCache = new ResourceCache();
     eventCache = mock(EventCache.class);
-    publisher = new ComponentsPublisher(reactor, resourceCache, eventCache);
+    issueCache = mock(IssueCache.class);
+    when(issueCache.byComponent(anyString())).thenReturn(Collections.<DefaultIssue>emptyList());
+    publisher = new ComponentsPublisher(reactor, resourceCache, eventCache, issueCache);
   }
 
   @Test
@@ -125,6 +134,39 @@ public class ComponentsPublisherTest {
     assertThat(module1Protobuf.getVersion()).isEqualTo("1.0");
   }
 
+  @Test
+  public void flag_files_unchanged_since_previous_analysis() throws Exception {
+    Project root = new Project("foo").setName("Root project")
+      .setAnalysisDate(DateUtils.parseDate(("2012-12-12")));
+    root.setId(1).setUuid("PROJECT_UUID");
+    resourceCache.add(root, null).setSnapshot(new Snapshot().setId(11));
+
+    // same hash and no changes on issues
+    org.sonar.api.resources.File sameFile = org.sonar.api.resources.File.create("src/Same.java", Java.INSTANCE, false);
+    sameFile.setEffectiveKey("foo:src/Same.java");
+    resourceCache.add(sameFile, root).setInputPath(new DefaultInputFile("foo", "src/Same.java").setStatus(InputFile.Status.SAME));
+    when(issueCache.byComponent("foo:src/Same.java")).thenReturn(Arrays.asList(new DefaultIssue().setNew(false).setChanged(false)));
+
+    // same hash but an issue has been closed, for example because the rule has been deactivated
+    org.sonar.api.resources.File sameFileWithChangedIssue = org.sonar.api.resources.File.create("src/Closed.java", Java.INSTANCE, false);
+    sameFileWithChangedIssue.setEffectiveKey("foo:src/Closed.java");
+    resourceCache.add(sameFileWithChangedIssue, root).setInputPath(new DefaultInputFile("foo", "src/Closed.java").setStatus(InputFile.Status.SAME));
+    when(issueCache.byComponent("foo:src/Closed.java")).thenReturn(Arrays.asList(new DefaultIssue().setNew(false).setChanged(true)));
+
+    org.sonar.api.resources.File changedFile = org.sonar.api.resources.File.create("src/Changed.java", Java.INSTANCE, false);
+    changedFile.setEffectiveKey("foo:src/Changed.java");
+    resourceCache.add(changedFile, root).setInputPath(new DefaultInputFile("foo", "src/Changed.java").setStatus(InputFile.Status.CHANGED));
+
+    File outputDir = temp.newFolder();
+    publisher.publish(new BatchReportWriter(outputDir));
+
+    BatchReportReader reader = new BatchReportReader(outputDir);
+    assertThat(reader.readComponent(1).getIsUnchanged()).isFalse();
+    assertThat(reader.readComponent(2).getIsUnchanged()).isTrue();
+    assertThat(reader.readComponent(3).getIsUnchanged()).isFalse();
+    assertThat(reader.readComponent(4).getIsUnchanged()).isFalse();
+  }
+
   @Test
   public void add_components_with_links_and_branch() throws Exception {
     // inputs
@@ -19,26 +19,47 @@
  */
 package org.sonar.batch.report;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.MultiPartInputStream;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.slf4j.Logger;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.bootstrap.ProjectDefinition;
 import org.sonar.api.batch.bootstrap.ProjectReactor;
 import org.sonar.api.config.Settings;
-import org.sonar.api.platform.Server;
+import org.sonar.api.utils.System2;
 import org.sonar.api.utils.TempFolder;
 import org.sonar.batch.bootstrap.DefaultAnalysisMode;
 import org.sonar.batch.bootstrap.ServerClient;
+import org.sonar.batch.bootstrap.ServerRequestStats;
 import org.sonar.batch.index.ResourceCache;
 import org.sonar.jpa.test.AbstractDbUnitTestCase;
 
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ReportPublisherTest extends AbstractDbUnitTestCase {
 
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
   private DefaultAnalysisMode mode;
 
   ResourceCache resourceCache = mock(ResourceCache.class);
@@ -56,7 +77,8 @@ public class ReportPublisherTest extends AbstractDbUnitTestCase {
   public void should_log_successful_analysis() throws Exception {
     Settings settings = new Settings();
     settings.setProperty(CoreProperties.SERVER_BASE_URL, "http://myserver/");
-    ReportPublisher job = new ReportPublisher(settings, mock(ServerClient.class), mock(Server.class), reactor, mode, mock(TempFolder.class), new ReportPublisherStep[0]);
+    ReportPublisher job = new ReportPublisher(settings, mock(ServerClient.class), mock(org.sonar.api.platform.Server.class), reactor, mode, mock(TempFolder.class), new ServerRequestStats(), System2.INSTANCE,
+      new ReportPublisherStep[0]);
 
     Logger logger = mock(Logger.class);
     job.logSuccess(logger);
@@ -65,11 +87,78 @@ public class ReportPublisherTest extends AbstractDbUnitTestCase {
     verify(logger).info("Note that you will be able to access the updated dashboard once the server has processed the submitted analysis report.");
   }
 
+  @Test
+  public void upload_report_by_chunks_and_resume_after_failure() throws Exception {
+    ChunkedUploadServer uploadServer = new ChunkedUploadServer();
+    ServerRequestStats requestStats = new ServerRequestStats();
+    System2 system = mock(System2.class);
+    when(system.now()).thenReturn(1000L, 1010L, 2000L, 2020L, 3000L, 3030L);
+    Server server = new Server(0);
+    server.setHandler(uploadServer);
+    server.start();
+    try {
+      ServerClient serverClient = mock(ServerClient.class);
+      when(serverClient.getURL()).thenReturn("http://localhost:" + server.getConnectors()[0].getLocalPort());
+      ReportPublisher job = new ReportPublisher(new Settings(), serverClient, mock(org.sonar.api.platform.Server.class), reactor, mode, mock(TempFolder.class),
+        requestStats, system, new ReportPublisherStep[0]);
+      job.setChunkSize(4);
+      File report = temp.newFile();
+      FileUtils.write(report, "0123456789");
+
+      job.uploadReport(report);
+
+      assertThat(uploadServer.received.toString()).isEqualTo("0123456789");
+      assertThat(uploadServer.completed).isTrue();
+      // second chunk is stored by server even if its response is lost, so it is not sent again
+      assertThat(uploadServer.chunkRequests).isEqualTo(3);
+      ServerRequestStats.EndpointStats stats = requestStats.all().get(0);
+      assertThat(stats.endpoint()).isEqualTo("/api/computation/upload_report_chunk");
+      assertThat(stats.requests()).isEqualTo(3L);
+      assertThat(stats.bytes()).isEqualTo(10L);
+      assertThat(stats.durationMs()).isEqualTo(60L);
+    } finally {
+      server.stop();
+    }
+  }
+
+  /**
+   * Emulates the web services api/computation/upload_report_chunk and api/computation/upload_report_status.
+   * Response to the second chunk is lost.
+   */
+  private static class ChunkedUploadServer extends AbstractHandler {
+    final StringBuilder received = new StringBuilder();
+    int chunkRequests = 0;
+    boolean completed = false;
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+      if (target.endsWith("/upload_report_chunk")) {
+        chunkRequests++;
+        assertThat(Long.parseLong(request.getParameter("offset"))).isEqualTo(received.length());
+        MultiPartInputStream multiPart = new MultiPartInputStream(request.getInputStream(), request.getContentType(), null, null);
+        String chunk = IOUtils.toString(multiPart.getPart("chunk").getInputStream());
+        assertThat(request.getParameter("md5")).isEqualTo(DigestUtils.md5Hex(chunk));
+        received.append(chunk);
+        completed = Boolean.parseBoolean(request.getParameter("last"));
+        if (chunkRequests == 2) {
+          response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        } else {
+          IOUtils.write("{\"uploadId\":\"U1\",\"offset\":" + received.length() + "}", response.getOutputStream());
+        }
+      } else {
+        assertThat(request.getParameter("uploadId")).isEqualTo("U1");
+        IOUtils.write("{\"uploadId\":\"U1\",\"offset\":" + received.length() + "}", response.getOutputStream());
+      }
+      baseRequest.setHandled(true);
+    }
+  }
+
   @Test
   public void should_log_successful_preview_analysis() throws Exception {
     Settings settings = new Settings();
     when(mode.isPreview()).thenReturn(true);
-    ReportPublisher job = new ReportPublisher(settings, mock(ServerClient.class), mock(Server.class), reactor, mode, mock(TempFolder.class), new ReportPublisherStep[0]);
+    ReportPublisher job = new ReportPublisher(settings, mock(ServerClient.class), mock(org.sonar.api.platform.Server.class), reactor, mode, mock(TempFolder.class), new ServerRequestStats(), System2.INSTANCE,
+      new ReportPublisherStep[0]);
 
     Logger logger = mock(Logger.class);
     job.logSuccess(logger);
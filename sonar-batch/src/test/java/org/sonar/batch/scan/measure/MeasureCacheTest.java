@@ -19,6 +19,8 @@
  */
 package org.sonar.batch.scan.measure;
 
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.junit.After;
 import org.junit.Before;
@@ -29,6 +31,7 @@ import org.junit.rules.TemporaryFolder;
 import org.sonar.api.batch.measure.MetricFinder;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.Measure;
+import org.sonar.api.measures.Metric;
 import org.sonar.api.measures.Metric.Level;
 import org.sonar.api.measures.RuleMeasure;
 import org.sonar.api.resources.Directory;
@@ -44,9 +47,15 @@ import org.sonar.api.technicaldebt.batch.internal.DefaultCharacteristic;
 import org.sonar.batch.index.Cache.Entry;
 import org.sonar.batch.index.Caches;
 import org.sonar.batch.index.CachesTest;
+import org.sonar.batch.mediumtest.Benchmark;
 
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -60,6 +69,9 @@ public class MeasureCacheTest {
   @Rule
   public ExpectedException thrown = ExpectedException.none();
 
+  @Rule
+  public Benchmark bench = new Benchmark();
+
   Caches caches;
 
   private MetricFinder metricFinder;
@@ -269,6 +281,36 @@ public class MeasureCacheTest {
     assertThat(cache.byResource(dir).iterator().next()).isEqualTo(mDir);
   }
 
+  @Test
+  public void should_list_all_measures_ordered_by_resource() throws Exception {
+    Resource file1 = Directory.create("foo/bar/File1.txt").setEffectiveKey("struts:foo/bar/File1.txt");
+    Resource file2 = Directory.create("foo/bar/File2.txt").setEffectiveKey("struts:foo/bar/File2.txt");
+
+    Measure numeric2 = new Measure(CoreMetrics.NCLOC, 3.0);
+    cache.put(file2, numeric2);
+    Measure persisted2 = new Measure(CoreMetrics.NCLOC, 1.0).setPersonId(2);
+    cache.put(file2, persisted2);
+    Measure persisted1 = new Measure(CoreMetrics.NCLOC, 1.0).setPersonId(2);
+    cache.put(file1, persisted1);
+    Measure numeric1 = new Measure(CoreMetrics.NCLOC, 2.0);
+    cache.put(file1, numeric1);
+
+    List<String> resourceKeys = Lists.newArrayList();
+    for (Entry<Measure> entry : cache.entries()) {
+      resourceKeys.add((String) entry.key()[0]);
+    }
+    assertThat(resourceKeys).containsExactly("struts:foo/bar/File1.txt", "struts:foo/bar/File1.txt", "struts:foo/bar/File2.txt", "struts:foo/bar/File2.txt");
+
+    List<Double> values = Lists.newArrayList();
+    List<Integer> personIds = Lists.newArrayList();
+    for (Measure measure : cache.all()) {
+      values.add(measure.getValue());
+      personIds.add(measure.getPersonId());
+    }
+    assertThat(values).containsExactly(2.0, 1.0, 3.0, 1.0);
+    assertThat(personIds).containsExactly(null, 2, null, 2);
+  }
+
   @Test
   public void test_measure_coder() throws Exception {
     Resource file1 = File.create("foo/bar/File1.txt").setEffectiveKey("struts:foo/bar/File1.txt");
@@ -309,4 +351,85 @@ public class MeasureCacheTest {
     assertThat(EqualsBuilder.reflectionEquals(measure, savedMeasure)).isTrue();
 
   }
+
+  @Test
+  public void should_replace_numeric_measure_by_measure_with_other_fields() throws Exception {
+    Resource file1 = File.create("foo/bar/File1.txt").setEffectiveKey("struts:foo/bar/File1.txt");
+
+    Measure measure = new Measure(CoreMetrics.NCLOC, 1.0);
+    cache.put(file1, measure);
+    measure.setVariation1(2.0);
+    cache.put(file1, measure);
+
+    assertThat(cache.entries()).hasSize(1);
+    assertThat(cache.byMetric(file1, CoreMetrics.NCLOC_KEY).iterator().next().getVariation1()).isEqualTo(2.0);
+
+    measure.setVariation1(null);
+    measure.setValue(3.0);
+    cache.put(file1, measure);
+
+    assertThat(cache.entries()).hasSize(1);
+    Measure savedMeasure = cache.byMetric(file1, CoreMetrics.NCLOC_KEY).iterator().next();
+    assertThat(savedMeasure.getValue()).isEqualTo(3.0);
+    assertThat(savedMeasure.getVariation1()).isNull();
+    assertThat(cache.contains(file1, measure)).isTrue();
+  }
+
+  @Test
+  public void should_read_measures_concurrently() throws Exception {
+    final Resource[] files = new Resource[2000];
+    for (int i = 0; i < files.length; i++) {
+      files[i] = File.create("src/File" + i + ".txt").setEffectiveKey("struts:src/File" + i + ".txt");
+      cache.put(files[i], new Measure(CoreMetrics.NCLOC, (double) i));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<Boolean>> results = Lists.newArrayList();
+    for (int t = 0; t < 4; t++) {
+      results.add(executor.submit(new Callable<Boolean>() {
+        @Override
+        public Boolean call() {
+          for (int i = 0; i < files.length; i++) {
+            Measure measure = cache.byMetric(files[i], CoreMetrics.NCLOC_KEY).iterator().next();
+            if (measure.getValue() != i) {
+              return false;
+            }
+          }
+          return true;
+        }
+      }));
+    }
+    for (Future<Boolean> result : results) {
+      assertThat(result.get()).isTrue();
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void benchmark_on_50k_files() throws Exception {
+    List<Metric> metrics = Lists.newArrayList(CoreMetrics.NCLOC, CoreMetrics.LINES, CoreMetrics.FUNCTIONS, CoreMetrics.CLASSES, CoreMetrics.STATEMENTS,
+      CoreMetrics.COMPLEXITY, CoreMetrics.COMMENT_LINES, CoreMetrics.VIOLATIONS, CoreMetrics.BLOCKER_VIOLATIONS, CoreMetrics.CRITICAL_VIOLATIONS);
+    for (Metric metric : metrics) {
+      when(metricFinder.findByKey(metric.getKey())).thenReturn(metric);
+    }
+    int fileCount = 50000;
+
+    long start = System.currentTimeMillis();
+    for (int i = 0; i < fileCount; i++) {
+      Resource file = File.create("src/File" + i + ".txt").setEffectiveKey("struts:src/File" + i + ".txt");
+      for (Metric metric : metrics) {
+        cache.put(file, new Measure(metric, (double) i));
+      }
+    }
+    bench.expectLessThanOrEqualTo("Time to store " + fileCount * metrics.size() + " measures", System.currentTimeMillis() - start, 2000);
+
+    start = System.currentTimeMillis();
+    int count = 0;
+    for (int i = 0; i < fileCount; i++) {
+      Resource file = File.create("src/File" + i + ".txt").setEffectiveKey("struts:src/File" + i + ".txt");
+      count += Iterables.size(cache.byResource(file));
+    }
+    assertThat(count).isEqualTo(fileCount * metrics.size());
+    bench.expectLessThanOrEqualTo("Time to read " + count + " measures by resource", System.currentTimeMillis() - start, 2000);
+  }
 }
@@ -0,0 +1,154 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.issue.db;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Number of unresolved issues of a component (including its descendants) having a given value
+ * of facet, for example the severity MAJOR. Counters are computed at the end of each analysis.
+ *
+ * @since 5.2
+ */
+public class IssueCounterDto {
+
+  public static final String FACET_SEVERITIES = "severities";
+  public static final String FACET_STATUSES = "statuses";
+  public static final String FACET_RULES = "rules";
+  public static final String FACET_ASSIGNEES = "assignees";
+
+  /**
+   * Value of facet {@link #FACET_ASSIGNEES} for the unassigned issues
+   */
+  public static final String UNASSIGNED = "";
+
+  private Long id;
+  private String projectUuid;
+  private String componentUuid;
+  private String facet;
+  private String facetValue;
+  private int issuesCount;
+  private Integer newIssuesCount1;
+  private Integer newIssuesCount2;
+  private Integer newIssuesCount3;
+  private Integer newIssuesCount4;
+  private Integer newIssuesCount5;
+
+  public Long getId() {
+    return id;
+  }
+
+  public IssueCounterDto setId(Long id) {
+    this.id = id;
+    return this;
+  }
+
+  public String getProjectUuid() {
+    return projectUuid;
+  }
+
+  public IssueCounterDto setProjectUuid(String projectUuid) {
+    this.projectUuid = projectUuid;
+    return this;
+  }
+
+  public String getComponentUuid() {
+    return componentUuid;
+  }
+
+  public IssueCounterDto setComponentUuid(String componentUuid) {
+    this.componentUuid = componentUuid;
+    return this;
+  }
+
+  public String getFacet() {
+    return facet;
+  }
+
+  public IssueCounterDto setFacet(String facet) {
+    this.facet = facet;
+    return this;
+  }
+
+  public String getFacetValue() {
+    return facetValue;
+  }
+
+  public IssueCounterDto setFacetValue(String facetValue) {
+    this.facetValue = facetValue;
+    return this;
+  }
+
+  public int getIssuesCount() {
+    return issuesCount;
+  }
+
+  public IssueCounterDto setIssuesCount(int issuesCount) {
+    this.issuesCount = issuesCount;
+    return this;
+  }
+
+  /**
+   * Number of issues created since the date of the differential period.
+   * @param periodIndex from 1 to 5
+   * @return null if the period is not defined
+   */
+  @CheckForNull
+  public Integer getNewIssuesCount(int periodIndex) {
+    switch (periodIndex) {
+      case 1:
+        return newIssuesCount1;
+      case 2:
+        return newIssuesCount2;
+      case 3:
+        return newIssuesCount3;
+      case 4:
+        return newIssuesCount4;
+      case 5:
+        return newIssuesCount5;
+      default:
+        throw new IndexOutOfBoundsException("Index of period must be between 1 and 5");
+    }
+  }
+
+  public IssueCounterDto setNewIssuesCount(int periodIndex, @Nullable Integer count) {
+    switch (periodIndex) {
+      case 1:
+        newIssuesCount1 = count;
+        break;
+      case 2:
+        newIssuesCount2 = count;
+        break;
+      case 3:
+        newIssuesCount3 = count;
+        break;
+      case 4:
+        newIssuesCount4 = count;
+        break;
+      case 5:
+        newIssuesCount5 = count;
+        break;
+      default:
+        throw new IndexOutOfBoundsException("Index of period must be between 1 and 5");
+    }
+    return this;
+  }
+}
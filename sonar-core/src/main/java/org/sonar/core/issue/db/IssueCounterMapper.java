@@ -17,14 +17,18 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
+package org.sonar.core.issue.db;
 
-package org.sonar.core.component.db;
+import java.util.List;
 
-import org.apache.ibatis.annotations.Param;
+/**
+ * @since 5.2
+ */
+public interface IssueCounterMapper {
 
-import java.util.List;
+  List<IssueCounterDto> selectByComponentUuid(String componentUuid);
 
-public interface ComponentIndexMapper {
+  void insert(IssueCounterDto dto);
 
-  List<Long> selectProjectIdsFromQueryAndViewOrSubViewUuid(@Param("query") String query, @Param("viewUuidQuery") String viewUuidQuery);
+  void deleteByProjectUuid(String projectUuid);
 }
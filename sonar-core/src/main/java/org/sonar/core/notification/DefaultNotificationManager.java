@@ -24,6 +24,8 @@ import com.google.common.base.Function;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,12 +38,16 @@ import org.sonar.core.notification.db.NotificationQueueDao;
 import org.sonar.core.notification.db.NotificationQueueDto;
 import org.sonar.core.properties.PropertiesDao;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
 import java.io.IOException;
 import java.io.InvalidClassException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @since 2.10
@@ -58,6 +64,12 @@ public class DefaultNotificationManager implements NotificationManager {
 
   private boolean alreadyLoggedDeserializationIssue = false;
 
+  /**
+   * Recipients already resolved by the current thread, when caching has been enabled
+   * with {@link #startRecipientsCache()}
+   */
+  private final ThreadLocal<Map<String, SetMultimap<String, NotificationChannel>>> recipientsCache = new ThreadLocal<>();
+
   /**
    * Default constructor used by Pico
    */
@@ -96,21 +108,40 @@ public class DefaultNotificationManager implements NotificationManager {
   /**
    * Give the notification queue so that it can be processed
    */
+  @CheckForNull
   public Notification getFromQueue() {
-    int batchSize = 1;
+    List<Notification> notifications = getFromQueue(1);
+    return notifications.isEmpty() ? null : notifications.get(0);
+  }
+
+  /**
+   * Give the oldest notifications of the queue so that they can be processed. They are removed from
+   * the queue in a single transaction.
+   *
+   * @param batchSize maximum number of notifications to be returned
+   * @since 5.2
+   */
+  public List<Notification> getFromQueue(int batchSize) {
     List<NotificationQueueDto> notificationDtos = notificationQueueDao.findOldest(batchSize);
     if (notificationDtos.isEmpty()) {
-      return null;
+      return Collections.emptyList();
     }
     notificationQueueDao.delete(notificationDtos);
 
-    return convertToNotification(notificationDtos);
+    List<Notification> notifications = new ArrayList<>(notificationDtos.size());
+    for (NotificationQueueDto notificationDto : notificationDtos) {
+      Notification notification = convertToNotification(notificationDto);
+      if (notification != null) {
+        notifications.add(notification);
+      }
+    }
+    return notifications;
   }
 
-  private Notification convertToNotification(List<NotificationQueueDto> notifications) {
+  @CheckForNull
+  private Notification convertToNotification(NotificationQueueDto notification) {
     try {
-      // If batchSize is increased then we should return a list instead of a single element
-      return notifications.get(0).toNotification();
+      return notification.toNotification();
     } catch (InvalidClassException e) {
       // SONAR-4739
       if (!alreadyLoggedDeserializationIssue) {
@@ -141,6 +172,11 @@ public class DefaultNotificationManager implements NotificationManager {
   @Override
   public Multimap<String, NotificationChannel> findSubscribedRecipientsForDispatcher(NotificationDispatcher dispatcher, @Nullable Integer resourceId) {
     String dispatcherKey = dispatcher.getKey();
+    String cacheKey = "id:" + dispatcherKey + ":" + resourceId;
+    SetMultimap<String, NotificationChannel> cached = getCachedRecipients(cacheKey);
+    if (cached != null) {
+      return cached;
+    }
 
     SetMultimap<String, NotificationChannel> recipients = HashMultimap.create();
     for (NotificationChannel channel : notificationChannels) {
@@ -155,19 +191,57 @@ public class DefaultNotificationManager implements NotificationManager {
       }
     }
 
-    return recipients;
+    return cacheRecipients(cacheKey, recipients);
   }
 
   @Override
   public Multimap<String, NotificationChannel> findNotificationSubscribers(NotificationDispatcher dispatcher, @Nullable String componentKey) {
     String dispatcherKey = dispatcher.getKey();
+    String cacheKey = "key:" + dispatcherKey + ":" + componentKey;
+    SetMultimap<String, NotificationChannel> cached = getCachedRecipients(cacheKey);
+    if (cached != null) {
+      return cached;
+    }
 
     SetMultimap<String, NotificationChannel> recipients = HashMultimap.create();
     for (NotificationChannel channel : notificationChannels) {
       addUsersToRecipientListForChannel(propertiesDao.findNotificationSubscribers(dispatcherKey, channel.getKey(), componentKey), recipients, channel);
     }
 
-    return recipients;
+    return cacheRecipients(cacheKey, recipients);
+  }
+
+  /**
+   * Keep the recipients resolved by the current thread in memory, until {@link #stopRecipientsCache()} is called.
+   * It avoids loading the same subscribers from database for each notification of a batch.
+   *
+   * @since 5.2
+   */
+  public void startRecipientsCache() {
+    recipientsCache.set(Maps.<String, SetMultimap<String, NotificationChannel>>newHashMap());
+  }
+
+  /**
+   * @since 5.2
+   */
+  public void stopRecipientsCache() {
+    recipientsCache.remove();
+  }
+
+  @CheckForNull
+  private SetMultimap<String, NotificationChannel> getCachedRecipients(String cacheKey) {
+    Map<String, SetMultimap<String, NotificationChannel>> cache = recipientsCache.get();
+    return cache == null ? null : cache.get(cacheKey);
+  }
+
+  private SetMultimap<String, NotificationChannel> cacheRecipients(String cacheKey, SetMultimap<String, NotificationChannel> recipients) {
+    Map<String, SetMultimap<String, NotificationChannel>> cache = recipientsCache.get();
+    if (cache == null) {
+      return recipients;
+    }
+    SetMultimap<String, NotificationChannel> unmodifiableRecipients = Multimaps.unmodifiableSetMultimap(recipients);
+    cache.put(cacheKey, unmodifiableRecipients);
+    return unmodifiableRecipients;
   }
 
   @VisibleForTesting
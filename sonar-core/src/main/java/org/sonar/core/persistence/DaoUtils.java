@@ -35,7 +35,6 @@ import org.sonar.core.purge.PurgeDao;
 import org.sonar.core.qualityprofile.db.ActiveRuleDao;
 import org.sonar.core.qualityprofile.db.QualityProfileDao;
 import org.sonar.core.resource.ResourceDao;
-import org.sonar.core.resource.ResourceIndexerDao;
 import org.sonar.core.resource.ResourceKeyUpdaterDao;
 import org.sonar.core.rule.RuleDao;
 import org.sonar.core.source.db.FileSourceDao;
@@ -83,7 +82,6 @@ public final class DaoUtils {
       QualityProfileDao.class,
       PurgeDao.class,
       CharacteristicDao.class,
-      ResourceIndexerDao.class,
       ResourceDao.class,
       ResourceKeyUpdaterDao.class,
       RoleDao.class,
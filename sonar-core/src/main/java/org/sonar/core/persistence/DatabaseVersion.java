@@ -33,7 +33,7 @@ import java.util.List;
  */
 public class DatabaseVersion implements BatchComponent, ServerComponent {
 
-  public static final int LAST_VERSION = 908;
+  public static final int LAST_VERSION = 911;
 
   /**
    * List of all the tables.n
@@ -60,6 +60,7 @@ public class DatabaseVersion implements BatchComponent, ServerComponent {
     "group_roles",
     "issues",
     "issue_changes",
+    "issue_counters",
     "issue_filters",
     "issue_filter_favourites",
     "loaded_templates",
@@ -78,7 +79,6 @@ public class DatabaseVersion implements BatchComponent, ServerComponent {
     "project_measures",
     "project_qprofiles",
     "properties",
-    "resource_index",
     "rules",
     "rules_parameters",
     "rules_profiles",
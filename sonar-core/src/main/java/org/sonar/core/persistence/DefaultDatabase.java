@@ -32,6 +32,9 @@ import org.sonar.api.database.DatabaseProperties;
 import org.sonar.core.persistence.dialect.Dialect;
 import org.sonar.core.persistence.dialect.DialectUtils;
 import org.sonar.core.persistence.profiling.ProfiledDataSource;
+import org.sonar.core.persistence.profiling.SqlStatistics;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.core.telemetry.Timer;
 import org.sonar.jpa.session.CustomHibernateConnectionProvider;
 
 import javax.sql.DataSource;
@@ -54,15 +57,25 @@ public class DefaultDatabase implements Database {
   private static final String SONAR_HIBERNATE = "sonar.hibernate.";
   private static final String SONAR_JDBC_DIALECT = "sonar.jdbc.dialect";
   private static final String SONAR_JDBC_URL = "sonar.jdbc.url";
+  private static final String SONAR_JDBC_SLOW_STATEMENT_THRESHOLD = "sonar.jdbc.slowStatementThresholdMs";
   private static final String VALIDATE = "validate";
 
   private Settings settings;
   private BasicDataSource datasource;
   private Dialect dialect;
   private Properties properties;
+  private final Timer statementTimer;
 
+  /**
+   * Execution times of SQL statements are not exported, for example on batch side.
+   */
   public DefaultDatabase(Settings settings) {
+    this(settings, new Telemetry());
+  }
+
+  public DefaultDatabase(Settings settings, Telemetry telemetry) {
     this.settings = settings;
+    this.statementTimer = telemetry.timer(ProfiledDataSource.STATEMENT_METRIC, "Execution time of SQL statements");
   }
 
   @Override
@@ -103,9 +116,9 @@ public class DefaultDatabase implements Database {
     datasource = (BasicDataSource) BasicDataSourceFactory.createDataSource(extractCommonsDbcpProperties(properties));
     datasource.setConnectionInitSqls(dialect.getConnectionInitStatements());
     datasource.setValidationQuery(dialect.getValidationQuery());
-    if ("TRACE".equals(settings.getString("sonar.log.level"))) {
-      datasource = new ProfiledDataSource(datasource);
-    }
+    long slowThresholdMs = settings.hasKey(SONAR_JDBC_SLOW_STATEMENT_THRESHOLD) ? settings.getLong(SONAR_JDBC_SLOW_STATEMENT_THRESHOLD)
+      : SqlStatistics.DEFAULT_SLOW_THRESHOLD_MS;
+    datasource = new ProfiledDataSource(datasource, new SqlStatistics(slowThresholdMs), statementTimer);
   }
 
   private void checkConnection() {
@@ -22,6 +22,8 @@ package org.sonar.core.persistence.profiling;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.telemetry.Telemetry;
+import org.sonar.core.telemetry.Timer;
 
 import java.io.PrintWriter;
 import java.lang.reflect.Proxy;
@@ -29,14 +31,42 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Collection;
 
+/**
+ * Records the execution time of all SQL statements into {@link Telemetry} and aggregates them by
+ * normalized SQL into {@link SqlStatistics}. Statements are also logged when the logger "sql" is in trace level.
+ */
 public class ProfiledDataSource extends BasicDataSource {
 
   static final Logger SQL_LOGGER = Loggers.get("sql");
+  public static final String STATEMENT_METRIC = "sonar_sql_statement_seconds";
 
   private final BasicDataSource delegate;
+  private final SqlStatistics statistics;
+  private final Timer statementTimer;
 
   public ProfiledDataSource(BasicDataSource delegate) {
+    this(delegate, new SqlStatistics(SqlStatistics.DEFAULT_SLOW_THRESHOLD_MS));
+  }
+
+  /**
+   * Execution times are recorded by a timer which is not registered in {@link Telemetry}, so they are not exported.
+   */
+  public ProfiledDataSource(BasicDataSource delegate, SqlStatistics statistics) {
+    this(delegate, statistics, new Timer(STATEMENT_METRIC));
+  }
+
+  public ProfiledDataSource(BasicDataSource delegate, SqlStatistics statistics, Timer statementTimer) {
     this.delegate = delegate;
+    this.statistics = statistics;
+    this.statementTimer = statementTimer;
+  }
+
+  public SqlStatistics getStatistics() {
+    return statistics;
+  }
+
+  public Timer getStatementTimer() {
+    return statementTimer;
   }
 
   @Override
@@ -312,13 +342,13 @@ public class ProfiledDataSource extends BasicDataSource {
   @Override
   public Connection getConnection() throws SQLException {
     return (Connection) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class[] { Connection.class },
-        new ProfilingConnectionHandler(delegate.getConnection()));
+        new ProfilingConnectionHandler(delegate.getConnection(), statistics, statementTimer));
   }
 
   @Override
   public Connection getConnection(String user, String pass) throws SQLException {
     return (Connection) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class[] { Connection.class },
-        new ProfilingConnectionHandler(delegate.getConnection(user, pass)));
+        new ProfilingConnectionHandler(delegate.getConnection(user, pass), statistics, statementTimer));
   }
 
   @Override
@@ -19,6 +19,8 @@
  */
 package org.sonar.core.persistence.profiling;
 
+import org.sonar.core.telemetry.Timer;
+
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
@@ -29,9 +31,13 @@ import java.sql.Statement;
 class ProfilingConnectionHandler implements InvocationHandler {
 
   private final Connection connection;
+  private final SqlStatistics statistics;
+  private final Timer timer;
 
-  ProfilingConnectionHandler(Connection connection) {
+  ProfilingConnectionHandler(Connection connection, SqlStatistics statistics, Timer timer) {
     this.connection = connection;
+    this.statistics = statistics;
+    this.timer = timer;
   }
 
   @Override
@@ -41,12 +47,12 @@ class ProfilingConnectionHandler implements InvocationHandler {
       PreparedStatement statement = (PreparedStatement) result;
       String sql = (String) args[0];
       return Proxy.newProxyInstance(ProfilingConnectionHandler.class.getClassLoader(), new Class[] { PreparedStatement.class },
-        new ProfilingPreparedStatementHandler(statement, sql));
+        new ProfilingPreparedStatementHandler(statement, sql, statistics, timer));
 
     } else if ("createStatement".equals(method.getName())) {
       Statement statement = (Statement) result;
       return Proxy.newProxyInstance(ProfilingConnectionHandler.class.getClassLoader(), new Class[] { Statement.class },
-        new ProfilingStatementHandler(statement));
+        new ProfilingStatementHandler(statement, statistics, timer));
 
     } else {
       return result;
@@ -22,6 +22,7 @@ package org.sonar.core.persistence.profiling;
 import com.google.common.collect.Lists;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.utils.log.Profiler;
+import org.sonar.core.telemetry.Timer;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
@@ -33,12 +34,19 @@ class ProfilingPreparedStatementHandler implements InvocationHandler {
   private final PreparedStatement statement;
   private final List<Object> arguments;
   private final String sql;
+  private final SqlStatistics statistics;
+  private final Timer timer;
+  // SQL is normalized on first execution only
+  private StatementStatistics statementStatistics = null;
 
-  ProfilingPreparedStatementHandler(PreparedStatement statement, String sql) {
+  ProfilingPreparedStatementHandler(PreparedStatement statement, String sql, SqlStatistics statistics, Timer timer) {
     this.statement = statement;
     this.sql = sql;
+    this.statistics = statistics;
+    this.timer = timer;
     this.arguments = Lists.newArrayList();
-    for (int argCount = 0; argCount < StringUtils.countMatches(sql, "?"); argCount++) {
+    int argCount = StringUtils.countMatches(sql, "?");
+    for (int i = 0; i < argCount; i++) {
       arguments.add("!");
     }
   }
@@ -46,17 +54,28 @@ class ProfilingPreparedStatementHandler implements InvocationHandler {
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     if (method.getName().startsWith("execute")) {
-      Profiler profiler = Profiler.create(ProfiledDataSource.SQL_LOGGER).start();
+      Profiler profiler = Profiler.createIfTrace(ProfiledDataSource.SQL_LOGGER).start();
+      long startNanos = System.nanoTime();
       Object result = null;
       try {
         result = InvocationUtils.invokeQuietly(statement, method, args);
       } finally {
-        profiler.addContext("sql", StringUtils.remove(sql, '\n'));
-        profiler.stopTrace("");
+        long durationNanos = System.nanoTime() - startNanos;
+        timer.record(durationNanos);
+        if (statementStatistics == null) {
+          statementStatistics = statistics.statement(sql);
+        }
+        statistics.record(statementStatistics, sql, durationNanos, arguments);
+        if (profiler.isTraceEnabled()) {
+          profiler.addContext("sql", StringUtils.remove(sql, '\n'));
+          profiler.stopTrace("");
+        }
       }
-      return result;
+      return ProfilingResultSetHandler.wrap(result, statementStatistics);
+    } else if ("getResultSet".equals(method.getName()) && statementStatistics != null) {
+      return ProfilingResultSetHandler.wrap(InvocationUtils.invokeQuietly(statement, method, args), statementStatistics);
     } else if (method.getName().startsWith("set") && args.length > 1) {
-      arguments.set((Integer) args[0] - 1, args[1]);
+      arguments.set((Integer) args[0] - 1, "setNull".equals(method.getName()) ? null : args[1]);
       return InvocationUtils.invokeQuietly(statement, method, args);
     } else {
       return InvocationUtils.invokeQuietly(statement, method, args);
@@ -0,0 +1,57 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.persistence.profiling;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+
+/**
+ * Counts the rows fetched from a result set. As the proxy is called for each access to a column,
+ * it is used only when the logger "sql" is in trace level.
+ */
+class ProfilingResultSetHandler implements InvocationHandler {
+
+  private final ResultSet resultSet;
+  private final StatementStatistics statistics;
+
+  private ProfilingResultSetHandler(ResultSet resultSet, StatementStatistics statistics) {
+    this.resultSet = resultSet;
+    this.statistics = statistics;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    Object result = InvocationUtils.invokeQuietly(resultSet, method, args);
+    if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+      statistics.addRow();
+    }
+    return result;
+  }
+
+  static Object wrap(Object result, StatementStatistics statistics) {
+    if (result instanceof ResultSet && ProfiledDataSource.SQL_LOGGER.isTraceEnabled()) {
+      return Proxy.newProxyInstance(ProfilingResultSetHandler.class.getClassLoader(), new Class[] {ResultSet.class},
+        new ProfilingResultSetHandler((ResultSet) result, statistics));
+    }
+    return result;
+  }
+}
@@ -21,6 +21,7 @@ package org.sonar.core.persistence.profiling;
 
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.utils.log.Profiler;
+import org.sonar.core.telemetry.Timer;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
@@ -28,24 +29,40 @@ import java.sql.Statement;
 
 class ProfilingStatementHandler implements InvocationHandler {
 
+  private static final String BATCH = "(batch)";
+
   private final Statement statement;
+  private final SqlStatistics statistics;
+  private final Timer timer;
+  private StatementStatistics lastStatistics = null;
 
-  ProfilingStatementHandler(Statement statement) {
+  ProfilingStatementHandler(Statement statement, SqlStatistics statistics, Timer timer) {
     this.statement = statement;
+    this.statistics = statistics;
+    this.timer = timer;
   }
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     if (method.getName().startsWith("execute")) {
-      Profiler profiler = Profiler.create(ProfiledDataSource.SQL_LOGGER).start();
+      Profiler profiler = Profiler.createIfTrace(ProfiledDataSource.SQL_LOGGER).start();
+      long startNanos = System.nanoTime();
       Object result = null;
       try {
         result = InvocationUtils.invokeQuietly(statement, method, args);
       } finally {
-        profiler.addContext("sql", StringUtils.remove((String)args[0], '\n'));
-        profiler.stopTrace("");
+        long durationNanos = System.nanoTime() - startNanos;
+        String sql = args != null && args.length > 0 ? (String) args[0] : BATCH;
+        timer.record(durationNanos);
+        lastStatistics = statistics.record(sql, durationNanos, null);
+        if (profiler.isTraceEnabled()) {
+          profiler.addContext("sql", StringUtils.remove(sql, '\n'));
+          profiler.stopTrace("");
+        }
       }
-      return result;
+      return ProfilingResultSetHandler.wrap(result, lastStatistics);
+    } else if ("getResultSet".equals(method.getName()) && lastStatistics != null) {
+      return ProfilingResultSetHandler.wrap(InvocationUtils.invokeQuietly(statement, method, args), lastStatistics);
     } else {
       return InvocationUtils.invokeQuietly(statement, method, args);
     }
@@ -0,0 +1,118 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.persistence.profiling;
+
+/**
+ * Replaces literals by "?", lists of parameters by "(?...)" and collapses whitespaces, so that
+ * executions of the same statement with different values are aggregated together.
+ */
+class SqlNormalizer {
+
+  private SqlNormalizer() {
+    // only static methods
+  }
+
+  static String normalize(String sql) {
+    StringBuilder sb = new StringBuilder(sql.length());
+    int length = sql.length();
+    int i = 0;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (c == '\'') {
+        i = skipString(sql, i);
+        appendParameter(sb);
+      } else if (Character.isDigit(c) && !isIdentifierPart(sb)) {
+        while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+          i++;
+        }
+        appendParameter(sb);
+      } else if (c == '?') {
+        i++;
+        appendParameter(sb);
+      } else if (Character.isWhitespace(c)) {
+        while (i < length && Character.isWhitespace(sql.charAt(i))) {
+          i++;
+        }
+        if (sb.length() > 0) {
+          sb.append(' ');
+        }
+      } else {
+        sb.append(c);
+        i++;
+      }
+    }
+    return sb.toString().trim();
+  }
+
+  /**
+   * @return index of the character following the literal
+   */
+  private static int skipString(String sql, int start) {
+    int i = start + 1;
+    while (i < sql.length()) {
+      if (sql.charAt(i) == '\'') {
+        if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+          i += 2;
+          continue;
+        }
+        return i + 1;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean isIdentifierPart(StringBuilder sb) {
+    if (sb.length() == 0) {
+      return false;
+    }
+    char previous = sb.charAt(sb.length() - 1);
+    return Character.isLetterOrDigit(previous) || previous == '_' || previous == '.';
+  }
+
+  /**
+   * Appends "?", except in lists like "(?, ?, ?)" that are collapsed into "(?...)"
+   */
+  private static void appendParameter(StringBuilder sb) {
+    int end = sb.length();
+    while (end > 0 && sb.charAt(end - 1) == ' ') {
+      end--;
+    }
+    if (end > 0 && sb.charAt(end - 1) == ',' && endsWithParameter(sb, end - 1)) {
+      sb.setLength(end - 1);
+      while (sb.charAt(sb.length() - 1) == ' ') {
+        sb.setLength(sb.length() - 1);
+      }
+      if (sb.charAt(sb.length() - 1) == '?') {
+        sb.append("...");
+      }
+    } else {
+      sb.append('?');
+    }
+  }
+
+  private static boolean endsWithParameter(StringBuilder sb, int end) {
+    int i = end;
+    while (i > 0 && sb.charAt(i - 1) == ' ') {
+      i--;
+    }
+    return (i >= 1 && sb.charAt(i - 1) == '?') || (i >= 4 && "?...".equals(sb.substring(i - 4, i)));
+  }
+}
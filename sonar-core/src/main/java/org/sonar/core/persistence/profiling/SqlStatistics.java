@@ -0,0 +1,167 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.persistence.profiling;
+
+import com.google.common.collect.Ordering;
+import org.apache.commons.lang.StringUtils;
+
+import javax.annotation.Nullable;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of the SQL statements executed through {@link ProfiledDataSource}, aggregated by
+ * normalized SQL. The number of distinct statements is bounded. Once the limit is reached, new
+ * statements are aggregated into {@link #OTHER_STATEMENTS}.
+ * @since 5.2
+ */
+public class SqlStatistics {
+
+  public static final String OTHER_STATEMENTS = "(other statements)";
+  public static final long DEFAULT_SLOW_THRESHOLD_MS = 1000L;
+  static final int MAX_STATEMENTS = 1000;
+  private static final int MAX_PARAMETER_LENGTH = 100;
+  private static final int MAX_CALLER_FRAMES = 3;
+
+  private static final Comparator<StatementStatistics> BY_TOTAL_TIME = new Comparator<StatementStatistics>() {
+    @Override
+    public int compare(StatementStatistics s1, StatementStatistics s2) {
+      long t1 = s1.timer().totalNanos();
+      long t2 = s2.timer().totalNanos();
+      return t1 < t2 ? 1 : (t1 == t2 ? 0 : -1);
+    }
+  };
+
+  private final ConcurrentMap<String, StatementStatistics> statements = new ConcurrentHashMap<>();
+  private final long slowThresholdNanos;
+
+  public SqlStatistics(long slowThresholdMs) {
+    this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+  }
+
+  long slowThresholdNanos() {
+    return slowThresholdNanos;
+  }
+
+  StatementStatistics statement(String sql) {
+    String normalizedSql = SqlNormalizer.normalize(sql);
+    StatementStatistics stats = statements.get(normalizedSql);
+    if (stats == null) {
+      String key = statements.size() < MAX_STATEMENTS ? normalizedSql : OTHER_STATEMENTS;
+      stats = new StatementStatistics(key);
+      StatementStatistics existing = statements.putIfAbsent(key, stats);
+      if (existing != null) {
+        stats = existing;
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Records an execution. Bind parameters and caller are kept only if execution is the slowest
+   * of the statement and is above the threshold.
+   */
+  StatementStatistics record(String sql, long durationNanos, @Nullable List<Object> parameters) {
+    return record(statement(sql), sql, durationNanos, parameters);
+  }
+
+  /**
+   * Same as {@link #record(String, long, List)} when statistics of the statement are already known, for example
+   * for a prepared statement executed multiple times, so that its SQL is not normalized again.
+   */
+  StatementStatistics record(StatementStatistics stats, String sql, long durationNanos, @Nullable List<Object> parameters) {
+    stats.timer().record(durationNanos);
+    if (durationNanos >= slowThresholdNanos) {
+      StatementStatistics.SlowExecution slowest = stats.slowest();
+      if (slowest == null || durationNanos > slowest.durationNanos()) {
+        stats.addSlowExecution(new StatementStatistics.SlowExecution(durationNanos, System.currentTimeMillis(), sql,
+          formatParameters(parameters), caller()));
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Statements sorted by decreasing total execution time
+   */
+  public List<StatementStatistics> statements() {
+    return Ordering.from(BY_TOTAL_TIME).sortedCopy(statements.values());
+  }
+
+  static String formatParameters(@Nullable List<Object> parameters) {
+    if (parameters == null) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < parameters.size(); i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(formatParameter(parameters.get(i)));
+    }
+    return sb.append(']').toString();
+  }
+
+  private static String formatParameter(@Nullable Object parameter) {
+    if (parameter == null) {
+      return "null";
+    }
+    if (parameter instanceof String) {
+      return "'" + StringUtils.abbreviate((String) parameter, MAX_PARAMETER_LENGTH) + "'";
+    }
+    if (parameter instanceof byte[] || parameter instanceof InputStream || parameter instanceof Reader
+      || parameter instanceof Blob || parameter instanceof Clob) {
+      return "<lob>";
+    }
+    return String.valueOf(parameter);
+  }
+
+  private static String caller() {
+    StringBuilder sb = new StringBuilder();
+    int frames = 0;
+    for (StackTraceElement element : new Throwable().getStackTrace()) {
+      String className = element.getClassName();
+      if (className.startsWith("org.sonar.") && !isProfilingClass(className)) {
+        if (frames > 0) {
+          sb.append(" < ");
+        }
+        sb.append(className).append('.').append(element.getMethodName()).append(':').append(element.getLineNumber());
+        frames++;
+        if (frames == MAX_CALLER_FRAMES) {
+          break;
+        }
+      }
+    }
+    return sb.toString();
+  }
+
+  private static boolean isProfilingClass(String className) {
+    String packagePrefix = SqlStatistics.class.getPackage().getName() + ".";
+    return className.startsWith(packagePrefix + "Profil") || className.equals(SqlStatistics.class.getName());
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.persistence.profiling;
+
+import org.sonar.core.telemetry.Timer;
+
+import javax.annotation.CheckForNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Aggregated executions of a normalized SQL statement. The slowest execution above the threshold
+ * of slow statements is kept with its bind parameters.
+ * @since 5.2
+ */
+public class StatementStatistics {
+
+  private static final String TIMER_NAME = "sonar_sql_statement_seconds";
+
+  private final String sql;
+  private final Timer timer;
+  private final AtomicLong rows = new AtomicLong();
+  private final AtomicReference<SlowExecution> slowest = new AtomicReference<>();
+
+  StatementStatistics(String sql) {
+    this.sql = sql;
+    this.timer = new Timer(TIMER_NAME);
+  }
+
+  /**
+   * Normalized SQL, without literals
+   */
+  public String sql() {
+    return sql;
+  }
+
+  /**
+   * Count, total, max and distribution of execution times
+   */
+  public Timer timer() {
+    return timer;
+  }
+
+  /**
+   * Number of rows fetched from result sets. They are counted only when the logger "sql" is in trace level.
+   */
+  public long rows() {
+    return rows.get();
+  }
+
+  @CheckForNull
+  public SlowExecution slowest() {
+    return slowest.get();
+  }
+
+  void addRow() {
+    rows.incrementAndGet();
+  }
+
+  void addSlowExecution(SlowExecution execution) {
+    SlowExecution current = slowest.get();
+    while ((current == null || execution.durationNanos() > current.durationNanos()) && !slowest.compareAndSet(current, execution)) {
+      current = slowest.get();
+    }
+  }
+
+  public static class SlowExecution {
+    private final long durationNanos;
+    private final long date;
+    private final String sql;
+    private final String parameters;
+    private final String caller;
+
+    SlowExecution(long durationNanos, long date, String sql, String parameters, String caller) {
+      this.durationNanos = durationNanos;
+      this.date = date;
+      this.sql = sql;
+      this.parameters = parameters;
+      this.caller = caller;
+    }
+
+    public long durationNanos() {
+      return durationNanos;
+    }
+
+    public long date() {
+      return date;
+    }
+
+    /**
+     * SQL as executed, with placeholders of bind parameters
+     */
+    public String sql() {
+      return sql;
+    }
+
+    /**
+     * Values of bind parameters, for example <code>['foo', 42, null]</code>
+     */
+    public String parameters() {
+      return parameters;
+    }
+
+    /**
+     * The first SonarQube methods of the stack, for example the DAO that executed the statement
+     */
+    public String caller() {
+      return caller;
+    }
+  }
+}
@@ -61,30 +61,36 @@ public abstract class PluginJarInstaller implements BatchComponent, ServerCompon
 
   public DefaultPluginMetadata extractMetadata(File file, boolean isCore) {
     try {
-      PluginManifest manifest = new PluginManifest(file);
-      DefaultPluginMetadata metadata = DefaultPluginMetadata.create(file);
-      metadata.setKey(manifest.getKey());
-      metadata.setName(manifest.getName());
-      metadata.setDescription(manifest.getDescription());
-      metadata.setLicense(manifest.getLicense());
-      metadata.setOrganization(manifest.getOrganization());
-      metadata.setOrganizationUrl(manifest.getOrganizationUrl());
-      metadata.setMainClass(manifest.getMainClass());
-      metadata.setVersion(manifest.getVersion());
-      metadata.setSonarVersion(manifest.getSonarVersion());
-      metadata.setHomepage(manifest.getHomepage());
-      metadata.setIssueTrackerUrl(manifest.getIssueTrackerUrl());
-      metadata.setPathsToInternalDeps(Arrays.asList(manifest.getDependencies()));
-      metadata.setUseChildFirstClassLoader(manifest.isUseChildFirstClassLoader());
-      metadata.setBasePlugin(manifest.getBasePlugin());
-      metadata.setImplementationBuild(manifest.getImplementationBuild());
-      metadata.setParent(manifest.getParent());
-      metadata.setRequiredPlugins(Arrays.asList(manifest.getRequirePlugins()));
-      metadata.setCore(isCore);
-      return metadata;
+      return extractMetadata(file, new PluginManifest(file), isCore);
 
     } catch (IOException e) {
       throw new IllegalStateException("Fail to extract plugin metadata from file: " + file, e);
     }
   }
+
+  /**
+   * @param manifest the manifest of file, for example when it has already been read and cached
+   */
+  public DefaultPluginMetadata extractMetadata(File file, PluginManifest manifest, boolean isCore) {
+    DefaultPluginMetadata metadata = DefaultPluginMetadata.create(file);
+    metadata.setKey(manifest.getKey());
+    metadata.setName(manifest.getName());
+    metadata.setDescription(manifest.getDescription());
+    metadata.setLicense(manifest.getLicense());
+    metadata.setOrganization(manifest.getOrganization());
+    metadata.setOrganizationUrl(manifest.getOrganizationUrl());
+    metadata.setMainClass(manifest.getMainClass());
+    metadata.setVersion(manifest.getVersion());
+    metadata.setSonarVersion(manifest.getSonarVersion());
+    metadata.setHomepage(manifest.getHomepage());
+    metadata.setIssueTrackerUrl(manifest.getIssueTrackerUrl());
+    metadata.setPathsToInternalDeps(Arrays.asList(manifest.getDependencies()));
+    metadata.setUseChildFirstClassLoader(manifest.isUseChildFirstClassLoader());
+    metadata.setBasePlugin(manifest.getBasePlugin());
+    metadata.setImplementationBuild(manifest.getImplementationBuild());
+    metadata.setParent(manifest.getParent());
+    metadata.setRequiredPlugins(Arrays.asList(manifest.getRequirePlugins()));
+    metadata.setCore(isCore);
+    return metadata;
+  }
 }
@@ -76,13 +76,6 @@ class PurgeCommands {
     session.commit();
     profiler.stop();
 
-    profiler.start("deleteResourceIndex (resource_index)");
-    for (List<Long> partResourceIds : componentIdPartitions) {
-      purgeMapper.deleteResourceIndex(partResourceIds);
-    }
-    session.commit();
-    profiler.stop();
-
     profiler.start("deleteResourceGroupRoles (group_roles)");
     for (List<Long> partResourceIds : componentIdPartitions) {
       purgeMapper.deleteResourceGroupRoles(partResourceIds);
@@ -260,4 +253,11 @@ class PurgeCommands {
     session.commit();
     profiler.stop();
   }
+
+  public void deleteIssueCounters(String rootUuid) {
+    profiler.start("deleteIssueCounters (issue_counters)");
+    purgeMapper.deleteIssueCountersByProjectUuid(rootUuid);
+    session.commit();
+    profiler.stop();
+  }
 }
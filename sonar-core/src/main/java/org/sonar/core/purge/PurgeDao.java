@@ -33,7 +33,6 @@ import org.sonar.core.resource.ResourceDao;
 import org.sonar.core.resource.ResourceDto;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -178,6 +177,7 @@ public class PurgeDao {
     try {
       deleteProject(rootIdUuid, mapper, new PurgeCommands(session, profiler));
       deleteFileSources(rootIdUuid.getUuid(), new PurgeCommands(session, profiler));
+      deleteIssueCounters(rootIdUuid.getUuid(), new PurgeCommands(session, profiler));
       return this;
     } finally {
       MyBatis.closeQuietly(session);
@@ -188,6 +188,10 @@ public class PurgeDao {
     commands.deleteFileSources(rootUuid);
   }
 
+  private void deleteIssueCounters(String rootUuid, PurgeCommands commands) {
+    commands.deleteIssueCounters(rootUuid);
+  }
+
   private void deleteProject(IdUuidPair rootProjectId, PurgeMapper mapper, PurgeCommands commands) {
     List<IdUuidPair> childrenIdUuid = mapper.selectProjectIdUuidsByRootId(rootProjectId.getId());
     for (IdUuidPair childId : childrenIdUuid) {
@@ -200,7 +204,6 @@ public class PurgeDao {
 
   private void disableResource(IdUuidPair componentIdUuid, PurgeMapper mapper) {
     long componentId = componentIdUuid.getId();
-    mapper.deleteResourceIndex(Arrays.asList(componentId));
     mapper.setSnapshotIsLastToFalse(componentId);
     mapper.deleteFileSourcesByUuid(componentIdUuid.getUuid());
     mapper.disableResource(componentId);
@@ -61,8 +61,6 @@ public interface PurgeMapper {
 
   void resolveResourceIssuesNotAlreadyResolved(@Param("componentUuid") String componentUuid, @Param("dateAsLong") Long dateAsLong);
 
-  void deleteResourceIndex(@Param("resourceIds") List<Long> resourceIds);
-
   void deleteEvent(long eventId);
 
   void setSnapshotIsLastToFalse(long resourceId);
@@ -103,5 +101,7 @@ public interface PurgeMapper {
 
   void deleteFileSourcesByUuid(String fileUuid);
 
+  void deleteIssueCountersByProjectUuid(String rootProjectUuid);
+
   List<String> selectPurgeableFileUuids(Long projectId);
 }
@@ -68,7 +68,7 @@ public class ProjectQgateAssociationQuery {
     if (s != null) {
       sql = StringUtils.replace(StringUtils.lowerCase(s), "%", "/%");
       sql = StringUtils.replace(sql, "_", "/_");
-      sql = sql + "%";
+      sql = "%" + sql + "%";
     }
     return sql;
   }
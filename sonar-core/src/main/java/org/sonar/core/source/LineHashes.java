@@ -0,0 +1,234 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.source;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import org.apache.commons.io.IOUtils;
+
+import javax.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Fixed-width binary representation of the MD5 line hashes used by issue tracking.
+ * <p/>
+ * In memory, the 16 bytes of the hash of line N (starting from 1) are stored as two longs
+ * at indices 2*(N-1) and 2*(N-1)+1 of a <code>long[]</code>. Lines without hash, for example blank lines,
+ * are stored as two zeros.
+ * <p/>
+ * Serialized form is a format byte ({@link #RAW} or {@link #LZ4}) followed by the number of lines and by the hashes,
+ * compressed with LZ4 when the format is {@link #LZ4}. It is used by the column FILE_SOURCES.BINARY_LINE_HASHES and by the
+ * web service api/sources/hash.
+ *
+ * @since 5.2
+ */
+public final class LineHashes {
+
+  public static final byte RAW = 1;
+  public static final byte LZ4 = 2;
+
+  /**
+   * Number of bytes of a MD5 digest
+   */
+  public static final int HASH_LENGTH = 16;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private LineHashes() {
+    // only static methods
+  }
+
+  public static int lineCount(long[] hashes) {
+    return hashes.length / 2;
+  }
+
+  public static long[] create(int lineCount) {
+    return new long[lineCount * 2];
+  }
+
+  /**
+   * @param line line number, starting from 1
+   * @param hash the MD5 digest of the line, or null if line has no hash
+   */
+  public static void set(long[] hashes, int line, @Nullable byte[] hash) {
+    int index = (line - 1) * 2;
+    if (hash == null) {
+      hashes[index] = 0L;
+      hashes[index + 1] = 0L;
+    } else {
+      hashes[index] = toLong(hash, 0);
+      hashes[index + 1] = toLong(hash, 8);
+    }
+  }
+
+  public static boolean isEmpty(long[] hashes, int line) {
+    int index = (line - 1) * 2;
+    return hashes[index] == 0L && hashes[index + 1] == 0L;
+  }
+
+  public static boolean equals(long[] hashes, int line, long[] otherHashes, int otherLine) {
+    int index = (line - 1) * 2;
+    int otherIndex = (otherLine - 1) * 2;
+    return hashes[index] == otherHashes[otherIndex] && hashes[index + 1] == otherHashes[otherIndex + 1];
+  }
+
+  /**
+   * Hash code of the line hash. It equals zero for lines without hash.
+   */
+  public static int hashCode(long[] hashes, int line) {
+    int index = (line - 1) * 2;
+    long hi = hashes[index];
+    long lo = hashes[index + 1];
+    return (int) (hi ^ (hi >>> 32)) * 31 + (int) (lo ^ (lo >>> 32));
+  }
+
+  /**
+   * Lower-case hexadecimal value of the hash of the given line, or empty string if the line has no hash. This is
+   * the value stored in ISSUES.CHECKSUM.
+   */
+  public static String toHex(long[] hashes, int line) {
+    if (isEmpty(hashes, line)) {
+      return "";
+    }
+    int index = (line - 1) * 2;
+    char[] chars = new char[HASH_LENGTH * 2];
+    appendHex(hashes[index], chars, 0);
+    appendHex(hashes[index + 1], chars, HASH_LENGTH);
+    return new String(chars);
+  }
+
+  /**
+   * Converts hexadecimal MD5 hashes, one per line. Empty strings are lines without hash.
+   */
+  public static long[] fromHex(List<String> hexHashes) {
+    long[] hashes = create(hexHashes.size());
+    for (int i = 0; i < hexHashes.size(); i++) {
+      String hex = hexHashes.get(i);
+      if (!hex.isEmpty()) {
+        if (hex.length() != HASH_LENGTH * 2) {
+          throw new IllegalArgumentException("Line hash must be an hexadecimal MD5: " + hex);
+        }
+        hashes[2 * i] = parseHexLong(hex, 0);
+        hashes[2 * i + 1] = parseHexLong(hex, HASH_LENGTH);
+      }
+    }
+    return hashes;
+  }
+
+  public static byte[] encode(long[] hashes, boolean compress) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(1 + 4 + hashes.length * 8);
+    try {
+      write(hashes, compress, output);
+      return output.toByteArray();
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to encode line hashes", e);
+    }
+  }
+
+  /**
+   * Writes the serialized hashes. The parameter "output" is not closed by this method.
+   */
+  public static void write(long[] hashes, boolean compress, OutputStream output) throws IOException {
+    output.write(compress ? LZ4 : RAW);
+    LZ4BlockOutputStream lz4Output = null;
+    DataOutputStream dataOutput;
+    if (compress) {
+      lz4Output = new LZ4BlockOutputStream(output);
+      dataOutput = new DataOutputStream(lz4Output);
+    } else {
+      dataOutput = new DataOutputStream(output);
+    }
+    dataOutput.writeInt(lineCount(hashes));
+    for (long hash : hashes) {
+      dataOutput.writeLong(hash);
+    }
+    dataOutput.flush();
+    if (lz4Output != null) {
+      // writes the last block without closing the underlying stream
+      lz4Output.finish();
+    }
+    output.flush();
+  }
+
+  public static long[] decode(byte[] binary) {
+    // stream is always closed
+    return decode(new ByteArrayInputStream(binary));
+  }
+
+  /**
+   * Decodes hashes serialized with {@link #encode(long[], boolean)}. The parameter "input" is always closed by this method.
+   */
+  public static long[] decode(InputStream input) {
+    InputStream dataInput = input;
+    try {
+      int format = input.read();
+      if (format == LZ4) {
+        dataInput = new LZ4BlockInputStream(input);
+      } else if (format != RAW) {
+        throw new IllegalStateException("Unsupported format of line hashes: " + format);
+      }
+      DataInputStream data = new DataInputStream(dataInput);
+      long[] hashes = create(data.readInt());
+      for (int i = 0; i < hashes.length; i++) {
+        hashes[i] = data.readLong();
+      }
+      return hashes;
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to decode line hashes", e);
+    } finally {
+      IOUtils.closeQuietly(dataInput);
+      IOUtils.closeQuietly(input);
+    }
+  }
+
+  private static long toLong(byte[] bytes, int offset) {
+    long l = 0L;
+    for (int i = offset; i < offset + 8; i++) {
+      l = (l << 8) | (bytes[i] & 0xFF);
+    }
+    return l;
+  }
+
+  private static void appendHex(long l, char[] chars, int offset) {
+    for (int i = 15; i >= 0; i--) {
+      chars[offset + 15 - i] = HEX_DIGITS[(int) ((l >>> (i * 4)) & 0xF)];
+    }
+  }
+
+  private static long parseHexLong(String hex, int offset) {
+    long l = 0L;
+    for (int i = offset; i < offset + 16; i++) {
+      int digit = Character.digit(hex.charAt(i), 16);
+      if (digit < 0) {
+        throw new IllegalArgumentException("Line hash must be an hexadecimal MD5: " + hex);
+      }
+      l = (l << 4) | digit;
+    }
+    return l;
+  }
+}
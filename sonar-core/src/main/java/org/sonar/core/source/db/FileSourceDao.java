@@ -32,7 +32,6 @@ import org.sonar.core.persistence.MyBatis;
 import javax.annotation.CheckForNull;
 
 import java.io.InputStream;
-import java.io.Reader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -80,23 +79,28 @@ public class FileSourceDao implements BatchComponent, ServerComponent, DaoCompon
     }
   }
 
-  public <T> void readLineHashesStream(DbSession dbSession, String fileUuid, Function<Reader, T> function) {
+  /**
+   * Line hashes of the file, in the format of {@link org.sonar.core.source.LineHashes}. Hashes are read from
+   * the binary column when it's filled, else from the legacy text column.
+   *
+   * @return null if the file does not exist or has no line hashes
+   */
+  @CheckForNull
+  public long[] selectLineHashes(DbSession dbSession, String fileUuid) {
     Connection connection = dbSession.getConnection();
     PreparedStatement pstmt = null;
     ResultSet rs = null;
-    Reader reader = null;
     try {
-      pstmt = connection.prepareStatement("SELECT line_hashes FROM file_sources WHERE file_uuid=?");
+      pstmt = connection.prepareStatement("SELECT binary_line_hashes, line_hashes FROM file_sources WHERE file_uuid=?");
       pstmt.setString(1, fileUuid);
       rs = pstmt.executeQuery();
       if (rs.next()) {
-        reader = rs.getCharacterStream(1);
-        function.apply(reader);
+        return FileSourceDto.decodeLineHashes(rs.getBytes(1), rs.getString(2));
       }
+      return null;
     } catch (SQLException e) {
-      throw new IllegalStateException("Fail to read FILE_SOURCES.LINE_HASHES of file " + fileUuid, e);
+      throw new IllegalStateException("Fail to read line hashes of file " + fileUuid, e);
     } finally {
-      IOUtils.closeQuietly(reader);
       DbUtils.closeQuietly(connection, pstmt, rs);
     }
   }
@@ -19,9 +19,12 @@
  */
 package org.sonar.core.source.db;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
 import net.jpountz.lz4.LZ4BlockInputStream;
 import net.jpountz.lz4.LZ4BlockOutputStream;
 import org.apache.commons.io.IOUtils;
+import org.sonar.core.source.LineHashes;
 import org.sonar.server.source.db.FileSourceDb;
 
 import javax.annotation.CheckForNull;
@@ -40,6 +43,7 @@ public class FileSourceDto {
   private long createdAt;
   private long updatedAt;
   private String lineHashes;
+  private byte[] binaryLineHashes;
   private String srcHash;
   private byte[] binaryData;
   private String dataHash;
@@ -159,6 +163,41 @@ public class FileSourceDto {
     return this;
   }
 
+  /**
+   * Line hashes serialized by {@link LineHashes}. When null, line hashes are expected to be available
+   * in the legacy text column (see {@link #getLineHashes()}).
+   * @since 5.2
+   */
+  @CheckForNull
+  public byte[] getBinaryLineHashes() {
+    return binaryLineHashes;
+  }
+
+  public FileSourceDto setBinaryLineHashes(@Nullable byte[] binaryLineHashes) {
+    this.binaryLineHashes = binaryLineHashes;
+    return this;
+  }
+
+  /**
+   * Line hashes in the format of {@link LineHashes}, whatever the column they are stored in.
+   * @since 5.2
+   */
+  @CheckForNull
+  public long[] getDecodedLineHashes() {
+    return decodeLineHashes(binaryLineHashes, lineHashes);
+  }
+
+  @CheckForNull
+  public static long[] decodeLineHashes(@Nullable byte[] binaryLineHashes, @Nullable String lineHashes) {
+    if (binaryLineHashes != null) {
+      return LineHashes.decode(binaryLineHashes);
+    }
+    if (lineHashes != null) {
+      return LineHashes.fromHex(Lists.newArrayList(Splitter.on('\n').split(lineHashes)));
+    }
+    return null;
+  }
+
   public String getSrcHash() {
     return srcHash;
   }
@@ -38,7 +38,4 @@ public interface FileSourceMapper {
   void update(FileSourceDto dto);
 
   void updateDateWhenUpdatedDateIsZero(@Param("projectUuid") String projectUuid, @Param("date") Long updateDate);
-
-  @CheckForNull
-  String selectLineHashes(String fileUuid);
 }
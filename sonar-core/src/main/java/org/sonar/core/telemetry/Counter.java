@@ -0,0 +1,49 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.telemetry;
+
+import javax.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic counter
+ * @since 5.2
+ */
+public class Counter extends Series {
+
+  private final AtomicLong value = new AtomicLong();
+
+  Counter(String name, String help, @Nullable String labelName, @Nullable String labelValue) {
+    super(name, help, labelName, labelValue);
+  }
+
+  public void increment() {
+    value.incrementAndGet();
+  }
+
+  public void add(long delta) {
+    value.addAndGet(delta);
+  }
+
+  public long value() {
+    return value.get();
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.telemetry;
+
+import javax.annotation.Nullable;
+
+/**
+ * A named value of {@link Telemetry}, optionally qualified by a single label.
+ * @since 5.2
+ */
+public abstract class Series implements Comparable<Series> {
+
+  private final String name;
+  private final String help;
+  private final String labels;
+
+  Series(String name, String help, @Nullable String labelName, @Nullable String labelValue) {
+    this.name = name;
+    this.help = help;
+    this.labels = labelName == null || labelValue == null ? "" : formatLabel(labelName, labelValue);
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public String help() {
+    return help;
+  }
+
+  /**
+   * Labels in text exposition format, for example <code>action="api/issues/search"</code>. Empty if none.
+   */
+  public String labels() {
+    return labels;
+  }
+
+  @Override
+  public int compareTo(Series other) {
+    int result = name.compareTo(other.name);
+    return result != 0 ? result : labels.compareTo(other.labels);
+  }
+
+  static String key(String name, @Nullable String labelName, @Nullable String labelValue) {
+    return labelName == null || labelValue == null ? name : (name + "{" + formatLabel(labelName, labelValue) + "}");
+  }
+
+  public static String formatLabel(String labelName, String labelValue) {
+    StringBuilder sb = new StringBuilder(labelName).append("=\"");
+    for (int i = 0; i < labelValue.length(); i++) {
+      char c = labelValue.charAt(i);
+      if (c == '\\' || c == '"') {
+        sb.append('\\').append(c);
+      } else if (c == '\n') {
+        sb.append("\\n");
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.append('"').toString();
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.telemetry;
+
+import com.google.common.collect.Ordering;
+import org.sonar.api.ServerComponent;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory registry of timers and counters of hot paths: web services, computation steps,
+ * Elasticsearch requests and SQL statements. Recording is a few atomic operations. Values are read only
+ * when exported, for example by the web service api/system/metrics.
+ * <p/>
+ * Series should be looked up once and kept in a field when possible. The number of series is bounded, so labels
+ * must not be built from unbounded values like component keys.
+ * <p/>
+ * A single instance is registered in the server container and injected where series are recorded.
+ * @since 5.2
+ */
+public class Telemetry implements ServerComponent {
+
+  static final int MAX_SERIES = 500;
+
+  private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+  public Timer timer(String name, String help) {
+    return timer(name, help, null, null);
+  }
+
+  /**
+   * Gets or creates a timer. When the maximum number of series is reached, the returned timer
+   * is not registered so its values are not exported.
+   */
+  public Timer timer(String name, String help, @Nullable String labelName, @Nullable String labelValue) {
+    String key = Series.key(name, labelName, labelValue);
+    Timer timer = timers.get(key);
+    if (timer == null) {
+      timer = new Timer(name, help, labelName, labelValue);
+      if (timers.size() < MAX_SERIES) {
+        Timer existing = timers.putIfAbsent(key, timer);
+        if (existing != null) {
+          timer = existing;
+        }
+      }
+    }
+    return timer;
+  }
+
+  public Counter counter(String name, String help) {
+    return counter(name, help, null, null);
+  }
+
+  /**
+   * Gets or creates a counter. See {@link #timer(String, String, String, String)} about the maximum number of series.
+   */
+  public Counter counter(String name, String help, @Nullable String labelName, @Nullable String labelValue) {
+    String key = Series.key(name, labelName, labelValue);
+    Counter counter = counters.get(key);
+    if (counter == null) {
+      counter = new Counter(name, help, labelName, labelValue);
+      if (counters.size() < MAX_SERIES) {
+        Counter existing = counters.putIfAbsent(key, counter);
+        if (existing != null) {
+          counter = existing;
+        }
+      }
+    }
+    return counter;
+  }
+
+  /**
+   * Registered timers, sorted by name and labels
+   */
+  public List<Timer> timers() {
+    return Ordering.natural().sortedCopy(timers.values());
+  }
+
+  /**
+   * Registered counters, sorted by name and labels
+   */
+  public List<Counter> counters() {
+    return Ordering.natural().sortedCopy(counters.values());
+  }
+}
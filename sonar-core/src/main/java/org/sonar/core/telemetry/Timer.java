@@ -0,0 +1,131 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.telemetry;
+
+import javax.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations and distributes them into a fixed histogram. Recording a duration
+ * does not allocate and does not lock.
+ * @since 5.2
+ */
+public class Timer extends Series {
+
+  /**
+   * Upper bounds of histogram buckets, in seconds. The last implicit bucket is +Inf.
+   */
+  public static final double[] BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0, 30.0, 60.0};
+
+  private static final long[] BUCKETS_IN_NANOS = new long[BUCKETS.length];
+
+  static {
+    for (int i = 0; i < BUCKETS.length; i++) {
+      BUCKETS_IN_NANOS[i] = (long) (BUCKETS[i] * TimeUnit.SECONDS.toNanos(1));
+    }
+  }
+
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS.length + 1);
+
+  /**
+   * Creates a timer that is not registered in {@link Telemetry}, for example to aggregate
+   * durations in another structure. It has no help text.
+   */
+  public Timer(String name) {
+    this(name, "", null, null);
+  }
+
+  Timer(String name, String help, @Nullable String labelName, @Nullable String labelValue) {
+    super(name, help, labelName, labelValue);
+  }
+
+  /**
+   * Records the time elapsed since the given value of {@link System#nanoTime()}
+   */
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  public void record(long durationNanos) {
+    count.incrementAndGet();
+    totalNanos.addAndGet(durationNanos);
+    long max = maxNanos.get();
+    while (durationNanos > max && !maxNanos.compareAndSet(max, durationNanos)) {
+      max = maxNanos.get();
+    }
+    int bucket = 0;
+    while (bucket < BUCKETS_IN_NANOS.length && durationNanos > BUCKETS_IN_NANOS[bucket]) {
+      bucket++;
+    }
+    buckets.incrementAndGet(bucket);
+  }
+
+  public long count() {
+    return count.get();
+  }
+
+  public long totalNanos() {
+    return totalNanos.get();
+  }
+
+  public long maxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Approximation of a percentile, between 0 and 100: upper bound of the histogram bucket
+   * that contains it, or max duration if lower.
+   */
+  public long percentileNanos(double percentile) {
+    long[] cumulative = cumulativeBuckets();
+    long total = cumulative[cumulative.length - 1];
+    long max = maxNanos();
+    if (total == 0L) {
+      return 0L;
+    }
+    long rank = (long) Math.ceil(percentile * total / 100.0);
+    for (int i = 0; i < BUCKETS_IN_NANOS.length; i++) {
+      if (cumulative[i] >= rank) {
+        return Math.min(BUCKETS_IN_NANOS[i], max);
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Number of durations lower than or equal to each bound of {@link #BUCKETS}, plus a last
+   * element for all the durations.
+   */
+  public long[] cumulativeBuckets() {
+    long[] result = new long[buckets.length()];
+    long sum = 0L;
+    for (int i = 0; i < result.length; i++) {
+      sum += buckets.get(i);
+      result[i] = sum;
+    }
+    return result;
+  }
+}
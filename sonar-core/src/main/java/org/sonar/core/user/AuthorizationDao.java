@@ -23,6 +23,7 @@ import com.google.common.base.Function;
 import com.google.common.collect.Sets;
 import org.apache.ibatis.session.SqlSession;
 import org.sonar.api.ServerComponent;
+import org.sonar.core.component.ComponentDto;
 import org.sonar.core.persistence.DaoComponent;
 import org.sonar.core.persistence.DaoUtils;
 import org.sonar.core.persistence.DbSession;
@@ -102,6 +103,21 @@ public class AuthorizationDao implements ServerComponent, DaoComponent {
     }
   }
 
+  /**
+   * Keys and uuids of the root projects on which the user has the given role, loaded by a single request.
+   */
+  public List<ComponentDto> selectAuthorizedRootProjects(@Nullable Integer userId, String role) {
+    SqlSession session = mybatis.openSession(false);
+    try {
+      Map<String, Object> params = newHashMap();
+      params.put(USER_ID_PARAM, userId);
+      params.put("role", role);
+      return session.selectList("selectAuthorizedRootProjects", params);
+    } finally {
+      MyBatis.closeQuietly(session);
+    }
+  }
+
   public Collection<String> selectAuthorizedRootProjectsKeys(@Nullable Integer userId, String role, SqlSession session) {
     String sql;
     Map<String, Object> params = newHashMap();
@@ -332,6 +332,9 @@ INSERT INTO SCHEMA_MIGRATIONS(VERSION) VALUES ('905');
 INSERT INTO SCHEMA_MIGRATIONS(VERSION) VALUES ('906');
 INSERT INTO SCHEMA_MIGRATIONS(VERSION) VALUES ('907');
 INSERT INTO SCHEMA_MIGRATIONS(VERSION) VALUES ('908');
+INSERT INTO SCHEMA_MIGRATIONS(VERSION) VALUES ('909');
+INSERT INTO SCHEMA_MIGRATIONS(VERSION) VALUES ('910');
+INSERT INTO SCHEMA_MIGRATIONS(VERSION) VALUES ('911');
 
 INSERT INTO USERS(ID, LOGIN, NAME, EMAIL, CRYPTED_PASSWORD, SALT, CREATED_AT, UPDATED_AT, REMEMBER_TOKEN, REMEMBER_TOKEN_EXPIRES_AT) VALUES (1, 'admin', 'Administrator', '', 'a373a0e667abb2604c1fd571eb4ad47fe8cc0878', '48bc4b0d93179b5103fd3885ea9119498e9d161b', '1418215735482', '1418215735482', null, null);
 ALTER TABLE USERS ALTER COLUMN ID RESTART WITH 2;
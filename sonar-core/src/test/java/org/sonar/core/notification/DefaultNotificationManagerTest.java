@@ -37,6 +37,7 @@ import org.sonar.jpa.test.AbstractDbUnitTestCase;
 import java.io.InvalidClassException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -44,6 +45,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -124,6 +126,28 @@ public class DefaultNotificationManagerTest extends AbstractDbUnitTestCase {
     verify(manager, times(1)).logDeserializationIssue();
   }
 
+  @Test
+  public void shouldGetBatchFromQueueAndDelete() throws Exception {
+    NotificationQueueDto dto1 = NotificationQueueDto.toNotificationQueueDto(new Notification("first"));
+    NotificationQueueDto dto2 = NotificationQueueDto.toNotificationQueueDto(new Notification("second"));
+    List<NotificationQueueDto> dtos = Arrays.asList(dto1, dto2);
+    when(notificationQueueDao.findOldest(10)).thenReturn(dtos);
+
+    List<Notification> notifications = manager.getFromQueue(10);
+    assertThat(notifications).hasSize(2);
+    assertThat(notifications.get(0).getType()).isEqualTo("first");
+    assertThat(notifications.get(1).getType()).isEqualTo("second");
+    verify(notificationQueueDao, times(1)).delete(dtos);
+  }
+
+  @Test
+  public void shouldGetEmptyBatchFromEmptyQueue() {
+    when(notificationQueueDao.findOldest(10)).thenReturn(Collections.<NotificationQueueDto>emptyList());
+
+    assertThat(manager.getFromQueue(10)).isEmpty();
+    verify(notificationQueueDao, never()).delete(any(List.class));
+  }
+
   @Test
   public void shouldFindNoRecipient() {
     assertThat(manager.findSubscribedRecipientsForDispatcher(dispatcher, 45).asMap().entrySet()).hasSize(0);
@@ -178,4 +202,30 @@ public class DefaultNotificationManagerTest extends AbstractDbUnitTestCase {
     assertThat(map.get("user2")).containsOnly(emailChannel, twitterChannel);
     assertThat(map.get("other")).isNull();
   }
+
+  @Test
+  public void shouldCacheSubscribersUntilCacheIsStopped() {
+    when(propertiesDao.findNotificationSubscribers("NewViolations", "Email", "struts")).thenReturn(Lists.newArrayList("user1"));
+
+    manager.startRecipientsCache();
+    assertThat(manager.findNotificationSubscribers(dispatcher, "struts").keySet()).containsOnly("user1");
+    assertThat(manager.findNotificationSubscribers(dispatcher, "struts").keySet()).containsOnly("user1");
+    verify(propertiesDao, times(1)).findNotificationSubscribers("NewViolations", "Email", "struts");
+
+    manager.stopRecipientsCache();
+    manager.findNotificationSubscribers(dispatcher, "struts");
+    verify(propertiesDao, times(2)).findNotificationSubscribers("NewViolations", "Email", "struts");
+  }
+
+  @Test
+  public void shouldNotCacheSubscribersOfOtherResources() {
+    manager.startRecipientsCache();
+    manager.findSubscribedRecipientsForDispatcher(dispatcher, 45);
+    manager.findSubscribedRecipientsForDispatcher(dispatcher, 56);
+    manager.findSubscribedRecipientsForDispatcher(dispatcher, 45);
+    manager.stopRecipientsCache();
+
+    verify(propertiesDao, times(1)).findUsersForNotification("NewViolations", "Email", 45L);
+    verify(propertiesDao, times(1)).findUsersForNotification("NewViolations", "Email", 56L);
+  }
 }
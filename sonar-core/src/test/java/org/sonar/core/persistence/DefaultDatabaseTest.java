@@ -19,11 +19,22 @@
  */
 package org.sonar.core.persistence;
 
+import com.google.common.base.Predicate;
+import com.google.common.collect.Iterables;
 import org.apache.commons.dbcp.BasicDataSource;
+import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.config.Settings;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.core.persistence.dialect.PostgreSql;
+import org.sonar.core.persistence.profiling.ProfiledDataSource;
+import org.sonar.core.persistence.profiling.SqlStatistics;
+import org.sonar.core.persistence.profiling.StatementStatistics;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.Properties;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -31,6 +42,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 public class DefaultDatabaseTest {
 
+  @Rule
+  public LogTester logTester = new LogTester();
+
   @Test
   public void shouldLoadDefaultValues() {
     DefaultDatabase db = new DefaultDatabase(new Settings());
@@ -104,6 +118,46 @@ public class DefaultDatabaseTest {
     assertThat(((BasicDataSource) db.getDataSource()).getMaxActive()).isEqualTo(1);
   }
 
+  @Test
+  public void aggregate_sql_statistics() throws Exception {
+    // rows are counted only when SQL is traced
+    logTester.setLevel(LoggerLevel.TRACE);
+    Settings settings = new Settings();
+    settings.setProperty("sonar.jdbc.url", "jdbc:h2:mem:sonar");
+    settings.setProperty("sonar.jdbc.driverClassName", "org.h2.Driver");
+    settings.setProperty("sonar.jdbc.slowStatementThresholdMs", "0");
+
+    DefaultDatabase db = new DefaultDatabase(settings);
+    db.start();
+    try {
+      Connection connection = db.getDataSource().getConnection();
+      for (int i = 1; i <= 2; i++) {
+        PreparedStatement statement = connection.prepareStatement("select x from system_range(1, 3) where x >= " + i);
+        ResultSet rs = statement.executeQuery();
+        while (rs.next()) {
+          // fetch all rows
+        }
+        rs.close();
+        statement.close();
+      }
+      connection.close();
+    } finally {
+      db.stop();
+    }
+
+    SqlStatistics statistics = ((ProfiledDataSource) db.getDataSource()).getStatistics();
+    StatementStatistics statement = Iterables.find(statistics.statements(), new Predicate<StatementStatistics>() {
+      @Override
+      public boolean apply(StatementStatistics input) {
+        return input.sql().contains("system_range");
+      }
+    });
+    assertThat(statement.sql()).isEqualTo("select x from system_range(?...) where x >= ?");
+    assertThat(statement.timer().count()).isEqualTo(2);
+    assertThat(statement.rows()).isEqualTo(5);
+    assertThat(statement.slowest()).isNotNull();
+  }
+
   @Test
   public void shouldGuessDialectFromUrl() {
     Settings settings = new Settings();
@@ -23,6 +23,7 @@ import org.apache.commons.dbcp.BasicDataSource;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 
 import java.io.ByteArrayInputStream;
 import java.lang.reflect.Method;
@@ -30,6 +31,7 @@ import java.lang.reflect.Modifier;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.sql.Timestamp;
 
@@ -82,6 +84,69 @@ public class ProfiledDataSourceTest {
 
     assertThat(logTester.logs()).hasSize(2);
     assertThat(logTester.logs().get(1)).contains(sql);
+    assertThat(ds.getStatementTimer().count()).isEqualTo(2);
+  }
+
+  @Test
+  public void record_execution_time_when_trace_is_disabled() throws Exception {
+    logTester.setLevel(LoggerLevel.INFO);
+    BasicDataSource originDataSource = mock(BasicDataSource.class);
+    Connection connection = mock(Connection.class);
+    when(originDataSource.getConnection()).thenReturn(connection);
+    String sql = "select 'polop' from dual;";
+    Statement statement = mock(Statement.class);
+    when(connection.createStatement()).thenReturn(statement);
+    when(statement.execute(sql)).thenReturn(true);
+
+    ProfiledDataSource ds = new ProfiledDataSource(originDataSource);
+    assertThat(ds.getConnection().createStatement().execute(sql)).isTrue();
+
+    assertThat(logTester.logs()).isEmpty();
+    assertThat(ds.getStatementTimer().count()).isEqualTo(1);
+  }
+
+  @Test
+  public void count_rows_only_when_trace_is_enabled() throws Exception {
+    BasicDataSource originDataSource = mock(BasicDataSource.class);
+    Connection connection = mock(Connection.class);
+    when(originDataSource.getConnection()).thenReturn(connection);
+    String sql = "select id from projects";
+    Statement statement = mock(Statement.class);
+    when(connection.createStatement()).thenReturn(statement);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(resultSet.next()).thenReturn(true, true, false);
+    when(statement.executeQuery(sql)).thenReturn(resultSet);
+    ProfiledDataSource ds = new ProfiledDataSource(originDataSource, new SqlStatistics(SqlStatistics.DEFAULT_SLOW_THRESHOLD_MS));
+
+    ResultSet proxy = ds.getConnection().createStatement().executeQuery(sql);
+    while (proxy.next()) {
+      // fetch all rows
+    }
+    assertThat(ds.getStatistics().statements().get(0).rows()).isEqualTo(2L);
+
+    logTester.setLevel(LoggerLevel.INFO);
+    assertThat(ds.getConnection().createStatement().executeQuery(sql)).isSameAs(resultSet);
+  }
+
+  @Test
+  public void normalize_sql_of_prepared_statement_once() throws Exception {
+    BasicDataSource originDataSource = mock(BasicDataSource.class);
+    Connection connection = mock(Connection.class);
+    when(originDataSource.getConnection()).thenReturn(connection);
+    String sql = "select id from projects where kee=?";
+    when(connection.prepareStatement(sql)).thenReturn(mock(PreparedStatement.class));
+    SqlStatistics statistics = spy(new SqlStatistics(SqlStatistics.DEFAULT_SLOW_THRESHOLD_MS));
+    ProfiledDataSource ds = new ProfiledDataSource(originDataSource, statistics);
+
+    PreparedStatement proxy = ds.getConnection().prepareStatement(sql);
+    for (int i = 0; i < 3; i++) {
+      proxy.setString(1, "key" + i);
+      proxy.execute();
+    }
+
+    verify(statistics, times(1)).statement(sql);
+    assertThat(statistics.statements()).hasSize(1);
+    assertThat(statistics.statements().get(0).timer().count()).isEqualTo(3L);
   }
 
   @Test
@@ -0,0 +1,53 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.persistence.profiling;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlNormalizerTest {
+
+  @Test
+  public void replace_literals() throws Exception {
+    assertThat(SqlNormalizer.normalize("select * from projects where kee='foo' and id=12 and ratio > 0.5"))
+      .isEqualTo("select * from projects where kee=? and id=? and ratio > ?");
+    assertThat(SqlNormalizer.normalize("select * from rules where name='it''s' and plugin_name=?"))
+      .isEqualTo("select * from rules where name=? and plugin_name=?");
+  }
+
+  @Test
+  public void do_not_replace_digits_of_identifiers() throws Exception {
+    assertThat(SqlNormalizer.normalize("select p1.id from projects p1 where p1.kee=?")).isEqualTo("select p1.id from projects p1 where p1.kee=?");
+  }
+
+  @Test
+  public void collapse_lists_of_parameters() throws Exception {
+    assertThat(SqlNormalizer.normalize("select * from projects where id in (?, ?, ?) and kee in ('a','b')"))
+      .isEqualTo("select * from projects where id in (?...) and kee in (?...)");
+    assertThat(SqlNormalizer.normalize("select * from projects where id in (?)"))
+      .isEqualTo(SqlNormalizer.normalize("select * from projects where id in (?)"));
+  }
+
+  @Test
+  public void collapse_whitespaces() throws Exception {
+    assertThat(SqlNormalizer.normalize("  select *\n   from projects\twhere id=?\n")).isEqualTo("select * from projects where id=?");
+  }
+}
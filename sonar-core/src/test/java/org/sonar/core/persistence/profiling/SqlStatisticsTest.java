@@ -0,0 +1,80 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.persistence.profiling;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlStatisticsTest {
+
+  SqlStatistics statistics = new SqlStatistics(100L);
+
+  @Test
+  public void aggregate_by_normalized_sql() throws Exception {
+    statistics.record("select * from projects where id=1", TimeUnit.MILLISECONDS.toNanos(5), null);
+    statistics.record("select * from projects where id=2", TimeUnit.MILLISECONDS.toNanos(15), null);
+    statistics.record("select * from issues", TimeUnit.MILLISECONDS.toNanos(30), null);
+
+    assertThat(statistics.statements()).hasSize(2);
+    StatementStatistics first = statistics.statements().get(0);
+    assertThat(first.sql()).isEqualTo("select * from issues");
+    StatementStatistics second = statistics.statements().get(1);
+    assertThat(second.sql()).isEqualTo("select * from projects where id=?");
+    assertThat(second.timer().count()).isEqualTo(2);
+    assertThat(second.timer().totalNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+    assertThat(second.timer().maxNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(15));
+    assertThat(second.slowest()).isNull();
+  }
+
+  @Test
+  public void keep_slowest_execution_with_parameters() throws Exception {
+    statistics.record("select * from projects where kee=? and enabled=?", TimeUnit.MILLISECONDS.toNanos(200), Arrays.<Object>asList("foo", true));
+    statistics.record("select * from projects where kee=? and enabled=?", TimeUnit.MILLISECONDS.toNanos(500), Arrays.<Object>asList("bar", null));
+    statistics.record("select * from projects where kee=? and enabled=?", TimeUnit.MILLISECONDS.toNanos(300), Arrays.<Object>asList("baz", false));
+
+    StatementStatistics.SlowExecution slowest = statistics.statements().get(0).slowest();
+    assertThat(slowest.durationNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+    assertThat(slowest.sql()).isEqualTo("select * from projects where kee=? and enabled=?");
+    assertThat(slowest.parameters()).isEqualTo("['bar', null]");
+    assertThat(slowest.caller()).startsWith(getClass().getName() + ".keep_slowest_execution_with_parameters:");
+  }
+
+  @Test
+  public void format_parameters() throws Exception {
+    assertThat(SqlStatistics.formatParameters(null)).isEmpty();
+    assertThat(SqlStatistics.formatParameters(Arrays.<Object>asList(42, "foo", new byte[] {1}))).isEqualTo("[42, 'foo', <lob>]");
+  }
+
+  @Test
+  public void bound_number_of_statements() throws Exception {
+    for (int i = 0; i < SqlStatistics.MAX_STATEMENTS + 10; i++) {
+      statistics.record("select * from table" + i, 1L, null);
+    }
+
+    assertThat(statistics.statements()).hasSize(SqlStatistics.MAX_STATEMENTS + 1);
+    StatementStatistics other = statistics.statement("select * from another_table");
+    assertThat(other.sql()).isEqualTo(SqlStatistics.OTHER_STATEMENTS);
+    assertThat(other.timer().count()).isEqualTo(10);
+  }
+}
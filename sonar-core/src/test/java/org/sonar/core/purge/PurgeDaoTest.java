@@ -133,7 +133,7 @@ public class PurgeDaoTest extends AbstractDaoTestCase {
   public void should_delete_project_and_associated_data() {
     setupData("shouldDeleteProject");
     sut.deleteResourceTree(new IdUuidPair(1L, "A"));
-    assertEmptyTables("projects", "snapshots", "action_plans", "issues", "issue_changes", "file_sources");
+    assertEmptyTables("projects", "snapshots", "action_plans", "issues", "issue_changes", "file_sources", "issue_counters");
   }
 
   @Test
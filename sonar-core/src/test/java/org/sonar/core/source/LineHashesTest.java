@@ -0,0 +1,113 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.source;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class LineHashesTest {
+
+  static final String HASH1 = "8d7b3d6b83c0a517eac07e1aac94b773";
+  static final String HASH2 = "9a0364b9e99bb480dd25e1f0284c8555";
+
+  @Test
+  public void set_binary_hashes() {
+    long[] hashes = LineHashes.create(3);
+    LineHashes.set(hashes, 1, DigestUtils.md5("foo"));
+    LineHashes.set(hashes, 2, null);
+    LineHashes.set(hashes, 3, DigestUtils.md5("bar"));
+
+    assertThat(LineHashes.lineCount(hashes)).isEqualTo(3);
+    assertThat(LineHashes.toHex(hashes, 1)).isEqualTo(DigestUtils.md5Hex("foo"));
+    assertThat(LineHashes.isEmpty(hashes, 2)).isTrue();
+    assertThat(LineHashes.toHex(hashes, 2)).isEmpty();
+    assertThat(LineHashes.toHex(hashes, 3)).isEqualTo(DigestUtils.md5Hex("bar"));
+  }
+
+  @Test
+  public void convert_from_hex() {
+    long[] hashes = LineHashes.fromHex(Arrays.asList(HASH1, "", HASH2, HASH1));
+
+    assertThat(LineHashes.lineCount(hashes)).isEqualTo(4);
+    assertThat(LineHashes.toHex(hashes, 1)).isEqualTo(HASH1);
+    assertThat(LineHashes.isEmpty(hashes, 2)).isTrue();
+    assertThat(LineHashes.toHex(hashes, 3)).isEqualTo(HASH2);
+    assertThat(LineHashes.equals(hashes, 1, hashes, 4)).isTrue();
+    assertThat(LineHashes.equals(hashes, 1, hashes, 3)).isFalse();
+    assertThat(LineHashes.hashCode(hashes, 1)).isEqualTo(LineHashes.hashCode(hashes, 4));
+    assertThat(LineHashes.hashCode(hashes, 2)).isEqualTo(0);
+  }
+
+  @Test
+  public void fail_to_convert_invalid_hex() {
+    try {
+      LineHashes.fromHex(Arrays.asList("ABC"));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessageContaining("ABC");
+    }
+  }
+
+  @Test
+  public void encode_and_decode() {
+    long[] hashes = LineHashes.fromHex(Arrays.asList(HASH1, "", HASH2));
+
+    assertThat(LineHashes.decode(LineHashes.encode(hashes, false))).isEqualTo(hashes);
+    assertThat(LineHashes.decode(LineHashes.encode(hashes, true))).isEqualTo(hashes);
+    assertThat(LineHashes.encode(hashes, false)[0]).isEqualTo(LineHashes.RAW);
+    assertThat(LineHashes.encode(hashes, true)[0]).isEqualTo(LineHashes.LZ4);
+    assertThat(LineHashes.encode(hashes, false)).hasSize(1 + 4 + 3 * LineHashes.HASH_LENGTH);
+  }
+
+  @Test
+  public void encode_and_decode_empty_file() {
+    long[] hashes = LineHashes.fromHex(Collections.<String>emptyList());
+
+    assertThat(LineHashes.decode(LineHashes.encode(hashes, true))).isEmpty();
+  }
+
+  @Test
+  public void write_to_stream() throws Exception {
+    long[] hashes = LineHashes.fromHex(Arrays.asList(HASH1, HASH2));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    LineHashes.write(hashes, true, output);
+
+    assertThat(output.toByteArray()).isEqualTo(LineHashes.encode(hashes, true));
+    assertThat(LineHashes.decode(new ByteArrayInputStream(output.toByteArray()))).isEqualTo(hashes);
+  }
+
+  @Test
+  public void fail_to_decode_unknown_format() {
+    try {
+      LineHashes.decode(new byte[] {42});
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Unsupported format of line hashes: 42");
+    }
+  }
+}
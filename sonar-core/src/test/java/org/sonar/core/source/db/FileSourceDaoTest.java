@@ -27,10 +27,11 @@ import org.junit.Before;
 import org.junit.Test;
 import org.sonar.core.persistence.AbstractDaoTestCase;
 import org.sonar.core.persistence.DbSession;
+import org.sonar.core.source.LineHashes;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Reader;
+import java.util.Arrays;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -76,23 +77,47 @@ public class FileSourceDaoTest extends AbstractDaoTestCase {
   }
 
   @Test
-  public void select_line_hashes() throws Exception {
+  public void select_line_hashes_from_text_column() throws Exception {
+    setupData("select_line_hashes");
+
+    long[] hashes = dao.selectLineHashes(session, "FILE1_UUID");
+
+    assertThat(LineHashes.lineCount(hashes)).isEqualTo(3);
+    assertThat(LineHashes.toHex(hashes, 1)).isEqualTo("8d7b3d6b83c0a517eac07e1aac94b773");
+    assertThat(LineHashes.isEmpty(hashes, 2)).isTrue();
+    assertThat(LineHashes.toHex(hashes, 3)).isEqualTo("9a0364b9e99bb480dd25e1f0284c8555");
+  }
+
+  @Test
+  public void select_line_hashes_from_binary_column() throws Exception {
     setupData("shared");
+    long[] hashes = LineHashes.fromHex(Arrays.asList("8d7b3d6b83c0a517eac07e1aac94b773", ""));
+    dao.insert(new FileSourceDto()
+      .setProjectUuid("PRJ_UUID")
+      .setFileUuid("FILE2_UUID")
+      .setBinaryData("FILE2_BINARY_DATA".getBytes())
+      .setDataHash("FILE2_DATA_HASH")
+      .setBinaryLineHashes(LineHashes.encode(hashes, true))
+      .setSrcHash("FILE2_HASH")
+      .setCreatedAt(1500000000000L)
+      .setUpdatedAt(1500000000001L));
+
+    assertThat(dao.selectLineHashes(session, "FILE2_UUID")).isEqualTo(hashes);
+    assertThat(dao.select("FILE2_UUID").getDecodedLineHashes()).isEqualTo(hashes);
+  }
 
-    ReaderToStringFunction fn = new ReaderToStringFunction();
-    dao.readLineHashesStream(session, "FILE1_UUID", fn);
+  @Test
+  public void no_line_hashes_on_file_without_hashes() throws Exception {
+    setupData("select_line_hashes");
 
-    assertThat(fn.result).isEqualTo("ABC\\nDEF\\nGHI");
+    assertThat(dao.selectLineHashes(session, "FILE2_UUID")).isNull();
   }
 
   @Test
   public void no_line_hashes_on_unknown_file() throws Exception {
     setupData("shared");
 
-    ReaderToStringFunction fn = new ReaderToStringFunction();
-    dao.readLineHashesStream(session, "unknown", fn);
-
-    assertThat(fn.result).isNull();
+    assertThat(dao.selectLineHashes(session, "unknown")).isNull();
   }
 
   @Test
@@ -138,21 +163,6 @@ public class FileSourceDaoTest extends AbstractDaoTestCase {
     checkTable("update_date_when_updated_date_is_zero", "file_sources", "project_uuid", "file_uuid", "data_hash", "line_hashes", "src_hash", "created_at", "updated_at");
   }
 
-  private static class ReaderToStringFunction implements Function<Reader, String> {
-
-    String result = null;
-
-    @Override
-    public String apply(Reader input) {
-      try {
-        result = IOUtils.toString(input);
-        return IOUtils.toString(input);
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-    }
-  }
-
   private static class InputStreamToStringFunction implements Function<InputStream, String> {
 
     String result = null;
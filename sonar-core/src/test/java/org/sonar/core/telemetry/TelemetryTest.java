@@ -0,0 +1,112 @@
+/*
+ * SonarQube, open source software quality management tool.
+ * Copyright (C) 2008-2014 SonarSource
+ * mailto:contact AT sonarsource DOT com
+ *
+ * SonarQube is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * SonarQube is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.core.telemetry;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TelemetryTest {
+
+  Telemetry telemetry = new Telemetry();
+
+  @Test
+  public void record_durations() throws Exception {
+    Timer timer = telemetry.timer("sonar_sql_seconds", "SQL");
+    timer.record(TimeUnit.MILLISECONDS.toNanos(3));
+    timer.record(TimeUnit.MILLISECONDS.toNanos(40));
+    timer.record(TimeUnit.SECONDS.toNanos(90));
+
+    assertThat(timer.count()).isEqualTo(3);
+    assertThat(timer.totalNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(90043));
+    assertThat(timer.maxNanos()).isEqualTo(TimeUnit.SECONDS.toNanos(90));
+    long[] buckets = timer.cumulativeBuckets();
+    assertThat(buckets).hasSize(Timer.BUCKETS.length + 1);
+    // <= 5ms
+    assertThat(buckets[0]).isEqualTo(1);
+    // <= 25ms
+    assertThat(buckets[2]).isEqualTo(1);
+    // <= 50ms
+    assertThat(buckets[3]).isEqualTo(2);
+    // <= 60s
+    assertThat(buckets[Timer.BUCKETS.length - 1]).isEqualTo(2);
+    // +Inf
+    assertThat(buckets[Timer.BUCKETS.length]).isEqualTo(3);
+  }
+
+  @Test
+  public void approximate_percentiles() throws Exception {
+    Timer timer = new Timer("sonar_sql_seconds");
+    assertThat(timer.percentileNanos(50.0)).isEqualTo(0L);
+
+    for (int i = 0; i < 90; i++) {
+      timer.record(TimeUnit.MILLISECONDS.toNanos(3));
+    }
+    for (int i = 0; i < 10; i++) {
+      timer.record(TimeUnit.MILLISECONDS.toNanos(70));
+    }
+
+    assertThat(timer.percentileNanos(50.0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+    assertThat(timer.percentileNanos(90.0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+    assertThat(timer.percentileNanos(95.0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(70));
+    assertThat(telemetry.timers()).isEmpty();
+  }
+
+  @Test
+  public void get_same_series() throws Exception {
+    Timer timer = telemetry.timer("sonar_ws_seconds", "WS", "action", "api/issues/search");
+    assertThat(telemetry.timer("sonar_ws_seconds", "WS", "action", "api/issues/search")).isSameAs(timer);
+    assertThat(telemetry.timer("sonar_ws_seconds", "WS", "action", "api/rules/search")).isNotSameAs(timer);
+
+    Counter counter = telemetry.counter("sonar_errors_total", "Errors");
+    counter.increment();
+    telemetry.counter("sonar_errors_total", "Errors").add(2);
+    assertThat(counter.value()).isEqualTo(3);
+  }
+
+  @Test
+  public void sort_series_by_name_and_labels() throws Exception {
+    telemetry.timer("b", "");
+    telemetry.timer("a", "", "action", "z");
+    telemetry.timer("a", "", "action", "y");
+
+    assertThat(telemetry.timers()).extracting("labels").containsExactly("action=\"y\"", "action=\"z\"", "");
+    assertThat(telemetry.counters()).isEmpty();
+  }
+
+  @Test
+  public void escape_label_values() throws Exception {
+    assertThat(Series.formatLabel("sql", "select \"a\\b\"\nfrom c")).isEqualTo("sql=\"select \\\"a\\\\b\\\"\\nfrom c\"");
+  }
+
+  @Test
+  public void do_not_register_more_than_max_series() throws Exception {
+    for (int i = 0; i < Telemetry.MAX_SERIES; i++) {
+      telemetry.counter("sonar_counter", "", "index", String.valueOf(i));
+    }
+    Counter counter = telemetry.counter("sonar_counter", "", "index", "overflow");
+    counter.increment();
+
+    assertThat(counter.value()).isEqualTo(1);
+    assertThat(telemetry.counters()).hasSize(Telemetry.MAX_SERIES).doesNotContain(counter);
+  }
+}
@@ -23,11 +23,13 @@ import com.google.common.collect.Sets;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.sonar.core.component.ComponentDto;
 import org.sonar.core.persistence.AbstractDaoTestCase;
 import org.sonar.core.persistence.DbSession;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -220,6 +222,34 @@ public class AuthorizationDaoTest extends AbstractDaoTestCase {
     assertThat(rootProjectIds).isEmpty();
   }
 
+  @Test
+  public void should_return_root_project_keys_and_uuids_for_user() {
+    setupData("should_return_root_project_keys_for_user");
+
+    List<ComponentDto> rootProjects = authorization.selectAuthorizedRootProjects(USER, "user");
+
+    assertThat(rootProjects).hasSize(1);
+    assertThat(rootProjects.get(0).key()).isEqualTo(PROJECT);
+    assertThat(rootProjects.get(0).uuid()).isEqualTo("ABCD");
+
+    // user does not have the role "admin"
+    assertThat(authorization.selectAuthorizedRootProjects(USER, "admin")).isEmpty();
+  }
+
+  @Test
+  public void should_return_root_project_keys_and_uuids_for_anonymous() {
+    setupData("should_return_root_project_keys_for_anonymous");
+
+    List<ComponentDto> rootProjects = authorization.selectAuthorizedRootProjects(null, "user");
+
+    assertThat(rootProjects).hasSize(1);
+    assertThat(rootProjects.get(0).key()).isEqualTo(PROJECT);
+    assertThat(rootProjects.get(0).uuid()).isEqualTo("ABCD");
+
+    // group does not have the role "admin"
+    assertThat(authorization.selectAuthorizedRootProjects(null, "admin")).isEmpty();
+  }
+
   @Test
   public void should_return_root_project_uuids_for_user() {
     setupData("should_return_root_project_keys_for_user");
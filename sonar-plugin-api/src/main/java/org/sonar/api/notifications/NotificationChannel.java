@@ -19,7 +19,12 @@
  */
 package org.sonar.api.notifications;
 
+import com.google.common.collect.ListMultimap;
 import org.sonar.api.ServerExtension;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+import java.util.Map;
 
 /**
  * <p>
@@ -36,6 +41,8 @@ import org.sonar.api.ServerExtension;
  */
 public abstract class NotificationChannel implements ServerExtension {
 
+  private static final Logger LOG = Loggers.get(NotificationChannel.class);
+
   /**
    * Returns the unique key of this channel. 
    * 
@@ -53,6 +60,37 @@ public abstract class NotificationChannel implements ServerExtension {
    */
   public abstract void deliver(Notification notification, String userlogin);
 
+  /**
+   * Implements the delivery of several notifications at once. Channels that can share resources between
+   * deliveries, for example a single connection to a remote server, should override this method.
+   * <p/>
+   * The default implementation calls {@link #deliver(Notification, String)} for each notification. A failure
+   * to deliver one notification does not prevent the others from being delivered.
+   *
+   * @param notificationsByUserLogin the notifications to deliver, grouped by login of the user who should receive them
+   * @since 5.2
+   */
+  public void deliverAll(ListMultimap<String, Notification> notificationsByUserLogin) {
+    for (Map.Entry<String, Notification> entry : notificationsByUserLogin.entries()) {
+      try {
+        deliver(entry.getValue(), entry.getKey());
+      } catch (Exception e) {
+        // catch all exceptions in order to deliver the other notifications
+        LOG.warn("Unable to deliver notification " + entry.getValue() + " for user " + entry.getKey() + " via " + this, e);
+      }
+    }
+  }
+
+  /**
+   * Maximum number of deliveries that can be executed concurrently by this channel. Default value is 1, which
+   * means that {@link #deliverAll(ListMultimap)} is never called by several threads at the same time.
+   *
+   * @since 5.2
+   */
+  public int getMaxConcurrentDeliveries() {
+    return 1;
+  }
+
   @Override
   public String toString() {
     return getKey();
@@ -21,7 +21,12 @@ package org.sonar.api.notifications;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import org.junit.Test;
 
 public class NotificationChannelTest {
@@ -31,6 +36,25 @@ public class NotificationChannelTest {
     NotificationChannel channel = new FakeNotificationChannel();
     assertThat(channel.getKey(), is("FakeNotificationChannel"));
     assertThat(channel.toString(), is("FakeNotificationChannel"));
+    assertThat(channel.getMaxConcurrentDeliveries(), is(1));
+  }
+
+  @Test
+  public void deliverAll_delivers_each_notification() {
+    NotificationChannel channel = spy(new FakeNotificationChannel());
+    Notification first = new Notification("first");
+    Notification second = new Notification("second");
+    doThrow(new IllegalStateException("Fail to deliver")).when(channel).deliver(first, "simon");
+
+    ListMultimap<String, Notification> notifications = ArrayListMultimap.create();
+    notifications.put("simon", first);
+    notifications.put("simon", second);
+    notifications.put("evgeny", first);
+    channel.deliverAll(notifications);
+
+    verify(channel).deliver(first, "simon");
+    verify(channel).deliver(second, "simon");
+    verify(channel).deliver(first, "evgeny");
   }
 
   class FakeNotificationChannel extends NotificationChannel {